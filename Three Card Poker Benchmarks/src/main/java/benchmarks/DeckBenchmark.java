@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Dealing: Deck construction, shuffle and dealHand, and the reusable PackedDeck.
+ *
+ * A Deck can only be dealt once, so the Deck benchmarks build and shuffle a fresh deck
+ * per round; subtract shuffledDeck from dealRound to get the cost of the two dealHand
+ * calls. packedDeckRound is the per-round dealing cost in ClientHandler: reset the
+ * handler's PackedDeck and deal two packed hands.
+ *
+ * There is no shuffle-only benchmark: Deck.shuffle only marks the undealt cards to be dealt
+ * at random, and the random draws are paid as cards are dealt, so shuffling is measured
+ * together with dealing in dealRound and packedDeckRound.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class DeckBenchmark {
+
+    private Object packedDeck; // Long-lived PackedDeck, reset every round
+
+    @Setup
+    public void setUp() throws Throwable {
+        packedDeck = (Object) Server.NEW_PACKED_DECK.invokeExact();
+    }
+
+    @Benchmark
+    public Object newDeck() throws Throwable {
+        return (Object) Server.NEW_DECK.invokeExact();
+    }
+
+    @Benchmark
+    public Object shuffledDeck() throws Throwable {
+        Object d = (Object) Server.NEW_DECK.invokeExact();
+        Server.SHUFFLE.invokeExact(d);
+        return d;
+    }
+
+    @Benchmark
+    public void dealRound(Blackhole bh) throws Throwable {
+        Object d = (Object) Server.NEW_DECK.invokeExact();
+        Server.SHUFFLE.invokeExact(d);
+        bh.consume((Object) Server.DEAL_HAND.invokeExact(d)); // Player
+        bh.consume((Object) Server.DEAL_HAND.invokeExact(d)); // Dealer
+    }
+
+    @Benchmark
+    public void dealRoundPacked(Blackhole bh) throws Throwable {
+        Object d = (Object) Server.NEW_DECK.invokeExact();
+        Server.SHUFFLE.invokeExact(d);
+        bh.consume((int) Server.DEAL_PACKED_HAND.invokeExact(d));
+        bh.consume((int) Server.DEAL_PACKED_HAND.invokeExact(d));
+    }
+
+    @Benchmark
+    public void packedDeckRound(Blackhole bh) throws Throwable {
+        Server.RESET.invokeExact(packedDeck);
+        bh.consume((int) Server.PACKED_DECK_DEAL_HAND.invokeExact(packedDeck)); // Player
+        bh.consume((int) Server.PACKED_DECK_DEAL_HAND.invokeExact(packedDeck)); // Dealer
+    }
+}
@@ -0,0 +1,103 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hand evaluation: ThreeCardLogic.evalHand, compareHands, dealerQualifies and
+ * evalPPWinnings on the ArrayList<Card> hands the server settles, plus the packed
+ * overloads for comparison.
+ *
+ * Each invocation takes the next of 1,024 pre-dealt rounds, so the branch predictor
+ * sees a realistic mix of hands rather than one hand over and over.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class EvaluationBenchmark {
+
+    private static final int ROUNDS = 1024; // Power of two so the index wraps with a mask
+
+    private Object[] playerHands;   // ArrayList<Card> per round
+    private Object[] dealerHands;   // ArrayList<Card> per round
+    private int[] packedPlayer;     // Packed player hand per round
+    private int[] packedDealer;     // Packed dealer hand per round
+    private int next;               // Round used by the next invocation
+
+    @Setup
+    public void setUp() throws Throwable {
+        playerHands = new Object[ROUNDS];
+        dealerHands = new Object[ROUNDS];
+        packedPlayer = new int[ROUNDS];
+        packedDealer = new int[ROUNDS];
+        SplittableRandom rng = new SplittableRandom(342);
+        int[] deck = new int[52];
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int i = 0; i < deck.length; i++) {
+                deck[i] = i;
+            }
+            for (int i = 0; i < 6; i++) { // Partial Fisher-Yates: only six cards are dealt
+                int j = i + rng.nextInt(deck.length - i);
+                int t = deck[i];
+                deck[i] = deck[j];
+                deck[j] = t;
+            }
+            packedPlayer[r] = deck[0] | deck[1] << 6 | deck[2] << 12;
+            packedDealer[r] = deck[3] | deck[4] << 6 | deck[5] << 12;
+            playerHands[r] = (Object) Server.TO_LIST.invokeExact(packedPlayer[r]);
+            dealerHands[r] = (Object) Server.TO_LIST.invokeExact(packedDealer[r]);
+        }
+    }
+
+    // Advances to the next pre-dealt round
+    private int round() {
+        return next = (next + 1) & (ROUNDS - 1);
+    }
+
+    @Benchmark
+    public int evalHand() throws Throwable {
+        return (int) Server.EVAL_HAND.invokeExact(playerHands[round()]);
+    }
+
+    @Benchmark
+    public int compareHands() throws Throwable {
+        int r = round();
+        return (int) Server.COMPARE_HANDS.invokeExact(dealerHands[r], playerHands[r]);
+    }
+
+    @Benchmark
+    public boolean dealerQualifies() throws Throwable {
+        return (boolean) Server.DEALER_QUALIFIES.invokeExact(dealerHands[round()]);
+    }
+
+    @Benchmark
+    public int evalPPWinnings() throws Throwable {
+        return (int) Server.EVAL_PP_WINNINGS.invokeExact(playerHands[round()], 5);
+    }
+
+    @Benchmark
+    public int evalHandPacked() throws Throwable {
+        return (int) Server.EVAL_HAND_PACKED.invokeExact(packedPlayer[round()]);
+    }
+
+    @Benchmark
+    public int compareHandsPacked() throws Throwable {
+        int r = round();
+        return (int) Server.COMPARE_HANDS_PACKED.invokeExact(packedDealer[r], packedPlayer[r]);
+    }
+}
@@ -0,0 +1,171 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Ledger: durable settlements per second against the number of tables settling at
+ * once, each table posting a settlement and waiting for its commit as GameSession does,
+ * and the time to recover a ledger by replaying its log.
+ *
+ * With one table every settlement pays a whole fsync; with many, the writer commits
+ * everything posted during the previous fsync together, so throughput grows with the
+ * tables until the disk's write bandwidth, not its sync latency, is the limit. The
+ * fsyncs counter is per second like the score, so score / fsyncs is the settlements
+ * per fsync. Each table is a thread of a pool kept for the whole trial.
+ *
+ * The ledger lives in a temporary directory on the default file system, so the numbers
+ * are those of the disk holding java.io.tmpdir.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class LedgerBenchmark {
+
+    private static final int SETTLEMENTS = 1024;  // Settlements per invocation, shared between the tables
+    private static final int RECORDS = 500_000;   // Log records replayed by recover
+    private static final int ACCOUNTS = 10_000;   // Accounts they change
+
+    /**
+     * An open ledger and the tables settling on it.
+     */
+    @State(Scope.Benchmark)
+    public static class Tables {
+        @Param({"1", "4", "16", "64", "256"})
+        public int tables;
+
+        Path dir;                    // Temporary ledger directory
+        Object ledger;               // Ledger, never compacted
+        ExecutorService pool;        // A thread per table
+        List<Callable<Void>> rounds; // Each table's share of an invocation
+
+        @Setup
+        public void setUp() throws Throwable {
+            dir = Files.createTempDirectory("ledger");
+            ledger = (Object) Server.NEW_LEDGER.invokeExact((Object) dir, Long.MAX_VALUE);
+            pool = Executors.newFixedThreadPool(tables);
+            rounds = new ArrayList<>();
+            for (int t = 0; t < tables; t++) {
+                long account = t;
+                int share = SETTLEMENTS / tables + (t < SETTLEMENTS % tables ? 1 : 0);
+                rounds.add(() -> {
+                    try {
+                        settle(ledger, account, share);
+                    } catch (Throwable e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return null;
+                });
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws Throwable {
+            pool.shutdownNow();
+            Server.LEDGER_CLOSE.invokeExact(ledger);
+            delete(dir);
+        }
+    }
+
+    /**
+     * The fsyncs the settlements took, reported next to the score.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Commits {
+        public long fsyncs;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            fsyncs = 0;
+        }
+    }
+
+    /**
+     * A closed ledger whose log holds RECORDS records and no snapshot.
+     */
+    @State(Scope.Benchmark)
+    public static class Log {
+        Path dir; // Temporary ledger directory
+
+        @Setup
+        public void setUp() throws Throwable {
+            dir = Files.createTempDirectory("ledger");
+            Object ledger = (Object) Server.NEW_LEDGER.invokeExact((Object) dir, Long.MAX_VALUE);
+            long seq = 0;
+            for (int i = 0; i < RECORDS; i++) {
+                seq = (long) Server.LEDGER_POST.invokeExact(ledger, (long) (i % ACCOUNTS), i % 2 == 0 ? 15L : -10L);
+            }
+            Server.LEDGER_AWAIT_COMMITTED.invokeExact(ledger, seq);
+            Server.LEDGER_CLOSE.invokeExact(ledger);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            delete(dir);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SETTLEMENTS)
+    public void settle(Tables tables, Commits commits) throws Throwable {
+        long before = (long) Server.LEDGER_COMMITS.invokeExact(tables.ledger);
+        for (Future<Void> round : tables.pool.invokeAll(tables.rounds)) {
+            round.get();
+        }
+        commits.fsyncs += (long) Server.LEDGER_COMMITS.invokeExact(tables.ledger) - before;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void recover(Log log) throws Throwable {
+        Object ledger = (Object) Server.NEW_LEDGER.invokeExact((Object) log.dir, Long.MAX_VALUE);
+        Server.LEDGER_CLOSE.invokeExact(ledger); // Nothing posted, so the log is left as it was
+    }
+
+    // Posts settlements to one account, waiting for each to commit as a table does
+    private static void settle(Object ledger, long account, int settlements) throws Throwable {
+        for (int i = 0; i < settlements; i++) {
+            long seq = (long) Server.LEDGER_POST.invokeExact(ledger, account, i % 2 == 0 ? 15L : -10L);
+            Server.LEDGER_AWAIT_COMMITTED.invokeExact(ledger, seq);
+        }
+    }
+
+    // Deletes a directory and the files in it
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
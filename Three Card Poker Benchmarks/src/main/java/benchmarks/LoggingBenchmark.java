@@ -0,0 +1,165 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Log lines per second against the number of client threads logging at once, for
+ * GameManager's queued, batched log against the synchronized log it replaced.
+ *
+ * The synchronized log formats a timestamp and writes and flushes each line while holding
+ * the lock, as println to the console did, so every thread waits for every other thread's
+ * write. The queued log only adds each line to a lock-free queue; its consumer formats the
+ * lines and writes all it took at once. Both write to a temporary file, and an invocation
+ * ends once every line it logged is written. The writes counter is per second like the
+ * score, so score / writes is the lines per write. The UI, which the old log updated once
+ * per line and the queued log at most 20 times a second, is not part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class LoggingBenchmark {
+
+    private static final int LINES = 4096; // Lines per invocation, shared between the threads
+
+    @Param({"1", "4", "16", "64"})
+    public int threads;
+
+    @Param({"synchronized", "queued"})
+    public String log;
+
+    private Path file;             // Temporary log file
+    private Writer out;            // The synchronized log's writer
+    private SynchronizedLog old;   // Set for the synchronized log
+    private Object gm;             // GameManager, set for the queued log
+    private ExecutorService pool;  // A thread per client
+    private List<Callable<Void>> clients; // Each thread's share of an invocation
+
+    /**
+     * The writes the lines took, reported next to the score.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Writes {
+        public long writes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            writes = 0;
+        }
+    }
+
+    // The log before the queue: format and write under one lock, a flush per line
+    private static final class SynchronizedLog {
+        private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        private final Writer out;
+
+        SynchronizedLog(Writer out) {
+            this.out = out;
+        }
+
+        synchronized void logResult(String resultInfo) {
+            String timeStamp = LocalDateTime.now().format(formatter);
+            try {
+                out.write("[" + timeStamp + "] " + resultInfo + System.lineSeparator());
+                out.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() throws Throwable {
+        file = Files.createTempFile("poker", ".log");
+        if (log.equals("synchronized")) {
+            out = Files.newBufferedWriter(file);
+            old = new SynchronizedLog(out);
+        } else {
+            System.setProperty("poker.log.file", file.toString());
+            gm = (Object) Server.NEW_GAME_MANAGER.invokeExact((Object) null);
+        }
+        pool = Executors.newFixedThreadPool(threads);
+        clients = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int share = LINES / threads + (t < LINES % threads ? 1 : 0);
+            String client = "Client /127.0.0.1:" + (50_000 + t);
+            clients.add(() -> {
+                try {
+                    log(client, share);
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+                return null;
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        pool.shutdownNow();
+        if (out != null) {
+            out.close();
+            Files.delete(file);
+        } else {
+            file.toFile().deleteOnExit(); // GameManager keeps its writer open
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void logLines(Writes writes) throws Throwable {
+        long before = gm == null ? 0 : (long) Server.WRITES.invokeExact(gm);
+        for (Future<Void> client : pool.invokeAll(clients)) {
+            client.get();
+        }
+        if (gm == null) {
+            writes.writes += LINES; // A write per line
+        } else {
+            Server.FLUSH.invokeExact(gm);
+            writes.writes += (long) Server.WRITES.invokeExact(gm) - before;
+        }
+    }
+
+    // Logs a client's rounds
+    private void log(String client, int lines) throws Throwable {
+        for (int i = 0; i < lines; i++) {
+            String line = client + ": Player wins against dealer. Bets: Ante=$10, Play=$10, PP=$5 (round " + i + ")";
+            if (old != null) {
+                old.logResult(line);
+            } else {
+                Server.LOG_RESULT.invokeExact(gm, (Object) line);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PokerInfo serialization: the RESULT message the server sends at the end of every
+ * round, carrying both hands, written and read back with Java serialization.
+ *
+ * Each invocation uses new object streams, so class descriptors are written every time;
+ * this is the per-message cost on a fresh connection and an upper bound for a long-lived one.
+ * The binary benchmarks encode and decode the same message with PokerCodec.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class SerializationBenchmark {
+
+    private Object message; // PokerInfo RESULT message
+    private byte[] bytes;   // Serialized form of message
+    private ByteBuffer frame; // Binary frame of message
+
+    @Setup
+    public void setUp() throws Throwable {
+        message = (Object) Server.NEW_POKER_INFO.invokeExact();
+        Server.SET_MESSAGE_TYPE.invokeExact(message, Server.messageType("RESULT"));
+        Server.SET_ANTE_BET.invokeExact(message, 5);
+        Server.SET_PAIR_PLUS_BET.invokeExact(message, 5);
+        Server.SET_PLAY_BET.invokeExact(message, 5);
+        // Player: A-K-Q offsuit, dealer: pair of nines
+        Server.SET_PLAYER_HAND.invokeExact(message, (Object) Server.TO_LIST.invokeExact(12 | 24 << 6 | 36 << 12));
+        Server.SET_DEALER_HAND.invokeExact(message, (Object) Server.TO_LIST.invokeExact(7 | 20 << 6 | 2 << 12));
+        Server.SET_GAME_RESULT.invokeExact(message, -1);
+        Server.SET_INFO_MESSAGE.invokeExact(message, (Object) "Dealer wins with a pair");
+        bytes = write(message);
+        frame = (ByteBuffer) (Object) Server.ENCODE.invokeExact(message);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return write(message);
+    }
+
+    @Benchmark
+    public Object read() throws IOException, ClassNotFoundException {
+        return read(bytes);
+    }
+
+    @Benchmark
+    public Object roundTrip() throws IOException, ClassNotFoundException {
+        return read(write(message));
+    }
+
+    @Benchmark
+    public Object binaryWrite() throws Throwable {
+        return (Object) Server.ENCODE.invokeExact(message);
+    }
+
+    @Benchmark
+    public Object binaryRead() throws Throwable {
+        frame.position(2); // Past the length prefix
+        return (Object) Server.DECODE.invokeExact((Object) frame, frame.limit() - 2);
+    }
+
+    @Benchmark
+    public Object binaryRoundTrip() throws Throwable {
+        ByteBuffer encoded = (ByteBuffer) (Object) Server.ENCODE.invokeExact(message);
+        encoded.position(2);
+        return (Object) Server.DECODE.invokeExact((Object) encoded, encoded.limit() - 2);
+    }
+
+    private static byte[] write(Object o) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(o);
+        }
+        return out.toByteArray();
+    }
+
+    private static Object read(byte[] b) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(b))) {
+            return ois.readObject();
+        }
+    }
+}
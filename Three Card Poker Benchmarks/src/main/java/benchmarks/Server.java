@@ -0,0 +1,166 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry points into the server's game classes.
+ *
+ * The server classes live in the unnamed package, which code in a named package cannot
+ * import, and JMH refuses benchmarks in the unnamed package. The server methods are
+ * therefore bound once as static final method handles: the JIT treats these as constants
+ * and inlines through them, so a call costs the same as a direct call.
+ *
+ * Every handle is erased (reference types become Object), so benchmarks call them
+ * with invokeExact, passing references as Object and casting the result.
+ */
+final class Server {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    // ThreeCardLogic, list API
+    static final MethodHandle EVAL_HAND = logic("evalHand", int.class, ArrayList.class);
+    static final MethodHandle EVAL_PP_WINNINGS = logic("evalPPWinnings", int.class, ArrayList.class, int.class);
+    static final MethodHandle COMPARE_HANDS = logic("compareHands", int.class, ArrayList.class, ArrayList.class);
+    static final MethodHandle DEALER_QUALIFIES = logic("dealerQualifies", boolean.class, ArrayList.class);
+
+    // ThreeCardLogic, packed API
+    static final MethodHandle EVAL_HAND_PACKED = logic("evalHand", int.class, int.class);
+    static final MethodHandle COMPARE_HANDS_PACKED = logic("compareHands", int.class, int.class, int.class);
+
+    // PackedHand.toList(int) -> ArrayList<Card>
+    static final MethodHandle TO_LIST = findStatic("PackedHand", "toList", ArrayList.class, int.class);
+
+    // Deck
+    static final MethodHandle NEW_DECK = constructor("Deck");
+    static final MethodHandle SHUFFLE = virtual("Deck", "shuffle", void.class);
+    static final MethodHandle DEAL_HAND = virtual("Deck", "dealHand", List.class);
+    static final MethodHandle DEAL_PACKED_HAND = virtual("Deck", "dealPackedHand", int.class);
+
+    // PackedDeck
+    static final MethodHandle NEW_PACKED_DECK = constructor("PackedDeck");
+    static final MethodHandle RESET = virtual("PackedDeck", "reset", void.class);
+    static final MethodHandle PACKED_DECK_DEAL_HAND = virtual("PackedDeck", "dealPackedHand", int.class);
+
+    // PokerInfo
+    static final MethodHandle NEW_POKER_INFO = constructor("PokerInfo");
+    static final MethodHandle SET_MESSAGE_TYPE = virtual("PokerInfo", "setMessageType", void.class, "PokerInfo$MessageType");
+    static final MethodHandle SET_ANTE_BET = virtual("PokerInfo", "setAnteBet", void.class, int.class);
+    static final MethodHandle SET_PAIR_PLUS_BET = virtual("PokerInfo", "setPairPlusBet", void.class, int.class);
+    static final MethodHandle SET_PLAY_BET = virtual("PokerInfo", "setPlayBet", void.class, int.class);
+    static final MethodHandle SET_PLAYER_HAND = virtual("PokerInfo", "setPlayerHand", void.class, ArrayList.class);
+    static final MethodHandle SET_DEALER_HAND = virtual("PokerInfo", "setDealerHand", void.class, ArrayList.class);
+    static final MethodHandle SET_GAME_RESULT = virtual("PokerInfo", "setGameResult", void.class, int.class);
+    static final MethodHandle SET_INFO_MESSAGE = virtual("PokerInfo", "setInfoMessage", void.class, String.class);
+
+    // PokerCodec
+    static final MethodHandle ENCODE = findStatic("PokerCodec", "encode", ByteBuffer.class, type("PokerInfo"));
+    static final MethodHandle DECODE = findStatic("PokerCodec", "decode", type("PokerInfo"), ByteBuffer.class, int.class);
+
+    // Ledger
+    static final MethodHandle NEW_LEDGER = constructor("Ledger", Path.class, long.class);
+    static final MethodHandle LEDGER_POST = virtual("Ledger", "post", long.class, long.class, long.class);
+    static final MethodHandle LEDGER_AWAIT_COMMITTED = virtual("Ledger", "awaitCommitted", void.class, long.class);
+    static final MethodHandle LEDGER_COMMITS = virtual("Ledger", "getCommits", long.class);
+    static final MethodHandle LEDGER_CLOSE = virtual("Ledger", "close", void.class);
+
+    // Sessions and the state snapshot
+    static final MethodHandle NEW_GAME_MANAGER = constructor("GameManager", "javafx.collections.ObservableList");
+    static final MethodHandle NEW_SESSION_STORE = constructor("SessionStore", int.class, long.class);
+    static final MethodHandle NEW_GAME_SESSION = constructor("GameSession", "GameManager", String.class, "Paytables",
+            "ShuffleSource");
+    static final MethodHandle SEEDED = findStatic("ShuffleSource", "seeded", type("ShuffleSource"), long.class);
+    static final MethodHandle CONNECT = virtual("SessionStore", "connect", type("GameSession"), "PokerInfo",
+            "GameSession", Object.class);
+    static final MethodHandle HANDLE = virtual("GameSession", "handle", type("PokerInfo"), "PokerInfo");
+    static final MethodHandle SET_SPOTS = virtual("PokerInfo", "setSpots", void.class, ArrayList.class);
+    static final MethodHandle SNAPSHOT_WRITE = findStatic("StateSnapshot", "write", long.class, Path.class,
+            type("SessionStore"), type("ShuffleSource"));
+    static final MethodHandle SNAPSHOT_RESTORE = findStatic("StateSnapshot", "restore", int.class, Path.class,
+            type("SessionStore"), type("GameManager"), type("Paytables"), type("ShuffleSource"), type("Ledger"));
+
+    // GameManager log
+    static final MethodHandle LOG_RESULT = virtual("GameManager", "logResult", void.class, String.class);
+    static final MethodHandle FLUSH = virtual("GameManager", "flush", void.class);
+    static final MethodHandle WRITES = virtual("GameManager", "getWrites", long.class);
+
+    private Server() {
+    }
+
+    /**
+     * Returns a constant of PokerInfo.MessageType by name.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object messageType(String name) {
+        return Enum.valueOf((Class) type("PokerInfo$MessageType"), name);
+    }
+
+    /**
+     * Returns a public static field of a server class, such as Paytables.DEFAULT.
+     */
+    static Object constant(String owner, String name) {
+        try {
+            return type(owner).getField(name).get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(owner + "." + name + " not found", e);
+        }
+    }
+
+    // Loads a server class by binary name
+    static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Server class " + name + " is not on the classpath", e);
+        }
+    }
+
+    // ThreeCardLogic static method
+    private static MethodHandle logic(String name, Class<?> returnType, Class<?>... params) {
+        return findStatic("ThreeCardLogic", name, returnType, params);
+    }
+
+    private static MethodHandle findStatic(String owner, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            MethodHandle handle = LOOKUP.findStatic(type(owner), name, MethodType.methodType(returnType, params));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(owner + "." + name + " not found", e);
+        }
+    }
+
+    // Instance method; a String parameter is the name of a server class
+    private static MethodHandle virtual(String owner, String name, Class<?> returnType, Object... params) {
+        try {
+            MethodHandle handle = LOOKUP.findVirtual(type(owner), name,
+                    MethodType.methodType(returnType, types(params)));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(owner + "." + name + " not found", e);
+        }
+    }
+
+    // Constructor; a String parameter is the name of a server class
+    private static MethodHandle constructor(String owner, Object... params) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(type(owner), MethodType.methodType(void.class, types(params)));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(owner + " constructor not found", e);
+        }
+    }
+
+    // Parameter types, loading each given by name as a server class
+    private static Class<?>[] types(Object... params) {
+        Class<?>[] types = new Class<?>[params.length];
+        for (int i = 0; i < params.length; i++) {
+            types[i] = params[i] instanceof String ? type((String) params[i]) : (Class<?>) params[i];
+        }
+        return types;
+    }
+}
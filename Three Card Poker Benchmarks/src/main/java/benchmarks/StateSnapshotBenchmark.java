@@ -0,0 +1,115 @@
+package benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The state snapshot of a warm restart: the time to write it and to restore it against
+ * the number of sessions held.
+ *
+ * A third of the sessions have a round dealt and waiting for its decision, a third one
+ * with five spots, and the rest have settled their last round, so the snapshot holds a
+ * RESULT for them. That mix takes 76 bytes per session. Each restore fills a new store,
+ * as a restart does. The rounds dealt in setup are logged to a temporary file, not the
+ * console.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class StateSnapshotBenchmark {
+
+    @Param({"10000", "100000", "300000"})
+    public int sessions;
+
+    private Path log;          // Log file of the rounds dealt in setup
+    private Path file;         // Snapshot file
+    private Object gm;         // GameManager, logging to log
+    private Object paytables;  // Paytables.DEFAULT
+    private Object source;     // Seeded ShuffleSource the sessions deal from
+    private Object store;      // SessionStore holding the sessions
+
+    @Setup
+    public void setUp() throws Throwable {
+        log = Files.createTempFile("poker", ".log");
+        System.setProperty("poker.log.file", log.toString());
+        gm = (Object) Server.NEW_GAME_MANAGER.invokeExact((Object) null);
+        paytables = Server.constant("Paytables", "DEFAULT");
+        source = (Object) Server.SEEDED.invokeExact(1L);
+        store = (Object) Server.NEW_SESSION_STORE.invokeExact(sessions, 3_600_000L);
+        for (int i = 0; i < sessions; i++) {
+            Object session = (Object) Server.NEW_GAME_SESSION.invokeExact(gm,
+                    (Object) ("/10.0.0." + (i % 250) + ":" + (40_000 + i % 20_000)), paytables, source);
+            Object connect = (Object) Server.NEW_POKER_INFO.invokeExact();
+            Object stored = (Object) Server.CONNECT.invokeExact(store, connect, session, new Object());
+            play(session, i % 3);
+        }
+        file = Files.createTempFile("state", ".snapshot");
+        write(); // So restore has a snapshot to read
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.delete(file);
+        Files.delete(log);
+    }
+
+    @Benchmark
+    public long write() throws Throwable {
+        return (long) Server.SNAPSHOT_WRITE.invokeExact((Object) file, store, source);
+    }
+
+    @Benchmark
+    public Object restore() throws Throwable {
+        Object restored = (Object) Server.NEW_SESSION_STORE.invokeExact(sessions, 3_600_000L);
+        int count = (int) Server.SNAPSHOT_RESTORE.invokeExact((Object) file, restored, gm, paytables,
+                (Object) Server.SEEDED.invokeExact(1L), (Object) null);
+        if (count != sessions) {
+            throw new AssertionError("restored " + count + " of " + sessions + " sessions");
+        }
+        return restored;
+    }
+
+    // Leaves the session with a single-spot round in flight (0), a five-spot round (1) or a settled round (2)
+    private static void play(Object session, int kind) throws Throwable {
+        Object bets = (Object) Server.NEW_POKER_INFO.invokeExact();
+        Server.SET_MESSAGE_TYPE.invokeExact(bets, Server.messageType("BETS"));
+        if (kind == 1) {
+            ArrayList<Object> spots = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Object spot = (Object) Server.NEW_POKER_INFO.invokeExact();
+                Server.SET_ANTE_BET.invokeExact(spot, 10);
+                Server.SET_PAIR_PLUS_BET.invokeExact(spot, 5);
+                spots.add(spot);
+            }
+            Server.SET_SPOTS.invokeExact(bets, (Object) spots);
+        } else {
+            Server.SET_ANTE_BET.invokeExact(bets, 10);
+            Server.SET_PAIR_PLUS_BET.invokeExact(bets, 5);
+        }
+        Object deal = (Object) Server.HANDLE.invokeExact(session, bets);
+        if (kind == 2) {
+            Object decision = (Object) Server.NEW_POKER_INFO.invokeExact();
+            Server.SET_MESSAGE_TYPE.invokeExact(decision, Server.messageType("PLAY"));
+            Server.SET_PLAY_BET.invokeExact(decision, 10);
+            Object result = (Object) Server.HANDLE.invokeExact(session, decision);
+        }
+    }
+}
@@ -1,21 +1,47 @@
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 
 /**
  * Represents a playing card with a rank and suit.
+ * Cards are flyweights: Card.of and deserialization both return one of 52 shared instances.
  */
-public class Card implements Serializable {
+public final class Card implements Serializable {
     private static final long serialVersionUID = 1L; // Serialization ID for object persistence
-    private int rank; // Rank of the card (2-14, where 11=J, 12=Q, 13=K, 14=A)
-    private int suit; // Suit of the card (1=Clubs, 2=Diamonds, 3=Hearts, 4=Spades)
+    private static final String[] RANK_NAMES = {"2","3","4","5","6","7","8","9","10","J","Q","K","A"}; // Mapping of rank values to names
+    private static final String[] SUIT_NAMES = {"Clubs","Diamonds","Hearts","Spades"}; // Mapping of suit values to names
+    private static final Card[] CARDS = new Card[52]; // Shared cards indexed by (suit-1)*13 + (rank-2)
+
+    static {
+        for (int s = 1; s <= 4; s++) {
+            for (int r = 2; r <= 14; r++) {
+                CARDS[(s-1)*13 + (r-2)] = new Card(r, s); // Create each card once
+            }
+        }
+    }
+
+    private final int rank; // Rank of the card (2-14, where 11=J, 12=Q, 13=K, 14=A)
+    private final int suit; // Suit of the card (1=Clubs, 2=Diamonds, 3=Hearts, 4=Spades)
+    private final transient String name; // Display string, not sent over the wire
+
+    private Card(int rank, int suit) {
+        this.rank = rank;
+        this.suit = suit;
+        this.name = RANK_NAMES[rank-2] + " of " + SUIT_NAMES[suit-1]; // Computed once per card
+    }
 
     /**
-     * Constructs a Card with the specified rank and suit.
+     * Returns the card with the specified rank and suit.
      * @param rank The rank of the card.
      * @param suit The suit of the card.
+     * @return The shared Card instance.
+     * @throws IllegalArgumentException If the rank or suit is out of range.
      */
-    public Card(int rank, int suit) {
-        this.rank = rank;
-        this.suit = suit;
+    public static Card of(int rank, int suit) {
+        if (rank < 2 || rank > 14 || suit < 1 || suit > 4) {
+            throw new IllegalArgumentException("No card with rank " + rank + " and suit " + suit);
+        }
+        return CARDS[(suit-1)*13 + (rank-2)];
     }
 
     /**
@@ -36,10 +62,18 @@ public class Card implements Serializable {
      */
     @Override
     public String toString() {
-        String[] ranks = {"2","3","4","5","6","7","8","9","10","J","Q","K","A"}; // Mapping of rank values to names
-        String[] suits = {"Clubs","Diamonds","Hearts","Spades"}; // Mapping of suit values to names
-        String r = ranks[rank-2]; // Adjust rank to index in array
-        String s = suits[suit-1]; // Adjust suit to index in array
-        return r + " of " + s; // Combine rank and suit for display
+        return name; // Precomputed display string
+    }
+
+    /**
+     * Replaces a deserialized card with the shared instance.
+     * @return The shared Card instance.
+     * @throws ObjectStreamException If the stream holds an invalid card.
+     */
+    private Object readResolve() throws ObjectStreamException {
+        if (rank < 2 || rank > 14 || suit < 1 || suit > 4) {
+            throw new InvalidObjectException("No card with rank " + rank + " and suit " + suit);
+        }
+        return CARDS[(suit-1)*13 + (rank-2)]; // Keep card identity across the wire
     }
 }
@@ -1,12 +1,44 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.net.Socket;
 import javafx.application.Platform;
 
 /**
  * Handles communication between the client and server in a separate thread.
+ *
+ * The wire format is chosen with the poker.protocol system property:
+ * binary (the default) opens with a PokerCodec hello and falls back to Java
+ * serialization if the server answers with an object stream header, as servers
+ * without the binary format do; legacy always uses Java serialization; framed sends
+ * length-prefixed serialized messages for the server's NIO engine.
+ *
+ * The client opens its session with CONNECT and keeps the token the server answers
+ * with. If the connection then drops, the thread reconnects and sends CONNECT with the
+ * token and the round it was last dealt; the server resumes the session and answers in
+ * one frame with that round's DEAL, or its RESULT if it was settled meanwhile, so the
+ * player carries on where they were. Servers without sessions ignore CONNECT.
  */
 public class ClientThread extends Thread {
+    // System property selecting the wire format: binary, legacy or framed
+    public static final String PROTOCOL_PROPERTY = "poker.protocol";
+
+    // Connection attempts after a drop before the connection is reported lost
+    private static final int RECONNECT_ATTEMPTS = 5;
+
+    /**
+     * Wire formats the client can speak.
+     */
+    private enum Wire {
+        BINARY, LEGACY, FRAMED
+    }
+
     private String ip;                  // Server IP address
     private int port;                   // Server port
     private Socket socket;              // Socket for communication
@@ -14,6 +46,11 @@ public class ClientThread extends Thread {
     private ObjectInputStream ois;      // Input stream for receiving data
     private boolean running = true;     // Flag to control the thread loop
     private JavaFXTemplate mainApp;     // Reference to the main application
+    private Wire wire;                  // Wire format in use
+    private OutputStream out;           // Binary or framed output stream
+    private DataInputStream dis;        // Binary or framed input stream
+    private volatile long sessionToken; // Session issued by the server, 0 until it answers CONNECT
+    private volatile int dealtRound;    // Round dealt and not yet settled, 0 for none
 
     /**
      * Constructs the client thread with the server's IP, port, and main application.
@@ -25,6 +62,7 @@ public class ClientThread extends Thread {
         this.ip = ip;
         this.port = port;
         this.mainApp = mainApp;
+        this.wire = Wire.valueOf(System.getProperty(PROTOCOL_PROPERTY, "binary").trim().toUpperCase());
     }
 
     /**
@@ -33,18 +71,35 @@ public class ClientThread extends Thread {
     @Override
     public void run() {
         try {
-            socket = new Socket(ip, port); // Establish connection to the server
-            oos = new ObjectOutputStream(socket.getOutputStream()); // Initialize output stream
-            ois = new ObjectInputStream(socket.getInputStream());   // Initialize input stream
+            connect(); // Establish connection to the server
 
             // Notify the main application of a successful connection
             Platform.runLater(() -> mainApp.onConnected());
 
             // Communication loop to handle incoming messages from the server
             while (running) {
-                Object obj = ois.readObject(); // Read object from server
+                Object obj;
+                try {
+                    obj = receive(); // Read object from server
+                } catch (IOException e) {
+                    if (running && sessionToken != 0 && reconnect()) {
+                        continue; // Resumed; the server answers with the round in progress
+                    }
+                    throw e;
+                }
                 if (obj instanceof PokerInfo) {
                     PokerInfo info = (PokerInfo) obj; // Cast object to PokerInfo
+                    if (info.getSessionToken() != 0) {
+                        sessionToken = info.getSessionToken(); // Issued, or confirmed on resume
+                    }
+                    if (info.getMessageType() == PokerInfo.MessageType.CONNECT) {
+                        continue; // Nothing for the UI
+                    }
+                    if (info.getMessageType() == PokerInfo.MessageType.DEAL) {
+                        dealtRound = info.getRoundId();
+                    } else if (info.getMessageType() == PokerInfo.MessageType.RESULT) {
+                        dealtRound = 0;
+                    }
                     Platform.runLater(() -> mainApp.handleServerResponse(info)); // Handle the response in the UI thread
                 }
             }
@@ -58,20 +113,111 @@ public class ClientThread extends Thread {
         }
     }
 
+    /**
+     * Reconnects after the connection dropped, backing off between attempts, and resumes the session.
+     * @return true once reconnected, false if every attempt failed or the client disconnected.
+     */
+    private boolean reconnect() {
+        for (int attempt = 1; attempt <= RECONNECT_ATTEMPTS && running; attempt++) {
+            try {
+                Thread.sleep(250L << attempt); // 0.5 s, 1 s, 2 s, ...
+                connect();
+                return true;
+            } catch (IOException e) {
+                // Still unreachable, try again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Connects, opens the streams of the wire format and sends CONNECT to open or resume the session.
+     */
+    private synchronized void connect() throws IOException {
+        try { if (socket != null) socket.close(); } catch (Exception ignore) {}
+        openStreams();
+        PokerInfo connect = new PokerInfo();
+        connect.setMessageType(PokerInfo.MessageType.CONNECT);
+        connect.setSessionToken(sessionToken); // 0 for a new session
+        connect.setRoundId(dealtRound);        // The round to resume, or whose RESULT was lost
+        write(connect);
+    }
+
+    /**
+     * Connects and opens the streams of the wire format, negotiating the binary format if selected.
+     */
+    private void openStreams() throws IOException {
+        socket = new Socket(ip, port);
+        if (wire == Wire.BINARY) {
+            out = new BufferedOutputStream(socket.getOutputStream());
+            dis = new DataInputStream(socket.getInputStream());
+            out.write(PokerCodec.hello(PokerCodec.VERSION)); // Offer the binary format
+            out.flush();
+            byte[] head = dis.readNBytes(PokerCodec.HELLO_BYTES);
+            if (PokerCodec.helloVersion(head) > 0) {
+                return; // Accepted
+            }
+            if (!PokerCodec.isObjectStream(head)) {
+                throw new IOException("Server answered the hello with an unknown format");
+            }
+            // A server without the binary format: it cannot read the hello, so reconnect
+            socket.close();
+            wire = Wire.LEGACY;
+            socket = new Socket(ip, port);
+        }
+        if (wire == Wire.FRAMED) {
+            out = new DataOutputStream(socket.getOutputStream()); // Frames are written whole
+            dis = new DataInputStream(socket.getInputStream());
+        } else {
+            oos = new ObjectOutputStream(socket.getOutputStream()); // Initialize output stream
+            ois = new ObjectInputStream(socket.getInputStream());   // Initialize input stream
+        }
+    }
+
+    /**
+     * Reads the next message from the server.
+     */
+    private Object receive() throws IOException, ClassNotFoundException {
+        switch (wire) {
+            case BINARY:
+                return PokerCodec.read(dis);
+            case FRAMED:
+                return readFrame();
+            default:
+                return ois.readObject();
+        }
+    }
+
     /**
      * Sends a PokerInfo message to the server.
      * @param info The PokerInfo object to send.
      */
-    public void sendMessage(PokerInfo info) {
+    public synchronized void sendMessage(PokerInfo info) {
         try {
-            oos.writeObject(info); // Send the PokerInfo object
-            oos.flush();           // Flush the output stream
+            write(info);
         } catch (Exception e) {
             // Notify the main application of a send error
             Platform.runLater(() -> mainApp.showError("Send Error: " + e.getMessage()));
         }
     }
 
+    /**
+     * Writes a message in the wire format in use.
+     */
+    private void write(PokerInfo info) throws IOException {
+        if (wire == Wire.BINARY) {
+            PokerCodec.write(out, info); // Send the PokerInfo as one binary frame
+        } else if (wire == Wire.FRAMED) {
+            writeFrame(info); // Send the PokerInfo object as one frame
+        } else {
+            oos.writeObject(info); // Send the PokerInfo object
+            oos.flush();           // Flush the output stream
+        }
+    }
+
     /**
      * Disconnects from the server by sending a DISCONNECT message and closing the socket.
      */
@@ -84,4 +230,29 @@ public class ClientThread extends Thread {
             socket.close();   // Close the socket
         } catch (Exception ignore) {}
     }
+
+    /**
+     * Writes a message as a 4-byte length followed by the message serialized on its own.
+     */
+    private void writeFrame(PokerInfo info) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream frame = new ObjectOutputStream(bytes)) {
+            frame.writeObject(info);
+        }
+        DataOutputStream dos = (DataOutputStream) out;
+        dos.writeInt(bytes.size()); // Length prefix
+        bytes.writeTo(dos);
+        dos.flush();
+    }
+
+    /**
+     * Reads one length-prefixed frame and returns the message it holds.
+     */
+    private Object readFrame() throws IOException, ClassNotFoundException {
+        byte[] body = new byte[dis.readInt()];
+        dis.readFully(body);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(body))) {
+            return in.readObject();
+        }
+    }
 }
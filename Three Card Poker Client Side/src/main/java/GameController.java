@@ -11,6 +11,7 @@ import java.util.List;
 public class GameController {
     @FXML private TextField anteField;           // Text field for ante bet input
     @FXML private TextField ppField;             // Text field for Pair Plus bet input
+    @FXML private TextField spotsField;          // Text field for the number of spots (hands) to play
     @FXML private Label playerCardsLabel;        // Label to display player cards
     @FXML private Label dealerCardsLabel;        // Label to display dealer cards
     @FXML private Label gameInfoLabel;           // Label to display game status or instructions
@@ -47,6 +48,7 @@ public class GameController {
     public void resetForNewGame(int totalWinnings) {
         anteField.setText("5"); // Default ante value
         ppField.setText("0");   // Default Pair Plus value
+        spotsField.setText("1"); // Default single spot
         playerCardsLabel.setText("Player Cards:"); // Reset player cards display
         dealerCardsLabel.setText("Dealer Cards: (Face Down)"); // Reset dealer cards display
         gameInfoLabel.setText("Place your bets and press Deal."); // Default game info
@@ -61,17 +63,18 @@ public class GameController {
      */
     @FXML
     public void handleDeal() {
-        int ante, pp;
+        int ante, pp, spots;
         try {
             ante = Integer.parseInt(anteField.getText().trim()); // Parse ante bet
             pp = Integer.parseInt(ppField.getText().trim());     // Parse Pair Plus bet
+            spots = Integer.parseInt(spotsField.getText().trim()); // Parse number of spots
         } catch (NumberFormatException e) {
             mainApp.showError("Invalid bet amounts."); // Show error for invalid input
             return;
         }
 
         // Validate ante bet range
-        if ((ante < 5 || ante > 25) && ante != 0) {
+        if (ante < 5 || ante > 25) { // The server rejects any other ante
             mainApp.showError("Ante must be between 5 and 25.");
             return;
         }
@@ -80,8 +83,13 @@ public class GameController {
             mainApp.showError("Pair Plus must be 0 or between 5 and 25.");
             return;
         }
+        // Validate number of spots
+        if (spots < 1 || spots > 5) {
+            mainApp.showError("Spots must be between 1 and 5.");
+            return;
+        }
 
-        mainApp.sendBetsToServer(ante, pp); // Send bets to the server
+        mainApp.sendBetsToServer(ante, pp, spots); // Send bets to the server
         gameInfoLabel.setText("Dealing cards..."); // Update game info
         dealButton.setDisable(true); // Disable Deal button after dealing
     }
@@ -98,15 +106,34 @@ public class GameController {
         foldButton.setDisable(false);  // Enable Fold button
     }
 
+    /**
+     * Updates the UI to display every spot's hand and ask for the decision on one spot.
+     * @param hands The player's hand on each spot.
+     * @param current The index of the spot to decide, from 0.
+     */
+    public void showDealtSpots(List<List<Card>> hands, int current) {
+        StringBuilder text = new StringBuilder("Player Cards:");
+        for (int i = 0; i < hands.size(); i++) {
+            text.append("\nSpot ").append(i + 1).append(": ").append(hands.get(i))
+                    .append(i == current ? "  <" : ""); // Mark the spot to decide
+        }
+        playerCardsLabel.setText(text.toString()); // Show every spot's cards
+        dealerCardsLabel.setText("Dealer Cards: [Hidden]"); // Hide dealer cards
+        gameInfoLabel.setText("Spot " + (current + 1) + " of " + hands.size() + ": Play or Fold?"); // Prompt player action
+        playButton.setDisable(false);  // Enable Play button
+        foldButton.setDisable(false);  // Enable Fold button
+    }
+
     /**
      * Handles the Play button action to send the play decision to the server.
+     * In a multi-spot round the main app moves on to the next spot until all are decided.
      */
     @FXML
     public void handlePlay() {
-        mainApp.sendPlayBet(); // Notify server of Play decision
         gameInfoLabel.setText("Evaluating results..."); // Update game info
         playButton.setDisable(true);  // Disable Play button
         foldButton.setDisable(true);  // Disable Fold button
+        mainApp.sendPlayBet(); // Notify server of Play decision
     }
 
     /**
@@ -114,10 +141,10 @@ public class GameController {
      */
     @FXML
     public void handleFold() {
-        mainApp.sendFold(); // Notify server of Fold decision
         gameInfoLabel.setText("Folding..."); // Update game info
         playButton.setDisable(true);  // Disable Play button
         foldButton.setDisable(true);  // Disable Fold button
+        mainApp.sendFold(); // Notify server of Fold decision
     }
 
     /**
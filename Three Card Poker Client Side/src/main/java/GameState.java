@@ -7,6 +7,7 @@ public class GameState {
     private int pairPlusBet = 0;         // Current Pair Plus bet amount
     private int playBet = 0;             // Current play bet amount
     private PokerInfo currentInfo;       // Current game information (e.g., hands, results)
+    private int currentSpot = 0;         // Spot awaiting the player's decision in a multi-spot round
 
     /**
      * Gets the total winnings.
@@ -72,4 +73,16 @@ public class GameState {
      * @param info The PokerInfo object to set.
      */
     public void setCurrentInfo(PokerInfo info) { this.currentInfo = info; }
+
+    /**
+     * Gets the spot awaiting the player's decision.
+     * @return The index of the spot, from 0.
+     */
+    public int getCurrentSpot() { return currentSpot; }
+
+    /**
+     * Sets the spot awaiting the player's decision.
+     * @param currentSpot The index of the spot, from 0.
+     */
+    public void setCurrentSpot(int currentSpot) { this.currentSpot = currentSpot; }
 }
@@ -5,6 +5,9 @@ import javafx.scene.Scene;
 import javafx.scene.Parent;
 import javafx.scene.control.Alert;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Main JavaFX application for the 3 Card Poker client.
  * Manages scenes, communication with the server, and game state.
@@ -66,12 +69,20 @@ public class JavaFXTemplate extends Application {
      * Loads the result scene for displaying game results.
      */
     public void loadResultScene() {
+        loadResultScene(1);
+    }
+
+    /**
+     * Loads the result scene, tall enough to list the outcome of every spot.
+     * @param spots The number of spots played in the round.
+     */
+    public void loadResultScene(int spots) {
         try {
             FXMLLoader resultLoader = new FXMLLoader(getClass().getResource("/ResultScene.fxml"));
             Parent resultRoot = resultLoader.load();
             resultController = resultLoader.getController();
             resultController.setMainApp(this);
-            resultScene = new Scene(resultRoot, 300, 200);
+            resultScene = new Scene(resultRoot, 300, spots > 1 ? 220 + 20 * spots : 200);
             applyCurrentLook(resultScene); // Apply current UI theme
         } catch (Exception e) {
             showError("Error loading result scene: " + e.getMessage());
@@ -105,11 +116,31 @@ public class JavaFXTemplate extends Application {
     public void handleServerResponse(PokerInfo info) {
         if (info.getMessageType() == PokerInfo.MessageType.DEAL) {
             gameState.setCurrentInfo(info);
-            gameController.showDealtCards(info.getPlayerHand()); // Show dealt cards
+            if (info.getSpots() != null) {
+                gameState.setCurrentSpot(0);
+                gameController.showDealtSpots(spotHands(info), 0); // Show every spot, decide the first
+            } else {
+                gameController.showDealtCards(info.getPlayerHand()); // Show dealt cards
+            }
         } else if (info.getMessageType() == PokerInfo.MessageType.RESULT) {
             gameState.setCurrentInfo(info);
-            processResults(info); // Process game results
+            if (info.getSpots() != null) {
+                processSpotResults(info); // Process every spot's results
+            } else {
+                processResults(info); // Process game results
+            }
+        }
+    }
+
+    /**
+     * Returns the player's hand on each spot of a multi-spot round.
+     */
+    private static List<List<Card>> spotHands(PokerInfo info) {
+        List<List<Card>> hands = new ArrayList<>();
+        for (PokerInfo spot : info.getSpots()) {
+            hands.add(spot.getPlayerHand());
         }
+        return hands;
     }
 
     /**
@@ -117,11 +148,44 @@ public class JavaFXTemplate extends Application {
      * @param info The PokerInfo object containing the results.
      */
     private void processResults(PokerInfo info) {
+        int winnings = winnings(info);
+        gameState.addWinnings(winnings); // Update total winnings
+        loadResultScene();
+        resultController.showResult(info.getGameResult(), winnings, gameState.getTotalWinnings());
+        primaryStage.setScene(resultScene); // Switch to result scene
+        primaryStage.setTitle("3 Card Poker Client - Results");
+    }
+
+    /**
+     * Processes the results of a multi-spot round and updates the game state and UI.
+     * @param info The PokerInfo object containing the RESULT of each spot.
+     */
+    private void processSpotResults(PokerInfo info) {
+        List<PokerInfo> spots = info.getSpots();
+        int[] spotWinnings = new int[spots.size()];
+        int winnings = 0;
+        for (int i = 0; i < spots.size(); i++) {
+            spotWinnings[i] = winnings(spots.get(i));
+            winnings += spotWinnings[i];
+        }
+        gameState.addWinnings(winnings); // Update total winnings
+        loadResultScene(spots.size());
+        resultController.showSpotResults(spots, spotWinnings, winnings, gameState.getTotalWinnings());
+        primaryStage.setScene(resultScene); // Switch to result scene
+        primaryStage.setTitle("3 Card Poker Client - Results");
+    }
+
+    /**
+     * Returns the player's net winnings from one hand's results.
+     * @param info The RESULT of a single hand or spot.
+     */
+    private static int winnings(PokerInfo info) {
         int result = info.getGameResult();
         int ante = info.getAnteBet();
         int pairPlus = info.getPairPlusBet();
         int play = info.getPlayBet();
         int ppWin = info.getPairPlusWinnings();
+        int anteBonus = info.getAnteBonusWinnings();
 
         int winnings = 0;
         if (result == 1) {
@@ -129,13 +193,9 @@ public class JavaFXTemplate extends Application {
         } else if (result == -1) {
             winnings -= (ante + play); // Player loses
         }
-        winnings += (ppWin - pairPlus); // Calculate Pair Plus winnings
-
-        gameState.addWinnings(winnings); // Update total winnings
-        loadResultScene();
-        resultController.showResult(result, winnings, gameState.getTotalWinnings());
-        primaryStage.setScene(resultScene); // Switch to result scene
-        primaryStage.setTitle("3 Card Poker Client - Results");
+        winnings += ppWin > 0 ? ppWin : -pairPlus; // Pair Plus pays ppWin and keeps the bet, or loses it
+        winnings += anteBonus;          // Ante Bonus, if the server's table pays one
+        return winnings;
     }
 
     /**
@@ -144,12 +204,32 @@ public class JavaFXTemplate extends Application {
      * @param pp The Pair Plus bet amount.
      */
     public void sendBetsToServer(int ante, int pp) {
+        sendBetsToServer(ante, pp, 1);
+    }
+
+    /**
+     * Sends the player's bets to the server, the same bets on every spot.
+     * @param ante The ante bet amount per spot.
+     * @param pp The Pair Plus bet amount per spot.
+     * @param spots The number of spots (hands) to play against the dealer.
+     */
+    public void sendBetsToServer(int ante, int pp, int spots) {
         gameState.setAnteBet(ante);
         gameState.setPairPlusBet(pp);
         PokerInfo info = new PokerInfo();
         info.setMessageType(PokerInfo.MessageType.BETS);
         info.setAnteBet(ante);
         info.setPairPlusBet(pp);
+        if (spots > 1) {
+            ArrayList<PokerInfo> list = new ArrayList<>();
+            for (int i = 0; i < spots; i++) {
+                PokerInfo spot = new PokerInfo();
+                spot.setAnteBet(ante);
+                spot.setPairPlusBet(pp);
+                list.add(spot);
+            }
+            info.setSpots(list); // A server without spots deals a single hand instead
+        }
         clientThread.sendMessage(info);
     }
 
@@ -159,9 +239,12 @@ public class JavaFXTemplate extends Application {
     public void sendPlayBet() {
         gameState.setPlayBet(gameState.getAnteBet());
         PokerInfo curr = gameState.getCurrentInfo();
-        curr.setMessageType(PokerInfo.MessageType.PLAY);
+        if (curr.getSpots() != null) {
+            decideSpot(PokerInfo.MessageType.PLAY);
+            return;
+        }
         curr.setPlayBet(gameState.getPlayBet());
-        clientThread.sendMessage(curr);
+        clientThread.sendMessage(decision(curr, PokerInfo.MessageType.PLAY));
     }
 
     /**
@@ -169,8 +252,54 @@ public class JavaFXTemplate extends Application {
      */
     public void sendFold() {
         PokerInfo curr = gameState.getCurrentInfo();
-        curr.setMessageType(PokerInfo.MessageType.FOLD);
-        clientThread.sendMessage(curr);
+        if (curr.getSpots() != null) {
+            decideSpot(PokerInfo.MessageType.FOLD);
+            return;
+        }
+        clientThread.sendMessage(decision(curr, PokerInfo.MessageType.FOLD));
+    }
+
+    /**
+     * Returns the message carrying a decision on the dealt round: just the round id, since
+     * the server keeps the hands and bets, or the whole DEAL for servers without round ids.
+     * @param deal The DEAL message of the round.
+     * @param decision PLAY or FOLD.
+     */
+    private static PokerInfo decision(PokerInfo deal, PokerInfo.MessageType decision) {
+        if (deal.getRoundId() == 0) {
+            deal.setMessageType(decision);
+            return deal;
+        }
+        PokerInfo info = new PokerInfo();
+        info.setMessageType(decision);
+        info.setRoundId(deal.getRoundId());
+        return info;
+    }
+
+    /**
+     * Records the decision on the current spot of a multi-spot round, then asks for the
+     * next spot or, once every spot is decided, sends all decisions in one message.
+     * @param decision PLAY or FOLD.
+     */
+    private void decideSpot(PokerInfo.MessageType decision) {
+        PokerInfo curr = gameState.getCurrentInfo();
+        PokerInfo spot = curr.getSpots().get(gameState.getCurrentSpot());
+        spot.setMessageType(decision);
+        int next = gameState.getCurrentSpot() + 1;
+        if (next < curr.getSpots().size()) {
+            gameState.setCurrentSpot(next);
+            gameController.showDealtSpots(spotHands(curr), next); // Decide the next spot
+            return;
+        }
+        ArrayList<PokerInfo> decisions = new ArrayList<>();
+        for (PokerInfo dealt : curr.getSpots()) {
+            PokerInfo info = new PokerInfo();
+            info.setMessageType(dealt.getMessageType()); // Only the decision on each spot
+            decisions.add(info);
+        }
+        PokerInfo info = decision(curr, PokerInfo.MessageType.PLAY);
+        info.setSpots(decisions);
+        clientThread.sendMessage(info);
     }
 
     /**
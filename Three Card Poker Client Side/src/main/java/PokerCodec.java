@@ -0,0 +1,334 @@
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Compact binary wire format for PokerInfo, shared by the client and the server
+ * (the two modules carry the same copy of this class).
+ *
+ * A connection opens with a 4-byte hello from the client: the bytes '3', 'C', 'P' and
+ * the highest format version the client speaks. A server that speaks the format
+ * answers with a hello carrying the version both will use. A legacy client instead
+ * starts with the Java serialization header AC ED 00 05, and a legacy server sends
+ * that header before reading anything, so either side can tell the formats apart from
+ * the first four bytes.
+ *
+ * After the hello every message is one frame: a 2-byte big-endian body length, then
+ * - message type ordinal (255 for none),
+ * - flags: 1 dealer qualifies, 2 player hand, 4 dealer hand, 8 info message, 16 rounds,
+ *   32 spots, 64 round id, 128 session token,
+ * - ante, Pair Plus and play bets, game result, Pair Plus and Ante Bonus winnings,
+ *   each a zigzag varint (one byte for values -64..63),
+ * - the round id if present, a zigzag varint,
+ * - the session token if present, 8 bytes big-endian,
+ * - each hand present: a card count, then one byte per card, (suit-1)*13 + (rank-2),
+ * - the info message if present: a varint byte length, then UTF-8,
+ * - the rounds of a BATCH if present, then the spots of a multi-spot round if present:
+ *   each a varint count, then every entry laid out as above (entries hold no lists).
+ * A RESULT with both hands and small bets is 18 bytes on the wire (19 with a round id),
+ * against several hundred as a serialized PokerInfo; a PLAY or FOLD carrying only its
+ * round id is 11.
+ */
+public final class PokerCodec {
+
+    // Highest format version this side speaks
+    public static final int VERSION = 1;
+
+    // Bytes in a hello
+    public static final int HELLO_BYTES = 4;
+
+    // Bytes in a frame's length prefix
+    public static final int HEADER_BYTES = 2;
+
+    // Largest frame body the 2-byte length can describe
+    public static final int MAX_FRAME_BYTES = 0xFFFF;
+
+    private static final int DEALER_QUALIFIES = 1; // Flag bits
+    private static final int PLAYER_HAND = 2;
+    private static final int DEALER_HAND = 4;
+    private static final int INFO_MESSAGE = 8;
+    private static final int ROUNDS = 16;
+    private static final int SPOTS = 32;
+    private static final int ROUND_ID = 64;
+    private static final int SESSION_TOKEN = 128;
+    private static final int NO_TYPE = 255;          // Type byte of a message without a type
+
+    private static final PokerInfo.MessageType[] TYPES = PokerInfo.MessageType.values();
+
+    private PokerCodec() {
+    }
+
+    /**
+     * Returns the hello announcing or accepting a format version.
+     */
+    public static byte[] hello(int version) {
+        return new byte[] {'3', 'C', 'P', (byte) version};
+    }
+
+    /**
+     * Returns the version in a hello, or -1 if the bytes are not a hello.
+     */
+    public static int helloVersion(byte[] head) {
+        if (head.length < HELLO_BYTES || head[0] != '3' || head[1] != 'C' || head[2] != 'P') {
+            return -1;
+        }
+        return head[3] & 0xFF;
+    }
+
+    /**
+     * Returns true if the bytes start a Java serialization stream (a legacy peer).
+     */
+    public static boolean isObjectStream(byte[] head) {
+        return head.length >= HELLO_BYTES && (head[0] & 0xFF) == 0xAC && (head[1] & 0xFF) == 0xED
+                && head[2] == 0 && head[3] == 5;
+    }
+
+    /**
+     * Encodes a message as a frame ready to write, length prefix included.
+     */
+    public static ByteBuffer encode(PokerInfo info) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + maxBodyBytes(info));
+        frame.position(HEADER_BYTES);
+        putBody(frame, info);
+        int length = frame.position() - HEADER_BYTES;
+        if (length > MAX_FRAME_BYTES) {
+            throw new IllegalArgumentException("Message of " + length + " bytes does not fit in a frame");
+        }
+        frame.putShort(0, (short) length);
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Returns the body length of the frame at the buffer's position, or -1 if the
+     * length prefix has not fully arrived. The position is not moved.
+     */
+    public static int peekLength(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES) {
+            return -1;
+        }
+        return buffer.getShort(buffer.position()) & 0xFFFF;
+    }
+
+    /**
+     * Decodes the frame body of the given length at the buffer's position and moves past it.
+     *
+     * @throws StreamCorruptedException if the body is not a valid message
+     */
+    public static PokerInfo decode(ByteBuffer buffer, int length) throws StreamCorruptedException {
+        if (length > buffer.remaining()) {
+            throw new StreamCorruptedException("Frame of " + length + " bytes has only " + buffer.remaining());
+        }
+        ByteBuffer body = buffer.slice(); // Reads cannot run into the next frame
+        body.limit(length);
+        buffer.position(buffer.position() + length);
+        try {
+            PokerInfo info = getBody(body, true);
+            if (body.hasRemaining()) {
+                throw new StreamCorruptedException("Frame of " + length + " bytes has " + body.remaining() + " unread");
+            }
+            return info;
+        } catch (RuntimeException e) { // Truncated body or negative length
+            throw new StreamCorruptedException("Malformed frame: " + e);
+        }
+    }
+
+    /**
+     * Writes a message as one frame to a blocking stream and flushes it.
+     */
+    public static void write(OutputStream out, PokerInfo info) throws IOException {
+        ByteBuffer frame = encode(info);
+        out.write(frame.array(), 0, frame.limit());
+        out.flush();
+    }
+
+    /**
+     * Reads one frame from a blocking stream.
+     */
+    public static PokerInfo read(DataInputStream in) throws IOException {
+        int length = in.readUnsignedShort();
+        byte[] body = new byte[length];
+        in.readFully(body);
+        return decode(ByteBuffer.wrap(body), length);
+    }
+
+    // Upper bound of a message's encoded body
+    private static int maxBodyBytes(PokerInfo info) {
+        int bytes = 2 + 7 * 5 + 8 + 2 * 53;
+        if (info.getInfoMessage() != null) {
+            bytes += 5 + 3 * info.getInfoMessage().length(); // At most 3 UTF-8 bytes per char
+        }
+        bytes += maxListBytes(info.getRounds());
+        bytes += maxListBytes(info.getSpots());
+        return bytes;
+    }
+
+    private static int maxListBytes(ArrayList<PokerInfo> list) {
+        int bytes = 0;
+        if (list != null) {
+            bytes += 5;
+            for (PokerInfo entry : list) {
+                bytes += maxBodyBytes(entry);
+            }
+        }
+        return bytes;
+    }
+
+    private static void putBody(ByteBuffer buffer, PokerInfo info) {
+        byte[] text = info.getInfoMessage() == null ? null : info.getInfoMessage().getBytes(StandardCharsets.UTF_8);
+        int flags = (info.isDealerQualifies() ? DEALER_QUALIFIES : 0)
+                | (info.getPlayerHand() != null ? PLAYER_HAND : 0)
+                | (info.getDealerHand() != null ? DEALER_HAND : 0)
+                | (text != null ? INFO_MESSAGE : 0)
+                | (info.getRounds() != null ? ROUNDS : 0)
+                | (info.getSpots() != null ? SPOTS : 0)
+                | (info.getRoundId() != 0 ? ROUND_ID : 0)
+                | (info.getSessionToken() != 0 ? SESSION_TOKEN : 0);
+        buffer.put((byte) (info.getMessageType() == null ? NO_TYPE : info.getMessageType().ordinal()));
+        buffer.put((byte) flags);
+        putVarint(buffer, info.getAnteBet());
+        putVarint(buffer, info.getPairPlusBet());
+        putVarint(buffer, info.getPlayBet());
+        putVarint(buffer, info.getGameResult());
+        putVarint(buffer, info.getPairPlusWinnings());
+        putVarint(buffer, info.getAnteBonusWinnings());
+        if (info.getRoundId() != 0) {
+            putVarint(buffer, info.getRoundId());
+        }
+        if (info.getSessionToken() != 0) {
+            buffer.putLong(info.getSessionToken());
+        }
+        putHand(buffer, info.getPlayerHand());
+        putHand(buffer, info.getDealerHand());
+        if (text != null) {
+            putVarint(buffer, text.length);
+            buffer.put(text);
+        }
+        putList(buffer, info.getRounds());
+        putList(buffer, info.getSpots());
+    }
+
+    private static void putList(ByteBuffer buffer, ArrayList<PokerInfo> list) {
+        if (list == null) {
+            return;
+        }
+        putVarint(buffer, list.size());
+        for (PokerInfo entry : list) {
+            if (entry.getRounds() != null || entry.getSpots() != null) {
+                throw new IllegalArgumentException("A round or spot cannot hold rounds or spots");
+            }
+            putBody(buffer, entry);
+        }
+    }
+
+    private static PokerInfo getBody(ByteBuffer body, boolean outer) throws StreamCorruptedException {
+        PokerInfo info = new PokerInfo();
+        int type = body.get() & 0xFF;
+        if (type != NO_TYPE && type >= TYPES.length) {
+            throw new StreamCorruptedException("Unknown message type " + type);
+        }
+        info.setMessageType(type == NO_TYPE ? null : TYPES[type]);
+        int flags = body.get() & 0xFF;
+        info.setDealerQualifies((flags & DEALER_QUALIFIES) != 0);
+        info.setAnteBet(getVarint(body));
+        info.setPairPlusBet(getVarint(body));
+        info.setPlayBet(getVarint(body));
+        info.setGameResult(getVarint(body));
+        info.setPairPlusWinnings(getVarint(body));
+        info.setAnteBonusWinnings(getVarint(body));
+        if ((flags & ROUND_ID) != 0) {
+            info.setRoundId(getVarint(body));
+        }
+        if ((flags & SESSION_TOKEN) != 0) {
+            info.setSessionToken(body.getLong());
+        }
+        if ((flags & PLAYER_HAND) != 0) {
+            info.setPlayerHand(getHand(body));
+        }
+        if ((flags & DEALER_HAND) != 0) {
+            info.setDealerHand(getHand(body));
+        }
+        if ((flags & INFO_MESSAGE) != 0) {
+            byte[] text = new byte[getVarint(body)];
+            body.get(text);
+            info.setInfoMessage(new String(text, StandardCharsets.UTF_8));
+        }
+        if ((flags & (ROUNDS | SPOTS)) != 0 && !outer) {
+            throw new StreamCorruptedException("Nested rounds or spots");
+        }
+        if ((flags & ROUNDS) != 0) {
+            info.setRounds(getList(body));
+        }
+        if ((flags & SPOTS) != 0) {
+            info.setSpots(getList(body));
+        }
+        return info;
+    }
+
+    private static ArrayList<PokerInfo> getList(ByteBuffer body) throws StreamCorruptedException {
+        int count = getVarint(body);
+        if (count < 0 || count > body.remaining()) { // An entry takes at least 8 bytes
+            throw new StreamCorruptedException("List of " + count + " entries");
+        }
+        ArrayList<PokerInfo> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(getBody(body, false));
+        }
+        return list;
+    }
+
+    // Zigzag varint: small magnitudes of either sign take one byte
+    private static void putVarint(ByteBuffer buffer, int value) {
+        int v = (value << 1) ^ (value >> 31);
+        while ((v & ~0x7F) != 0) {
+            buffer.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buffer.put((byte) v);
+    }
+
+    private static int getVarint(ByteBuffer buffer) throws StreamCorruptedException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buffer.get();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new StreamCorruptedException("Varint longer than 5 bytes");
+    }
+
+    private static void putHand(ByteBuffer buffer, ArrayList<Card> hand) {
+        if (hand == null) {
+            return;
+        }
+        if (hand.size() > 52) {
+            throw new IllegalArgumentException("Hand of " + hand.size() + " cards");
+        }
+        buffer.put((byte) hand.size());
+        for (Card card : hand) {
+            buffer.put((byte) ((card.getSuit() - 1) * 13 + (card.getRank() - 2)));
+        }
+    }
+
+    private static ArrayList<Card> getHand(ByteBuffer buffer) throws StreamCorruptedException {
+        int size = buffer.get();
+        if (size < 0 || size > 52) {
+            throw new StreamCorruptedException("Hand of " + size + " cards");
+        }
+        ArrayList<Card> hand = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int card = buffer.get();
+            if (card < 0 || card >= 52) {
+                throw new StreamCorruptedException("Invalid card " + card);
+            }
+            hand.add(Card.of(card % 13 + 2, card / 13 + 1));
+        }
+        return hand;
+    }
+}
@@ -9,7 +9,7 @@ public class PokerInfo implements Serializable {
 
     /**
      * Enumeration of message types used in communication.
-     * CONNECT - Initial connection message
+     * CONNECT - Client opens or resumes a session; server answers with its token
      * BETS - Client sends bets
      * DEAL - Server sends dealt cards
      * PLAY - Client plays the current hand
@@ -17,9 +17,10 @@ public class PokerInfo implements Serializable {
      * RESULT - Server sends the result of the game
      * DISCONNECT - Client disconnects
      * CONTINUE - Client continues to next round
+     * BATCH - Client sends several rounds at once; server sends their results
      */
     public enum MessageType {
-        CONNECT, BETS, DEAL, PLAY, FOLD, RESULT, DISCONNECT, CONTINUE
+        CONNECT, BETS, DEAL, PLAY, FOLD, RESULT, DISCONNECT, CONTINUE, BATCH
     }
 
     private MessageType messageType;         // Type of message being exchanged
@@ -31,7 +32,12 @@ public class PokerInfo implements Serializable {
     private boolean dealerQualifies;         // Whether the dealer qualifies
     private int gameResult;                  // Game result: 1=player wins, -1=dealer wins, 0=tie
     private int pairPlusWinnings;            // Winnings from the Pair Plus bet
+    private int anteBonusWinnings;           // Winnings from the Ante Bonus
     private String infoMessage;              // Additional information or messages
+    private int roundId;                     // Dealt round a message belongs to, 0 for none
+    private ArrayList<PokerInfo> rounds;     // Rounds of a batch
+    private ArrayList<PokerInfo> spots;      // Player hands of a multi-spot round
+    private long sessionToken;               // Session to resume or issued by the server, 0 for none
 
     // Getters and Setters
 
@@ -62,6 +68,21 @@ public class PokerInfo implements Serializable {
     public int getPairPlusWinnings() { return pairPlusWinnings; }
     public void setPairPlusWinnings(int pairPlusWinnings) { this.pairPlusWinnings = pairPlusWinnings; }
 
+    public int getAnteBonusWinnings() { return anteBonusWinnings; }
+    public void setAnteBonusWinnings(int anteBonusWinnings) { this.anteBonusWinnings = anteBonusWinnings; }
+
     public String getInfoMessage() { return infoMessage; }
     public void setInfoMessage(String infoMessage) { this.infoMessage = infoMessage; }
+
+    public int getRoundId() { return roundId; }
+    public void setRoundId(int roundId) { this.roundId = roundId; }
+
+    public ArrayList<PokerInfo> getRounds() { return rounds; }
+    public void setRounds(ArrayList<PokerInfo> rounds) { this.rounds = rounds; }
+
+    public ArrayList<PokerInfo> getSpots() { return spots; }
+    public void setSpots(ArrayList<PokerInfo> spots) { this.spots = spots; }
+
+    public long getSessionToken() { return sessionToken; }
+    public void setSessionToken(long sessionToken) { this.sessionToken = sessionToken; }
 }
@@ -2,12 +2,15 @@ import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 
+import java.util.List;
+
 /**
  * Controller for the results screen, managing the display of game results and user actions.
  */
 public class ResultController {
     @FXML private Label resultLabel;            // Label to display the game result (win, lose, tie)
     @FXML private Label resultWinningsLabel;    // Label to display round and total winnings
+    @FXML private Label spotResultsLabel;       // Label to display each spot's outcome in a multi-spot round
     @FXML private Button anotherGameButton;     // Button to start another game
     @FXML private Button exitButton;            // Button to exit the application
 
@@ -55,4 +58,42 @@ public class ResultController {
         }
         resultWinningsLabel.setText("This Game: $" + roundWinnings + " | Total: $" + totalWinnings); // Update winnings
     }
+
+    /**
+     * Displays the outcome of every spot in a multi-spot round and the winnings of the round.
+     * @param spots The RESULT of each spot.
+     * @param spotWinnings The winnings of each spot.
+     * @param roundWinnings The winnings for the current round, all spots together.
+     * @param totalWinnings The player's total winnings.
+     */
+    public void showSpotResults(List<PokerInfo> spots, int[] spotWinnings, int roundWinnings, int totalWinnings) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < spots.size(); i++) {
+            PokerInfo spot = spots.get(i);
+            String outcome;
+            if (spot.getPlayBet() == 0 && spot.getGameResult() == -1) {
+                outcome = "Folded";
+            } else if (spot.getGameResult() == 1) {
+                outcome = "Won";
+            } else if (spot.getGameResult() == -1) {
+                outcome = "Lost";
+            } else {
+                outcome = "Tie or Dealer Not Qualified";
+            }
+            text.append(i > 0 ? "\n" : "").append("Spot ").append(i + 1).append(": ").append(outcome)
+                    .append(" $").append(spotWinnings[i]);
+        }
+        spotResultsLabel.setText(text.toString()); // Display each spot
+        spotResultsLabel.setVisible(true);
+        spotResultsLabel.setManaged(true);
+
+        if (roundWinnings > 0) {
+            resultLabel.setText("You Won!"); // Display win message
+        } else if (roundWinnings < 0) {
+            resultLabel.setText("You Lost!"); // Display loss message
+        } else {
+            resultLabel.setText("You Broke Even"); // Display even message
+        }
+        resultWinningsLabel.setText("This Game: $" + roundWinnings + " | Total: $" + totalWinnings); // Update winnings
+    }
 }
@@ -1,28 +1,70 @@
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 
 /**
  * Represents a single playing card with a rank and suit.
  * Ranks: 2=2,...10=10,11=J,12=Q,13=K,14=A
  * Suits: 1=Clubs,2=Diamonds,3=Hearts,4=Spades
+ *
+ * Cards are flyweights: Card.of returns one of 52 shared instances and deserialization
+ * resolves to the same instances, so two cards are equal exactly when they are ==.
  */
-public class Card implements Serializable {
+public final class Card implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    private static final String[] RANK_NAMES = {"2","3","4","5","6","7","8","9","10","J","Q","K","A"};
+    private static final String[] SUIT_NAMES = {"Clubs","Diamonds","Hearts","Spades"};
+
+    // The 52 canonical cards, indexed by (suit - 1) * 13 + (rank - 2) as in HandTable
+    private static final Card[] CARDS = new Card[52];
+
+    static {
+        for (int s = 1; s <= 4; s++) {
+            for (int r = 2; r <= 14; r++) {
+                CARDS[(s - 1) * 13 + (r - 2)] = new Card(r, s);
+            }
+        }
+    }
+
     // Rank of the card (2-14, where 11=J, 12=Q, 13=K, 14=A)
-    private int rank;
+    private final int rank;
 
     // Suit of the card (1=Clubs, 2=Diamonds, 3=Hearts, 4=Spades)
-    private int suit;
+    private final int suit;
+
+    // Display string, e.g. "A of Spades"; not serialized, so the wire form is unchanged
+    private final transient String name;
+
+    private Card(int rank, int suit) {
+        this.rank = rank;
+        this.suit = suit;
+        this.name = RANK_NAMES[rank - 2] + " of " + SUIT_NAMES[suit - 1];
+    }
 
     /**
-     * Constructs a Card with the specified rank and suit.
+     * Returns the card with the specified rank and suit.
      *
-     * @param rank the rank of the card
-     * @param suit the suit of the card
+     * @param rank the rank of the card (2-14)
+     * @param suit the suit of the card (1-4)
+     * @return the shared Card instance
+     * @throws IllegalArgumentException if the rank or suit is out of range
      */
-    public Card(int rank, int suit) {
-        this.rank = rank;
-        this.suit = suit;
+    public static Card of(int rank, int suit) {
+        if (rank < 2 || rank > 14 || suit < 1 || suit > 4) {
+            throw new IllegalArgumentException("No card with rank " + rank + " and suit " + suit);
+        }
+        return CARDS[(suit - 1) * 13 + (rank - 2)];
+    }
+
+    /**
+     * Returns the card with the given ordinal (0..51, see HandTable.ordinal).
+     *
+     * @param ordinal the card ordinal
+     * @return the shared Card instance
+     */
+    public static Card ofOrdinal(int ordinal) {
+        return CARDS[ordinal];
     }
 
     /**
@@ -50,10 +92,16 @@ public class Card implements Serializable {
      */
     @Override
     public String toString() {
-        String[] ranks = {"2","3","4","5","6","7","8","9","10","J","Q","K","A"};
-        String[] suits = {"Clubs","Diamonds","Hearts","Spades"};
-        String r = ranks[rank - 2];
-        String s = suits[suit - 1];
-        return r + " of " + s;
+        return name;
+    }
+
+    /**
+     * Replaces a deserialized card with the shared instance.
+     */
+    private Object readResolve() throws ObjectStreamException {
+        if (rank < 2 || rank > 14 || suit < 1 || suit > 4) {
+            throw new InvalidObjectException("No card with rank " + rank + " and suit " + suit);
+        }
+        return CARDS[(suit - 1) * 13 + (rank - 2)];
     }
 }
@@ -0,0 +1,35 @@
+/**
+ * Where a table's cards come from: a single deck per round (PackedDeck) or a
+ * multi-deck Shoe. Cards are dealt as card ordinals (see HandTable).
+ */
+public interface CardSource {
+
+    /**
+     * Prepares to deal a new round: a deck takes back every card, a shoe reshuffles
+     * only once its cut card has come out, or every round if it is a continuous shuffler.
+     */
+    void newRound();
+
+    /**
+     * Deals one card as a card ordinal (0..51).
+     *
+     * @return the ordinal of the dealt card, or -1 if no card is left
+     */
+    int dealOrdinal();
+
+    /**
+     * Returns the number of cards left to deal.
+     */
+    int remaining();
+
+    /**
+     * Deals a hand of three cards as a packed hand code (see PackedHand).
+     * Hands dealt from a shoe may hold the same card more than once.
+     */
+    default int dealPackedHand() {
+        int c0 = dealOrdinal();
+        int c1 = dealOrdinal();
+        int c2 = dealOrdinal();
+        return PackedHand.pack(c0, c1, c2);
+    }
+}
@@ -1,19 +1,40 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.net.Socket;
-import java.util.ArrayList;
 
 /**
- * Handles a single client connection. Runs on its own thread.
+ * Handles a single client connection, reading PokerInfo messages and passing them to
+ * the connection's GameSession. ServerThread runs each handler on its own platform or
+ * virtual thread.
+ *
+ * The first four bytes from the client pick the wire format: a PokerCodec hello for the
+ * binary format, otherwise Java serialization as legacy clients send it.
+ *
+ * A CONNECT stores the session in the server's SessionStore, or resumes a stored one.
+ * When the socket drops the session stays in the store for the client to resume; the
+ * handler stops once another connection resumes its session.
  */
-public class ClientHandler extends Thread {
+public class ClientHandler implements Runnable {
     private Socket socket; // Client socket connection
     private GameManager gameManager; // Reference to the game manager
     private boolean running; // Flag to control the thread loop
-    private Deck deck; // Deck of cards for the game
-    private ObjectOutputStream oos; // Output stream to send objects to client
-    private ObjectInputStream ois; // Input stream to receive objects from client
+    private ObjectOutputStream oos; // Output stream to send objects to a legacy client
+    private ObjectInputStream ois; // Input stream to receive objects from a legacy client
+    private OutputStream out; // Output stream to send binary frames
+    private DataInputStream in; // Input stream to receive binary frames
+    private boolean binary; // The client speaks the binary format
     private String clientName; // Identifier for the client
+    private Paytables paytables; // Pair Plus and Ante Bonus paytables in use
+    private ShuffleSource shuffleSource; // Randomness for each round's deal
+    private GameSession session; // Round flow and game logic for this client
+    private SessionStore sessions; // Sessions clients can resume, shared by every connection
+    private Ledger ledger; // Bankroll settlements are posted to, or null
+    private volatile boolean closed; // Set when the server stops and closes the connection
 
     /**
      * Constructor to initialize ClientHandler with the client socket and GameManager.
@@ -22,54 +43,111 @@ public class ClientHandler extends Thread {
      * @param gm     The GameManager instance.
      */
     public ClientHandler(Socket socket, GameManager gm) {
+        this(socket, gm, Paytables.DEFAULT);
+    }
+
+    /**
+     * Constructor to initialize ClientHandler with the paytables to settle rounds with.
+     *
+     * @param socket    The client socket.
+     * @param gm        The GameManager instance.
+     * @param paytables The active Pair Plus and Ante Bonus paytables.
+     */
+    public ClientHandler(Socket socket, GameManager gm, Paytables paytables) {
+        this(socket, gm, paytables, ShuffleSource.threadLocal());
+    }
+
+    /**
+     * Constructor to initialize ClientHandler with the paytables and the source of each deal.
+     *
+     * @param socket        The client socket.
+     * @param gm            The GameManager instance.
+     * @param paytables     The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness for each round's deal.
+     */
+    public ClientHandler(Socket socket, GameManager gm, Paytables paytables, ShuffleSource shuffleSource) {
+        this(socket, gm, paytables, shuffleSource, new SessionStore());
+    }
+
+    /**
+     * Constructor to initialize ClientHandler with the store its session can be resumed from.
+     *
+     * @param socket        The client socket.
+     * @param gm            The GameManager instance.
+     * @param paytables     The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness for each round's deal.
+     * @param sessions      The sessions clients can resume, shared by every connection.
+     */
+    public ClientHandler(Socket socket, GameManager gm, Paytables paytables, ShuffleSource shuffleSource,
+                         SessionStore sessions) {
+        this(socket, gm, paytables, shuffleSource, sessions, null);
+    }
+
+    /**
+     * Constructor to initialize ClientHandler with the ledger every settlement is posted to.
+     *
+     * @param socket        The client socket.
+     * @param gm            The GameManager instance.
+     * @param paytables     The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness for each round's deal.
+     * @param sessions      The sessions clients can resume, shared by every connection.
+     * @param ledger        The bankroll ledger, or null for none.
+     */
+    public ClientHandler(Socket socket, GameManager gm, Paytables paytables, ShuffleSource shuffleSource,
+                         SessionStore sessions, Ledger ledger) {
         this.socket = socket;
         this.gameManager = gm;
         this.running = true;
-        this.deck = new Deck();
+        this.paytables = paytables;
+        this.shuffleSource = shuffleSource;
+        this.sessions = sessions;
+        this.ledger = ledger;
     }
 
     @Override
     public void run() {
         try {
-            // Initialize streams for communication
-            oos = new ObjectOutputStream(socket.getOutputStream());
-            ois = new ObjectInputStream(socket.getInputStream());
+            // Initialize streams for communication in the format the client opens with
+            openStreams();
             clientName = socket.getRemoteSocketAddress().toString();
+            session = new GameSession(gameManager, clientName, paytables, shuffleSource, ledger);
             gameManager.logConnection(clientName); // Log new connection
 
             while (running) {
                 // Read incoming message from client
-                PokerInfo info = (PokerInfo) ois.readObject();
-                
+                PokerInfo info = binary ? PokerCodec.read(in) : (PokerInfo) ois.readObject();
+                if (!sessions.touch(session, this)) {
+                    break; // Resumed on another connection
+                }
+
                 // Handle disconnect message
                 if (info.getMessageType() == PokerInfo.MessageType.DISCONNECT) {
                     running = false;
+                    sessions.remove(session, this); // Left on purpose, nothing to resume
                     gameManager.logDisconnection(clientName); // Log disconnection
                     break;
                 }
 
-                // Handle different message types
-                switch (info.getMessageType()) {
-                    case BETS:
-                        handleBets(info);
-                        break;
-                    case PLAY:
-                        handlePlay(info);
-                        break;
-                    case FOLD:
-                        handleFold(info);
-                        break;
-                    default:
-                        // Unknown message type
-                        gameManager.logResult("Unknown message type from " + clientName);
-                        break;
+                // Open or resume the session, or deal, settle or log the message; send the reply if there is one
+                PokerInfo response;
+                if (info.getMessageType() == PokerInfo.MessageType.CONNECT) {
+                    session = sessions.connect(info, session, this);
+                    response = session.connected(info);
+                } else {
+                    response = session.handle(info);
+                }
+                if (response != null) {
+                    session.awaitDurable(); // Outside the session's lock; returns at once without new settlements
+                    send(response);
                 }
             }
 
         } catch (Exception e) {
-            // Log any exceptions that occur
-            gameManager.logResult("Exception in client handler (" + clientName + "): " + e.getMessage());
-            e.printStackTrace();
+            if (!closed) { // A read cut by close is the expected end
+                // Log any exceptions that occur
+                gameManager.logResult("Exception in client handler (" + clientName + "): " + e.getMessage());
+                e.printStackTrace();
+            }
         } finally {
             try {
                 socket.close(); // Ensure socket is closed
@@ -77,107 +155,58 @@ public class ClientHandler extends Thread {
                 // Ignore exceptions on close
             }
             if (running) {
+                if (session != null) {
+                    sessions.detach(session, this); // Kept for the client to resume
+                }
                 gameManager.logDisconnection(clientName); // Log disconnection if not already
             }
         }
     }
 
     /**
-     * Handles BETS message type by dealing and sending hands to the client.
-     *
-     * @param info The PokerInfo message received.
-     * @throws Exception If an error occurs during handling.
+     * Peeks at the client's first bytes and opens binary or object streams to match.
+     * A legacy client has already sent its stream header, so waiting for it cannot deadlock.
      */
-    private void handleBets(PokerInfo info) throws Exception {
-        deck = new Deck();
-        deck.shuffle(); // Shuffle the deck
-        ArrayList<Card> playerHand = new ArrayList<>(deck.dealHand()); // Deal player's hand
-        ArrayList<Card> dealerHand = new ArrayList<>(deck.dealHand()); // Deal dealer's hand
-
-        // Prepare DEAL response
-        PokerInfo response = new PokerInfo();
-        response.setMessageType(PokerInfo.MessageType.DEAL);
-        response.setPlayerHand(playerHand);
-        response.setDealerHand(dealerHand);
-
-        // Send DEAL message to client
-        oos.writeObject(response);
-        oos.flush();
+    private void openStreams() throws Exception {
+        InputStream raw = new BufferedInputStream(socket.getInputStream());
+        raw.mark(PokerCodec.HELLO_BYTES);
+        byte[] head = raw.readNBytes(PokerCodec.HELLO_BYTES);
+        int version = PokerCodec.helloVersion(head);
+        if (version > 0) {
+            binary = true;
+            out = new BufferedOutputStream(socket.getOutputStream());
+            in = new DataInputStream(raw);
+            out.write(PokerCodec.hello(Math.min(version, PokerCodec.VERSION))); // Accept the hello
+            out.flush();
+        } else {
+            raw.reset(); // The bytes belong to the object stream header
+            oos = new ObjectOutputStream(socket.getOutputStream());
+            ois = new ObjectInputStream(raw);
+        }
     }
 
     /**
-     * Handles PLAY message type by evaluating game results and sending them to the client.
-     *
-     * @param info The PokerInfo message received.
-     * @throws Exception If an error occurs during handling.
+     * Closes the connection when the server stops. The handler finishes the message it is
+     * handling, if any, and ends; its session stays in the store for the client to resume.
      */
-    private void handlePlay(PokerInfo info) throws Exception {
-        ArrayList<Card> playerHand = info.getPlayerHand();
-        ArrayList<Card> dealerHand = info.getDealerHand();
-        boolean dq = ThreeCardLogic.dealerQualifies(dealerHand); // Check if dealer qualifies
-        int gameRes;
-
-        if (!dq) {
-            // Dealer doesn't qualify: Tie result
-            gameRes = 0;
-        } else {
-            // Compare hands to determine winner
-            gameRes = ThreeCardLogic.compareHands(dealerHand, playerHand);
-        }
-
-        // Calculate Pair Plus winnings
-        int ppWinnings = ThreeCardLogic.evalPPWinnings(playerHand, info.getPairPlusBet());
-
-        // Set game results
-        info.setGameResult(gameRes);
-        info.setPairPlusWinnings(ppWinnings);
-        info.setDealerQualifies(dq);
-
-        // Create result string for logging
-        String resStr;
-        if (gameRes > 0) {
-            resStr = "Player wins against dealer. Bets: Ante=$" + info.getAnteBet()
-                    + ", Play=$" + info.getPlayBet() + ", PP=$" + info.getPairPlusBet();
-        } else if (gameRes < 0) {
-            resStr = "Dealer wins against player. Bets: Ante=$" + info.getAnteBet()
-                    + ", Play=$" + info.getPlayBet() + ", PP=$" + info.getPairPlusBet();
-        } else {
-            resStr = "Tie/Dealer doesn't qualify. Bets: Ante=$" + info.getAnteBet()
-                    + ", Play=$" + info.getPlayBet() + ", PP=$" + info.getPairPlusBet();
-        }
-        if (ppWinnings > 0) {
-            resStr += " Player wins PairPlus: $" + ppWinnings;
+    public void close() {
+        closed = true;
+        try {
+            socket.close(); // Unblocks the read
+        } catch (Exception e) {
+            // Ignore exceptions on close
         }
-
-        // Log the result
-        gameManager.logResult("Client " + clientName + ": " + resStr);
-
-        // Send RESULT message to client
-        info.setMessageType(PokerInfo.MessageType.RESULT);
-        oos.writeObject(info);
-        oos.flush();
     }
 
     /**
-     * Handles FOLD message type by updating game state and notifying the client.
-     *
-     * @param info The PokerInfo message received.
-     * @throws Exception If an error occurs during handling.
+     * Sends a message in the connection's format.
      */
-    private void handleFold(PokerInfo info) throws Exception {
-        // Create result string for folding
-        String resStr = "Player folds. Lost Ante=$" + info.getAnteBet();
-        if (info.getPairPlusBet() > 0) {
-            resStr += " and PP=$" + info.getPairPlusBet();
+    private void send(PokerInfo response) throws Exception {
+        if (binary) {
+            PokerCodec.write(out, response);
+        } else {
+            oos.writeObject(response);
+            oos.flush();
         }
-        gameManager.logResult("Client " + clientName + ": " + resStr);
-
-        // Set game result for folding
-        info.setMessageType(PokerInfo.MessageType.RESULT);
-        info.setGameResult(-1); // Indicate player loss by folding
-
-        // Send RESULT message to client
-        oos.writeObject(info);
-        oos.flush();
     }
 }
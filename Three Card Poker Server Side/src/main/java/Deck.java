@@ -1,35 +1,56 @@
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.io.Serializable;
+import java.util.random.RandomGenerator;
 
 /**
  * A standard deck of 52 playing cards.
+ * Backed by a PackedDeck, so shuffling is O(1) and only the cards dealt are randomised.
  */
 public class Deck implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
-    // List holding the cards in the deck
-    private List<Card> cards;
+    // Cards in the deck, as card ordinals
+    private final PackedDeck cards;
+
+    // Generator the deck deals from, or null for a per-thread one
+    private final transient RandomGenerator rng;
 
     /**
-     * Constructs a new Deck with 52 standard playing cards.
+     * Constructs a new Deck with 52 standard playing cards, ordered by suit then rank.
      */
     public Deck() {
-        cards = new ArrayList<>();
-        // Initialize deck with all suits and ranks
-        for (int s = 1; s <= 4; s++) { // Iterate through suits
-            for (int r = 2; r <= 14; r++) { // Iterate through ranks
-                cards.add(new Card(r, s)); // Add new card to deck
-            }
-        }
+        cards = new PackedDeck();
+        cards.order();
+        rng = null;
+    }
+
+    /**
+     * Constructs a new shuffled Deck that deals from the given random generator,
+     * e.g. a SecureRandom or a seeded SplittableRandom for reproducible deals.
+     *
+     * @param rng the random generator to draw from
+     */
+    public Deck(RandomGenerator rng) {
+        cards = new PackedDeck(rng);
+        this.rng = rng;
     }
 
     /**
-     * Shuffles the deck randomly.
+     * Shuffles the deck randomly, using the generator it was created with, or a per-thread
+     * generator if it was created without one.
      */
     public void shuffle() {
-        Collections.shuffle(cards); // Shuffle the list of cards
+        cards.shuffleRemaining(rng); // Remaining cards are dealt at random
+    }
+
+    /**
+     * Shuffles the deck using the given random generator, e.g. a simulator's own stream.
+     *
+     * @param rng the random generator to draw from
+     */
+    public void shuffle(RandomGenerator rng) {
+        cards.shuffleRemaining(rng);
     }
 
     /**
@@ -38,10 +59,25 @@ public class Deck implements Serializable {
      * @return the dealt Card, or null if the deck is empty
      */
     public Card dealCard() {
-        if (!cards.isEmpty()) {
-            return cards.remove(0); // Remove and return the top card
-        }
-        return null; // No cards left to deal
+        return cards.dealCard();
+    }
+
+    /**
+     * Deals a single card from the top of the deck as a card ordinal (0..51).
+     *
+     * @return the ordinal of the dealt card, or -1 if the deck is empty
+     */
+    public int dealOrdinal() {
+        return cards.dealOrdinal();
+    }
+
+    /**
+     * Deals a hand of three cards as a packed hand code (see PackedHand).
+     *
+     * @return the packed hand code
+     */
+    public int dealPackedHand() {
+        return cards.dealPackedHand();
     }
 
     /**
@@ -50,7 +86,7 @@ public class Deck implements Serializable {
      * @return a list containing three dealt Cards
      */
     public List<Card> dealHand() {
-        List<Card> hand = new ArrayList<>();
+        List<Card> hand = new ArrayList<>(3);
         for (int i = 0; i < 3; i++) {
             hand.add(dealCard()); // Add dealt card to the hand
         }
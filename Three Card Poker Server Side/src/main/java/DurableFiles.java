@@ -0,0 +1,42 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces files so the replacement survives a crash, for the Ledger and StateSnapshot.
+ *
+ * An atomic move only changes the directory entry, and until the directory itself is
+ * forced to disk a crash can bring back the old entry. So the directory is forced after
+ * the move, before anything that relies on the new file being in place.
+ */
+final class DurableFiles {
+
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private DurableFiles() {
+    }
+
+    /**
+     * Atomically moves a file, already forced to disk, over the target and forces the target's directory.
+     */
+    static void replace(Path temp, Path target) throws IOException {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Forces a directory's entries to disk. Windows cannot open a directory, and makes a
+     * move durable on its own, so this does nothing there.
+     */
+    static void forceDirectory(Path dir) throws IOException {
+        if (WINDOWS) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+}
@@ -1,15 +1,75 @@
 import javafx.application.Platform;
 import javafx.collections.ObservableList;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Manages information about games played and updates the UI ListView on the main scene.
+ *
+ * Logging does not block the client threads on each other: a log call only stamps the
+ * time and adds the line to a lock-free queue. One consumer thread, started by the first
+ * line, drains the queue. It formats each line, writes the lines it took to the console
+ * (or the file set by poker.log.file) in one write of up to 64 KB, and at most 20 times
+ * a second adds the lines gathered since to the UI list in one Platform.runLater, with
+ * the client count.
  */
 public class GameManager {
+
+    // System property naming a file the log is appended to instead of the console
+    public static final String FILE_PROPERTY = "poker.log.file";
+
+    private static final long UI_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50); // 20 UI updates a second
+    private static final int BATCH_CHARS = 64 * 1024; // Largest write to the console or log file
+
+    /**
+     * A line logged but not yet formatted, or a flush marker.
+     */
+    private static final class Line {
+        final long millis;        // Time logged
+        final String prefix;      // Text between the timestamp and the message
+        final String text;        // The message
+        final CountDownLatch done; // Released once the lines before it are written, for flush; else null
+
+        Line(long millis, String prefix, String text, CountDownLatch done) {
+            this.millis = millis;
+            this.prefix = prefix;
+            this.text = text;
+            this.done = done;
+        }
+    }
+
     private ObservableList<String> gameLog; // Observable list to store game log messages
-    private int clientCount = 0; // Tracks the number of connected clients
-    private MainController mainController; // Reference to MainController for UI updates
+    private final AtomicInteger clientCount = new AtomicInteger(); // Tracks the number of connected clients
+    private volatile MainController mainController; // Reference to MainController for UI updates
+    private final Writer out;              // Console or log file, written by the consumer only
+    private final Queue<Line> queue = new ConcurrentLinkedQueue<>(); // Lines logged and not yet taken
+    private final AtomicBoolean started = new AtomicBoolean(); // Set by the line that starts the consumer
+    private volatile Thread consumer;      // Drains the queue
+    private volatile boolean sleeping;     // Set while the consumer may park, so producers wake it
+    private volatile long linesWritten;    // Lines written to out
+    private volatile long writes;          // Writes to out, one per batch
+    private volatile long uiUpdates;       // Platform.runLater calls
+
+    private long stampSecond = Long.MIN_VALUE; // Second of the cached timestamp, consumer only
+    private String stamp;                  // Formatted timestamp of that second
 
     // Formatter for timestamps in log messages
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -20,7 +80,18 @@ public class GameManager {
      * @param gameLog The observable list to log game events.
      */
     public GameManager(ObservableList<String> gameLog) {
+        this(gameLog, configuredOut());
+    }
+
+    /**
+     * Creates a GameManager writing its log to the given writer.
+     *
+     * @param gameLog The observable list to log game events, or null for no UI.
+     * @param out     Where every line is written, in batches.
+     */
+    GameManager(ObservableList<String> gameLog, Writer out) {
         this.gameLog = gameLog;
+        this.out = out;
     }
 
     /**
@@ -37,22 +108,9 @@ public class GameManager {
      *
      * @param clientInfo Information about the connected client.
      */
-    public synchronized void logConnection(String clientInfo) {
-        clientCount++; // Increment client count
-        String timeStamp = LocalDateTime.now().format(formatter); // Get current timestamp
-        String logMessage = "[" + timeStamp + "] New client connected: " + clientInfo;
-        System.out.println(logMessage); // Print to console for debugging
-
-        // Update the game log and UI on the JavaFX Application Thread
-        Platform.runLater(() -> {
-            gameLog.add(logMessage); // Add log message to the observable list
-            if (mainController != null) {
-                mainController.updateClientCount(clientCount); // Update client count in UI
-                System.out.println("Updated client count to: " + clientCount); // Debug statement
-            } else {
-                System.out.println("MainController is null."); // Debug if controller is not set
-            }
-        });
+    public void logConnection(String clientInfo) {
+        clientCount.incrementAndGet(); // Increment client count
+        enqueue(new Line(System.currentTimeMillis(), "New client connected: ", clientInfo, null));
     }
 
     /**
@@ -60,24 +118,9 @@ public class GameManager {
      *
      * @param clientInfo Information about the disconnected client.
      */
-    public synchronized void logDisconnection(String clientInfo) {
-        if (clientCount > 0) {
-            clientCount--; // Decrement client count if above zero
-        }
-        String timeStamp = LocalDateTime.now().format(formatter); // Get current timestamp
-        String logMessage = "[" + timeStamp + "] Client disconnected: " + clientInfo;
-        System.out.println(logMessage); // Print to console for debugging
-
-        // Update the game log and UI on the JavaFX Application Thread
-        Platform.runLater(() -> {
-            gameLog.add(logMessage); // Add log message to the observable list
-            if (mainController != null) {
-                mainController.updateClientCount(clientCount); // Update client count in UI
-                System.out.println("Updated client count to: " + clientCount); // Debug statement
-            } else {
-                System.out.println("MainController is null."); // Debug if controller is not set
-            }
-        });
+    public void logDisconnection(String clientInfo) {
+        clientCount.updateAndGet(count -> count > 0 ? count - 1 : 0); // Decrement client count if above zero
+        enqueue(new Line(System.currentTimeMillis(), "Client disconnected: ", clientInfo, null));
     }
 
     /**
@@ -85,14 +128,174 @@ public class GameManager {
      *
      * @param resultInfo The result or event information to log.
      */
-    public synchronized void logResult(String resultInfo) {
-        String timeStamp = LocalDateTime.now().format(formatter); // Get current timestamp
-        String logMessage = "[" + timeStamp + "] " + resultInfo;
-        System.out.println(logMessage); // Print to console for debugging
-
-        // Add the log message to the observable list on the JavaFX Application Thread
-        Platform.runLater(() -> {
-            gameLog.add(logMessage);
-        });
+    public void logResult(String resultInfo) {
+        enqueue(new Line(System.currentTimeMillis(), "", resultInfo, null));
+    }
+
+    /**
+     * Waits until every line logged before the call has been written to the console or log file.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        enqueue(new Line(0, null, null, done));
+        done.await();
+    }
+
+    /**
+     * Returns the number of connected clients.
+     */
+    public int getClientCount() {
+        return clientCount.get();
+    }
+
+    /**
+     * Returns the number of lines written to the console or log file.
+     */
+    public long getLinesWritten() {
+        return linesWritten;
+    }
+
+    /**
+     * Returns the number of batched writes to the console or log file.
+     */
+    public long getWrites() {
+        return writes;
+    }
+
+    /**
+     * Returns the number of batched updates posted to the UI.
+     */
+    public long getUiUpdates() {
+        return uiUpdates;
+    }
+
+    // Opens the file set by poker.log.file for appending, or returns the console
+    private static Writer configuredOut() {
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file != null && !file.isBlank()) {
+            try {
+                return Files.newBufferedWriter(Paths.get(file.trim()), Charset.defaultCharset(),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                System.err.println("Cannot open log file " + file + ", logging to the console: " + e.getMessage());
+            }
+        }
+        return new OutputStreamWriter(System.out, Charset.defaultCharset());
+    }
+
+    // Adds a line to the queue, starting the consumer on the first and waking it if it sleeps
+    private void enqueue(Line line) {
+        queue.offer(line);
+        if (started.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::drainLoop, "poker-log");
+            thread.setDaemon(true);
+            consumer = thread;
+            thread.start();
+        } else if (sleeping) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    // Drains the queue forever: writes each batch, and updates the UI at most every UI interval
+    private void drainLoop() {
+        StringBuilder batch = new StringBuilder(8192);
+        List<String> pending = new ArrayList<>();      // Lines for the UI since its last update
+        List<CountDownLatch> flushed = new ArrayList<>();
+        long nextUiUpdate = System.nanoTime();
+        int shownCount = -1;                           // Client count last posted to the UI
+        while (true) {
+            int lines = 0;
+            Line line;
+            while ((line = queue.poll()) != null) {
+                if (line.done != null) {
+                    flushed.add(line.done);
+                    continue;
+                }
+                String logMessage = "[" + timestamp(line.millis) + "] " + line.prefix + line.text;
+                batch.append(logMessage).append(System.lineSeparator());
+                if (gameLog != null) {
+                    pending.add(logMessage);
+                }
+                lines++;
+                if (batch.length() >= BATCH_CHARS) {
+                    write(batch, lines);
+                    batch.setLength(0);
+                    lines = 0;
+                }
+            }
+            if (lines > 0) {
+                write(batch, lines);
+                batch.setLength(0);
+            }
+            for (CountDownLatch done : flushed) {
+                done.countDown();
+            }
+            flushed.clear();
+
+            long now = System.nanoTime();
+            MainController controller = mainController;
+            int count = clientCount.get();
+            boolean countChanged = controller != null && count != shownCount;
+            if ((!pending.isEmpty() || countChanged) && now - nextUiUpdate >= 0) {
+                updateUi(pending, controller, count);
+                pending = new ArrayList<>();
+                if (controller != null) {
+                    shownCount = count;
+                }
+                nextUiUpdate = now + UI_INTERVAL_NANOS;
+                countChanged = false;
+            }
+
+            sleeping = true;
+            if (queue.isEmpty()) { // Checked after setting sleeping, so a line added now unparks
+                if (pending.isEmpty() && !countChanged) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, Math.max(nextUiUpdate - now, 1)); // Until the next UI update
+                }
+            }
+            sleeping = false;
+        }
+    }
+
+    // Writes a batch of formatted lines to the console or log file in one write
+    private void write(StringBuilder batch, int lines) {
+        try {
+            out.write(batch.toString());
+            out.flush();
+            linesWritten += lines;
+            writes++;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Adds the pending lines to the game log and shows the client count, in one task on the JavaFX thread
+    private void updateUi(List<String> lines, MainController controller, int count) {
+        try {
+            Platform.runLater(() -> {
+                if (!lines.isEmpty()) {
+                    gameLog.addAll(lines); // Add log messages to the observable list
+                }
+                if (controller != null) {
+                    controller.updateClientCount(count); // Update client count in UI
+                }
+            });
+            uiUpdates++;
+        } catch (IllegalStateException e) {
+            // JavaFX is not running: there is no UI to update
+        }
+    }
+
+    // Formats the time of a line, reusing the last timestamp while the second is the same
+    private String timestamp(long millis) {
+        long second = Math.floorDiv(millis, 1000);
+        if (second != stampSecond) {
+            stampSecond = second;
+            stamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).format(formatter);
+        }
+        return stamp;
     }
 }
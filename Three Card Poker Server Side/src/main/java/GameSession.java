@@ -0,0 +1,694 @@
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The game played over one client connection, independent of how messages travel.
+ *
+ * A session is a small state machine for the BETS, DEAL, PLAY or FOLD, RESULT flow:
+ * BETS deals a round and answers with DEAL, after which the round waits for the
+ * player's PLAY or FOLD, which is settled and answered with RESULT. Both server
+ * engines drive it: ClientHandler from its own thread and NioServer from an event loop.
+ * A session is played by one connection at a time; it can move to another connection,
+ * and thread, when a reconnecting client resumes it (see SessionStore), so its message
+ * handling is synchronized.
+ *
+ * The session is the authority on the round: it keeps the dealt hands and the bets,
+ * and the DEAL gives the round an id. A round is dealt only between rounds: a BETS
+ * while a round waits for its decision is rejected, so a hand cannot be redealt. Bets
+ * outside the table limits (MIN_BET, MAX_BET) are rejected before anything is dealt.
+ * A PLAY or FOLD needs to carry only the round id (0 for the current round, as clients
+ * without round ids send) and the decision; any hands or bets in it are ignored, so a
+ * client cannot change the cards it is settled on.
+ *
+ * Between rounds a client may instead send a BATCH of rounds, each with its bets and a
+ * decision: PLAY or FOLD committed in advance, or BETS to let the optimal strategy
+ * decide once the hand is dealt. The session deals, decides and settles every round in
+ * one pass, logging each as a single round, and answers with one BATCH of RESULTs.
+ *
+ * A BETS message may also carry spots, 1 to MAX_SPOTS player hands with their own bets.
+ * The DEAL then holds a hand per spot, dealt from the same deck as the one dealer hand,
+ * and the PLAY or FOLD that follows marks each spot PLAY or FOLD. All spots are settled
+ * together against a single evaluation of the dealer hand and returned in one RESULT.
+ *
+ * A client resuming the session after its connection dropped is answered with the DEAL of
+ * the round still waiting for its decision, or, if the round it last saw dealt has been
+ * settled since, with that round's RESULT, so it needs no new deal.
+ *
+ * With a Ledger, every settled round changes the balance of the session's account (its
+ * token) by the round's net winnings, and the RESULT is sent once the change is durable:
+ * handle posts the change without waiting for it, and the transport holds the reply until
+ * durable completes (awaitDurable on a thread that may block). A BATCH waits once, for its
+ * last round.
+ *
+ * For a warm restart a session writes its state, including the round in flight, to a
+ * StateSnapshot and is read back from it (writeState, readState). A restored table
+ * deals from a new shoe. The state records the ledger sequence number of the session's
+ * last settlement; if the ledger holds a later change for the account, the session
+ * settled after the snapshot was written, and its round in flight is dropped rather than
+ * settled twice.
+ *
+ * Once the SessionStore drops a session, no client can resume it, and the session retires
+ * its ledger account (retire).
+ */
+public class GameSession {
+
+    // Most rounds one BATCH may hold, so the reply fits in a single frame
+    public static final int MAX_BATCH_ROUNDS = 500;
+
+    // Most spots one player may play in a round
+    public static final int MAX_SPOTS = 5;
+
+    // Table limits, the same the client checks: ante MIN_BET to MAX_BET, Pair Plus 0 or MIN_BET to MAX_BET
+    public static final int MIN_BET = 5;
+    public static final int MAX_BET = 25;
+
+    // Session tokens cannot be guessed to take over a session
+    private static final SecureRandom TOKENS = new SecureRandom();
+
+    /**
+     * Where the session is in the round flow.
+     */
+    public enum State {
+        AWAITING_BETS,    // No round in progress
+        AWAITING_DECISION // Hands dealt, waiting for PLAY or FOLD
+    }
+
+    /**
+     * A dealt round: the hands and bets its decision is settled on.
+     */
+    private static final class Round {
+        final int id;             // Round id sent with the DEAL
+        final boolean multiSpot;  // Dealt from a BETS with spots
+        final int dealerHand;     // Packed dealer hand
+        final int[] playerHands;  // Packed player hand on each spot
+        final int[] anteBets;     // Ante on each spot
+        final int[] pairPlusBets; // Pair Plus bet on each spot
+
+        Round(int id, boolean multiSpot, int dealerHand, int[] playerHands, int[] anteBets, int[] pairPlusBets) {
+            this.id = id;
+            this.multiSpot = multiSpot;
+            this.dealerHand = dealerHand;
+            this.playerHands = playerHands;
+            this.anteBets = anteBets;
+            this.pairPlusBets = pairPlusBets;
+        }
+    }
+
+    private final GameManager gameManager;     // Reference to the game manager
+    private String clientName;                 // Identifier for the client's current connection
+    private final Paytables paytables;         // Pair Plus and Ante Bonus paytables in use
+    private final ShuffleSource shuffleSource; // Randomness for each round's deal
+    private final PackedDeck deck = new PackedDeck(); // Deck of cards, reused every round
+    private final Shoe shoe;                   // Multi-deck shoe the table deals from, or null for a fresh deck every round
+    private long roundSeed;                    // Seed of the round in progress, logged so it can be replayed
+    private int lastRoundId;                   // Id of the last round dealt
+    private Round round;                       // Round waiting for its decision, or null
+    private PokerInfo lastResult;              // RESULT of the last round settled by a decision, for resume
+    private volatile long sessionToken;        // Random token naming the session, and its ledger account
+    private final Ledger ledger;               // Bankroll every settlement is posted to, or null
+    private volatile long lastPosted;          // Sequence number of the last change posted to the ledger
+
+    /**
+     * Creates the session for a connected client.
+     *
+     * @param gm            The GameManager instance.
+     * @param clientName    Identifier for the client used in the log.
+     * @param paytables     The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness for each round's deal.
+     */
+    public GameSession(GameManager gm, String clientName, Paytables paytables, ShuffleSource shuffleSource) {
+        this(gm, clientName, paytables, shuffleSource, null);
+    }
+
+    /**
+     * Creates the session for a connected client, posting every settlement to a ledger.
+     *
+     * @param gm            The GameManager instance.
+     * @param clientName    Identifier for the client used in the log.
+     * @param paytables     The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness for each round's deal.
+     * @param ledger        The bankroll ledger, or null for none.
+     */
+    public GameSession(GameManager gm, String clientName, Paytables paytables, ShuffleSource shuffleSource,
+                       Ledger ledger) {
+        this(gm, clientName, paytables, shuffleSource, ledger, newToken());
+    }
+
+    // Creates a session with a known token, as restored from a snapshot
+    private GameSession(GameManager gm, String clientName, Paytables paytables, ShuffleSource shuffleSource,
+                        Ledger ledger, long sessionToken) {
+        this.gameManager = gm;
+        this.clientName = clientName;
+        this.paytables = paytables;
+        this.shuffleSource = shuffleSource;
+        this.shoe = shuffleSource.newShoe();
+        this.sessionToken = sessionToken;
+        this.ledger = ledger;
+    }
+
+    /**
+     * Returns a new random, non-zero session token.
+     */
+    static long newToken() {
+        long token;
+        do {
+            token = TOKENS.nextLong();
+        } while (token == 0);
+        return token;
+    }
+
+    /**
+     * Handles a BETS, PLAY, FOLD or BATCH message and returns the reply to send, or null if
+     * the message gets no reply (it is logged instead).
+     * DISCONNECT is handled by the transport, which owns the connection.
+     *
+     * @param info The PokerInfo message received.
+     */
+    public synchronized PokerInfo handle(PokerInfo info) {
+        switch (info.getMessageType()) {
+            case BETS:
+                if (!expectBets(info)) {
+                    return null;
+                }
+                return info.getSpots() != null ? handleSpotBets(info) : handleBets(info);
+            case PLAY:
+            case FOLD:
+                return expectDecision(info) ? handleDecision(info) : null;
+            case BATCH:
+                return expectBatch(info) ? handleBatch(info) : null;
+            default:
+                // Unknown message type
+                gameManager.logResult("Unknown message type from " + clientName);
+                return null;
+        }
+    }
+
+    public synchronized State getState() {
+        return round == null ? State.AWAITING_BETS : State.AWAITING_DECISION;
+    }
+
+    public synchronized String getClientName() {
+        return clientName;
+    }
+
+    public long getSessionToken() {
+        return sessionToken;
+    }
+
+    /**
+     * Returns the balance of the session's ledger account, or 0 without a ledger.
+     */
+    public long getBalance() {
+        return ledger == null ? 0 : ledger.balance(sessionToken);
+    }
+
+    /**
+     * Closes the session's ledger account once the session can no longer be resumed (see
+     * Ledger.retire), logging the balance paid out. A session that never settled has none.
+     */
+    synchronized void retire() {
+        if (ledger != null && lastPosted > 0) {
+            try {
+                long closing = ledger.retire(sessionToken);
+                lastPosted = 0;
+                gameManager.logResult("Closed the account of " + clientName + " at $" + closing);
+            } catch (IllegalStateException e) { // Closed or failed: the account stays as it is
+                gameManager.logResult("Could not close the account of " + clientName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    void setSessionToken(long sessionToken) {
+        this.sessionToken = sessionToken;
+    }
+
+    /**
+     * Moves the session to a reconnected client's connection and logs the resume.
+     *
+     * @param clientName Identifier for the new connection used in the log.
+     */
+    synchronized void resume(String clientName) {
+        gameManager.logResult("Client " + clientName + " resumed the session of " + this.clientName
+                + (round != null ? " with round " + round.id + " in flight" : ""));
+        this.clientName = clientName;
+    }
+
+    /**
+     * Returns the reply to a CONNECT, carrying the session token: the DEAL of the round
+     * waiting for its decision, the RESULT of the round the client last saw dealt if that
+     * round has been settled, or otherwise a CONNECT.
+     *
+     * @param info The CONNECT message received, with the id of the client's last dealt round.
+     */
+    public synchronized PokerInfo connected(PokerInfo info) {
+        PokerInfo response;
+        if (round != null) {
+            response = deal(round);
+        } else if (lastResult != null && info.getRoundId() == lastResult.getRoundId()) {
+            response = lastResult; // Settled after the reply was lost with the connection
+        } else {
+            response = new PokerInfo();
+            response.setMessageType(PokerInfo.MessageType.CONNECT);
+        }
+        response.setSessionToken(sessionToken);
+        return response;
+    }
+
+    // Checks a PLAY or FOLD decides the dealt round, with a decision for each of its spots, logging it if not
+    private boolean expectDecision(PokerInfo info) {
+        if (round == null) {
+            gameManager.logResult("Unexpected " + info.getMessageType() + " before BETS from " + clientName);
+            return false;
+        }
+        if (info.getRoundId() != 0 && info.getRoundId() != round.id) {
+            gameManager.logResult(info.getMessageType() + " for round " + info.getRoundId() + " from " + clientName
+                    + " does not match round " + round.id);
+            return false;
+        }
+        int spots = info.getSpots() == null ? 0 : info.getSpots().size();
+        if (round.multiSpot && spots != round.playerHands.length || !round.multiSpot && spots != 0) {
+            gameManager.logResult(info.getMessageType() + " with " + spots + " spots from " + clientName
+                    + " does not match the " + (round.multiSpot ? round.playerHands.length : 0) + " dealt");
+            return false;
+        }
+        return true;
+    }
+
+    // Checks a BETS arrives between rounds, and that a multi-spot one holds 1 to MAX_SPOTS spots, logging it if not
+    private boolean expectBets(PokerInfo info) {
+        if (round != null) {
+            gameManager.logResult("Unexpected BETS during round " + round.id + " from " + clientName);
+            return false; // Dealing again would let the player discard a hand they do not like
+        }
+        if (info.getSpots() == null) {
+            return expectLimits(info, "BETS");
+        }
+        if (!expectSpots(info)) {
+            return false;
+        }
+        for (PokerInfo spot : info.getSpots()) {
+            if (!expectLimits(spot, "BETS spot")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Checks a hand's bets are within the table limits, logging them if not
+    private boolean expectLimits(PokerInfo bets, String what) {
+        int ante = bets.getAnteBet();
+        int pairPlus = bets.getPairPlusBet();
+        if (ante >= MIN_BET && ante <= MAX_BET && (pairPlus == 0 || pairPlus >= MIN_BET && pairPlus <= MAX_BET)) {
+            return true;
+        }
+        gameManager.logResult(what + " with Ante=$" + ante + ", PP=$" + pairPlus + " from " + clientName
+                + " is outside the table limits of $" + MIN_BET + " to $" + MAX_BET);
+        return false;
+    }
+
+    // Checks a multi-spot message holds 1 to MAX_SPOTS spots, logging it if not
+    private boolean expectSpots(PokerInfo info) {
+        int size = info.getSpots().size();
+        if (size >= 1 && size <= MAX_SPOTS) {
+            return true;
+        }
+        gameManager.logResult(info.getMessageType() + " with " + size + " spots from " + clientName
+                + " must hold 1 to " + MAX_SPOTS);
+        return false;
+    }
+
+    // Checks a BATCH arrives between rounds and holds 1 to MAX_BATCH_ROUNDS rounds within the limits, logging it if not
+    private boolean expectBatch(PokerInfo info) {
+        if (round != null) {
+            gameManager.logResult("Unexpected BATCH during a round from " + clientName);
+            return false;
+        }
+        int size = info.getRounds() == null ? 0 : info.getRounds().size();
+        if (size == 0 || size > MAX_BATCH_ROUNDS) {
+            gameManager.logResult("Batch of " + size + " rounds from " + clientName
+                    + " must hold 1 to " + MAX_BATCH_ROUNDS);
+            return false;
+        }
+        for (PokerInfo bets : info.getRounds()) {
+            if (!expectLimits(bets, "BATCH round")) {
+                return false; // Nothing in the batch is dealt
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Starts a round and returns the cards to deal it from.
+     */
+    private CardSource newRound() {
+        if (shoe != null) {
+            shoe.newRound(); // Reshuffles once the cut card is out
+            return shoe;
+        }
+        roundSeed = shuffleSource.newRound(deck); // Return all cards; dealing shuffles as it goes
+        return deck;
+    }
+
+    /**
+     * Deals a single-hand round with the given bets.
+     */
+    private Round dealRound(int anteBet, int pairPlusBet) {
+        CardSource cards = newRound();
+        int playerHand = cards.dealPackedHand(); // Deal player's hand
+        int dealerHand = cards.dealPackedHand(); // Deal dealer's hand
+        return new Round(++lastRoundId, false, dealerHand, new int[] {playerHand},
+                new int[] {anteBet}, new int[] {pairPlusBet});
+    }
+
+    /**
+     * Handles BETS message type by dealing the hands to send to the client.
+     *
+     * @param info The PokerInfo message received.
+     */
+    private PokerInfo handleBets(PokerInfo info) {
+        round = dealRound(info.getAnteBet(), info.getPairPlusBet());
+        return deal(round);
+    }
+
+    /**
+     * Handles a multi-spot BETS message by dealing a hand for every spot and one dealer hand.
+     *
+     * @param info The PokerInfo message received.
+     */
+    private PokerInfo handleSpotBets(PokerInfo info) {
+        ArrayList<PokerInfo> spots = info.getSpots();
+        CardSource cards = newRound();
+        int[] playerHands = new int[spots.size()];
+        int[] anteBets = new int[spots.size()];
+        int[] pairPlusBets = new int[spots.size()];
+        for (int i = 0; i < spots.size(); i++) {
+            playerHands[i] = cards.dealPackedHand(); // Deal each spot's hand
+            anteBets[i] = spots.get(i).getAnteBet();
+            pairPlusBets[i] = spots.get(i).getPairPlusBet();
+        }
+        int dealerHand = cards.dealPackedHand(); // Deal dealer's hand
+        round = new Round(++lastRoundId, true, dealerHand, playerHands, anteBets, pairPlusBets);
+        return deal(round);
+    }
+
+    /**
+     * Returns the DEAL message of a dealt round: the player hand, or a hand and the bets per spot.
+     * The dealer hand stays on the server until the RESULT, so the player decides without seeing it.
+     */
+    private static PokerInfo deal(Round round) {
+        PokerInfo response = new PokerInfo();
+        response.setMessageType(PokerInfo.MessageType.DEAL);
+        response.setRoundId(round.id);
+        if (!round.multiSpot) {
+            response.setPackedPlayerHand(round.playerHands[0]);
+            return response;
+        }
+        ArrayList<PokerInfo> dealt = new ArrayList<>(round.playerHands.length);
+        for (int i = 0; i < round.playerHands.length; i++) {
+            PokerInfo spot = new PokerInfo();
+            spot.setMessageType(PokerInfo.MessageType.DEAL);
+            spot.setAnteBet(round.anteBets[i]);
+            spot.setPairPlusBet(round.pairPlusBets[i]);
+            spot.setPackedPlayerHand(round.playerHands[i]);
+            dealt.add(spot);
+        }
+        response.setSpots(dealt);
+        return response;
+    }
+
+    /**
+     * Handles PLAY and FOLD message types by settling the dealt round to send the RESULT
+     * to the client. A multi-spot round plays each spot marked PLAY and folds the rest.
+     *
+     * @param info The PokerInfo message received.
+     */
+    private PokerInfo handleDecision(PokerInfo info) {
+        boolean[] play = new boolean[round.playerHands.length];
+        for (int i = 0; i < play.length; i++) {
+            PokerInfo decision = round.multiSpot ? info.getSpots().get(i) : info;
+            play[i] = decision.getMessageType() == PokerInfo.MessageType.PLAY;
+        }
+        PokerInfo result = settle(round, play);
+        round = null;
+        lastResult = result;
+        return result;
+    }
+
+    /**
+     * Settles a round, every played spot against one evaluation of the dealer hand, and
+     * logs each hand. The play bet of a played hand is its ante.
+     *
+     * @param round The dealt round.
+     * @param play  Whether each spot plays.
+     * @return the RESULT message: the hand itself, or the spots of a multi-spot round.
+     */
+    private PokerInfo settle(Round round, boolean[] play) {
+        int spots = round.playerHands.length;
+        int[] playBets = new int[spots];
+        for (int i = 0; i < spots; i++) {
+            playBets[i] = play[i] ? round.anteBets[i] : 0;
+        }
+        // Qualify, compare and pay Pair Plus in a single pass
+        RoundResult[] results = ThreeCardLogic.settleSpots(round.dealerHand, round.playerHands,
+                round.anteBets, playBets, round.pairPlusBets, paytables.getPairPlus(), paytables.getAnteBonus());
+
+        ArrayList<PokerInfo> hands = new ArrayList<>(spots);
+        long net = 0; // The player's winnings over every spot, negative for a loss
+        for (int i = 0; i < spots; i++) {
+            PokerInfo hand = new PokerInfo();
+            hand.setMessageType(PokerInfo.MessageType.RESULT);
+            hand.setAnteBet(round.anteBets[i]);
+            hand.setPairPlusBet(round.pairPlusBets[i]);
+            hand.setPlayBet(playBets[i]);
+            hand.setPackedPlayerHand(round.playerHands[i]);
+            String spot = round.multiSpot ? " spot " + (i + 1) : "";
+            if (play[i]) {
+                recordPlay(hand, results[i], spot);
+                int pairPlus = results[i].getPairPlusPayout();
+                net += results[i].getAntePayout() + results[i].getPlayPayout() + results[i].getAnteBonusPayout()
+                        + (pairPlus > 0 ? pairPlus : -round.pairPlusBets[i]);
+            } else {
+                recordFold(hand, spot);
+                net -= round.anteBets[i] + round.pairPlusBets[i];
+            }
+            hands.add(hand);
+        }
+        if (ledger != null) {
+            lastPosted = ledger.post(sessionToken, net);
+        }
+
+        PokerInfo response = round.multiSpot ? new PokerInfo() : hands.get(0);
+        response.setMessageType(PokerInfo.MessageType.RESULT);
+        response.setRoundId(round.id);
+        response.setPackedDealerHand(round.dealerHand);
+        response.setDealerQualifies(results[0].isDealerQualifies());
+        if (round.multiSpot) {
+            response.setSpots(hands);
+        }
+        return response;
+    }
+
+    /**
+     * Sets a played hand's results on its message and logs them.
+     *
+     * @param info   The message of the hand, RESULT fields set here.
+     * @param result The hand's settlement.
+     * @param spot   The spot in the log line, or nothing for a single-hand round.
+     */
+    private void recordPlay(PokerInfo info, RoundResult result, String spot) {
+        int gameRes = result.getOutcome();
+        int ppWinnings = result.getPairPlusPayout();
+        int anteBonus = result.getAnteBonusPayout();
+
+        // Set game results
+        info.setGameResult(gameRes);
+        info.setPairPlusWinnings(ppWinnings);
+        info.setAnteBonusWinnings(anteBonus);
+        info.setDealerQualifies(result.isDealerQualifies());
+
+        // Create result string for logging
+        String resStr;
+        if (gameRes > 0) {
+            resStr = "Player wins against dealer. Bets: Ante=$" + info.getAnteBet()
+                    + ", Play=$" + info.getPlayBet() + ", PP=$" + info.getPairPlusBet();
+        } else if (gameRes < 0) {
+            resStr = "Dealer wins against player. Bets: Ante=$" + info.getAnteBet()
+                    + ", Play=$" + info.getPlayBet() + ", PP=$" + info.getPairPlusBet();
+        } else {
+            resStr = "Tie/Dealer doesn't qualify. Bets: Ante=$" + info.getAnteBet()
+                    + ", Play=$" + info.getPlayBet() + ", PP=$" + info.getPairPlusBet();
+        }
+        if (ppWinnings > 0) {
+            resStr += " Player wins PairPlus: $" + ppWinnings;
+        }
+        if (anteBonus > 0) {
+            resStr += " Player wins Ante Bonus: $" + anteBonus;
+        }
+
+        // Log the result
+        gameManager.logResult("Client " + clientName + spot + ": " + resStr + roundTag());
+    }
+
+    /**
+     * Sets a folded hand's result on its message and logs it.
+     *
+     * @param info The message of the hand.
+     * @param spot The spot in the log line, or nothing for a single-hand round.
+     */
+    private void recordFold(PokerInfo info, String spot) {
+        // Create result string for folding
+        String resStr = "Player folds. Lost Ante=$" + info.getAnteBet();
+        if (info.getPairPlusBet() > 0) {
+            resStr += " and PP=$" + info.getPairPlusBet();
+        }
+        gameManager.logResult("Client " + clientName + spot + ": " + resStr + roundTag());
+        info.setGameResult(-1); // Indicate player loss by folding
+    }
+
+    /**
+     * Handles BATCH message type by playing every round in it and returning their results.
+     * A round's play bet is its ante when it plays and 0 when it folds.
+     *
+     * @param info The PokerInfo message received.
+     */
+    private PokerInfo handleBatch(PokerInfo info) {
+        ArrayList<PokerInfo> results = new ArrayList<>(info.getRounds().size());
+        for (PokerInfo bets : info.getRounds()) {
+            Round dealt = dealRound(bets.getAnteBet(), bets.getPairPlusBet());
+            boolean play = bets.getMessageType() == PokerInfo.MessageType.PLAY
+                    || bets.getMessageType() != PokerInfo.MessageType.FOLD
+                    && StrategyTable.getDefault().play(dealt.playerHands[0]);
+            results.add(settle(dealt, new boolean[] {play})); // Settled and logged like a single round
+        }
+        info.setRounds(results);
+        return info;
+    }
+
+    /**
+     * Writes the session's state: token, last round id, sequence number of the last ledger
+     * change, client name, the round in flight and the last RESULT (as a PokerCodec frame,
+     * or an empty one).
+     *
+     * @throws java.nio.BufferOverflowException if the buffer has no room for it
+     */
+    synchronized void writeState(ByteBuffer out) {
+        out.putLong(sessionToken);
+        out.putInt(lastRoundId);
+        out.putLong(lastPosted);
+        byte[] name = clientName.getBytes(StandardCharsets.UTF_8);
+        int nameBytes = Math.min(name.length, 255);
+        out.put((byte) nameBytes);
+        out.put(name, 0, nameBytes);
+        if (round == null) {
+            out.put((byte) 0);
+        } else {
+            out.put((byte) (round.multiSpot ? 2 : 1));
+            out.putInt(round.id);
+            out.putInt(round.dealerHand);
+            out.put((byte) round.playerHands.length);
+            for (int i = 0; i < round.playerHands.length; i++) {
+                out.putInt(round.playerHands[i]);
+                out.putInt(round.anteBets[i]);
+                out.putInt(round.pairPlusBets[i]);
+            }
+        }
+        if (lastResult == null) {
+            out.putShort((short) 0);
+        } else {
+            out.put(PokerCodec.encode(lastResult));
+        }
+    }
+
+    /**
+     * Reads a session written by writeState.
+     *
+     * @return the session, or null if its ledger account has been retired since.
+     * @throws StreamCorruptedException if the state is not valid
+     */
+    static GameSession readState(ByteBuffer in, GameManager gm, Paytables paytables, ShuffleSource shuffleSource,
+                                 Ledger ledger) throws StreamCorruptedException {
+        long token = in.getLong();
+        int lastRoundId = in.getInt();
+        long lastPosted = in.getLong();
+        byte[] name = new byte[in.get() & 0xFF];
+        in.get(name);
+        GameSession session = new GameSession(gm, new String(name, StandardCharsets.UTF_8), paytables,
+                shuffleSource, ledger, token);
+        session.lastRoundId = lastRoundId;
+        session.lastPosted = lastPosted;
+        int kind = in.get();
+        if (kind != 0) {
+            int id = in.getInt();
+            int dealerHand = in.getInt();
+            int spots = in.get();
+            if (kind > 2 || spots < 1 || spots > MAX_SPOTS || kind == 1 && spots != 1) {
+                throw new StreamCorruptedException("Round of kind " + kind + " with " + spots + " spots");
+            }
+            int[] playerHands = new int[spots];
+            int[] anteBets = new int[spots];
+            int[] pairPlusBets = new int[spots];
+            for (int i = 0; i < spots; i++) {
+                playerHands[i] = in.getInt();
+                anteBets[i] = in.getInt();
+                pairPlusBets[i] = in.getInt();
+            }
+            session.round = new Round(id, kind == 2, dealerHand, playerHands, anteBets, pairPlusBets);
+        }
+        int resultBytes = in.getShort() & 0xFFFF;
+        if (resultBytes > 0) {
+            session.lastResult = PokerCodec.decode(in, resultBytes);
+        }
+        if (ledger != null && lastPosted > 0 && ledger.lastSeq(token) == 0) {
+            return null; // Dropped from the store and its account closed after the snapshot
+        }
+        if (ledger != null && ledger.lastSeq(token) > lastPosted) {
+            // Settled after the snapshot: the round in flight and the last RESULT are stale
+            if (session.round != null) {
+                gm.logResult("Dropped round " + session.round.id + " of " + session.clientName
+                        + ", settled after the state snapshot");
+            }
+            session.round = null;
+            session.lastResult = null;
+        }
+        return session;
+    }
+
+    /**
+     * Returns a future completed once every settlement the session has posted to the ledger
+     * is durable, at once without a ledger. A transport sends a reply only then, so a
+     * client never sees a RESULT the ledger could still lose.
+     */
+    public CompletableFuture<Void> durable() {
+        return ledger == null ? CompletableFuture.completedFuture(null) : ledger.committed(lastPosted);
+    }
+
+    /**
+     * Waits until every settlement the session has posted to the ledger is durable.
+     * Called outside handle, so the wait never holds the session.
+     *
+     * @throws IllegalStateException if the ledger failed to write or the thread was interrupted
+     */
+    public void awaitDurable() {
+        if (ledger != null) {
+            ledger.awaitCommitted(lastPosted);
+        }
+    }
+
+    /**
+     * Returns the round's seed (or shoe seed and round number) for the log, so the deal
+     * can be replayed, or nothing if the shuffle source is not replayable.
+     */
+    private String roundTag() {
+        if (!shuffleSource.isReplayable()) {
+            return "";
+        }
+        if (shoe != null) {
+            return " [shoe " + ShuffleSource.formatSeed(shoe.getSeed()) + " round " + shoe.getRounds() + "]";
+        }
+        return " [seed " + ShuffleSource.formatSeed(roundSeed) + "]";
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable three card hand.
+ *
+ * Cards are stored in canonical order (ascending rank, then ascending suit), so two
+ * hands holding the same cards are equal regardless of the order they were dealt in.
+ * The HandTable entry (rank and tie-break key) is computed on first use and cached,
+ * after which evaluating and comparing hands is constant time. Instances can be
+ * shared freely between threads.
+ */
+public final class Hand implements Comparable<Hand> {
+    private final Card[] cards; // Cards in canonical order
+    private final int packed;   // Packed hand code of the cards in canonical order
+    private int entry;          // Cached HandTable entry, 0 until first evaluated
+
+    private Hand(int c0, int c1, int c2) {
+        // Order the cards by rank, then suit
+        int lo = Math.min(sortKey(c0), sortKey(c1));
+        int hi = Math.max(sortKey(c0), sortKey(c1));
+        int mid = Math.min(hi, sortKey(c2));
+        hi = Math.max(hi, sortKey(c2));
+        int t = Math.min(lo, mid);
+        mid = Math.max(lo, mid);
+        lo = t;
+        int o0 = ordinalOf(lo), o1 = ordinalOf(mid), o2 = ordinalOf(hi);
+        this.cards = new Card[] {PackedHand.toCard(o0), PackedHand.toCard(o1), PackedHand.toCard(o2)};
+        this.packed = PackedHand.pack(o0, o1, o2);
+    }
+
+    /**
+     * Creates a hand from three cards, in any order.
+     */
+    public static Hand of(Card a, Card b, Card c) {
+        return new Hand(HandTable.ordinal(a), HandTable.ordinal(b), HandTable.ordinal(c));
+    }
+
+    /**
+     * Creates a hand from a list of three cards. The list is not modified.
+     */
+    public static Hand of(List<Card> hand) {
+        if (hand.size() != 3) {
+            throw new IllegalArgumentException("A hand must contain exactly 3 cards, got " + hand.size());
+        }
+        return of(hand.get(0), hand.get(1), hand.get(2));
+    }
+
+    /**
+     * Creates a hand from a packed hand code (see PackedHand).
+     */
+    public static Hand ofPacked(int hand) {
+        return new Hand(PackedHand.card(hand, 0), PackedHand.card(hand, 1), PackedHand.card(hand, 2));
+    }
+
+    /**
+     * Returns the card at position 0, 1 or 2 in canonical order.
+     */
+    public Card getCard(int position) {
+        return cards[position];
+    }
+
+    /**
+     * Returns an unmodifiable view of the cards in canonical order.
+     */
+    public List<Card> getCards() {
+        return Collections.unmodifiableList(Arrays.asList(cards));
+    }
+
+    /**
+     * Returns a new mutable list of the cards, e.g. for PokerInfo.
+     */
+    public ArrayList<Card> toList() {
+        return new ArrayList<>(Arrays.asList(cards));
+    }
+
+    /**
+     * Returns the packed hand code of the cards in canonical order.
+     */
+    public int getPacked() {
+        return packed;
+    }
+
+    /**
+     * Returns the HandTable entry (rank and tie-break key), evaluating it on first use.
+     */
+    public int getEntry() {
+        int e = entry;
+        if (e == 0) {
+            // Racy single-check: every thread computes the same value, so a lost race is harmless
+            e = PackedHand.lookup(packed);
+            entry = e;
+        }
+        return e;
+    }
+
+    /**
+     * Returns the hand rank (1..6, see ThreeCardLogic).
+     */
+    public int getCategory() {
+        return HandTable.category(getEntry());
+    }
+
+    /**
+     * Returns the highest card rank in the hand.
+     */
+    public int getHighRank() {
+        return cards[2].getRank();
+    }
+
+    /**
+     * Orders hands by strength, weakest first. Hands of equal strength compare as 0.
+     */
+    @Override
+    public int compareTo(Hand other) {
+        return Integer.compare(getEntry(), other.getEntry());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Hand && ((Hand) o).packed == packed;
+    }
+
+    @Override
+    public int hashCode() {
+        return packed;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(cards);
+    }
+
+    // Sort key ordering cards by rank first and suit second
+    private static int sortKey(int ordinal) {
+        return (HandTable.rankOf(ordinal) - 2) * 4 + (HandTable.suitOf(ordinal) - 1);
+    }
+
+    // Inverse of sortKey
+    private static int ordinalOf(int key) {
+        return (key % 4) * 13 + key / 4;
+    }
+}
@@ -0,0 +1,170 @@
+import java.util.List;
+
+/**
+ * Precomputed evaluation table holding every three card hand that can be dealt
+ * from a single 52 card deck (C(52,3) = 22,100 combinations).
+ *
+ * Cards are identified by their ordinal 0..51, where ordinal = (suit - 1) * 13 + (rank - 2).
+ * A hand of three distinct ordinals is mapped to a unique table slot using the
+ * combinatorial number system, so evaluating a hand is a single array read.
+ *
+ * Each entry packs the hand category (see ThreeCardLogic) and a tie-break score:
+ * bits 12-14 hold the category and bits 0-11 hold the three ranks in descending
+ * order, four bits each. Comparing two entries as plain ints therefore orders
+ * hands exactly like ThreeCardLogic.compareHands.
+ */
+public final class HandTable {
+
+    // Number of distinct three card hands in a single deck
+    public static final int HAND_COUNT = 22100;
+
+    // C(n,2) and C(n,3) for n = 0..51, used to compute the perfect hash
+    private static final int[] CHOOSE2 = new int[52];
+    private static final int[] CHOOSE3 = new int[52];
+
+    // Evaluation entry for every hand, indexed by the perfect hash
+    private static final int[] TABLE = new int[HAND_COUNT];
+
+    // Packed hand code (see PackedHand) of every hand, indexed by the perfect hash
+    private static final int[] HANDS = new int[HAND_COUNT];
+
+    static {
+        for (int n = 0; n < 52; n++) {
+            CHOOSE2[n] = n * (n - 1) / 2;
+            CHOOSE3[n] = n * (n - 1) * (n - 2) / 6;
+        }
+        // Fill the table once with every 3 card combination
+        for (int c2 = 2; c2 < 52; c2++) {
+            for (int c1 = 1; c1 < c2; c1++) {
+                for (int c0 = 0; c0 < c1; c0++) {
+                    int index = c0 + CHOOSE2[c1] + CHOOSE3[c2];
+                    TABLE[index] = evaluate(
+                            rankOf(c0), suitOf(c0), rankOf(c1), suitOf(c1), rankOf(c2), suitOf(c2));
+                    HANDS[index] = PackedHand.pack(c0, c1, c2);
+                }
+            }
+        }
+    }
+
+    private HandTable() {}
+
+    /**
+     * Returns the ordinal (0..51) of a card.
+     */
+    public static int ordinal(Card card) {
+        return (card.getSuit() - 1) * 13 + (card.getRank() - 2);
+    }
+
+    /**
+     * Returns the rank (2..14) of a card ordinal.
+     */
+    public static int rankOf(int ordinal) {
+        return ordinal % 13 + 2;
+    }
+
+    /**
+     * Returns the suit (1..4) of a card ordinal.
+     */
+    public static int suitOf(int ordinal) {
+        return ordinal / 13 + 1;
+    }
+
+    /**
+     * Returns the perfect hash (0..22099) of three distinct card ordinals, in any order.
+     */
+    public static int index(int a, int b, int c) {
+        // Three compare-exchanges put the ordinals in ascending order
+        int lo = Math.min(a, b);
+        int hi = Math.max(a, b);
+        int mid = Math.min(hi, c);
+        hi = Math.max(hi, c);
+        int t = Math.min(lo, mid);
+        mid = Math.max(lo, mid);
+        lo = t;
+        return lo + CHOOSE2[mid] + CHOOSE3[hi];
+    }
+
+    /**
+     * Returns the evaluation entry for three card ordinals, in any order.
+     * Hands containing the same card more than once are evaluated directly.
+     */
+    public static int lookup(int a, int b, int c) {
+        if (a == b || b == c || a == c) {
+            return evaluate(rankOf(a), suitOf(a), rankOf(b), suitOf(b), rankOf(c), suitOf(c));
+        }
+        return TABLE[index(a, b, c)];
+    }
+
+    /**
+     * Returns the evaluation entry for a hand of three cards.
+     */
+    public static int lookup(List<Card> hand) {
+        return lookup(ordinal(hand.get(0)), ordinal(hand.get(1)), ordinal(hand.get(2)));
+    }
+
+    /**
+     * Returns the evaluation entry stored at a perfect hash slot.
+     */
+    public static int entryAt(int index) {
+        return TABLE[index];
+    }
+
+    /**
+     * Returns the packed hand code stored at a perfect hash slot, with its
+     * card ordinals in ascending order.
+     */
+    public static int handAt(int index) {
+        return HANDS[index];
+    }
+
+    /**
+     * Returns the perfect hash of three distinct card ordinals already in ascending order.
+     */
+    static int indexSorted(int lo, int mid, int hi) {
+        return lo + CHOOSE2[mid] + CHOOSE3[hi];
+    }
+
+    /**
+     * Returns the hand category (1..6) of an entry.
+     */
+    public static int category(int entry) {
+        return entry >>> 12;
+    }
+
+    /**
+     * Returns the highest card rank (2..14) of an entry.
+     */
+    public static int highRank(int entry) {
+        return (entry >>> 8) & 0xF;
+    }
+
+    /**
+     * Evaluates three cards given as rank/suit pairs and returns the packed entry.
+     * This is the scalar evaluator used to build the table.
+     */
+    static int evaluate(int r1, int s1, int r2, int s2, int r3, int s3) {
+        // Order ranks ascending
+        int lo = Math.min(r1, r2);
+        int hi = Math.max(r1, r2);
+        int mid = Math.min(hi, r3);
+        hi = Math.max(hi, r3);
+        int t = Math.min(lo, mid);
+        mid = Math.max(lo, mid);
+        lo = t;
+
+        boolean flush = s1 == s2 && s2 == s3;
+        boolean straight = mid == lo + 1 && hi == mid + 1;
+        boolean threeKind = lo == hi;
+        boolean pair = lo == mid || mid == hi;
+
+        int category;
+        if (straight && flush) category = ThreeCardLogic.STRAIGHT_FLUSH;
+        else if (threeKind) category = ThreeCardLogic.THREE_OF_KIND;
+        else if (straight) category = ThreeCardLogic.STRAIGHT;
+        else if (flush) category = ThreeCardLogic.FLUSH;
+        else if (pair) category = ThreeCardLogic.PAIR;
+        else category = ThreeCardLogic.HIGH_CARD;
+
+        return category << 12 | hi << 8 | mid << 4 | lo;
+    }
+}
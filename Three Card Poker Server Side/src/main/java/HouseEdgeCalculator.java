@@ -0,0 +1,167 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes exact expected values for the rules implemented by ThreeCardLogic by
+ * enumerating every player hand (22,100) against every dealer hand that can be
+ * dealt from the remaining 49 cards (18,424), i.e. 407,170,400 matchups.
+ *
+ * The player hands are split across a fork/join pool; each leaf task tallies its
+ * own range and the tallies are merged on join, so no mutable state is shared.
+ *
+ * Settlement follows ClientHandler: if the dealer does not qualify, the round is a
+ * push; otherwise ante and play (play = ante) win or lose even money.
+ */
+public final class HouseEdgeCalculator {
+
+    // Dealer hands that can be dealt against one player hand: C(49,3)
+    public static final int DEALER_HANDS = 18424;
+
+    // Player hands handled by one leaf task
+    private static final int LEAF_SIZE = 128;
+
+    // Indices into the per-hand counts filled by tallyMatchups
+    static final int WINS = 0;
+    static final int TIES = 1;
+    static final int LOSSES = 2;
+    static final int NOT_QUALIFIED = 3;
+
+    private HouseEdgeCalculator() {}
+
+    /**
+     * Runs the full enumeration on the common fork/join pool.
+     */
+    public static HouseEdgeReport calculate() {
+        return calculate(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the full enumeration on the given fork/join pool.
+     */
+    public static HouseEdgeReport calculate(ForkJoinPool pool) {
+        long start = System.nanoTime();
+        Tally tally = pool.invoke(new EnumerationTask(0, HandTable.HAND_COUNT));
+        return tally.toReport(System.nanoTime() - start);
+    }
+
+    /**
+     * Counts the outcomes of one player hand against every possible dealer hand.
+     * counts receives wins, ties, losses (dealer qualified) and rounds where the dealer did not qualify.
+     *
+     * @param playerIndex HandTable index of the player's hand
+     * @param counts      array of at least 4 entries, overwritten
+     */
+    static void tallyMatchups(int playerIndex, int[] counts) {
+        int player = HandTable.handAt(playerIndex);
+        int playerEntry = HandTable.entryAt(playerIndex);
+        long used = 1L << PackedHand.card(player, 0) | 1L << PackedHand.card(player, 1)
+                | 1L << PackedHand.card(player, 2);
+
+        int wins = 0, ties = 0, losses = 0, notQualified = 0;
+        for (int d2 = 2; d2 < 52; d2++) {
+            if ((used >>> d2 & 1) != 0) continue;
+            for (int d1 = 1; d1 < d2; d1++) {
+                if ((used >>> d1 & 1) != 0) continue;
+                int base = HandTable.indexSorted(0, d1, d2);
+                for (int d0 = 0; d0 < d1; d0++) {
+                    if ((used >>> d0 & 1) != 0) continue;
+                    int dealerEntry = HandTable.entryAt(base + d0);
+                    if (HandTable.highRank(dealerEntry) < 12) {
+                        notQualified++;
+                    } else if (playerEntry > dealerEntry) {
+                        wins++;
+                    } else if (playerEntry < dealerEntry) {
+                        losses++;
+                    } else {
+                        ties++;
+                    }
+                }
+            }
+        }
+        counts[WINS] = wins;
+        counts[TIES] = ties;
+        counts[LOSSES] = losses;
+        counts[NOT_QUALIFIED] = notQualified;
+    }
+
+    /**
+     * Fork/join task enumerating a range of player hand indices.
+     */
+    private static final class EnumerationTask extends RecursiveTask<Tally> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from; // First player hand index, inclusive
+        private final int to;   // Last player hand index, exclusive
+
+        EnumerationTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from <= LEAF_SIZE) {
+                Tally tally = new Tally();
+                int[] counts = new int[4];
+                for (int p = from; p < to; p++) {
+                    tallyMatchups(p, counts);
+                    tally.add(p, counts);
+                }
+                return tally;
+            }
+            int mid = (from + to) >>> 1;
+            EnumerationTask left = new EnumerationTask(from, mid);
+            left.fork();
+            Tally right = new EnumerationTask(mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Task-local accumulator. Only the owning task mutates it before it is merged.
+     */
+    private static final class Tally {
+        long wins, ties, losses, notQualified;
+        long pairPlusUnits;   // Sum over player hands of the Pair Plus net result per unit bet
+        long alwaysPlayUnits; // Sum over matchups of the ante+play net result per unit ante
+        long optimalUnits;    // Same, folding whenever folding loses less than playing
+
+        void add(int playerIndex, int[] counts) {
+            wins += counts[WINS];
+            ties += counts[TIES];
+            losses += counts[LOSSES];
+            notQualified += counts[NOT_QUALIFIED];
+
+            int multiplier = ThreeCardLogic.evalPPWinnings(HandTable.handAt(playerIndex), 1);
+            pairPlusUnits += multiplier > 0 ? multiplier : -1;
+
+            long play = 2L * (counts[WINS] - counts[LOSSES]); // Ante and play both settle
+            long fold = -DEALER_HANDS;                          // Ante lost in every matchup
+            alwaysPlayUnits += play;
+            optimalUnits += Math.max(play, fold);
+        }
+
+        Tally merge(Tally other) {
+            wins += other.wins;
+            ties += other.ties;
+            losses += other.losses;
+            notQualified += other.notQualified;
+            pairPlusUnits += other.pairPlusUnits;
+            alwaysPlayUnits += other.alwaysPlayUnits;
+            optimalUnits += other.optimalUnits;
+            return this;
+        }
+
+        HouseEdgeReport toReport(long elapsedNanos) {
+            return new HouseEdgeReport(wins, ties, losses, notQualified, pairPlusUnits,
+                    alwaysPlayUnits, optimalUnits, elapsedNanos);
+        }
+    }
+
+    /**
+     * Prints the exact report for the current rules.
+     */
+    public static void main(String[] args) {
+        System.out.println(calculate());
+    }
+}
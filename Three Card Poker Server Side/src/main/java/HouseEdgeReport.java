@@ -0,0 +1,102 @@
+/**
+ * Immutable result of an exhaustive HouseEdgeCalculator run.
+ * Expected values are exact ratios of the enumerated totals, expressed per unit of ante
+ * (ante/play) or per unit of Pair Plus bet.
+ */
+public final class HouseEdgeReport {
+    private final long wins;            // Matchups the player wins (dealer qualified)
+    private final long ties;            // Matchups tied on equal hands (dealer qualified)
+    private final long losses;          // Matchups the dealer wins
+    private final long notQualified;    // Matchups where the dealer does not qualify
+    private final long pairPlusUnits;   // Pair Plus net result summed over player hands
+    private final long alwaysPlayUnits; // Ante+play net result summed over matchups, always playing
+    private final long optimalUnits;    // Ante+play net result summed over matchups, best decision per hand
+    private final long elapsedNanos;    // Time taken by the enumeration
+
+    public HouseEdgeReport(long wins, long ties, long losses, long notQualified, long pairPlusUnits,
+                           long alwaysPlayUnits, long optimalUnits, long elapsedNanos) {
+        this.wins = wins;
+        this.ties = ties;
+        this.losses = losses;
+        this.notQualified = notQualified;
+        this.pairPlusUnits = pairPlusUnits;
+        this.alwaysPlayUnits = alwaysPlayUnits;
+        this.optimalUnits = optimalUnits;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getMatchups() {
+        return wins + ties + losses + notQualified; // Total player/dealer matchups enumerated
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getTies() {
+        return ties;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getNotQualified() {
+        return notQualified;
+    }
+
+    public double getWinRate() {
+        return (double) wins / getMatchups();
+    }
+
+    public double getTieRate() {
+        return (double) ties / getMatchups();
+    }
+
+    public double getLossRate() {
+        return (double) losses / getMatchups();
+    }
+
+    public double getDealerQualificationRate() {
+        return 1.0 - (double) notQualified / getMatchups();
+    }
+
+    /**
+     * Expected net result of a Pair Plus bet, per unit bet.
+     */
+    public double getPairPlusEv() {
+        return (double) pairPlusUnits / HandTable.HAND_COUNT;
+    }
+
+    /**
+     * Expected net result of ante and play per unit ante when the player always plays.
+     */
+    public double getAlwaysPlayEv() {
+        return (double) alwaysPlayUnits / getMatchups();
+    }
+
+    /**
+     * Expected net result of ante and play per unit ante when the player folds
+     * exactly the hands whose play EV is below losing the ante.
+     */
+    public double getOptimalEv() {
+        return (double) optimalUnits / getMatchups();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Matchups enumerated:        %,d%n"
+                        + "Player wins / ties / losses: %.6f / %.6f / %.6f%n"
+                        + "Dealer qualifies:           %.6f%n"
+                        + "Ante+Play EV (always play): %+.6f per ante%n"
+                        + "Ante+Play EV (optimal):     %+.6f per ante%n"
+                        + "Pair Plus EV:               %+.6f per unit%n"
+                        + "Elapsed:                    %.2f s",
+                getMatchups(), getWinRate(), getTieRate(), getLossRate(), getDealerQualificationRate(),
+                getAlwaysPlayEv(), getOptimalEv(), getPairPlusEv(), elapsedNanos / 1e9);
+    }
+}
@@ -0,0 +1,569 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * The server-owned bankroll: the balance of every player account, changed by each
+ * settled round, kept durable in an append-only write-ahead log.
+ *
+ * Settling threads post changes and then wait for them to be durable. One writer thread
+ * takes every change posted since its last write and commits them all with one write
+ * and one fsync (group commit), then wakes the threads waiting on them. While it syncs,
+ * new changes queue up for the next commit, so the more tables settle at once, the more
+ * changes share each fsync and round throughput is not bound by fsync latency.
+ *
+ * A thread that must not block, such as an event loop, asks for a future instead
+ * (committed), which the writer completes after the fsync; waiting threads park on a
+ * Condition, so a virtual thread waiting for its commit does not hold its carrier.
+ *
+ * Opening a ledger recovers the balances: it loads the snapshot, if any, and replays the
+ * log records after it. A record torn by a crash fails its checksum, and the log is cut
+ * there. Once the log grows past a size threshold, the writer compacts it: it writes the
+ * balances to a new snapshot, which atomically replaces the old one, forces the directory
+ * so the replacement survives a crash (see DurableFiles), and only then empties the log.
+ * The server also compacts when it stops (close(true)), so a restart only maps the snapshot.
+ *
+ * Files in the ledger directory:
+ * - ledger.log: 28-byte records of sequence number, account and change (8 bytes each),
+ *   then the CRC32C of those 24 bytes; a change of Long.MIN_VALUE closes the account;
+ * - ledger.snapshot: magic, sequence number of the last record included and account
+ *   count, then per account its number, balance and the sequence number of its last
+ *   change, then the CRC32C of all before it.
+ *
+ * The sequence number of each account's last change (lastSeq) survives compaction, so a
+ * StateSnapshot written before a crash can tell which of its rounds settled after it.
+ *
+ * An account is a session token, which only the session's client can present. When the
+ * SessionStore drops a session the token can never be presented again, so the session
+ * retires its account (retire): the server logs the closing balance as paid out, and the
+ * account is closed. The ledger, and its snapshot, hold only accounts a player can still
+ * reach, and do not grow with every player that ever connected.
+ */
+public class Ledger implements AutoCloseable {
+
+    // System property naming the ledger directory
+    public static final String DIR_PROPERTY = "poker.ledger.dir";
+
+    // System property setting the log size that triggers compaction, in bytes
+    public static final String COMPACT_BYTES_PROPERTY = "poker.ledger.compactBytes";
+
+    static final int RECORD_BYTES = 28;                 // Bytes per log record
+    private static final int SNAPSHOT_MAGIC = 0x33435054; // "3CPT"
+    private static final int SNAPSHOT_HEADER_BYTES = 16;  // Magic, sequence number, account count
+    private static final int ACCOUNT_BYTES = 24;          // Account, balance, sequence number of its last change
+    private static final long CLOSED = Long.MIN_VALUE;    // Change of the record closing an account
+
+    private final Path logFile;                  // Write-ahead log
+    private final Path snapshotFile;             // Latest snapshot
+    private final long compactBytes;             // Log size that triggers compaction
+    private final FileChannel log;               // Open log, written only by the writer
+    private final Map<Long, Long> balances = new ConcurrentHashMap<>(); // Balances with every posted change
+    private final Map<Long, Long> durable = new HashMap<>(); // Balances with every committed change, writer only
+    private final Map<Long, Long> lastSeqs = new ConcurrentHashMap<>(); // Each account's last posted change
+    private final Map<Long, Long> durableSeqs = new HashMap<>(); // Each account's last committed change, writer only
+    private final Thread writer;                 // Commits posted changes
+
+    private final ReentrantLock posting = new ReentrantLock(); // Guards the posted changes
+    private final Condition changesPosted = posting.newCondition(); // Wakes the writer
+    private long[] posted = new long[2048];      // Account and change pairs not yet taken by the writer
+    private long[] taking = new long[2048];      // Pairs the writer is committing
+    private int postedCount;                     // Pairs in posted
+    private long lastPosted;                     // Sequence number of the last change posted
+    private boolean open = true;                 // Cleared by close
+
+    private final ReentrantLock committing = new ReentrantLock(); // Guards the waiters
+    private final Condition changesCommitted = committing.newCondition(); // Wakes threads waiting for their change
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(); // Futures by sequence number
+    private volatile long lastCommitted;         // Sequence number of the last change committed
+    private volatile IOException failure;        // Write failure; no change commits after it
+
+    private long logBytes;                       // Size of the log, writer only after open
+    private volatile long commits;               // Number of fsyncs
+    private volatile long compactions;           // Number of snapshots written
+    private final int recoveredAccounts;         // Accounts in the snapshot loaded on open
+    private final long replayedRecords;          // Log records replayed on open
+    private final long recoveryNanos;            // Time taken to recover
+    IOStep afterSnapshot = () -> { };            // Runs between replacing the snapshot and emptying the log
+
+    /**
+     * A step of compaction that can fail, so tests can simulate a crash part-way through.
+     */
+    interface IOStep {
+        void run() throws IOException;
+    }
+
+    /**
+     * Opens the ledger in the directory set by poker.ledger.dir (default "ledger"),
+     * compacting past 64 MB of log or the size set by poker.ledger.compactBytes.
+     *
+     * @throws IOException if the ledger cannot be opened or its snapshot is corrupt
+     */
+    public static Ledger configured() throws IOException {
+        return new Ledger(Paths.get(System.getProperty(DIR_PROPERTY, "ledger").trim()),
+                Long.getLong(COMPACT_BYTES_PROPERTY, 64L << 20));
+    }
+
+    /**
+     * Opens the ledger in a directory, creating it if needed, and recovers the balances.
+     * @param dir The ledger directory.
+     * @param compactBytes The log size that triggers compaction, in bytes.
+     * @throws IOException if the ledger cannot be opened or its snapshot is corrupt
+     */
+    public Ledger(Path dir, long compactBytes) throws IOException {
+        if (compactBytes < RECORD_BYTES) {
+            throw new IllegalArgumentException("Compaction threshold must hold a record, got " + compactBytes);
+        }
+        long start = System.nanoTime();
+        Files.createDirectories(dir);
+        this.logFile = dir.resolve("ledger.log");
+        this.snapshotFile = dir.resolve("ledger.snapshot");
+        this.compactBytes = compactBytes;
+        long snapshotSeq = loadSnapshot();
+        this.recoveredAccounts = durable.size();
+        this.log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long[] replay = replayLog(snapshotSeq);
+        this.replayedRecords = replay[0];
+        this.lastPosted = replay[1];
+        this.lastCommitted = replay[1];
+        balances.putAll(durable);
+        lastSeqs.putAll(durableSeqs);
+        this.recoveryNanos = System.nanoTime() - start;
+        this.writer = new Thread(this::writeLoop, "poker-ledger");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Adds a change to an account's balance and queues it for the log.
+     * @param account The player account.
+     * @param change The amount won, negative for an amount lost.
+     * @return the change's sequence number, to wait for with awaitCommitted or committed.
+     * @throws IllegalStateException if the ledger is closed or failed to write
+     */
+    public long post(long account, long change) {
+        long seq = append(account, change);
+        balances.merge(account, change, Long::sum);
+        lastSeqs.merge(account, seq, Math::max);
+        return seq;
+    }
+
+    /**
+     * Closes an account whose player can no longer reach it, paying out its balance: the
+     * account leaves the balances, and its closing is logged, so it is neither replayed
+     * nor written to the next snapshot. A later change to the account opens it anew.
+     * @param account The player account.
+     * @return the closing balance.
+     * @throws IllegalStateException if the ledger is closed or failed to write
+     */
+    public long retire(long account) {
+        append(account, CLOSED);
+        lastSeqs.remove(account);
+        Long closing = balances.remove(account);
+        return closing == null ? 0 : closing;
+    }
+
+    // Queues a log record for the writer and returns its sequence number
+    private long append(long account, long change) {
+        long seq;
+        posting.lock();
+        try {
+            if (!open || failure != null) {
+                throw new IllegalStateException("Ledger is " + (open ? "failed" : "closed"), failure);
+            }
+            if (2 * postedCount == posted.length) {
+                long[] larger = new long[2 * posted.length];
+                System.arraycopy(posted, 0, larger, 0, posted.length);
+                posted = larger;
+            }
+            posted[2 * postedCount] = account;
+            posted[2 * postedCount + 1] = change;
+            if (postedCount++ == 0) {
+                changesPosted.signal(); // Wake the writer
+            }
+            seq = ++lastPosted;
+        } finally {
+            posting.unlock();
+        }
+        return seq;
+    }
+
+    /**
+     * Waits until the change with the given sequence number, and every change before it, is on disk.
+     * @throws IllegalStateException if the ledger failed to write or the thread was interrupted
+     */
+    public void awaitCommitted(long seq) {
+        if (lastCommitted >= seq) {
+            return;
+        }
+        committing.lock();
+        try {
+            while (lastCommitted < seq) {
+                if (failure != null) {
+                    throw new IllegalStateException("Ledger write failed", failure);
+                }
+                try {
+                    changesCommitted.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for the ledger");
+                }
+            }
+        } finally {
+            committing.unlock();
+        }
+    }
+
+    /**
+     * Returns a future completed once the change with the given sequence number, and every
+     * change before it, is on disk, or completed exceptionally with an IllegalStateException
+     * if the ledger fails to write. A pending future is completed by the writer thread, so
+     * actions depending on it should only hand the outcome over to their own thread.
+     */
+    public CompletableFuture<Void> committed(long seq) {
+        if (lastCommitted >= seq) {
+            return CompletableFuture.completedFuture(null);
+        }
+        committing.lock();
+        try {
+            if (lastCommitted >= seq) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (failure != null) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Ledger write failed", failure));
+            }
+            Waiter waiter = new Waiter(seq);
+            waiters.add(waiter);
+            return waiter.future;
+        } finally {
+            committing.unlock();
+        }
+    }
+
+    /**
+     * Returns an account's balance, including changes not yet committed.
+     */
+    public long balance(long account) {
+        return balances.getOrDefault(account, 0L);
+    }
+
+    /**
+     * Returns the sequence number of the account's last change, including changes not yet
+     * committed, or 0 if it has none.
+     */
+    public long lastSeq(long account) {
+        return lastSeqs.getOrDefault(account, 0L);
+    }
+
+    /**
+     * Returns the number of accounts.
+     */
+    public int accounts() {
+        return balances.size();
+    }
+
+    /**
+     * Returns the number of fsyncs so far; the changes committed divided by this is the group size.
+     */
+    public long getCommits() {
+        return commits;
+    }
+
+    public long getCompactions() {
+        return compactions;
+    }
+
+    public long getLastCommitted() {
+        return lastCommitted;
+    }
+
+    public long getRecoveryNanos() {
+        return recoveryNanos;
+    }
+
+    /**
+     * Commits every change posted, stops the writer and closes the log.
+     */
+    @Override
+    public void close() throws IOException {
+        close(false);
+    }
+
+    /**
+     * Commits every change posted, stops the writer and closes the log; with compact, first
+     * compacts the log into the snapshot, so the next open loads the snapshot and replays nothing.
+     */
+    public void close(boolean compact) throws IOException {
+        posting.lock();
+        try {
+            if (!open) {
+                return;
+            }
+            open = false;
+            changesPosted.signal();
+        } finally {
+            posting.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (compact && failure == null && logBytes > 0 && !writer.isAlive()) {
+            try {
+                compact(lastCommitted); // The writer has stopped, so this thread owns the log
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        log.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ledger " + logFile.getParent() + ", " + accounts() + " accounts, recovered " + recoveredAccounts
+                + " from snapshot and " + replayedRecords + " log records in "
+                + String.format("%.1f ms", recoveryNanos / 1e6);
+    }
+
+    // Commits posted changes in groups until closed
+    private void writeLoop() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_BYTES * 2048);
+        CRC32C crc = new CRC32C();
+        while (true) {
+            int count;
+            long firstSeq;
+            posting.lock();
+            try {
+                while (postedCount == 0 && open) {
+                    changesPosted.awaitUninterruptibly(); // Only close stops the writer
+                }
+                if (postedCount == 0) {
+                    return; // Closed with everything committed
+                }
+                long[] group = posted; // Swap, so posting continues while this group is written
+                posted = taking;
+                taking = group;
+                count = postedCount;
+                postedCount = 0;
+                firstSeq = lastPosted - count + 1;
+            } finally {
+                posting.unlock();
+            }
+            if (buffer.capacity() < count * RECORD_BYTES) {
+                buffer = ByteBuffer.allocateDirect(count * RECORD_BYTES);
+            }
+            buffer.clear();
+            for (int i = 0; i < count; i++) {
+                long account = taking[2 * i];
+                long change = taking[2 * i + 1];
+                putRecord(buffer, crc, firstSeq + i, account, change);
+                apply(account, change, firstSeq + i);
+            }
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    log.write(buffer);
+                }
+                log.force(false); // One fsync for the whole group
+                logBytes += (long) count * RECORD_BYTES;
+                commits++;
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            List<Waiter> done = new ArrayList<>();
+            committing.lock();
+            try {
+                lastCommitted = firstSeq + count - 1;
+                changesCommitted.signalAll();
+                while (!waiters.isEmpty() && waiters.peek().seq <= lastCommitted) {
+                    done.add(waiters.poll());
+                }
+            } finally {
+                committing.unlock();
+            }
+            for (Waiter waiter : done) {
+                waiter.future.complete(null); // Outside the lock, as completing runs dependent actions
+            }
+            if (logBytes >= compactBytes) {
+                try {
+                    compact(firstSeq + count - 1);
+                } catch (IOException e) {
+                    fail(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void fail(IOException e) {
+        List<Waiter> failed;
+        committing.lock();
+        try {
+            failure = e;
+            changesCommitted.signalAll();
+            failed = new ArrayList<>(waiters);
+            waiters.clear();
+        } finally {
+            committing.unlock();
+        }
+        for (Waiter waiter : failed) {
+            waiter.future.completeExceptionally(new IllegalStateException("Ledger write failed", e));
+        }
+    }
+
+    /**
+     * A future waiting for the commit of a sequence number.
+     */
+    private static final class Waiter implements Comparable<Waiter> {
+        final long seq;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Waiter(long seq) {
+            this.seq = seq;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            return Long.compare(seq, other.seq);
+        }
+    }
+
+    // Applies a committed change to the committed balances; the writer's, or recovery's before it starts
+    private void apply(long account, long change, long seq) {
+        if (change == CLOSED) {
+            durable.remove(account);
+            durableSeqs.remove(account);
+        } else {
+            durable.merge(account, change, Long::sum);
+            durableSeqs.put(account, seq);
+        }
+    }
+
+    private static void putRecord(ByteBuffer buffer, CRC32C crc, long seq, long account, long change) {
+        int start = buffer.position();
+        buffer.putLong(seq).putLong(account).putLong(change);
+        crc.reset();
+        crc.update(buffer.duplicate().position(start).limit(start + 24));
+        buffer.putInt((int) crc.getValue());
+    }
+
+    // Writes the committed balances to a new snapshot, replaces the old one and empties the log
+    private void compact(long seq) throws IOException {
+        Path temp = snapshotFile.resolveSibling("ledger.snapshot.tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES + ACCOUNT_BYTES * durable.size() + 4);
+        buffer.putInt(SNAPSHOT_MAGIC).putLong(seq).putInt(durable.size());
+        for (Map.Entry<Long, Long> e : durable.entrySet()) {
+            buffer.putLong(e.getKey()).putLong(e.getValue()).putLong(durableSeqs.getOrDefault(e.getKey(), 0L));
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        DurableFiles.replace(temp, snapshotFile); // The new snapshot is on disk before the log it replaces is emptied
+        afterSnapshot.run();
+        // A crash before the truncate leaves records the snapshot holds; replay skips them by sequence number
+        log.truncate(0);
+        log.position(0);
+        log.force(true);
+        logBytes = 0;
+        compactions++;
+    }
+
+    // Loads the snapshot into the committed balances and returns its sequence number, 0 without one
+    private long loadSnapshot() throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return 0;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int magic = buffer.remaining() < SNAPSHOT_HEADER_BYTES + 4 ? 0 : buffer.getInt();
+        if (magic != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a ledger snapshot: " + snapshotFile);
+        }
+        long seq = buffer.getLong();
+        int count = buffer.getInt();
+        if (count < 0 || buffer.capacity() != SNAPSHOT_HEADER_BYTES + (long) ACCOUNT_BYTES * count + 4) {
+            throw new IOException("Ledger snapshot " + snapshotFile + " has the wrong size for " + count + " accounts");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(0).limit(buffer.capacity() - 4));
+        if ((int) crc.getValue() != buffer.getInt(buffer.capacity() - 4)) {
+            throw new IOException("Ledger snapshot " + snapshotFile + " fails its checksum");
+        }
+        for (int i = 0; i < count; i++) {
+            long account = buffer.getLong();
+            durable.put(account, buffer.getLong());
+            durableSeqs.put(account, buffer.getLong());
+        }
+        return seq;
+    }
+
+    // Replays the log records after the snapshot, cutting the log at the first torn record;
+    // returns the records replayed and the last sequence number
+    private long[] replayLog(long snapshotSeq) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 4096);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        CRC32C crc = new CRC32C();
+        long lastSeq = snapshotSeq;
+        long replayed = 0;
+        long valid = 0; // Bytes of intact records
+        log.position(0);
+        read:
+        while (log.read(buffer) > 0 || buffer.position() > 0) {
+            buffer.flip();
+            if (buffer.remaining() < RECORD_BYTES) {
+                break; // Torn final record
+            }
+            while (buffer.remaining() >= RECORD_BYTES) {
+                buffer.get(record.array());
+                crc.reset();
+                crc.update(record.array(), 0, 24);
+                if ((int) crc.getValue() != record.getInt(24)) {
+                    break read;
+                }
+                long seq = record.getLong(0);
+                if (seq > snapshotSeq) {
+                    apply(record.getLong(8), record.getLong(16), seq);
+                    replayed++;
+                }
+                lastSeq = Math.max(lastSeq, seq);
+                valid += RECORD_BYTES;
+            }
+            buffer.compact();
+        }
+        if (valid < log.size()) {
+            log.truncate(valid); // Drop the torn tail so new records follow the last intact one
+        }
+        log.position(valid);
+        logBytes = valid;
+        return new long[] {replayed, lastSeq};
+    }
+}
@@ -0,0 +1,226 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays complete rounds with the server's PackedDeck or Shoe, ThreeCardLogic and betting rules to
+ * estimate bankroll outcomes and risk of ruin.
+ *
+ * The simulation is a set of independent sessions. Each session starts with the same
+ * bankroll and plays up to a fixed number of rounds, stopping early (ruin) when the
+ * bankroll can no longer cover the ante, play and Pair Plus bets of a round.
+ *
+ * Sessions are split across a fork/join pool. Every task owns a SplittableRandom
+ * split from its parent's stream and a task-local accumulator that is merged on join,
+ * so workers never share mutable state. The split tree depends only on the session
+ * ranges, so a given seed produces the same report on any number of cores.
+ */
+public final class MonteCarloSimulator {
+
+    // Rounds simulated by one leaf task before it stops splitting
+    private static final long LEAF_ROUNDS = 1 << 18;
+
+    private final long seed;             // Root seed for all random streams
+    private final int sessions;          // Number of independent sessions
+    private final int roundsPerSession;  // Maximum rounds played per session
+    private final long startingBankroll; // Bankroll at the start of every session
+    private final int anteBet;           // Ante bet per round (the play bet equals the ante)
+    private final int pairPlusBet;       // Pair Plus bet per round, 0 for none
+    private final PlayStrategy strategy; // Play or fold decision
+    private int shoeDecks;               // Decks in each session's shoe, 0 for a fresh deck every round
+    private double penetration;          // Fraction of the shoe dealt before reshuffling
+    private boolean continuous;          // The shoe is a continuous shuffler
+
+    /**
+     * Creates a simulator.
+     *
+     * @param seed             root seed; equal seeds give equal reports
+     * @param sessions         number of sessions to simulate
+     * @param roundsPerSession maximum rounds per session
+     * @param startingBankroll bankroll each session starts with
+     * @param anteBet          ante bet per round
+     * @param pairPlusBet      Pair Plus bet per round
+     * @param strategy         play or fold decision
+     */
+    public MonteCarloSimulator(long seed, int sessions, int roundsPerSession, long startingBankroll,
+                               int anteBet, int pairPlusBet, PlayStrategy strategy) {
+        if (sessions <= 0 || roundsPerSession <= 0) {
+            throw new IllegalArgumentException("sessions and roundsPerSession must be positive");
+        }
+        if (anteBet <= 0 || pairPlusBet < 0) {
+            throw new IllegalArgumentException("ante must be positive and pair plus must not be negative");
+        }
+        this.seed = seed;
+        this.sessions = sessions;
+        this.roundsPerSession = roundsPerSession;
+        this.startingBankroll = startingBankroll;
+        this.anteBet = anteBet;
+        this.pairPlusBet = pairPlusBet;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Deals every session from its own multi-deck shoe instead of a fresh deck every round.
+     *
+     * @param decks       decks in the shoe, 0 to go back to a fresh deck every round
+     * @param penetration fraction of the shoe dealt before the cut card, in (0, 1]
+     * @param continuous  true for a continuous shuffling machine
+     */
+    public void setShoe(int decks, double penetration, boolean continuous) {
+        if (decks > 0 && !(penetration > 0 && penetration <= 1)) {
+            throw new IllegalArgumentException("Penetration must be in (0, 1], got " + penetration);
+        }
+        this.shoeDecks = decks;
+        this.penetration = penetration;
+        this.continuous = continuous;
+    }
+
+    /**
+     * Runs the simulation on the common fork/join pool.
+     */
+    public SimulationReport run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the simulation on the given fork/join pool.
+     */
+    public SimulationReport run(ForkJoinPool pool) {
+        long start = System.nanoTime();
+        Accumulator acc = pool.invoke(new SessionTask(0, sessions, new SplittableRandom(seed)));
+        return acc.toReport(System.nanoTime() - start);
+    }
+
+    /**
+     * Plays one session and records it.
+     */
+    private void playSession(SplittableRandom rng, Accumulator acc) {
+        CardSource cards = newCardSource(rng); // Reused for every round of the session
+        long bankroll = startingBankroll;
+        int roundCost = 2 * anteBet + pairPlusBet; // Worst case stake of a round
+        int rounds = 0;
+        while (rounds < roundsPerSession) {
+            if (bankroll < roundCost) {
+                acc.ruined++;
+                break;
+            }
+            long net = playRound(cards);
+            bankroll += net;
+            acc.roundNet += net;
+            acc.roundNetSquares += (double) net * net;
+            rounds++;
+        }
+        long sessionNet = bankroll - startingBankroll;
+        acc.sessions++;
+        acc.rounds += rounds;
+        acc.sessionNet += sessionNet;
+        acc.sessionNetSquares += (double) sessionNet * sessionNet;
+    }
+
+    /**
+     * Returns the deck or shoe a session deals from.
+     */
+    private CardSource newCardSource(SplittableRandom rng) {
+        if (shoeDecks == 0) {
+            return new PackedDeck(rng);
+        }
+        return continuous ? Shoe.continuous(shoeDecks, rng) : new Shoe(shoeDecks, penetration, rng);
+    }
+
+    /**
+     * Deals and settles one round, returning the player's net result.
+     * Follows ClientHandler: folding forfeits the ante and the Pair Plus bet.
+     */
+    private long playRound(CardSource cards) {
+        cards.newRound();
+        int player = cards.dealPackedHand();
+        int dealer = cards.dealPackedHand();
+        if (!strategy.play(player)) {
+            return -anteBet - pairPlusBet;
+        }
+        RoundResult result = ThreeCardLogic.settleRound(dealer, player, anteBet, anteBet, pairPlusBet);
+        int pairPlus = result.getPairPlusPayout() > 0 ? result.getPairPlusPayout() : -pairPlusBet;
+        return result.getAntePayout() + result.getPlayPayout() + pairPlus;
+    }
+
+    /**
+     * Fork/join task simulating a range of sessions with its own random stream.
+     */
+    private final class SessionTask extends RecursiveTask<Accumulator> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;              // First session, inclusive
+        private final int to;                // Last session, exclusive
+        private final SplittableRandom rng;  // Stream owned by this task
+
+        SessionTask(int from, int to, SplittableRandom rng) {
+            this.from = from;
+            this.to = to;
+            this.rng = rng;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from == 1 || (long) (to - from) * roundsPerSession <= LEAF_ROUNDS) {
+                Accumulator acc = new Accumulator();
+                for (int s = from; s < to; s++) {
+                    playSession(rng.split(), acc);
+                }
+                return acc;
+            }
+            int mid = (from + to) >>> 1;
+            SessionTask left = new SessionTask(from, mid, rng.split());
+            left.fork();
+            Accumulator right = new SessionTask(mid, to, rng).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Task-local totals, merged in a fixed order so results are reproducible.
+     */
+    private static final class Accumulator {
+        long sessions, ruined, rounds;
+        long sessionNet, roundNet;
+        double sessionNetSquares, roundNetSquares;
+
+        Accumulator merge(Accumulator other) {
+            sessions += other.sessions;
+            ruined += other.ruined;
+            rounds += other.rounds;
+            sessionNet += other.sessionNet;
+            roundNet += other.roundNet;
+            sessionNetSquares += other.sessionNetSquares;
+            roundNetSquares += other.roundNetSquares;
+            return this;
+        }
+
+        SimulationReport toReport(long elapsedNanos) {
+            return new SimulationReport(sessions, ruined, rounds, sessionNet, sessionNetSquares,
+                    roundNet, roundNetSquares, elapsedNanos);
+        }
+    }
+
+    /**
+     * Runs a simulation from the command line:
+     * seed sessions roundsPerSession bankroll ante pairPlus [always|q64|optimal] [decks [penetration|csm]]
+     */
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 342L;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        long bankroll = args.length > 3 ? Long.parseLong(args[3]) : 500;
+        int ante = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+        int pairPlus = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+        String name = args.length > 6 ? args[6] : "always";
+        PlayStrategy strategy = name.equals("q64") ? PlayStrategy.QUEEN_SIX_FOUR
+                : name.equals("optimal") ? StrategyTable.getDefault() : PlayStrategy.ALWAYS_PLAY;
+        MonteCarloSimulator simulator = new MonteCarloSimulator(seed, sessions, rounds, bankroll, ante, pairPlus, strategy);
+        if (args.length > 7) {
+            String shoe = args.length > 8 ? args[8] : String.valueOf(ShuffleSource.DEFAULT_PENETRATION);
+            boolean csm = shoe.equals("csm");
+            simulator.setShoe(Integer.parseInt(args[7]), csm ? 1.0 : Double.parseDouble(shoe), csm);
+        }
+        System.out.println(simulator.run());
+    }
+}
@@ -0,0 +1,501 @@
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Server engine that serves every connection from a small fixed pool of event loops
+ * instead of a thread per connection, so idle players cost a few kilobytes each
+ * rather than a thread stack.
+ *
+ * This thread accepts connections and hands them round-robin to the event loops.
+ * Each loop owns a Selector and, for every connection, a read buffer, a queue of
+ * pending writes and the GameSession that plays the BETS, DEAL, PLAY or FOLD, RESULT
+ * flow. Reads and writes never block: a message is handled once its whole frame has
+ * arrived (see PokerFrames), and a reply the socket cannot take at once is queued and
+ * written when the socket becomes writable. While a reply is pending the connection
+ * stops reading, so a client that does not read cannot make the server buffer without
+ * limit.
+ *
+ * The first four bytes from a client pick its wire format: a PokerCodec hello for the
+ * binary format, otherwise serialized frames (PokerFrames). Legacy clients writing one
+ * continuous object stream need ServerThread and are refused. The game, its log and
+ * resumable sessions (SessionStore) are the same as with ServerThread.
+ */
+public class NioServer extends Thread implements PokerServer {
+
+    // System property setting the number of event loops
+    public static final String LOOPS_PROPERTY = "poker.server.loops";
+
+    private final int port;                     // Port number for the server to listen on
+    private final GameManager gameManager;      // Reference to the GameManager for logging
+    private final Paytables paytables;          // Paytables used to settle every round
+    private final ShuffleSource shuffleSource;  // Randomness for every deal
+    private final SessionStore sessions;        // Sessions clients can resume after reconnecting
+    private final Ledger ledger;                // Bankroll settlements are posted to, or null
+    private final EventLoop[] loops;            // Event loops serving the connections
+    private volatile boolean running = true;    // Flag to control the accept loop
+    private volatile ServerSocketChannel serverChannel; // Listening channel, closed to stop
+
+    /**
+     * Creates the server with one event loop per processor, or the number set by poker.server.loops.
+     * @param port The port number on which the server listens.
+     * @param gm The GameManager instance for handling game operations and logs.
+     * @param paytables The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness shared by every table.
+     */
+    public NioServer(int port, GameManager gm, Paytables paytables, ShuffleSource shuffleSource) {
+        this(port, gm, paytables, shuffleSource,
+                Integer.getInteger(LOOPS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates the server with the given number of event loops.
+     * @param port The port number on which the server listens.
+     * @param gm The GameManager instance for handling game operations and logs.
+     * @param paytables The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness shared by every table.
+     * @param loops The number of event loop threads.
+     */
+    public NioServer(int port, GameManager gm, Paytables paytables, ShuffleSource shuffleSource, int loops) {
+        this(port, gm, paytables, shuffleSource, loops, new SessionStore());
+    }
+
+    /**
+     * Creates the server with the given number of event loops and store of resumable sessions.
+     * @param port The port number on which the server listens.
+     * @param gm The GameManager instance for handling game operations and logs.
+     * @param paytables The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness shared by every table.
+     * @param loops The number of event loop threads.
+     * @param sessions The sessions clients can resume after reconnecting.
+     */
+    public NioServer(int port, GameManager gm, Paytables paytables, ShuffleSource shuffleSource, int loops,
+                     SessionStore sessions) {
+        this(port, gm, paytables, shuffleSource, loops, sessions, null);
+    }
+
+    /**
+     * Creates the server with the ledger every settlement is posted to. A RESULT is held
+     * until its settlement is committed, without blocking the event loop: the ledger's writer
+     * hands it back to the loop after the fsync, which settlements from every loop share.
+     * @param port The port number on which the server listens.
+     * @param gm The GameManager instance for handling game operations and logs.
+     * @param paytables The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness shared by every table.
+     * @param loops The number of event loop threads.
+     * @param sessions The sessions clients can resume after reconnecting.
+     * @param ledger The bankroll ledger, or null for none.
+     */
+    public NioServer(int port, GameManager gm, Paytables paytables, ShuffleSource shuffleSource, int loops,
+                     SessionStore sessions, Ledger ledger) {
+        super("poker-nio-accept");
+        if (loops <= 0) {
+            throw new IllegalArgumentException("Event loops must be positive, got " + loops);
+        }
+        this.port = port;
+        this.gameManager = gm;
+        this.paytables = paytables;
+        this.shuffleSource = shuffleSource;
+        this.sessions = sessions;
+        this.ledger = ledger;
+        this.loops = new EventLoop[loops];
+    }
+
+    /**
+     * Accepts connections until the server is stopped, then closes every connection.
+     */
+    @Override
+    public void run() {
+        try (ServerSocketChannel channel = ServerSocketChannel.open()) {
+            channel.bind(new InetSocketAddress(port));
+            serverChannel = channel;
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new EventLoop(i);
+                loops[i].start();
+            }
+            gameManager.logResult("Server started on port: " + port); // Log server start
+            int next = 0;
+            while (running) {
+                SocketChannel client = channel.accept();
+                loops[next].add(client); // Round-robin across the event loops
+                next = (next + 1) % loops.length;
+            }
+        } catch (Exception e) {
+            if (running) { // Log errors only if the server is not stopped intentionally
+                gameManager.logResult("Server encountered error: " + e.getMessage());
+                e.printStackTrace();
+            } else {
+                gameManager.logResult("Server stopped."); // Log intentional server stop
+            }
+        } finally {
+            for (EventLoop loop : loops) {
+                if (loop != null) {
+                    loop.shutdown();
+                }
+            }
+            for (EventLoop loop : loops) {
+                if (loop != null) {
+                    try {
+                        loop.join(); // Until it has closed its connections
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the server: closing the listening channel unblocks accept(), and the event
+     * loops then close their connections. This thread ends once every loop has; a reply
+     * still held for the ledger is not sent, and the client resumes to get it.
+     */
+    @Override
+    public void stopServer() {
+        running = false;
+        ServerSocketChannel channel = serverChannel;
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // Ignore exceptions on close
+        }
+    }
+
+    /**
+     * Returns the number of open connections.
+     */
+    public int getConnectionCount() {
+        int count = 0;
+        for (EventLoop loop : loops) {
+            if (loop != null) {
+                count += loop.connections;
+            }
+        }
+        return count;
+    }
+
+    public SessionStore getSessionStore() {
+        return sessions;
+    }
+
+    @Override
+    public String toString() {
+        return "NIO, " + loops.length + " event loops";
+    }
+
+    /**
+     * One selector thread serving its share of the connections.
+     */
+    private final class EventLoop extends Thread {
+        private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>(); // Handed over by the acceptor
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>(); // Handed over by other threads
+        private final Selector selector;        // Readiness of this loop's connections
+        private volatile boolean open = true;   // Cleared to stop the loop
+        private volatile int connections;       // Open connections, for monitoring
+
+        EventLoop(int index) throws IOException {
+            super("poker-nio-" + index);
+            setDaemon(true);
+            selector = Selector.open();
+        }
+
+        // Called by the acceptor; the channel is registered on this loop's thread
+        void add(SocketChannel channel) {
+            accepted.add(channel);
+            selector.wakeup();
+        }
+
+        // Called by other threads; the task runs on this loop's thread
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        void shutdown() {
+            open = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (open) {
+                    selector.select();
+                    registerAccepted();
+                    runTasks();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                connection.read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.write();
+                            }
+                        } catch (Exception e) {
+                            connection.failed(e);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                gameManager.logResult("Event loop " + getName() + " failed: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                for (SelectionKey key : new ArrayList<>(selector.keys())) {
+                    ((Connection) key.attachment()).close();
+                }
+                SocketChannel channel;
+                while ((channel = accepted.poll()) != null) {
+                    closeQuietly(channel);
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    // Ignore exceptions on close
+                }
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        // Registers the connections handed over since the last select
+        private void registerAccepted() {
+            SocketChannel channel;
+            while ((channel = accepted.poll()) != null) {
+                try {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true); // Replies are whole frames
+                    String clientName = channel.getRemoteAddress().toString();
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    key.attach(new Connection(this, channel, key, clientName));
+                    connections++;
+                    gameManager.logConnection(clientName); // Log new connection
+                } catch (IOException e) {
+                    closeQuietly(channel); // Closed by the client before it was registered
+                }
+            }
+        }
+    }
+
+    /**
+     * The state of one connection, used only by its event loop.
+     */
+    private final class Connection {
+        private final EventLoop loop;            // Event loop serving the connection
+        private final SocketChannel channel;     // Client socket connection
+        private final SelectionKey key;          // Registration with the loop's selector
+        private final String clientName;         // Identifier for the client
+        private GameSession session;             // Round flow and game logic for this client
+        private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>(); // Replies not yet written
+        private ByteBuffer in = ByteBuffer.allocate(1024); // Bytes of partly received frames, in write mode
+        private boolean open = true;             // Cleared once the connection is closed
+        private boolean disconnected;            // The client sent DISCONNECT
+        private boolean committing;              // A reply is held until the ledger commits its settlement
+        private boolean detected;                // The wire format is known
+        private boolean binary;                  // The client speaks the binary format
+
+        Connection(EventLoop loop, SocketChannel channel, SelectionKey key, String clientName) {
+            this.loop = loop;
+            this.channel = channel;
+            this.key = key;
+            this.clientName = clientName;
+            this.session = new GameSession(gameManager, clientName, paytables, shuffleSource, ledger);
+        }
+
+        // Reads what has arrived and handles every complete frame
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                close(); // Closed by the client without DISCONNECT
+                return;
+            }
+            handleFrames();
+        }
+
+        // Writes pending replies; once they are all written, resumes reading
+        void write() throws IOException {
+            while (!pending.isEmpty()) {
+                ByteBuffer frame = pending.peek();
+                channel.write(frame);
+                if (frame.hasRemaining()) {
+                    return; // Socket buffer full, wait until writable again
+                }
+                pending.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            handleFrames(); // Frames that arrived while the reply was pending
+        }
+
+        // Handles complete frames in the read buffer until one produces a reply that has to wait
+        private void handleFrames() throws IOException {
+            in.flip();
+            if (!detected && !detectFormat()) {
+                in.compact();
+                return;
+            }
+            int length;
+            while (pending.isEmpty() && !committing && (length = peekLength()) >= 0
+                    && in.remaining() >= headerBytes() + length) {
+                in.position(in.position() + headerBytes());
+                PokerInfo info = binary ? PokerCodec.decode(in, length) : PokerFrames.decode(in, length);
+                if (!sessions.touch(session, this)) {
+                    close(); // Resumed on another connection
+                    return;
+                }
+
+                // Handle disconnect message
+                if (info.getMessageType() == PokerInfo.MessageType.DISCONNECT) {
+                    disconnected = true;
+                    sessions.remove(session, this); // Left on purpose, nothing to resume
+                    gameManager.logDisconnection(clientName); // Log disconnection
+                    close();
+                    return;
+                }
+
+                // Open or resume the session, or deal, settle or log the message; send the reply if there is one
+                PokerInfo response;
+                if (info.getMessageType() == PokerInfo.MessageType.CONNECT) {
+                    session = sessions.connect(info, session, this);
+                    response = session.connected(info);
+                } else {
+                    response = session.handle(info);
+                }
+                if (response != null) {
+                    reply(binary ? PokerCodec.encode(response) : PokerFrames.encode(response));
+                }
+            }
+            length = peekLength();
+            if (length >= 0 && headerBytes() + length > in.capacity()) {
+                // Grow to hold the whole frame
+                ByteBuffer larger = ByteBuffer.allocate(headerBytes() + length);
+                larger.put(in);
+                in = larger;
+            } else {
+                in.compact();
+            }
+        }
+
+        // Picks the wire format from the first four bytes, answering a hello; false until they arrive
+        private boolean detectFormat() throws IOException {
+            if (in.remaining() < PokerCodec.HELLO_BYTES) {
+                return false;
+            }
+            byte[] head = new byte[PokerCodec.HELLO_BYTES];
+            for (int i = 0; i < head.length; i++) {
+                head[i] = in.get(in.position() + i); // Peek; serialized frames start here
+            }
+            if (PokerCodec.isObjectStream(head)) {
+                throw new StreamCorruptedException("Legacy object stream client needs the thread engine");
+            }
+            int version = PokerCodec.helloVersion(head);
+            if (version > 0) {
+                binary = true;
+                in.position(in.position() + PokerCodec.HELLO_BYTES);
+                send(ByteBuffer.wrap(PokerCodec.hello(Math.min(version, PokerCodec.VERSION)))); // Accept the hello
+            }
+            detected = true;
+            return true;
+        }
+
+        private int headerBytes() {
+            return binary ? PokerCodec.HEADER_BYTES : PokerFrames.HEADER_BYTES;
+        }
+
+        private int peekLength() throws StreamCorruptedException {
+            return binary ? PokerCodec.peekLength(in) : PokerFrames.peekLength(in);
+        }
+
+        // Sends a reply once the session's settlements are durable, reading nothing more until then
+        private void reply(ByteBuffer frame) throws IOException {
+            CompletableFuture<Void> durable = session.durable();
+            if (durable.isDone() && !durable.isCompletedExceptionally()) {
+                send(frame); // Nothing new to commit, as for every DEAL
+                return;
+            }
+            committing = true;
+            key.interestOps(0);
+            durable.whenComplete((ignored, failure) -> loop.execute(() -> { // Back on the loop after the fsync
+                try {
+                    committed(frame, failure);
+                } catch (Exception e) {
+                    failed(e);
+                }
+            }));
+        }
+
+        // Sends the reply held for the ledger, then handles the frames that arrived before it
+        private void committed(ByteBuffer frame, Throwable failure) throws IOException {
+            committing = false;
+            if (!open) {
+                return; // Closed while the reply was held
+            }
+            if (failure != null) {
+                throw new IllegalStateException(failure.getMessage(), failure);
+            }
+            send(frame);
+            if (pending.isEmpty()) {
+                key.interestOps(SelectionKey.OP_READ);
+                handleFrames();
+            }
+        }
+
+        // Writes a reply now if the socket takes it, otherwise queues it and waits for OP_WRITE
+        private void send(ByteBuffer frame) throws IOException {
+            channel.write(frame);
+            if (frame.hasRemaining()) {
+                pending.add(frame);
+                key.interestOps(SelectionKey.OP_WRITE); // Stop reading until the reply is out
+            }
+        }
+
+        // Logs any exception that occurs, as ClientHandler does, and closes the connection
+        void failed(Exception e) {
+            gameManager.logResult("Exception in client handler (" + clientName + "): " + e.getMessage());
+            close();
+        }
+
+        void close() {
+            if (!open) {
+                return;
+            }
+            open = false;
+            loop.connections--;
+            key.cancel();
+            closeQuietly(channel);
+            if (!disconnected) {
+                sessions.detach(session, this); // Kept for the client to resume
+                gameManager.logDisconnection(clientName); // Log disconnection if not already
+            }
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Ignore exceptions on close
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A reusable 52-card deck of card ordinals (see HandTable) that allocates nothing per round.
+ *
+ * The deck is never shuffled up front. Each deal is one step of a Fisher-Yates shuffle:
+ * it swaps a uniformly chosen card from the undealt part of the array to the front and
+ * deals it, so a round that deals six cards draws six random numbers instead of 51.
+ * Because the array always holds a permutation of all 52 cards, reset only has to mark
+ * every card undealt again, which is O(1).
+ *
+ * A round can also be dealt from a 64-bit seed (see reset(long)), so that it can be
+ * re-dealt exactly later from the recorded seed.
+ *
+ * A PackedDeck is not thread safe; each GameSession or simulator task owns its own.
+ */
+public final class PackedDeck implements CardSource, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int SIZE = 52; // Cards in a deck
+
+    // Cards in suit then rank order, the starting point of a seeded round
+    private static final int[] ORDERED = new int[SIZE];
+
+    static {
+        for (int i = 0; i < SIZE; i++) {
+            ORDERED[i] = i;
+        }
+    }
+
+    private final int[] cards = ORDERED.clone(); // Dealt cards first, then the undealt ones
+    private int dealt;                         // Number of cards dealt since the last reset
+    private boolean ordered;                   // Deal the undealt cards in array order instead of at random
+    private transient RandomGenerator rng;     // Source of randomness, null for ThreadLocalRandom
+    private transient SplitMix seeded;         // Stream for seeded rounds, created on first use
+
+    /**
+     * Creates a full deck that deals at random using ThreadLocalRandom.
+     */
+    public PackedDeck() {
+        this(null);
+    }
+
+    /**
+     * Creates a full deck that deals at random using the given generator,
+     * e.g. a simulator's own seeded stream.
+     *
+     * @param rng the random generator to draw from, or null for ThreadLocalRandom
+     */
+    public PackedDeck(RandomGenerator rng) {
+        this.rng = rng;
+    }
+
+    /**
+     * Returns every card to the deck for a new round, in O(1).
+     */
+    public void reset() {
+        dealt = 0;
+        ordered = false;
+    }
+
+    /**
+     * Returns every card to the deck for a new round, in O(1).
+     */
+    @Override
+    public void newRound() {
+        reset();
+    }
+
+    /**
+     * Returns every card to the deck and switches to the given random generator.
+     *
+     * @param rng the random generator to draw from, or null for ThreadLocalRandom
+     */
+    public void reset(RandomGenerator rng) {
+        this.rng = rng;
+        reset();
+    }
+
+    /**
+     * Returns every card to the deck and deals the round from the given seed.
+     * Two decks reset with the same seed deal the same cards in the same order,
+     * whatever they dealt before, so a recorded seed replays its round exactly.
+     *
+     * @param seed the round seed
+     */
+    public void reset(long seed) {
+        if (seeded == null) {
+            seeded = new SplitMix(seed);
+        } else {
+            seeded.setSeed(seed);
+        }
+        System.arraycopy(ORDERED, 0, cards, 0, SIZE); // Same starting order for every seeded round
+        reset(seeded);
+    }
+
+    @Override
+    public int remaining() {
+        return SIZE - dealt;
+    }
+
+    @Override
+    public int dealOrdinal() {
+        if (dealt == SIZE) {
+            return -1; // No cards left to deal
+        }
+        int i = dealt++;
+        if (!ordered) {
+            // One Fisher-Yates step: move a random undealt card into position i
+            RandomGenerator r = rng != null ? rng : ThreadLocalRandom.current();
+            int j = i + r.nextInt(SIZE - i);
+            int card = cards[j];
+            cards[j] = cards[i];
+            cards[i] = card;
+        }
+        return cards[i];
+    }
+
+    /**
+     * Deals one card.
+     *
+     * @return the dealt Card, or null if the deck is empty
+     */
+    public Card dealCard() {
+        int ordinal = dealOrdinal();
+        return ordinal < 0 ? null : PackedHand.toCard(ordinal);
+    }
+
+    /**
+     * Puts every card back in suit then rank order and deals them in that order
+     * until the next shuffle or reset; this is how a new Deck starts out.
+     */
+    void order() {
+        System.arraycopy(ORDERED, 0, cards, 0, SIZE);
+        dealt = 0;
+        ordered = true;
+    }
+
+    /**
+     * Returns every card to the deck in the order of a pre-shuffled permutation
+     * (see ShuffleService) and deals them in that order.
+     *
+     * @param permutation array holding the permutation
+     * @param offset      index of the permutation's first card
+     */
+    void load(byte[] permutation, int offset) {
+        for (int i = 0; i < SIZE; i++) {
+            cards[i] = permutation[offset + i];
+        }
+        dealt = 0;
+        ordered = true;
+    }
+
+    /**
+     * Deals the cards that are left at random from now on, as if they had been shuffled.
+     *
+     * @param rng the random generator to draw from, or null for ThreadLocalRandom
+     */
+    void shuffleRemaining(RandomGenerator rng) {
+        this.rng = rng;
+        ordered = false;
+    }
+}
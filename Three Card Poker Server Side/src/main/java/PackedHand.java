@@ -0,0 +1,83 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primitive encoding of three card hands.
+ *
+ * A card is represented by its ordinal 0..51 (see HandTable.ordinal), and a hand
+ * of three cards is packed into a single int with six bits per card:
+ * bits 0-5 hold the first card, bits 6-11 the second and bits 12-17 the third.
+ * Packed hands let the server deal, evaluate and settle a round without
+ * allocating Card objects or lists.
+ */
+public final class PackedHand {
+
+    // Mask selecting one six bit card slot
+    private static final int CARD_MASK = 0x3F;
+
+    private PackedHand() {}
+
+    /**
+     * Packs three card ordinals into a hand code.
+     */
+    public static int pack(int c0, int c1, int c2) {
+        return c0 | c1 << 6 | c2 << 12;
+    }
+
+    /**
+     * Packs a hand of three cards into a hand code.
+     */
+    public static int pack(List<Card> hand) {
+        return pack(HandTable.ordinal(hand.get(0)), HandTable.ordinal(hand.get(1)), HandTable.ordinal(hand.get(2)));
+    }
+
+    /**
+     * Returns the ordinal of the card at position 0, 1 or 2 of a hand code.
+     */
+    public static int card(int hand, int position) {
+        return (hand >>> (position * 6)) & CARD_MASK;
+    }
+
+    /**
+     * Returns the Card for a card ordinal.
+     */
+    public static Card toCard(int ordinal) {
+        return Card.ofOrdinal(ordinal);
+    }
+
+    /**
+     * Unpacks a hand code into a new list of three cards, in packed order.
+     */
+    public static ArrayList<Card> toList(int hand) {
+        ArrayList<Card> cards = new ArrayList<>(3);
+        for (int i = 0; i < 3; i++) {
+            cards.add(toCard(card(hand, i)));
+        }
+        return cards;
+    }
+
+    /**
+     * Returns true if the hand holds the same card more than once, as a hand dealt
+     * from a multi-deck shoe can.
+     */
+    public static boolean hasDuplicates(int hand) {
+        int c0 = hand & CARD_MASK;
+        int c1 = (hand >>> 6) & CARD_MASK;
+        int c2 = (hand >>> 12) & CARD_MASK;
+        return c0 == c1 || c1 == c2 || c0 == c2;
+    }
+
+    /**
+     * Returns the HandTable index (0..22099) of a hand code with three distinct cards.
+     */
+    public static int index(int hand) {
+        return HandTable.index(hand & CARD_MASK, (hand >>> 6) & CARD_MASK, (hand >>> 12) & CARD_MASK);
+    }
+
+    /**
+     * Returns the HandTable evaluation entry for a hand code.
+     */
+    public static int lookup(int hand) {
+        return HandTable.lookup(hand & CARD_MASK, (hand >>> 6) & CARD_MASK, (hand >>> 12) & CARD_MASK);
+    }
+}
@@ -0,0 +1,181 @@
+import java.util.Arrays;
+
+/**
+ * A side bet or bonus paytable compiled into a flat array of multipliers indexed by
+ * hand rank (see ThreeCardLogic), so a payout is a single array read.
+ *
+ * The theoretical return to player is computed once, by exact enumeration, on first
+ * request and cached (Paytables computes it as soon as a configuration is loaded):
+ * - Pair Plus: over all 22,100 hands, return per unit bet.
+ * - Ante Bonus: over all 22,100 player hands with the exact play EV of each hand
+ *   (StrategyTable) plus its bonus, playing whenever that beats folding; the return
+ *   is per unit of total ante and play wagered.
+ */
+public final class Paytable {
+
+    /**
+     * Which bet a paytable settles.
+     */
+    public enum Type {
+        PAIR_PLUS, ANTE_BONUS
+    }
+
+    // Hand rank names accepted in configuration, indexed by rank
+    private static final String[] RANK_NAMES = {
+        null, "HIGH_CARD", "PAIR", "FLUSH", "STRAIGHT", "THREE_OF_KIND", "STRAIGHT_FLUSH"
+    };
+
+    // The Pair Plus paytable the game has always used: 1, 3, 6, 30, 40
+    public static final Paytable STANDARD_PAIR_PLUS =
+            new Paytable("standard", Type.PAIR_PLUS, new int[] {0, 0, 1, 3, 6, 30, 40});
+
+    // No Ante Bonus
+    public static final Paytable NO_ANTE_BONUS =
+            new Paytable("none", Type.ANTE_BONUS, new int[] {0, 0, 0, 0, 0, 0, 0});
+
+    private final String name;        // Name used in configuration
+    private final Type type;          // Bet settled by this paytable
+    private final int[] multipliers;  // Payout per unit bet, indexed by hand rank
+    private volatile double rtp = Double.NaN; // Cached theoretical return to player
+
+    /**
+     * Creates a paytable.
+     *
+     * @param name        name of the paytable
+     * @param type        bet settled by the paytable
+     * @param multipliers payout per unit bet indexed by hand rank 0..6 (index 0 unused)
+     */
+    public Paytable(String name, Type type, int[] multipliers) {
+        if (multipliers.length != RANK_NAMES.length) {
+            throw new IllegalArgumentException("Paytable " + name + " needs " + RANK_NAMES.length + " multipliers");
+        }
+        for (int m : multipliers) {
+            if (m < 0) {
+                throw new IllegalArgumentException("Paytable " + name + " has a negative multiplier");
+            }
+        }
+        this.name = name;
+        this.type = type;
+        this.multipliers = multipliers.clone();
+    }
+
+    /**
+     * Parses a paytable definition such as "PAIR:1, FLUSH:3, STRAIGHT:6".
+     * Hand ranks that are not listed pay nothing.
+     */
+    public static Paytable parse(String name, Type type, String definition) {
+        int[] multipliers = new int[RANK_NAMES.length];
+        for (String part : definition.split(",")) {
+            String entry = part.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Paytable " + name + ": expected RANK:multiplier, got " + entry);
+            }
+            int rank = rankOf(entry.substring(0, colon).trim());
+            if (rank < 0) {
+                throw new IllegalArgumentException("Paytable " + name + ": unknown hand rank " + entry);
+            }
+            multipliers[rank] = Integer.parseInt(entry.substring(colon + 1).trim());
+        }
+        return new Paytable(name, type, multipliers);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the payout multiplier for a hand rank.
+     */
+    public int getMultiplier(int rank) {
+        return multipliers[rank];
+    }
+
+    /**
+     * Returns the winnings for a hand rank and bet amount, or 0 if the rank does not pay.
+     */
+    public int payout(int rank, int bet) {
+        return bet * multipliers[rank];
+    }
+
+    /**
+     * Returns the theoretical return to player, e.g. 0.95 for a 5% house edge.
+     */
+    public double getRtp() {
+        double r = rtp;
+        if (Double.isNaN(r)) {
+            // Deterministic, so a concurrent duplicate computation is harmless
+            r = type == Type.PAIR_PLUS ? pairPlusRtp(multipliers) : anteBonusRtp(multipliers);
+            rtp = r;
+        }
+        return r;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int rank = ThreeCardLogic.STRAIGHT_FLUSH; rank >= ThreeCardLogic.HIGH_CARD; rank--) {
+            if (multipliers[rank] > 0) {
+                sb.append(sb.length() == 0 ? "" : ", ").append(RANK_NAMES[rank]).append(':').append(multipliers[rank]);
+            }
+        }
+        return String.format("%s %s [%s] RTP=%.4f%%", type, name, sb, getRtp() * 100);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Paytable && ((Paytable) o).type == type
+                && Arrays.equals(((Paytable) o).multipliers, multipliers);
+    }
+
+    @Override
+    public int hashCode() {
+        return type.hashCode() * 31 + Arrays.hashCode(multipliers);
+    }
+
+    // Returns the rank for a configured name, or -1
+    private static int rankOf(String rankName) {
+        for (int rank = 1; rank < RANK_NAMES.length; rank++) {
+            if (RANK_NAMES[rank].equalsIgnoreCase(rankName)) {
+                return rank;
+            }
+        }
+        return -1;
+    }
+
+    // Exact Pair Plus return per unit bet over all hands
+    private static double pairPlusRtp(int[] multipliers) {
+        long returned = 0;
+        for (int i = 0; i < HandTable.HAND_COUNT; i++) {
+            int m = multipliers[HandTable.category(HandTable.entryAt(i))];
+            returned += m > 0 ? m + 1 : 0; // Winning hands return the stake plus winnings
+        }
+        return (double) returned / HandTable.HAND_COUNT;
+    }
+
+    // Exact ante+play return per unit wagered with the Ante Bonus, playing optimally
+    private static double anteBonusRtp(int[] multipliers) {
+        StrategyTable strategy = StrategyTable.getDefault();
+        double ev = 0;      // Net result per ante, summed over hands
+        double wagered = 0; // Ante plus play wagered per ante, summed over hands
+        for (int i = 0; i < HandTable.HAND_COUNT; i++) {
+            int hand = HandTable.handAt(i);
+            double play = strategy.playEv(hand) + multipliers[HandTable.category(HandTable.entryAt(i))];
+            if (play > strategy.foldEv()) {
+                ev += play;
+                wagered += 2;
+            } else {
+                ev += strategy.foldEv();
+                wagered += 1;
+            }
+        }
+        return 1 + ev / wagered;
+    }
+}
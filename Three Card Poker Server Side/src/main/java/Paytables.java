@@ -0,0 +1,113 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * The set of paytables loaded from configuration, and the Pair Plus and Ante Bonus
+ * paytables active at the table.
+ *
+ * The configuration is the classpath resource /paytables.properties, or the file named
+ * by the system property poker.paytables. Loading computes the RTP of every paytable,
+ * so it is cached and available to operators immediately.
+ */
+public final class Paytables {
+
+    // Classpath resource with the default configuration
+    public static final String RESOURCE = "/paytables.properties";
+
+    // System property naming an alternative configuration file
+    public static final String FILE_PROPERTY = "poker.paytables";
+
+    // The game's original rules: standard Pair Plus, no Ante Bonus
+    public static final Paytables DEFAULT = new Paytables(
+            Collections.singletonMap("pairplus.standard", Paytable.STANDARD_PAIR_PLUS),
+            Paytable.STANDARD_PAIR_PLUS, Paytable.NO_ANTE_BONUS);
+
+    private final Map<String, Paytable> all; // Every loaded paytable by configuration key
+    private final Paytable pairPlus;         // Active Pair Plus paytable
+    private final Paytable anteBonus;        // Active Ante Bonus paytable
+
+    private Paytables(Map<String, Paytable> all, Paytable pairPlus, Paytable anteBonus) {
+        this.all = Collections.unmodifiableMap(all);
+        this.pairPlus = pairPlus;
+        this.anteBonus = anteBonus;
+    }
+
+    /**
+     * Loads the configured paytables from the poker.paytables file if set,
+     * otherwise from the bundled resource.
+     *
+     * @throws IOException if the configuration cannot be read
+     */
+    public static Paytables loadConfigured() throws IOException {
+        Properties props = new Properties();
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file != null) {
+            try (Reader reader = Files.newBufferedReader(Paths.get(file))) {
+                props.load(reader);
+            }
+        } else {
+            try (InputStream in = Paytables.class.getResourceAsStream(RESOURCE)) {
+                if (in == null) {
+                    return DEFAULT;
+                }
+                props.load(in);
+            }
+        }
+        return load(props);
+    }
+
+    /**
+     * Builds paytables from configuration properties (see paytables.properties).
+     */
+    public static Paytables load(Properties props) {
+        Map<String, Paytable> all = new LinkedHashMap<>();
+        for (String key : new TreeSet<>(props.stringPropertyNames())) {
+            if (key.startsWith("pairplus.")) {
+                all.put(key, Paytable.parse(key.substring(9), Paytable.Type.PAIR_PLUS, props.getProperty(key)));
+            } else if (key.startsWith("antebonus.")) {
+                all.put(key, Paytable.parse(key.substring(10), Paytable.Type.ANTE_BONUS, props.getProperty(key)));
+            }
+        }
+        Paytable pairPlus = select(all, "pairplus.", props.getProperty("active.pairplus"), Paytable.STANDARD_PAIR_PLUS);
+        Paytable anteBonus = select(all, "antebonus.", props.getProperty("active.antebonus"), Paytable.NO_ANTE_BONUS);
+        for (Paytable table : all.values()) {
+            table.getRtp(); // Compute and cache every RTP up front
+        }
+        return new Paytables(all, pairPlus, anteBonus);
+    }
+
+    // Returns the active paytable named in configuration, or the fallback if none is named
+    private static Paytable select(Map<String, Paytable> all, String prefix, String name, Paytable fallback) {
+        if (name == null || name.trim().isEmpty()) {
+            return fallback;
+        }
+        Paytable table = all.get(prefix + name.trim());
+        if (table == null) {
+            throw new IllegalArgumentException("Active paytable " + prefix + name.trim() + " is not defined");
+        }
+        return table;
+    }
+
+    public Paytable getPairPlus() {
+        return pairPlus;
+    }
+
+    public Paytable getAnteBonus() {
+        return anteBonus;
+    }
+
+    /**
+     * Returns every loaded paytable by configuration key.
+     */
+    public Map<String, Paytable> getAll() {
+        return all;
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * Decides whether a player plays or folds a dealt hand.
+ * Used by simulators and automated players.
+ */
+@FunctionalInterface
+public interface PlayStrategy {
+
+    /**
+     * Always places the play bet, like the client's Play button every round.
+     */
+    PlayStrategy ALWAYS_PLAY = hand -> true;
+
+    /**
+     * Plays Queen-6-4 or better and folds everything below it.
+     */
+    PlayStrategy QUEEN_SIX_FOUR = hand -> {
+        int entry = PackedHand.lookup(hand);
+        if (HandTable.category(entry) > ThreeCardLogic.HIGH_CARD) {
+            return true;
+        }
+        // High card hands compare by their ranks in descending order
+        return (entry & 0xFFF) >= (12 << 8 | 6 << 4 | 4);
+    };
+
+    /**
+     * Returns true to play the hand, false to fold.
+     *
+     * @param playerHand the player's packed hand code (see PackedHand)
+     */
+    boolean play(int playerHand);
+}
@@ -0,0 +1,76 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+
+/**
+ * Length-prefixed frames of PokerInfo messages, as used by NioServer.
+ *
+ * A frame is a 4-byte big-endian length followed by that many bytes: one PokerInfo
+ * written to its own ObjectOutputStream. Unlike the continuous object stream of
+ * ClientHandler, every frame stands alone, so a non-blocking reader can tell when a
+ * message is complete without deserializing it.
+ */
+public final class PokerFrames {
+
+    // Bytes in the length prefix
+    public static final int HEADER_BYTES = 4;
+
+    // Largest frame body accepted; a PokerInfo is a few hundred bytes
+    public static final int MAX_FRAME_BYTES = 64 * 1024;
+
+    private PokerFrames() {
+    }
+
+    /**
+     * Encodes a message as a frame ready to write.
+     */
+    public static ByteBuffer encode(PokerInfo info) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        bytes.write(new byte[HEADER_BYTES]); // Length, filled in below
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(info);
+        }
+        ByteBuffer frame = ByteBuffer.wrap(bytes.toByteArray());
+        frame.putInt(0, frame.remaining() - HEADER_BYTES);
+        return frame;
+    }
+
+    /**
+     * Returns the body length of the frame at the buffer's position, or -1 if the
+     * length prefix has not fully arrived. The position is not moved.
+     *
+     * @throws StreamCorruptedException if the length is negative or too large
+     */
+    public static int peekLength(ByteBuffer buffer) throws StreamCorruptedException {
+        if (buffer.remaining() < HEADER_BYTES) {
+            return -1;
+        }
+        int length = buffer.getInt(buffer.position());
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new StreamCorruptedException("Invalid frame length " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Decodes the frame body of the given length at the buffer's position and moves past it.
+     */
+    public static PokerInfo decode(ByteBuffer buffer, int length) throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(buffer.array(),
+                buffer.arrayOffset() + buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        try (ObjectInputStream ois = new ObjectInputStream(in)) {
+            Object obj = ois.readObject();
+            if (!(obj instanceof PokerInfo)) {
+                throw new StreamCorruptedException("Frame holds " + obj.getClass().getName() + ", not PokerInfo");
+            }
+            return (PokerInfo) obj;
+        } catch (ClassNotFoundException e) {
+            throw new StreamCorruptedException("Frame holds unknown class " + e.getMessage());
+        }
+    }
+}
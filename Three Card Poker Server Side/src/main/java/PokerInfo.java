@@ -12,7 +12,7 @@ public class PokerInfo implements Serializable {
      * Enumeration of possible message types exchanged between client and server.
      */
     public enum MessageType {
-        CONNECT, BETS, DEAL, PLAY, FOLD, RESULT, DISCONNECT, CONTINUE
+        CONNECT, BETS, DEAL, PLAY, FOLD, RESULT, DISCONNECT, CONTINUE, BATCH
     }
 
     private MessageType messageType; // Type of message
@@ -24,8 +24,13 @@ public class PokerInfo implements Serializable {
     private boolean dealerQualifies; // Whether the dealer qualifies
     private int gameResult;          // Game result: 1=player wins, -1=dealer wins, 0=tie
     private int pairPlusWinnings;    // PairPlus winnings amount
+    private int anteBonusWinnings;   // Ante Bonus winnings amount
 
     private String infoMessage;      // Additional information message
+    private int roundId;             // Dealt round a DEAL, decision or RESULT belongs to, 0 for none
+    private ArrayList<PokerInfo> rounds; // Rounds of a BATCH message
+    private ArrayList<PokerInfo> spots;  // Player hands of a multi-spot round, against one dealer hand
+    private long sessionToken;       // Session a CONNECT resumes or its reply issues, 0 for none
 
     // Default constructor
     public PokerInfo() {}
@@ -74,6 +79,20 @@ public class PokerInfo implements Serializable {
         this.dealerHand = dealerHand; // Sets the dealer's hand
     }
 
+    public int getPackedPlayerHand() {
+        return PackedHand.pack(playerHand); // Returns the player's hand as a packed code
+    }
+    public void setPackedPlayerHand(int hand) {
+        this.playerHand = PackedHand.toList(hand); // Sets the player's hand from a packed code
+    }
+
+    public int getPackedDealerHand() {
+        return PackedHand.pack(dealerHand); // Returns the dealer's hand as a packed code
+    }
+    public void setPackedDealerHand(int hand) {
+        this.dealerHand = PackedHand.toList(hand); // Sets the dealer's hand from a packed code
+    }
+
     public boolean isDealerQualifies() {
         return dealerQualifies; // Checks if the dealer qualifies
     }
@@ -95,10 +114,45 @@ public class PokerInfo implements Serializable {
         this.pairPlusWinnings = pairPlusWinnings; // Sets PairPlus winnings
     }
 
+    public int getAnteBonusWinnings() {
+        return anteBonusWinnings; // Returns Ante Bonus winnings
+    }
+    public void setAnteBonusWinnings(int anteBonusWinnings) {
+        this.anteBonusWinnings = anteBonusWinnings; // Sets Ante Bonus winnings
+    }
+
     public String getInfoMessage() {
         return infoMessage; // Returns additional info message
     }
     public void setInfoMessage(String infoMessage) {
         this.infoMessage = infoMessage; // Sets additional info message
     }
+
+    public int getRoundId() {
+        return roundId; // Returns the round id
+    }
+    public void setRoundId(int roundId) {
+        this.roundId = roundId; // Sets the round id
+    }
+
+    public ArrayList<PokerInfo> getRounds() {
+        return rounds; // Returns the rounds of a batch
+    }
+    public void setRounds(ArrayList<PokerInfo> rounds) {
+        this.rounds = rounds; // Sets the rounds of a batch
+    }
+
+    public ArrayList<PokerInfo> getSpots() {
+        return spots; // Returns the spots of a multi-spot round
+    }
+    public void setSpots(ArrayList<PokerInfo> spots) {
+        this.spots = spots; // Sets the spots of a multi-spot round
+    }
+
+    public long getSessionToken() {
+        return sessionToken; // Returns the session token
+    }
+    public void setSessionToken(long sessionToken) {
+        this.sessionToken = sessionToken; // Sets the session token
+    }
 }
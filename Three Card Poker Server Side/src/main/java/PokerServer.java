@@ -0,0 +1,69 @@
+/**
+ * A server engine accepting client connections: ServerThread, with a thread per
+ * connection, or NioServer, with a few event loops shared by every connection.
+ */
+public interface PokerServer {
+
+    // System property selecting the engine: threads (the default) or nio
+    String ENGINE_PROPERTY = "poker.server.engine";
+
+    /**
+     * Starts accepting connections in the background.
+     */
+    void start();
+
+    /**
+     * Stops accepting connections and closes the open ones in the background, detaching
+     * their sessions; join waits for that.
+     */
+    void stopServer();
+
+    /**
+     * Waits up to the given time for the server to stop. Once it has, no connection is
+     * handling a message, so no session changes until the next start.
+     */
+    void join(long millis) throws InterruptedException;
+
+    /**
+     * Returns true while the server is running.
+     */
+    boolean isAlive();
+
+    /**
+     * Creates the engine named by the poker.server.engine property. The thread engine
+     * also reads poker.server.threads and poker.server.maxSessions (see ServerThread).
+     *
+     * @throws IllegalArgumentException if a property has an unknown or invalid value
+     */
+    static PokerServer configured(int port, GameManager gm, Paytables paytables, ShuffleSource shuffleSource) {
+        return configured(port, gm, paytables, shuffleSource, new SessionStore(), null);
+    }
+
+    /**
+     * Creates the engine named by the poker.server.engine property, keeping resumable sessions
+     * in the given store and posting every settlement to a ledger.
+     *
+     * @param sessions The store of resumable sessions, possibly restored from a StateSnapshot.
+     * @param ledger The bankroll ledger, or null for none.
+     * @throws IllegalArgumentException if a property has an unknown or invalid value
+     */
+    static PokerServer configured(int port, GameManager gm, Paytables paytables, ShuffleSource shuffleSource,
+                                  SessionStore sessions, Ledger ledger) {
+        String engine = System.getProperty(ENGINE_PROPERTY, "threads").trim();
+        if (engine.equalsIgnoreCase("nio")) {
+            return new NioServer(port, gm, paytables, shuffleSource,
+                    Integer.getInteger(NioServer.LOOPS_PROPERTY, Runtime.getRuntime().availableProcessors()),
+                    sessions, ledger);
+        }
+        if (!engine.equalsIgnoreCase("threads")) {
+            throw new IllegalArgumentException("Unknown " + ENGINE_PROPERTY + " " + engine);
+        }
+        String threads = System.getProperty(ServerThread.THREADS_PROPERTY, "platform").trim();
+        if (!threads.equalsIgnoreCase("platform") && !threads.equalsIgnoreCase("virtual")) {
+            throw new IllegalArgumentException("Unknown " + ServerThread.THREADS_PROPERTY + " " + threads);
+        }
+        int maxSessions = Integer.parseInt(System.getProperty(ServerThread.MAX_SESSIONS_PROPERTY, "0").trim());
+        return new ServerThread(port, gm, paytables, shuffleSource, threads.equalsIgnoreCase("virtual"), maxSessions,
+                sessions, ledger);
+    }
+}
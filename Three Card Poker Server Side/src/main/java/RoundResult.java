@@ -0,0 +1,69 @@
+/**
+ * Immutable outcome of a settled round, produced by ThreeCardLogic.settleRound.
+ * Ante and play payouts are net amounts: positive when the player wins,
+ * negative when the player loses and 0 on a push.
+ * The Pair Plus and Ante Bonus payouts follow evalPPWinnings: the amount won,
+ * or 0 if the hand does not pay.
+ */
+public final class RoundResult {
+    private final boolean dealerQualifies; // Whether the dealer qualifies
+    private final int outcome;             // 1=player wins, -1=dealer wins, 0=tie or dealer doesn't qualify
+    private final int antePayout;          // Net ante payout
+    private final int playPayout;          // Net play payout
+    private final int pairPlusPayout;      // Pair Plus winnings
+    private final int anteBonusPayout;     // Ante Bonus winnings
+    private final int playerCategory;      // Player's hand rank
+    private final int dealerCategory;      // Dealer's hand rank
+
+    public RoundResult(boolean dealerQualifies, int outcome, int antePayout, int playPayout,
+                       int pairPlusPayout, int anteBonusPayout, int playerCategory, int dealerCategory) {
+        this.dealerQualifies = dealerQualifies;
+        this.outcome = outcome;
+        this.antePayout = antePayout;
+        this.playPayout = playPayout;
+        this.pairPlusPayout = pairPlusPayout;
+        this.anteBonusPayout = anteBonusPayout;
+        this.playerCategory = playerCategory;
+        this.dealerCategory = dealerCategory;
+    }
+
+    public boolean isDealerQualifies() {
+        return dealerQualifies; // Checks if the dealer qualifies
+    }
+
+    public int getOutcome() {
+        return outcome; // Returns the game result
+    }
+
+    public int getAntePayout() {
+        return antePayout; // Returns the net ante payout
+    }
+
+    public int getPlayPayout() {
+        return playPayout; // Returns the net play payout
+    }
+
+    public int getPairPlusPayout() {
+        return pairPlusPayout; // Returns the Pair Plus winnings
+    }
+
+    public int getAnteBonusPayout() {
+        return anteBonusPayout; // Returns the Ante Bonus winnings
+    }
+
+    public int getPlayerCategory() {
+        return playerCategory; // Returns the player's hand rank
+    }
+
+    public int getDealerCategory() {
+        return dealerCategory; // Returns the dealer's hand rank
+    }
+
+    @Override
+    public String toString() {
+        return "RoundResult[outcome=" + outcome + ", dealerQualifies=" + dealerQualifies
+                + ", ante=" + antePayout + ", play=" + playPayout + ", pairPlus=" + pairPlusPayout
+                + ", anteBonus=" + anteBonusPayout
+                + ", player=" + playerCategory + ", dealer=" + dealerCategory + "]";
+    }
+}
@@ -1,4 +1,10 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -16,8 +22,14 @@ public class ServerApp extends Application {
     private Scene introScene;   // Scene for the intro screen
     private Scene mainScene;    // Scene for the main screen
 
-    private ServerThread serverThread; // Thread handling the server logic
+    private PokerServer server; // Engine accepting and serving client connections
+    private ShuffleSource shuffleSource; // Randomness for every deal, closed when the server stops
+    private Ledger ledger;      // Player balances, closed when the server stops; null if it failed to open
+    private SessionStore sessions;     // Resumable sessions, saved to the state snapshot
+    private Path stateFile;            // State snapshot written on stop and restored on start
+    private ScheduledExecutorService snapshots; // Writes the state snapshot periodically; null if only on stop
     private GameManager gameManager;   // Manages game state and logs
+    private boolean stopping;          // A shutdown is running in the background; FX thread only
 
     @Override
     public void start(Stage primaryStage) {
@@ -53,9 +65,80 @@ public class ServerApp extends Application {
         // Initialize game logs and game manager
         ObservableList<String> gameLogs = FXCollections.observableArrayList();
         gameManager = new GameManager(gameLogs);
-        // Start the server thread
-        serverThread = new ServerThread(port, gameManager);
-        serverThread.start();
+        // Load the configured paytables; their RTPs are computed as they load
+        Paytables paytables;
+        try {
+            paytables = Paytables.loadConfigured();
+        } catch (Exception e) {
+            showError("Failed to load paytables, using defaults: " + e.getMessage());
+            paytables = Paytables.DEFAULT;
+        }
+        for (Paytable table : paytables.getAll().values()) {
+            gameManager.logResult("Loaded paytable " + table);
+        }
+        gameManager.logResult("Active paytables: Pair Plus " + paytables.getPairPlus().getName()
+                + ", Ante Bonus " + paytables.getAnteBonus().getName());
+        // Select where each deal's randomness comes from
+        try {
+            shuffleSource = ShuffleSource.configured();
+        } catch (IllegalArgumentException e) { // Also covers a non-numeric seed
+            showError("Invalid shuffle configuration, using thread-local: " + e.getMessage());
+            shuffleSource = ShuffleSource.threadLocal();
+        }
+        gameManager.logResult("Shuffle mode: " + shuffleSource);
+        // Recover the player balances from the ledger
+        try {
+            ledger = Ledger.configured();
+            gameManager.logResult("Ledger: " + ledger);
+        } catch (Exception e) {
+            showError("Failed to open the ledger, balances are not kept: " + e.getMessage());
+            ledger = null;
+        }
+        // Restore the sessions saved when the server last stopped
+        sessions = new SessionStore();
+        stateFile = StateSnapshot.configuredFile();
+        if (Files.exists(stateFile)) {
+            try {
+                long start = System.nanoTime();
+                int restored = StateSnapshot.restore(stateFile, sessions, gameManager, paytables, shuffleSource, ledger);
+                gameManager.logResult(String.format("Restored %d sessions from %s (%d bytes) in %.1f ms", restored,
+                        stateFile, Files.size(stateFile), (System.nanoTime() - start) / 1e6));
+            } catch (Exception e) {
+                showError("Failed to restore the state snapshot, starting without sessions: " + e.getMessage());
+                sessions = new SessionStore();
+            }
+        }
+        long interval = StateSnapshot.configuredIntervalSeconds();
+        if (interval > 0) {
+            snapshots = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "poker-state-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshots.scheduleWithFixedDelay(this::writeSnapshot, interval, interval, TimeUnit.SECONDS);
+        }
+        // Start the configured server engine
+        try {
+            server = PokerServer.configured(port, gameManager, paytables, shuffleSource, sessions, ledger);
+        } catch (IllegalArgumentException e) {
+            // Refuse to start rather than serve with an engine other than the one configured
+            showError("Invalid server engine, server not started: " + e.getMessage());
+            server = null;
+            if (snapshots != null) {
+                snapshots.shutdownNow();
+            }
+            shuffleSource.close();
+            if (ledger != null) {
+                try {
+                    ledger.close();
+                } catch (Exception closeFailure) {
+                    gameManager.logResult("Ledger failed to close: " + closeFailure.getMessage());
+                }
+            }
+            return;
+        }
+        gameManager.logResult("Server engine: " + server);
+        server.start();
         // Load the main scene for server management
         loadMainScene(gameLogs);
     }
@@ -82,16 +165,17 @@ public class ServerApp extends Application {
     }
 
     /**
-     * Stops the server and notifies the user.
+     * Stops the server and notifies the user once it has stopped. Waiting for the connections,
+     * the snapshot and the ledger's last fsync can take seconds, so they run on a background
+     * thread and the FX thread stays responsive.
      */
     public void stopServer() {
-        if (serverThread != null && serverThread.isAlive()) {
-            // Stop the server thread and log the result
-            serverThread.stopServer();
-            gameManager.logResult("Server has been stopped.");
-            // Show information alert to the user
-            Alert alert = new Alert(AlertType.INFORMATION, "Server has been stopped.");
-            alert.showAndWait();
+        if (stopping) {
+            return; // Already stopping
+        }
+        if (server != null && server.isAlive()) {
+            stopping = true;
+            new Thread(this::shutDown, "poker-shutdown").start(); // Not a daemon, so exiting waits for it
         } else {
             // Show warning alert if the server is not running
             Alert alert = new Alert(AlertType.WARNING, "Server is not running.");
@@ -99,6 +183,52 @@ public class ServerApp extends Application {
         }
     }
 
+    // Stops the server, saves the state and closes the ledger, then tells the user on the FX thread
+    private void shutDown() {
+        // Stop the server and log the result
+        if (snapshots != null) {
+            snapshots.shutdownNow();
+        }
+        server.stopServer();
+        try {
+            server.join(15_000); // Every connection closed, so no round settles after the snapshot
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (server.isAlive()) {
+            gameManager.logResult("Server still stopping after 15 s, saving the state anyway");
+        }
+        writeSnapshot();
+        gameManager.logResult("Shuffle source at stop: " + shuffleSource);
+        shuffleSource.close();
+        if (ledger != null) {
+            try {
+                ledger.close(true); // Commits the last settlements and compacts them for a quick restart
+            } catch (Exception e) {
+                gameManager.logResult("Ledger failed to close: " + e.getMessage());
+            }
+        }
+        gameManager.logResult("Server has been stopped.");
+        // Show information alert to the user
+        Platform.runLater(() -> {
+            stopping = false;
+            Alert alert = new Alert(AlertType.INFORMATION, "Server has been stopped.");
+            alert.showAndWait();
+        });
+    }
+
+    // Writes the state snapshot, logging its size and how long it took; one write at a time
+    private synchronized void writeSnapshot() {
+        try {
+            long start = System.nanoTime();
+            long bytes = StateSnapshot.write(stateFile, sessions, shuffleSource);
+            gameManager.logResult(String.format("Saved %d sessions to %s (%d bytes) in %.1f ms", sessions.size(),
+                    stateFile, bytes, (System.nanoTime() - start) / 1e6));
+        } catch (Exception e) {
+            gameManager.logResult("Failed to save the state snapshot: " + e.getMessage());
+        }
+    }
+
     /**
      * Displays an error alert with the provided message.
      * @param message The error message to display.
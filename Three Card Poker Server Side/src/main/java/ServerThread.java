@@ -1,13 +1,41 @@
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ServerThread listens on a chosen port and accepts incoming client connections.
+ *
+ * Each connection's ClientHandler runs on its own thread from the handler executor:
+ * a platform thread, or a virtual thread with poker.server.threads=virtual, which
+ * lets tens of thousands of mostly idle players each hold a blocking handler for a few
+ * kilobytes of heap. An optional session limit refuses connections beyond a maximum
+ * number of concurrent sessions.
  */
-public class ServerThread extends Thread {
+public class ServerThread extends Thread implements PokerServer {
+
+    // System property selecting the handler threads: platform (the default) or virtual
+    public static final String THREADS_PROPERTY = "poker.server.threads";
+
+    // System property limiting concurrent sessions; 0 or unset for no limit
+    public static final String MAX_SESSIONS_PROPERTY = "poker.server.maxSessions";
+
     private int port;               // Port number for the server to listen on
     private boolean running;        // Flag to control the server's running state
     private GameManager gameManager; // Reference to the GameManager for logging and coordination
+    private Paytables paytables;    // Paytables used to settle every round
+    private ShuffleSource shuffleSource; // Randomness for every deal
+    private boolean virtualThreads; // Run handlers on virtual threads
+    private int maxSessions;        // Maximum concurrent sessions, 0 for no limit
+    private SessionStore sessions;  // Sessions clients can resume after reconnecting
+    private Ledger ledger;          // Bankroll settlements are posted to, or null
+    private final AtomicInteger activeSessions = new AtomicInteger(); // Handlers still running
+    private final Set<ClientHandler> connected = ConcurrentHashMap.newKeySet(); // Handlers to close on stop
+    private ExecutorService handlers; // Runs one ClientHandler per connection
 
     /**
      * Constructor to initialize the server thread.
@@ -15,24 +43,128 @@ public class ServerThread extends Thread {
      * @param gm The GameManager instance for handling game operations and logs.
      */
     public ServerThread(int port, GameManager gm) {
+        this(port, gm, Paytables.DEFAULT);
+    }
+
+    /**
+     * Constructor to initialize the server thread with the paytables in use.
+     * @param port The port number on which the server listens.
+     * @param gm The GameManager instance for handling game operations and logs.
+     * @param paytables The active Pair Plus and Ante Bonus paytables.
+     */
+    public ServerThread(int port, GameManager gm, Paytables paytables) {
+        this(port, gm, paytables, ShuffleSource.threadLocal());
+    }
+
+    /**
+     * Constructor to initialize the server thread with the paytables and shuffle source in use.
+     * @param port The port number on which the server listens.
+     * @param gm The GameManager instance for handling game operations and logs.
+     * @param paytables The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness shared by every table.
+     */
+    public ServerThread(int port, GameManager gm, Paytables paytables, ShuffleSource shuffleSource) {
+        this(port, gm, paytables, shuffleSource, false, 0);
+    }
+
+    /**
+     * Constructor to initialize the server thread with its handler threads and session limit.
+     * @param port The port number on which the server listens.
+     * @param gm The GameManager instance for handling game operations and logs.
+     * @param paytables The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness shared by every table.
+     * @param virtualThreads True to run handlers on virtual threads.
+     * @param maxSessions The maximum number of concurrent sessions, 0 for no limit.
+     */
+    public ServerThread(int port, GameManager gm, Paytables paytables, ShuffleSource shuffleSource,
+                        boolean virtualThreads, int maxSessions) {
+        this(port, gm, paytables, shuffleSource, virtualThreads, maxSessions, new SessionStore());
+    }
+
+    /**
+     * Constructor to initialize the server thread with the store of resumable sessions.
+     * @param port The port number on which the server listens.
+     * @param gm The GameManager instance for handling game operations and logs.
+     * @param paytables The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness shared by every table.
+     * @param virtualThreads True to run handlers on virtual threads.
+     * @param maxSessions The maximum number of concurrent sessions, 0 for no limit.
+     * @param sessions The sessions clients can resume after reconnecting.
+     */
+    public ServerThread(int port, GameManager gm, Paytables paytables, ShuffleSource shuffleSource,
+                        boolean virtualThreads, int maxSessions, SessionStore sessions) {
+        this(port, gm, paytables, shuffleSource, virtualThreads, maxSessions, sessions, null);
+    }
+
+    /**
+     * Constructor to initialize the server thread with the ledger every settlement is posted to.
+     * @param port The port number on which the server listens.
+     * @param gm The GameManager instance for handling game operations and logs.
+     * @param paytables The active Pair Plus and Ante Bonus paytables.
+     * @param shuffleSource The source of randomness shared by every table.
+     * @param virtualThreads True to run handlers on virtual threads.
+     * @param maxSessions The maximum number of concurrent sessions, 0 for no limit.
+     * @param sessions The sessions clients can resume after reconnecting.
+     * @param ledger The bankroll ledger, or null for none.
+     */
+    public ServerThread(int port, GameManager gm, Paytables paytables, ShuffleSource shuffleSource,
+                        boolean virtualThreads, int maxSessions, SessionStore sessions, Ledger ledger) {
+        if (maxSessions < 0) {
+            throw new IllegalArgumentException("Maximum sessions must not be negative, got " + maxSessions);
+        }
         this.port = port;             // Set the server port
         this.gameManager = gm;        // Set the GameManager reference
+        this.paytables = paytables;   // Set the paytables
+        this.shuffleSource = shuffleSource; // Set the shuffle source
+        this.virtualThreads = virtualThreads;
+        this.maxSessions = maxSessions;
+        this.sessions = sessions;
+        this.ledger = ledger;
         running = true;               // Initialize the server as running
     }
 
+    /**
+     * Creates the executor running the handlers: a new virtual thread per connection, or a
+     * pool of platform threads that grows with the connections and reuses finished threads.
+     */
+    private ExecutorService newHandlerExecutor() {
+        return virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newCachedThreadPool();
+    }
+
     /**
      * The main execution method of the server thread.
-     * Listens for client connections and starts a ClientHandler thread for each.
+     * Listens for client connections and runs a ClientHandler for each on the handler executor.
      */
     @Override
     public void run() {
+        handlers = newHandlerExecutor();
         try (ServerSocket serverSock = new ServerSocket(port)) {
             gameManager.logResult("Server started on port: " + port); // Log server start
             while (running) {
                 // Accept incoming client connections
                 Socket clientSocket = serverSock.accept();
-                ClientHandler ch = new ClientHandler(clientSocket, gameManager); // Create handler
-                ch.start(); // Start a new thread to handle the client
+                clientSocket.setTcpNoDelay(true); // Send each reply at once; a RESULT can span two writes
+                if (!running) {
+                    clientSocket.close(); // The connection made by stopServer
+                    break;
+                }
+                if (maxSessions > 0 && activeSessions.get() >= maxSessions) {
+                    gameManager.logResult("Session limit of " + maxSessions + " reached, refusing "
+                            + clientSocket.getRemoteSocketAddress());
+                    clientSocket.close();
+                    continue;
+                }
+                ClientHandler ch = new ClientHandler(clientSocket, gameManager, paytables, shuffleSource, sessions, ledger); // Create handler
+                activeSessions.incrementAndGet(); // Only this thread adds sessions, so the limit holds
+                connected.add(ch);
+                handlers.execute(() -> { // Handle the client on its own thread
+                    try {
+                        ch.run();
+                    } finally {
+                        connected.remove(ch);
+                        activeSessions.decrementAndGet();
+                    }
+                });
             }
         } catch (Exception e) {
             if (running) { // Log errors only if the server is not stopped intentionally
@@ -41,12 +173,54 @@ public class ServerThread extends Thread {
             } else {
                 gameManager.logResult("Server stopped."); // Log intentional server stop
             }
+        } finally {
+            handlers.shutdown(); // No new handlers start
+            for (ClientHandler ch : connected) {
+                ch.close(); // Each handler ends after the message in hand, detaching its session
+            }
+            try {
+                if (!handlers.awaitTermination(10, TimeUnit.SECONDS)) {
+                    gameManager.logResult("Client handlers still running 10 s after stop: " + activeSessions.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 
     /**
-     * Stops the server by setting the running flag to false and unblocking accept().
+     * Returns the number of sessions in progress.
+     */
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /**
+     * Returns true if handlers run on virtual threads.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public SessionStore getSessionStore() {
+        return sessions;
+    }
+
+    @Override
+    public String toString() {
+        return (virtualThreads ? "virtual" : "platform") + " thread per connection"
+                + (maxSessions > 0 ? ", at most " + maxSessions + " sessions" : "");
+    }
+
+    /**
+     * Stops the server by setting the running flag to false and unblocking accept(). The
+     * server thread then closes every connection and ends once their handlers have.
      */
+    @Override
     public void stopServer() {
         running = false; // Update running state to stop the server loop
         try {
@@ -0,0 +1,326 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sessions that outlive their connection, so a player whose socket drops can reconnect
+ * and carry on with the same GameSession, including a round dealt but not yet decided.
+ *
+ * A client sends CONNECT when it connects. The first CONNECT, without a token, stores
+ * the connection's session under its random token, which the reply carries; a CONNECT
+ * with a stored token resumes that session on the new connection. A session is attached
+ * to the connection playing it and detached when that connection drops; a client that
+ * sends DISCONNECT has left, and its session is removed.
+ *
+ * The store is shared by every connection and safe for concurrent use. It holds at most
+ * a maximum number of sessions, evicting the least recently used (detached first) to make
+ * room, and drops detached sessions left idle longer than the idle timeout. Eviction only
+ * ends resumability: a connection still playing an evicted session keeps playing.
+ *
+ * Lookups go straight to a concurrent map. The use order is kept in two lists, detached
+ * and attached sessions, each least recently used first, so eviction and the idle sweep
+ * take the oldest without scanning the store. A message moves its session to the back at
+ * most once a second, so busy connections rarely take the lock.
+ *
+ * A session dropped from the store can never be resumed, as no client can present its
+ * token again, so it retires its Ledger account (see GameSession.retire): a client that
+ * sends DISCONNECT, a detached session evicted or idled out, or a connection still playing
+ * an evicted session once it drops, each close the account, and the player starts a new
+ * one on the next connection. Sessions are retired after the lock is released.
+ */
+public class SessionStore {
+
+    // System property limiting the sessions held for resume
+    public static final String MAX_SESSIONS_PROPERTY = "poker.session.max";
+
+    // System property setting how long a detached session can be resumed, in seconds
+    public static final String IDLE_SECONDS_PROPERTY = "poker.session.idleSeconds";
+
+    /**
+     * A stored session and the connection it is attached to.
+     */
+    private static final class Entry {
+        final GameSession session;
+        volatile Object owner;   // Connection playing the session, or null once detached
+        volatile long lastUsed;  // System.nanoTime() of the last message or detach
+        volatile long ordered;   // System.nanoTime() it last moved to the back of its list
+
+        Entry(GameSession session, Object owner, long now) {
+            this.session = session;
+            this.owner = owner;
+            this.lastUsed = now;
+            this.ordered = now;
+        }
+    }
+
+    // Least time between two moves of a session to the back of the attached list
+    private static final long REORDER_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<Long, Entry> sessions = new ConcurrentHashMap<>(); // Sessions by token
+    private final ReentrantLock lock = new ReentrantLock(); // Guards the lists and changes to the map
+    private final LinkedHashMap<Long, Entry> detached = new LinkedHashMap<>(); // Oldest detach first
+    private final LinkedHashMap<Long, Entry> attached = new LinkedHashMap<>(16, 0.75f, true); // Least recently used first
+    private final int maxSessions;              // Most sessions held
+    private final long idleNanos;               // Time a detached session is kept
+    private final AtomicLong nextSweep;         // Earliest System.nanoTime() of the next idle sweep
+
+    /**
+     * Creates a store holding up to 10,000 sessions, or the number set by poker.session.max,
+     * each resumable for 5 minutes after its connection drops, or as set by poker.session.idleSeconds.
+     */
+    public SessionStore() {
+        this(Integer.getInteger(MAX_SESSIONS_PROPERTY, 10_000),
+                TimeUnit.SECONDS.toMillis(Long.getLong(IDLE_SECONDS_PROPERTY, 300)));
+    }
+
+    /**
+     * Creates a store with the given limits.
+     * @param maxSessions The most sessions held.
+     * @param idleMillis How long a detached session can be resumed, in milliseconds.
+     */
+    public SessionStore(int maxSessions, long idleMillis) {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("Maximum sessions must be positive, got " + maxSessions);
+        }
+        if (idleMillis <= 0) {
+            throw new IllegalArgumentException("Idle time must be positive, got " + idleMillis);
+        }
+        this.maxSessions = maxSessions;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.nextSweep = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Handles a CONNECT: resumes the session named by its token on this connection, taking
+     * it over from a connection still holding it, or, for a missing or unknown token,
+     * stores the connection's own session.
+     *
+     * @param info    The CONNECT message received.
+     * @param current The connection's session.
+     * @param owner   The connection.
+     * @return the session the connection plays from now on: the resumed one, or current.
+     */
+    public GameSession connect(PokerInfo info, GameSession current, Object owner) {
+        Entry entry = sessions.get(info.getSessionToken());
+        if (entry != null && entry.session != current) {
+            lock.lock();
+            try {
+                if (sessions.get(info.getSessionToken()) == entry) { // Not evicted meanwhile
+                    long now = System.nanoTime();
+                    entry.owner = owner;
+                    entry.lastUsed = now;
+                    entry.ordered = now;
+                    detached.remove(info.getSessionToken());
+                    attached.put(info.getSessionToken(), entry);
+                }
+            } finally {
+                lock.unlock();
+            }
+            entry.session.resume(current.getClientName());
+            detach(current, owner); // The connection's own session, if it was stored, is left behind
+            return entry.session;
+        }
+        Entry stored = sessions.get(current.getSessionToken());
+        if (stored == null || stored.session != current) {
+            add(current, owner);
+        }
+        return current;
+    }
+
+    /**
+     * Marks the session used by a message, or returns false if another connection has
+     * resumed it, in which case this one must stop playing it.
+     */
+    public boolean touch(GameSession session, Object owner) {
+        Entry entry = sessions.get(session.getSessionToken());
+        if (entry == null || entry.session != session) {
+            return true; // Not stored, or evicted
+        }
+        if (entry.owner != owner) {
+            return false;
+        }
+        long now = System.nanoTime();
+        entry.lastUsed = now;
+        if (now - entry.ordered >= REORDER_NANOS && lock.tryLock()) { // Skipped, not waited for, when busy
+            try {
+                entry.ordered = now;
+                attached.get(session.getSessionToken()); // Moves it to the back
+            } finally {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Detaches a session from its dropped connection, keeping it for resume until it idles out.
+     */
+    public void detach(GameSession session, Object owner) {
+        boolean stored;
+        lock.lock();
+        try {
+            Entry entry = sessions.get(session.getSessionToken());
+            stored = entry != null && entry.session == session;
+            if (stored && entry.owner == owner) {
+                entry.lastUsed = System.nanoTime();
+                entry.owner = null;
+                attached.remove(session.getSessionToken());
+                detached.put(session.getSessionToken(), entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!stored) {
+            session.retire(); // Evicted or never stored, so nothing can resume it
+        }
+    }
+
+    /**
+     * Removes the session of a client that disconnected on purpose.
+     */
+    public void remove(GameSession session, Object owner) {
+        boolean stored;
+        boolean owned;
+        lock.lock();
+        try {
+            Entry entry = sessions.get(session.getSessionToken());
+            stored = entry != null && entry.session == session;
+            owned = stored && entry.owner == owner;
+            if (owned) {
+                drop(session.getSessionToken());
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!stored || owned) { // Not when another connection has taken it over
+            session.retire();
+        }
+    }
+
+    /**
+     * Returns the number of sessions held.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Returns the sessions held, for a state snapshot (see StateSnapshot).
+     */
+    public List<GameSession> sessions() {
+        List<GameSession> held = new ArrayList<>(sessions.size());
+        for (Entry entry : sessions.values()) {
+            held.add(entry.session);
+        }
+        return held;
+    }
+
+    /**
+     * Stores a session restored from a state snapshot, detached until its client resumes it.
+     * Unlike a new connection's session it never evicts another; one that finds the store
+     * full is retired instead.
+     *
+     * @return false if the store is full or another session holds its token.
+     */
+    public boolean restore(GameSession session) {
+        lock.lock();
+        try {
+            Entry entry = new Entry(session, null, System.nanoTime());
+            if (sessions.size() < maxSessions && sessions.putIfAbsent(session.getSessionToken(), entry) == null) {
+                detached.put(session.getSessionToken(), entry);
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (sessions.size() >= maxSessions) {
+            session.retire();
+        }
+        return false;
+    }
+
+    /**
+     * Drops detached sessions idle longer than the idle timeout.
+     */
+    public void sweep() {
+        long now = System.nanoTime();
+        nextSweep.set(now + idleNanos / 4);
+        List<GameSession> dropped = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<Entry> oldest = detached.values().iterator();
+            while (oldest.hasNext()) {
+                Entry entry = oldest.next();
+                if (now - entry.lastUsed <= idleNanos) {
+                    break; // The rest were detached later
+                }
+                oldest.remove();
+                sessions.remove(entry.session.getSessionToken(), entry);
+                dropped.add(entry.session);
+            }
+        } finally {
+            lock.unlock();
+        }
+        retire(dropped);
+    }
+
+    // Stores a session under its token, making room if the store is full
+    private void add(GameSession session, Object owner) {
+        long now = System.nanoTime();
+        long next = nextSweep.get();
+        if (now - next >= 0 && nextSweep.compareAndSet(next, now + idleNanos / 4)) {
+            sweep(); // At most a few times per idle timeout, by whichever connection gets here
+        }
+        Entry entry = new Entry(session, owner, now);
+        List<GameSession> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            while (sessions.putIfAbsent(session.getSessionToken(), entry) != null) {
+                session.setSessionToken(GameSession.newToken()); // Another session holds the token
+            }
+            attached.put(session.getSessionToken(), entry);
+            while (sessions.size() > maxSessions && evictOldest(session, evicted)) {
+                // Least recently used first
+            }
+        } finally {
+            lock.unlock();
+        }
+        retire(evicted);
+    }
+
+    // Evicts the least recently used session other than keep, preferring detached ones, adding
+    // it to evicted if detached (an attached one is retired when its connection drops); false if none
+    private boolean evictOldest(GameSession keep, List<GameSession> evicted) {
+        LinkedHashMap<Long, Entry> from = detached.isEmpty() ? attached : detached;
+        Map.Entry<Long, Entry> oldest = from.entrySet().iterator().next();
+        if (oldest.getValue().session == keep) {
+            return false; // Kept sessions go to the back, so it is the only one
+        }
+        if (from == detached) {
+            evicted.add(oldest.getValue().session);
+        }
+        drop(oldest.getKey());
+        return true;
+    }
+
+    // Retires sessions dropped from the store; called without the lock
+    private static void retire(List<GameSession> dropped) {
+        for (GameSession session : dropped) {
+            session.retire();
+        }
+    }
+
+    // Drops the session under the token from the map and its list; the caller holds the lock
+    private void drop(long token) {
+        sessions.remove(token);
+        if (attached.remove(token) == null) {
+            detached.remove(token);
+        }
+    }
+}
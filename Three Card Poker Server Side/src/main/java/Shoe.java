@@ -0,0 +1,191 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A shoe of several 52-card decks shuffled together, as dealt at multi-deck tables.
+ *
+ * Like PackedDeck, the shoe is an int array of card ordinals dealt by partial Fisher-Yates:
+ * each card dealt is drawn uniformly from the undealt part, so "shuffling" the shoe is just
+ * marking every card undealt again, in O(1), and rounds allocate nothing.
+ *
+ * Two reshuffle rules are modelled:
+ * - Cut card: the shoe is dealt round after round until the cut card comes out, i.e. until
+ *   the given penetration (fraction of the shoe) has been dealt; the next round starts from
+ *   a reshuffled shoe. Should the shoe run out in the middle of a round, the discards are
+ *   reshuffled and dealing continues.
+ * - Continuous shuffler: every round's cards go straight back in, so each round is dealt
+ *   from the full shoe.
+ *
+ * Hands dealt from a shoe can hold the same card more than once; ThreeCardLogic evaluates
+ * them (e.g. suited trips are three of a kind).
+ *
+ * A Shoe is not thread safe; each table owns its own.
+ */
+public final class Shoe implements CardSource {
+
+    private final int decks;            // Decks in the shoe
+    private final int[] cards;          // Discards, then this round's cards, then the undealt ones
+    private final int cutCard;          // Cards dealt before the shoe is reshuffled
+    private final boolean continuous;   // Reshuffle every round
+    private final RandomGenerator rng;  // Source of randomness, null for ThreadLocalRandom
+    private final long seed;            // Seed of a replayable shoe, 0 otherwise
+    private int roundStart;             // Index of the first card of the current round
+    private int dealt;                  // Cards dealt since the last shuffle
+    private long rounds;                // Rounds dealt from this shoe
+    private long shuffles;              // Times the shoe has been reshuffled
+
+    /**
+     * Creates a cut-card shoe.
+     *
+     * @param decks       number of decks, at least 1
+     * @param penetration fraction of the shoe dealt before reshuffling, in (0, 1]
+     * @param rng         the random generator to draw from, or null for ThreadLocalRandom
+     */
+    public Shoe(int decks, double penetration, RandomGenerator rng) {
+        this(decks, penetration, false, rng, 0);
+    }
+
+    /**
+     * Creates a continuous shuffling machine holding the given number of decks.
+     *
+     * @param decks number of decks, at least 1
+     * @param rng   the random generator to draw from, or null for ThreadLocalRandom
+     */
+    public static Shoe continuous(int decks, RandomGenerator rng) {
+        return new Shoe(decks, 1.0, true, rng, 0);
+    }
+
+    /**
+     * Creates a shoe dealt from a seed: equal seeds deal equal sequences of rounds.
+     */
+    static Shoe seeded(int decks, double penetration, boolean continuous, long seed) {
+        return new Shoe(decks, penetration, continuous, new SplitMix(seed), seed);
+    }
+
+    private Shoe(int decks, double penetration, boolean continuous, RandomGenerator rng, long seed) {
+        if (decks < 1) {
+            throw new IllegalArgumentException("A shoe needs at least one deck, got " + decks);
+        }
+        if (!(penetration > 0 && penetration <= 1)) {
+            throw new IllegalArgumentException("Penetration must be in (0, 1], got " + penetration);
+        }
+        this.decks = decks;
+        this.cards = new int[decks * PackedDeck.SIZE];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = i % PackedDeck.SIZE;
+        }
+        this.cutCard = Math.max(1, (int) Math.round(cards.length * penetration));
+        this.continuous = continuous;
+        this.rng = rng;
+        this.seed = seed;
+    }
+
+    @Override
+    public void newRound() {
+        if (continuous || dealt >= cutCard) {
+            shuffle();
+        }
+        roundStart = dealt;
+        rounds++;
+    }
+
+    @Override
+    public int dealOrdinal() {
+        if (dealt == cards.length) {
+            reshuffleDiscards();
+        }
+        int i = dealt++;
+        RandomGenerator r = rng != null ? rng : ThreadLocalRandom.current();
+        int j = i + r.nextInt(cards.length - i);
+        int card = cards[j];
+        cards[j] = cards[i];
+        cards[i] = card;
+        return card;
+    }
+
+    @Override
+    public int remaining() {
+        return cards.length - dealt;
+    }
+
+    /**
+     * Returns every card to the shoe, in O(1).
+     */
+    public void shuffle() {
+        dealt = 0;
+        roundStart = 0;
+        shuffles++;
+    }
+
+    /**
+     * Puts every card except the current round's back in the shoe. The round's cards are
+     * rotated to the front of the array, so everything after them is undealt again.
+     */
+    private void reshuffleDiscards() {
+        int inPlay = dealt - roundStart;
+        reverse(0, roundStart);
+        reverse(roundStart, dealt);
+        reverse(0, dealt); // Rotation by three reversals
+        roundStart = 0;
+        dealt = inPlay;
+        shuffles++;
+    }
+
+    // Reverses cards[from, to)
+    private void reverse(int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int t = cards[i];
+            cards[i] = cards[j];
+            cards[j] = t;
+        }
+    }
+
+    public int getDecks() {
+        return decks;
+    }
+
+    /**
+     * Returns the total number of cards in the shoe.
+     */
+    public int getSize() {
+        return cards.length;
+    }
+
+    /**
+     * Returns the number of cards dealt before the shoe is reshuffled.
+     */
+    public int getCutCard() {
+        return cutCard;
+    }
+
+    public boolean isContinuous() {
+        return continuous;
+    }
+
+    /**
+     * Returns the seed of a shoe created by ShuffleSource in a replayable mode, 0 otherwise.
+     * Replaying the seed and the number of rounds dealt re-deals the shoe exactly.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of rounds started, including the current one.
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Returns the number of times the shoe has been reshuffled.
+     */
+    public long getShuffles() {
+        return shuffles;
+    }
+
+    @Override
+    public String toString() {
+        return decks + "-deck " + (continuous ? "continuous shuffler" : "shoe, cut card at " + cutCard + "/" + cards.length);
+    }
+}
@@ -0,0 +1,238 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Shuffles decks ahead of time on background threads, so dealing with an expensive
+ * generator such as SecureRandom never waits on it.
+ *
+ * Producer threads fill a bounded ring of complete 52-card permutations; a handler
+ * claims the next ready permutation into its PackedDeck with a 52-byte copy.
+ * The ring is a lock-free multi-producer, multi-consumer queue (Vyukov's bounded
+ * queue): each slot has a sequence number that says whether it is free or holds a
+ * permutation for a given position, so producers and consumers only CAS the
+ * head or tail index and never block each other.
+ *
+ * When the ring is full, producers back off: they spin briefly and then park for an
+ * exponentially growing interval, capped at MAX_BACKOFF_NANOS. When it is empty, the
+ * claiming thread shuffles the deck itself (a starvation) rather than waiting.
+ */
+public final class ShuffleService implements AutoCloseable {
+
+    private static final int CARDS = PackedDeck.SIZE;
+    private static final int SPINS = 64;                          // Busy retries before parking
+    private static final long MIN_BACKOFF_NANOS = 10_000;         // First park when full
+    private static final long MAX_BACKOFF_NANOS = 1_000_000;      // Longest park when full
+
+    private final int mask;                     // Capacity - 1, capacity is a power of two
+    private final byte[] permutations;          // Slot i holds cards [i * 52, i * 52 + 52)
+    private final AtomicLongArray sequence;     // Per-slot sequence number
+    private final AtomicLong tail = new AtomicLong(); // Next position to fill
+    private final AtomicLong head = new AtomicLong(); // Next position to claim
+    private final Thread[] producers;           // Background shuffling threads
+    private final Supplier<RandomGenerator> generators; // One generator per producer
+    private final ThreadLocal<RandomGenerator> fallback; // Used by a starved claimer
+    private volatile boolean running;           // Cleared by close
+
+    // Metrics
+    private final AtomicLong produced = new AtomicLong();   // Permutations made by producers
+    private final AtomicLong claimed = new AtomicLong();    // Permutations taken from the ring
+    private final AtomicLong starvations = new AtomicLong(); // Claims that found the ring empty
+    private final AtomicLong backoffs = new AtomicLong();    // Times a producer parked on a full ring
+
+    /**
+     * Creates a service; call start to launch its producers.
+     *
+     * @param capacity   permutations held ready, rounded up to a power of two
+     * @param producers  number of background shuffling threads
+     * @param generators makes the generator for each producer and for starved claimers
+     */
+    public ShuffleService(int capacity, int producers, Supplier<RandomGenerator> generators) {
+        if (capacity < 2 || producers < 1) {
+            throw new IllegalArgumentException("capacity must be at least 2 and producers at least 1");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.permutations = new byte[size * CARDS];
+        this.sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequence.set(i, i); // Slot i is free for position i
+        }
+        this.generators = generators;
+        this.fallback = ThreadLocal.withInitial(generators);
+        this.producers = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            Thread t = new Thread(this::produce, "shuffle-producer-" + i);
+            t.setDaemon(true); // Never keeps the server alive
+            this.producers[i] = t;
+        }
+    }
+
+    /**
+     * Starts the producer threads.
+     */
+    public void start() {
+        running = true;
+        for (Thread t : producers) {
+            t.start();
+        }
+    }
+
+    /**
+     * Stops the producer threads. Claims still work, shuffling on the caller's thread.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Thread t : producers) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /**
+     * Loads the next pre-shuffled permutation into the deck, or shuffles it on the
+     * calling thread if none is ready. Either way the deck is ready to deal a round.
+     */
+    public void claim(PackedDeck deck) {
+        if (!tryClaim(deck)) {
+            starvations.incrementAndGet();
+            deck.reset(fallback.get());
+        }
+    }
+
+    /**
+     * Loads the next pre-shuffled permutation into the deck.
+     *
+     * @return false, leaving the deck untouched, if the ring is empty
+     */
+    public boolean tryClaim(PackedDeck deck) {
+        long pos = head.get();
+        while (true) {
+            int slot = (int) pos & mask;
+            long diff = sequence.get(slot) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    deck.load(permutations, slot * CARDS);
+                    sequence.set(slot, pos + mask + 1); // Free the slot for the next lap
+                    claimed.incrementAndGet();
+                    return true;
+                }
+                pos = head.get(); // Lost the race to another claimer
+            } else if (diff < 0) {
+                return false; // Not filled yet: empty
+            } else {
+                pos = head.get(); // Another claimer moved past this position
+            }
+        }
+    }
+
+    /**
+     * Producer loop: shuffle a permutation, then publish it, backing off while the ring is full.
+     */
+    private void produce() {
+        RandomGenerator rng = generators.get();
+        byte[] cards = new byte[CARDS];
+        for (int i = 0; i < CARDS; i++) {
+            cards[i] = (byte) i;
+        }
+        int spins = 0;
+        long backoff = MIN_BACKOFF_NANOS;
+        boolean ready = false;
+        while (running) {
+            if (!ready) {
+                // Full Fisher-Yates; any starting order gives a uniform permutation
+                for (int i = CARDS - 1; i > 0; i--) {
+                    int j = rng.nextInt(i + 1);
+                    byte t = cards[i];
+                    cards[i] = cards[j];
+                    cards[j] = t;
+                }
+                ready = true;
+            }
+            if (offer(cards)) {
+                produced.incrementAndGet();
+                ready = false;
+                spins = 0;
+                backoff = MIN_BACKOFF_NANOS;
+            } else if (spins < SPINS) {
+                spins++;
+                Thread.onSpinWait();
+            } else {
+                backoffs.incrementAndGet();
+                LockSupport.parkNanos(this, backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Publishes a permutation into the next free slot.
+     *
+     * @return false if the ring is full
+     */
+    private boolean offer(byte[] cards) {
+        long pos = tail.get();
+        while (true) {
+            int slot = (int) pos & mask;
+            long diff = sequence.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    System.arraycopy(cards, 0, permutations, slot * CARDS, CARDS);
+                    sequence.set(slot, pos + 1); // Publish to claimers
+                    return true;
+                }
+                pos = tail.get(); // Lost the race to another producer
+            } else if (diff < 0) {
+                return false; // Slot not yet claimed from the previous lap: full
+            } else {
+                pos = tail.get(); // Another producer moved past this position
+            }
+        }
+    }
+
+    /**
+     * Returns the number of permutations the ring can hold.
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the number of permutations ready to claim (approximate while threads are active).
+     */
+    public int getDepth() {
+        long depth = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(depth, mask + 1));
+    }
+
+    public long getProduced() {
+        return produced.get();
+    }
+
+    public long getClaimed() {
+        return claimed.get();
+    }
+
+    /**
+     * Returns the number of claims that found the ring empty and shuffled on the caller's thread.
+     */
+    public long getStarvations() {
+        return starvations.get();
+    }
+
+    /**
+     * Returns the number of times a producer parked because the ring was full.
+     */
+    public long getBackoffs() {
+        return backoffs.get();
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + getDepth() + "/" + getCapacity() + ", produced " + getProduced()
+                + ", claimed " + getClaimed() + ", starved " + getStarvations()
+                + ", producer backoffs " + getBackoffs();
+    }
+}
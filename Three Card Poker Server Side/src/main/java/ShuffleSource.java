@@ -0,0 +1,349 @@
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Where the randomness for each round's deal comes from.
+ *
+ * - THREAD_LOCAL (default): each round is dealt from a seed drawn from ThreadLocalRandom,
+ *   so handler threads never contend on a shared generator.
+ * - SECURE: cards are dealt from SecureRandom, for production tables. By default the
+ *   decks are shuffled ahead of time by a ShuffleService so handlers never wait on
+ *   SecureRandom. These rounds have no seed and cannot be replayed, by design.
+ * - SEEDED: round n is dealt from a seed derived from a configured root seed and n, so a
+ *   whole session is reproducible from the root seed.
+ *
+ * Outside SECURE mode newRound returns the round's seed. Log it with the round;
+ * replay(seed) re-deals that round exactly.
+ *
+ * Selected with the system properties poker.shuffle (thread_local, secure, seeded),
+ * poker.shuffle.seed (the root seed for seeded mode, random if unset), and for secure
+ * mode poker.shuffle.buffer (decks shuffled ahead, 0 to shuffle on the handler thread)
+ * and poker.shuffle.producers (background shuffling threads).
+ *
+ * Tables can also deal from a multi-deck Shoe instead of a fresh deck every round:
+ * poker.shoe.decks (0, the default, for a fresh deck), poker.shoe.penetration (fraction
+ * dealt before the cut card, default 0.75) and poker.shoe.continuous (a continuous
+ * shuffler). A shoe draws from the same kind of randomness as the mode; outside SECURE
+ * mode it is seeded, and its seed plus the round number replay a round.
+ */
+public final class ShuffleSource implements AutoCloseable {
+
+    /**
+     * Source of randomness for deals.
+     */
+    public enum Mode {
+        THREAD_LOCAL, SECURE, SEEDED
+    }
+
+    // System property selecting the mode
+    public static final String MODE_PROPERTY = "poker.shuffle";
+
+    // System property holding the root seed for SEEDED mode
+    public static final String SEED_PROPERTY = "poker.shuffle.seed";
+
+    // System properties sizing the SECURE mode ShuffleService
+    public static final String BUFFER_PROPERTY = "poker.shuffle.buffer";
+    public static final String PRODUCERS_PROPERTY = "poker.shuffle.producers";
+
+    // Default number of decks shuffled ahead in SECURE mode
+    public static final int DEFAULT_BUFFER = 256;
+
+    // System properties configuring a multi-deck shoe
+    public static final String SHOE_DECKS_PROPERTY = "poker.shoe.decks";
+    public static final String SHOE_PENETRATION_PROPERTY = "poker.shoe.penetration";
+    public static final String SHOE_CONTINUOUS_PROPERTY = "poker.shoe.continuous";
+
+    // Default fraction of a shoe dealt before the cut card
+    public static final double DEFAULT_PENETRATION = 0.75;
+
+    private static final long GAMMA = 0x9E3779B97F4A7C15L; // Spreads consecutive round numbers apart
+
+    private final Mode mode;                // Source of randomness
+    private final long rootSeed;            // Root seed, SEEDED mode only
+    private final AtomicLong rounds = new AtomicLong(); // Rounds started, the position in the seeded stream
+    private final ThreadLocal<SecureRandom> secure; // Per-thread SecureRandom, SECURE mode only
+    private final ShuffleService service;    // Decks shuffled ahead, or null to shuffle inline
+    private final AtomicLong shoes = new AtomicLong(); // Shoes created, the position in the seeded stream
+    private int shoeDecks;                   // Decks per table shoe, 0 for a fresh deck every round
+    private double penetration = DEFAULT_PENETRATION; // Fraction of a shoe dealt before reshuffling
+    private boolean continuous;              // Shoes are continuous shufflers
+
+    private ShuffleSource(Mode mode, long rootSeed, ShuffleService service) {
+        this.mode = mode;
+        this.rootSeed = rootSeed;
+        this.secure = mode == Mode.SECURE && service == null ? ThreadLocal.withInitial(SecureRandom::new) : null;
+        this.service = service;
+    }
+
+    /**
+     * Returns a source dealing from per-thread random seeds.
+     */
+    public static ShuffleSource threadLocal() {
+        return new ShuffleSource(Mode.THREAD_LOCAL, 0, null);
+    }
+
+    /**
+     * Returns a source dealing directly from a per-thread SecureRandom on the handler thread.
+     */
+    public static ShuffleSource secure() {
+        return new ShuffleSource(Mode.SECURE, 0, null);
+    }
+
+    /**
+     * Returns a source dealing decks shuffled ahead with SecureRandom by background threads.
+     * Close it to stop the threads.
+     *
+     * @param buffer    decks shuffled ahead, 0 to shuffle on the handler thread instead
+     * @param producers background shuffling threads
+     */
+    public static ShuffleSource secure(int buffer, int producers) {
+        if (buffer == 0) {
+            return secure();
+        }
+        ShuffleService service = new ShuffleService(buffer, producers, SecureRandom::new);
+        service.start();
+        return new ShuffleSource(Mode.SECURE, 0, service);
+    }
+
+    /**
+     * Returns a deterministic source: equal root seeds deal equal sequences of rounds.
+     */
+    public static ShuffleSource seeded(long rootSeed) {
+        return new ShuffleSource(Mode.SEEDED, rootSeed, null);
+    }
+
+    /**
+     * Returns the source selected by the poker.shuffle and poker.shuffle.seed system properties.
+     *
+     * @throws IllegalArgumentException if a property holds an unknown mode or an invalid seed
+     *                                  (NumberFormatException is an IllegalArgumentException)
+     */
+    public static ShuffleSource configured() {
+        String text = System.getProperty(SHOE_PENETRATION_PROPERTY);
+        double penetration = text != null ? Double.parseDouble(text.trim()) : DEFAULT_PENETRATION;
+        ShuffleSource source = configuredMode();
+        try {
+            source.setShoe(Integer.getInteger(SHOE_DECKS_PROPERTY, 0), penetration,
+                    Boolean.getBoolean(SHOE_CONTINUOUS_PROPERTY));
+        } catch (IllegalArgumentException e) {
+            source.close(); // Stop any shuffling threads already started
+            throw e;
+        }
+        return source;
+    }
+
+    // The source for the poker.shuffle and poker.shuffle.seed properties
+    private static ShuffleSource configuredMode() {
+        String name = System.getProperty(MODE_PROPERTY, Mode.THREAD_LOCAL.name()).trim();
+        Mode mode;
+        try {
+            mode = Mode.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown shuffle mode " + name
+                    + ", expected thread_local, secure or seeded");
+        }
+        switch (mode) {
+            case SECURE:
+                return secure(Integer.getInteger(BUFFER_PROPERTY, DEFAULT_BUFFER),
+                        Integer.getInteger(PRODUCERS_PROPERTY, 1));
+            case SEEDED:
+                String seed = System.getProperty(SEED_PROPERTY);
+                return seeded(seed != null ? parseSeed(seed) : new SecureRandom().nextLong());
+            default:
+                return threadLocal();
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the root seed in SEEDED mode, 0 otherwise.
+     */
+    public long getRootSeed() {
+        return rootSeed;
+    }
+
+    /**
+     * Returns true if rounds dealt by this source can be replayed from their seed.
+     */
+    public boolean isReplayable() {
+        return mode != Mode.SECURE;
+    }
+
+    /**
+     * Makes every table deal from its own multi-deck shoe (see newShoe).
+     *
+     * @param decks       decks per shoe, 0 to deal a fresh deck every round instead
+     * @param penetration fraction of the shoe dealt before the cut card, in (0, 1]
+     * @param continuous  true for a continuous shuffling machine
+     */
+    public void setShoe(int decks, double penetration, boolean continuous) {
+        if (decks < 0) {
+            throw new IllegalArgumentException("Shoe decks must not be negative, got " + decks);
+        }
+        if (decks > 0 && !(penetration > 0 && penetration <= 1)) {
+            throw new IllegalArgumentException("Penetration must be in (0, 1], got " + penetration);
+        }
+        this.shoeDecks = decks;
+        this.penetration = penetration;
+        this.continuous = continuous;
+    }
+
+    /**
+     * Returns the decks per table shoe, 0 if tables deal a fresh deck every round.
+     */
+    public int getShoeDecks() {
+        return shoeDecks;
+    }
+
+    /**
+     * Creates the shoe for a new table, or returns null if tables deal a fresh deck every
+     * round. In SECURE mode the shoe draws from its own SecureRandom; otherwise it is
+     * seeded (see Shoe.getSeed) so its rounds can be replayed.
+     */
+    public Shoe newShoe() {
+        if (shoeDecks == 0) {
+            return null;
+        }
+        switch (mode) {
+            case SECURE:
+                return continuous ? Shoe.continuous(shoeDecks, new SecureRandom())
+                        : new Shoe(shoeDecks, penetration, new SecureRandom());
+            case SEEDED:
+                long n = shoes.getAndIncrement();
+                return Shoe.seeded(shoeDecks, penetration, continuous, SplitMix.mix(~rootSeed + n * GAMMA));
+            default:
+                return Shoe.seeded(shoeDecks, penetration, continuous, ThreadLocalRandom.current().nextLong());
+        }
+    }
+
+    /**
+     * Returns a shoe with this source's shoe settings that deals the same rounds as the
+     * table shoe with the given seed (see Shoe.getSeed). Deal the rounds before the one to
+     * replay first, with the same number of cards per round.
+     */
+    public Shoe replayShoe(long shoeSeed) {
+        if (shoeDecks == 0) {
+            throw new IllegalStateException("No shoe is configured");
+        }
+        return Shoe.seeded(shoeDecks, penetration, continuous, shoeSeed);
+    }
+
+    /**
+     * Returns the service shuffling decks ahead, or null if decks are shuffled as they are dealt.
+     */
+    public ShuffleService getService() {
+        return service;
+    }
+
+    /**
+     * Returns the number of rounds started so far.
+     */
+    public long getRoundsStarted() {
+        return rounds.get();
+    }
+
+    /**
+     * Returns the number of seeded shoes created so far.
+     */
+    public long getShoesCreated() {
+        return shoes.get();
+    }
+
+    /**
+     * Carries on the counters saved in a state snapshot (see StateSnapshot), so a restarted
+     * SEEDED source does not deal the rounds and shoes it dealt before the restart again.
+     * Counters already past the saved ones are kept.
+     */
+    void restoreCounters(long roundsStarted, long shoesCreated) {
+        rounds.accumulateAndGet(roundsStarted, Math::max);
+        shoes.accumulateAndGet(shoesCreated, Math::max);
+    }
+
+    /**
+     * Returns every card to the deck and prepares it to deal a new round.
+     *
+     * @param deck the table's deck
+     * @return the round's seed, to be recorded with the round; 0 in SECURE mode
+     */
+    public long newRound(PackedDeck deck) {
+        long n = rounds.getAndIncrement();
+        switch (mode) {
+            case SECURE:
+                if (service != null) {
+                    service.claim(deck);
+                } else {
+                    deck.reset(secure.get());
+                }
+                return 0;
+            case SEEDED:
+                long seed = SplitMix.mix(rootSeed + n * GAMMA);
+                deck.reset(seed);
+                return seed;
+            default:
+                long random = ThreadLocalRandom.current().nextLong();
+                deck.reset(random);
+                return random;
+        }
+    }
+
+    /**
+     * Returns a deck that deals the round recorded with the given seed.
+     */
+    public static PackedDeck replay(long roundSeed) {
+        PackedDeck deck = new PackedDeck();
+        deck.reset(roundSeed);
+        return deck;
+    }
+
+    /**
+     * Returns a loggable description of the mode and shoe, e.g. "SEEDED (root seed 0x...)".
+     */
+    @Override
+    public String toString() {
+        String text = mode.toString();
+        if (mode == Mode.SEEDED) {
+            text += " (root seed " + formatSeed(rootSeed) + ")";
+        } else if (service != null) {
+            text += " (shuffled ahead, " + service + ")";
+        }
+        if (shoeDecks > 0) {
+            text += continuous ? ", " + shoeDecks + "-deck continuous shuffler"
+                    : ", " + shoeDecks + "-deck shoe at " + Math.round(penetration * 100) + "% penetration";
+        }
+        return text;
+    }
+
+    /**
+     * Stops the background shuffling threads, if any.
+     */
+    @Override
+    public void close() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    /**
+     * Formats a seed for logs, in the form parseSeed and poker.shuffle.seed accept.
+     */
+    public static String formatSeed(long seed) {
+        return "0x" + Long.toHexString(seed);
+    }
+
+    /**
+     * Parses a seed written by formatSeed ("0x" and up to 16 hex digits) or as a decimal long.
+     *
+     * @throws NumberFormatException if the text is not a seed
+     */
+    public static long parseSeed(String text) {
+        String t = text.trim();
+        if (t.startsWith("0x") || t.startsWith("0X")) {
+            return Long.parseUnsignedLong(t.substring(2), 16);
+        }
+        return Long.parseLong(t);
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Immutable result of a MonteCarloSimulator run.
+ * Confidence intervals are 95% normal approximations.
+ */
+public final class SimulationReport {
+
+    // Two-sided 95% normal quantile
+    private static final double Z95 = 1.959964;
+
+    private final long sessions;             // Sessions simulated
+    private final long ruined;               // Sessions that ran out of bankroll
+    private final long rounds;               // Rounds played over all sessions
+    private final long sessionNet;           // Sum of session results
+    private final double sessionNetSquares;  // Sum of squared session results
+    private final long roundNet;             // Sum of round results
+    private final double roundNetSquares;    // Sum of squared round results
+    private final long elapsedNanos;         // Time taken by the simulation
+
+    public SimulationReport(long sessions, long ruined, long rounds, long sessionNet, double sessionNetSquares,
+                            long roundNet, double roundNetSquares, long elapsedNanos) {
+        this.sessions = sessions;
+        this.ruined = ruined;
+        this.rounds = rounds;
+        this.sessionNet = sessionNet;
+        this.sessionNetSquares = sessionNetSquares;
+        this.roundNet = roundNet;
+        this.roundNetSquares = roundNetSquares;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getSessions() {
+        return sessions;
+    }
+
+    public long getRuinedSessions() {
+        return ruined;
+    }
+
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Mean net bankroll change per session.
+     */
+    public double getMeanSessionNet() {
+        return (double) sessionNet / sessions;
+    }
+
+    /**
+     * Half width of the 95% confidence interval of the mean session result.
+     */
+    public double getSessionNetMargin() {
+        return Z95 * Math.sqrt(variance(sessionNet, sessionNetSquares, sessions) / sessions);
+    }
+
+    /**
+     * Mean net result per round played.
+     */
+    public double getMeanRoundNet() {
+        return rounds == 0 ? 0 : (double) roundNet / rounds;
+    }
+
+    /**
+     * Half width of the 95% confidence interval of the mean round result.
+     */
+    public double getRoundNetMargin() {
+        return rounds == 0 ? 0 : Z95 * Math.sqrt(variance(roundNet, roundNetSquares, rounds) / rounds);
+    }
+
+    /**
+     * Fraction of sessions that could not cover a round before their last round.
+     */
+    public double getRiskOfRuin() {
+        return (double) ruined / sessions;
+    }
+
+    /**
+     * Half width of the 95% confidence interval of the risk of ruin.
+     */
+    public double getRiskOfRuinMargin() {
+        double p = getRiskOfRuin();
+        return Z95 * Math.sqrt(p * (1 - p) / sessions);
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // Sample variance from a sum and a sum of squares
+    private static double variance(long sum, double squares, long n) {
+        if (n < 2) {
+            return 0;
+        }
+        double mean = (double) sum / n;
+        return Math.max(0, (squares - mean * sum) / (n - 1));
+    }
+
+    @Override
+    public String toString() {
+        double seconds = elapsedNanos / 1e9;
+        return String.format("Sessions:          %,d (%,d rounds)%n"
+                        + "Session net:       %+.3f +/- %.3f%n"
+                        + "Round net:         %+.5f +/- %.5f%n"
+                        + "Risk of ruin:      %.5f +/- %.5f%n"
+                        + "Throughput:        %,.0f rounds/s (%.2f s)",
+                sessions, rounds, getMeanSessionNet(), getSessionNetMargin(),
+                getMeanRoundNet(), getRoundNetMargin(), getRiskOfRuin(), getRiskOfRuinMargin(),
+                rounds / seconds, seconds);
+    }
+}
@@ -0,0 +1,36 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * SplitMix64, a small reseedable generator for seeded, replayable deals.
+ * Bounded draws use RandomGenerator's unbiased nextInt(bound).
+ */
+final class SplitMix implements RandomGenerator {
+    private static final long GAMMA = 0x9E3779B97F4A7C15L; // Golden ratio increment
+
+    private long state; // Current position in the stream
+
+    SplitMix(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Restarts the stream from a seed.
+     */
+    void setSeed(long seed) {
+        state = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        return mix(state += GAMMA);
+    }
+
+    /**
+     * SplitMix64 finaliser: turns a counter into a well-mixed 64-bit value.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
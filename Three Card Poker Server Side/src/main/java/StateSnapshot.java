@@ -0,0 +1,157 @@
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * A snapshot of the server's table state for a warm restart: every stored session with
+ * its round in flight and last RESULT, and the ShuffleSource counters.
+ *
+ * The server writes the snapshot periodically and when it stops, and restores it on
+ * start, so players reconnect with their session token (see SessionStore) and carry on
+ * the round they were dealt. Balances are not part of it: they are durable in the Ledger,
+ * keyed by the same tokens. Connections are not restored; restored sessions wait detached
+ * for their clients.
+ *
+ * A periodic snapshot is taken while tables play, so a round in flight in it may have
+ * settled before the server went down. Restoring checks each session against the Ledger
+ * and drops such rounds (see GameSession.readState). On stop the server first stops its
+ * engine, so the final snapshot holds no round settled after it.
+ *
+ * The file is written to a temporary file through a memory mapping of its exact size,
+ * forced to disk and atomically moved over the previous snapshot; the directory is then
+ * forced too (see DurableFiles), so a crash leaves one snapshot or the other intact, and
+ * a completed write stays in place. Restoring maps it read-only and decodes the sessions straight
+ * from the mapping.
+ *
+ * Layout: magic, version, time saved (ms), rounds started and shoes created, session
+ * count, then each session as written by GameSession.writeState, then the CRC32C of all
+ * before it.
+ */
+public final class StateSnapshot {
+
+    // System property naming the snapshot file
+    public static final String FILE_PROPERTY = "poker.state.file";
+
+    // System property setting how often the snapshot is written, in seconds; 0 only on stop
+    public static final String INTERVAL_SECONDS_PROPERTY = "poker.state.intervalSeconds";
+
+    private static final int MAGIC = 0x33435057;   // "3CPW"
+    private static final int VERSION = 2;           // 2 adds each session's last ledger sequence number
+    private static final int HEADER_BYTES = 36;    // Magic, version, time, two counters, session count
+
+    private StateSnapshot() {
+    }
+
+    /**
+     * Returns the snapshot file set by poker.state.file (default "state.snapshot").
+     */
+    public static Path configuredFile() {
+        return Paths.get(System.getProperty(FILE_PROPERTY, "state.snapshot").trim());
+    }
+
+    /**
+     * Returns the interval between snapshots set by poker.state.intervalSeconds (default 60).
+     */
+    public static long configuredIntervalSeconds() {
+        return Long.getLong(INTERVAL_SECONDS_PROPERTY, 60);
+    }
+
+    /**
+     * Writes the sessions in the store and the source's counters to the file, replacing it atomically.
+     *
+     * @return the size of the snapshot, in bytes.
+     * @throws IOException if the snapshot cannot be written; the previous one is left in place.
+     */
+    public static long write(Path file, SessionStore sessions, ShuffleSource shuffleSource) throws IOException {
+        List<GameSession> held = sessions.sessions();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_BYTES + 64 * held.size() + 4);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis())
+                .putLong(shuffleSource.getRoundsStarted()).putLong(shuffleSource.getShoesCreated())
+                .putInt(held.size());
+        for (GameSession session : held) {
+            int start = buffer.position();
+            try {
+                session.writeState(buffer);
+            } catch (BufferOverflowException e) {
+                buffer = grow(buffer, start); // Then write the session again
+                session.writeState(buffer);
+            }
+        }
+        buffer.flip();
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate());
+        int size = buffer.remaining() + 4;
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer mapped = out.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            mapped.put(buffer).putInt((int) crc.getValue());
+            mapped.force();
+        }
+        DurableFiles.replace(temp, file);
+        return size;
+    }
+
+    /**
+     * Restores the sessions in the file into the store, detached, and carries on the
+     * source's counters from it. Sessions past the store's limit are dropped and retired,
+     * sessions whose account was retired since are skipped, and rounds in flight the ledger
+     * has settled since the snapshot was written are dropped.
+     *
+     * @return the number of sessions restored.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public static int restore(Path file, SessionStore sessions, GameManager gm, Paytables paytables,
+                              ShuffleSource shuffleSource, Ledger ledger) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Stays valid after close
+        }
+        if (in.remaining() < HEADER_BYTES + 4 || in.getInt() != MAGIC) {
+            throw new StreamCorruptedException("Not a state snapshot: " + file);
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("State snapshot " + file + " has unknown version " + version);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(in.duplicate().position(0).limit(in.limit() - 4));
+        if ((int) crc.getValue() != in.getInt(in.limit() - 4)) {
+            throw new StreamCorruptedException("State snapshot " + file + " fails its checksum");
+        }
+        in.limit(in.limit() - 4);
+
+        in.getLong(); // Time saved
+        shuffleSource.restoreCounters(in.getLong(), in.getLong());
+        int count = in.getInt();
+        int restored = 0;
+        try {
+            for (int i = 0; i < count; i++) {
+                GameSession session = GameSession.readState(in, gm, paytables, shuffleSource, ledger);
+                if (session != null && sessions.restore(session)) { // Null once its account is retired
+                    restored++;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new StreamCorruptedException("State snapshot " + file + " ends inside a session");
+        }
+        return restored;
+    }
+
+    // Returns a buffer twice as large holding the bytes before position start
+    private static ByteBuffer grow(ByteBuffer buffer, int start) {
+        ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, start + 64 * 1024));
+        buffer.flip().limit(start);
+        return larger.put(buffer);
+    }
+}
@@ -0,0 +1,170 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.IntStream;
+
+/**
+ * Exact play/fold decision for every one of the 22,100 player hands.
+ *
+ * For each player hand the table stores wins minus losses over all 18,424 dealer
+ * hands that can be dealt from the remaining cards (card removal included), which
+ * is enough to recover the exact expected value of playing:
+ * EV(play) = 2 * (wins - losses) / 18,424 per unit ante, while EV(fold) = -1.
+ *
+ * The table is generated once by enumeration (see HouseEdgeCalculator), persisted as a
+ * compact binary file and shipped as the classpath resource /strategy-table.bin.
+ * Lookups are a single array read.
+ */
+public final class StrategyTable implements PlayStrategy {
+
+    // Classpath resource holding the generated table
+    public static final String RESOURCE = "/strategy-table.bin";
+
+    // File header: "TCPS" followed by a format version
+    private static final int MAGIC = 0x54435053;
+    private static final int VERSION = 1;
+
+    // Lazily loaded shared instance
+    private static volatile StrategyTable defaultTable;
+
+    private final short[] netWins; // Wins minus losses per HandTable index
+
+    private StrategyTable(short[] netWins) {
+        this.netWins = netWins;
+    }
+
+    /**
+     * Returns the shared table, loading the bundled resource on first use and
+     * generating it if the resource is missing.
+     */
+    public static StrategyTable getDefault() {
+        StrategyTable table = defaultTable;
+        if (table == null) {
+            synchronized (StrategyTable.class) {
+                table = defaultTable;
+                if (table == null) {
+                    try (InputStream in = StrategyTable.class.getResourceAsStream(RESOURCE)) {
+                        table = in != null ? read(in) : generate();
+                    } catch (IOException e) {
+                        table = generate(); // Corrupt resource: recompute rather than fail
+                    }
+                    defaultTable = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Computes the table by enumerating every dealer hand for every player hand, in parallel.
+     */
+    public static StrategyTable generate() {
+        short[] netWins = new short[HandTable.HAND_COUNT];
+        IntStream.range(0, HandTable.HAND_COUNT).parallel().forEach(p -> {
+            int[] counts = new int[4];
+            HouseEdgeCalculator.tallyMatchups(p, counts);
+            netWins[p] = (short) (counts[HouseEdgeCalculator.WINS] - counts[HouseEdgeCalculator.LOSSES]);
+        });
+        return new StrategyTable(netWins);
+    }
+
+    /**
+     * Reads a table previously written by write.
+     */
+    public static StrategyTable read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a strategy table");
+        }
+        int version = data.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported strategy table version " + version);
+        }
+        int count = data.readInt();
+        if (count != HandTable.HAND_COUNT) {
+            throw new IOException("Strategy table holds " + count + " hands, expected " + HandTable.HAND_COUNT);
+        }
+        short[] netWins = new short[count];
+        for (int i = 0; i < count; i++) {
+            netWins[i] = data.readShort();
+        }
+        return new StrategyTable(netWins);
+    }
+
+    /**
+     * Writes the table in its compact binary form (about 44 KB).
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeInt(netWins.length);
+        for (short n : netWins) {
+            data.writeShort(n);
+        }
+        data.flush();
+    }
+
+    /**
+     * Returns the exact expected value of playing a packed hand, per unit ante.
+     *
+     * @throws IllegalArgumentException if the hand holds the same card more than once
+     */
+    public double playEv(int playerHand) {
+        if (PackedHand.hasDuplicates(playerHand)) {
+            throw new IllegalArgumentException("No single-deck EV for a hand with duplicate cards");
+        }
+        return 2.0 * netWins[PackedHand.index(playerHand)] / HouseEdgeCalculator.DEALER_HANDS;
+    }
+
+    /**
+     * Returns the expected value of folding, per unit ante: the ante is lost.
+     */
+    public double foldEv() {
+        return -1.0;
+    }
+
+    /**
+     * Returns true if playing a packed hand has a higher expected value than folding.
+     * A multi-deck hand holding the same card twice is at least a pair, which is always played.
+     */
+    public boolean shouldPlay(int playerHand) {
+        if (PackedHand.hasDuplicates(playerHand)) {
+            return true;
+        }
+        // 2 * net / DEALER_HANDS > -1, kept in integers
+        return 2 * netWins[PackedHand.index(playerHand)] > -HouseEdgeCalculator.DEALER_HANDS;
+    }
+
+    /**
+     * Returns true if playing a Hand has a higher expected value than folding.
+     */
+    public boolean shouldPlay(Hand playerHand) {
+        return shouldPlay(playerHand.getPacked());
+    }
+
+    @Override
+    public boolean play(int playerHand) {
+        return shouldPlay(playerHand);
+    }
+
+    /**
+     * Generates the table and writes it to the given path (default src/main/resources/strategy-table.bin).
+     */
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : "src/main/resources/strategy-table.bin");
+        long start = System.nanoTime();
+        StrategyTable table = generate();
+        try (OutputStream out = Files.newOutputStream(path)) {
+            table.write(out);
+        }
+        System.out.printf("Wrote %s (%,d bytes) in %.2f s%n", path, Files.size(path), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -1,12 +1,24 @@
 import java.util.ArrayList;
-import java.util.Comparator;
 
 /**
  * Contains the logic for evaluating three card poker hands,
  * comparing hands, and calculating pair plus winnings.
+ * All evaluation is backed by the precomputed HandTable.
  */
 public class ThreeCardLogic {
 
+    // Hand categories returned by evalHand
+    public static final int HIGH_CARD = 1;
+    public static final int PAIR = 2;
+    public static final int FLUSH = 3;
+    public static final int STRAIGHT = 4;
+    public static final int THREE_OF_KIND = 5;
+    public static final int STRAIGHT_FLUSH = 6;
+
+    // Whether the jdk.incubator.vector module was added to this JVM (--add-modules jdk.incubator.vector)
+    private static final boolean VECTOR_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
     /**
      * Evaluates a 3 card hand and returns a rank integer that can be used to compare hands.
      * Hand ranks from best to worst:
@@ -18,18 +30,7 @@ public class ThreeCardLogic {
      * High Card = 1
      */
     public static int evalHand(ArrayList<Card> hand) {
-        sortHand(hand); // Sort hand for consistent evaluation
-        boolean flush = isFlush(hand); // Check for flush
-        boolean straight = isStraight(hand); // Check for straight
-        boolean threeKind = isThreeOfKind(hand); // Check for three of a kind
-        boolean pair = isPair(hand); // Check for pair
-
-        if (straight && flush) return 6;     // Straight Flush
-        if (threeKind) return 5;             // Three of a Kind
-        if (straight) return 4;              // Straight
-        if (flush) return 3;                 // Flush
-        if (pair) return 2;                  // Pair
-        return 1;                            // High Card
+        return HandTable.category(HandTable.lookup(hand)); // Single table read
     }
 
     /**
@@ -37,50 +38,17 @@ public class ThreeCardLogic {
      * Returns winnings or 0 if the hand is less than a pair.
      */
     public static int evalPPWinnings(ArrayList<Card> hand, int bet) {
-        int rank = evalHand(hand); // Get hand rank
-        if (rank < 2) {
-            return 0; // No payout for rank less than pair
-        }
-        switch (rank) {
-            case 2: // Pair
-                return bet * 1;
-            case 3: // Flush
-                return bet * 3;
-            case 4: // Straight
-                return bet * 6;
-            case 5: // Three of a Kind
-                return bet * 30;
-            case 6: // Straight Flush
-                return bet * 40;
-            default:
-                return 0; // Default case, should not be reached
-        }
+        return pairPlusPayout(evalHand(hand), bet);
     }
 
     /**
      * Compares two hands (dealer vs player) after ensuring dealer qualifies.
      * Returns 1 if player wins, 0 if tie, -1 if dealer wins.
+     * Ties in hand rank are broken by the highest card, then the next highest, and so on.
      */
     public static int compareHands(ArrayList<Card> dealer, ArrayList<Card> player) {
-        int dealerRank = evalHand(dealer); // Evaluate dealer's hand rank
-        int playerRank = evalHand(player); // Evaluate player's hand rank
-
-        if (playerRank > dealerRank) {
-            return 1; // Player wins
-        } else if (playerRank < dealerRank) {
-            return -1; // Dealer wins
-        } else {
-            // Tie-breaking logic based on highest card
-            sortHand(player);
-            sortHand(dealer);
-            for (int i = 2; i >= 0; i--) {
-                int pRank = player.get(i).getRank();
-                int dRank = dealer.get(i).getRank();
-                if (pRank > dRank) return 1; // Player wins with higher card
-                else if (pRank < dRank) return -1; // Dealer wins with higher card
-            }
-            return 0; // Tie if all cards are equal
-        }
+        // Table entries order hands by rank first and by card ranks second
+        return Integer.signum(Integer.compare(HandTable.lookup(player), HandTable.lookup(dealer)));
     }
 
     /**
@@ -88,53 +56,178 @@ public class ThreeCardLogic {
      * Dealer qualifies with Queen high or better (highest card rank >= 12).
      */
     public static boolean dealerQualifies(ArrayList<Card> dealer) {
-        sortHand(dealer); // Sort dealer's hand
-        int highest = dealer.get(2).getRank(); // Get highest card
-        return highest >= 12; // Check if rank is Queen or better
+        return HandTable.highRank(HandTable.lookup(dealer)) >= 12; // Check if rank is Queen or better
+    }
+
+    /**
+     * Evaluates a packed hand code (see PackedHand) and returns its rank.
+     */
+    public static int evalHand(int hand) {
+        return HandTable.category(PackedHand.lookup(hand));
+    }
+
+    /**
+     * Calculates Pair Plus winnings for a packed hand code and bet amount.
+     */
+    public static int evalPPWinnings(int hand, int bet) {
+        return pairPlusPayout(evalHand(hand), bet);
+    }
+
+    /**
+     * Compares two packed hand codes (dealer vs player).
+     * Returns 1 if player wins, 0 if tie, -1 if dealer wins.
+     */
+    public static int compareHands(int dealer, int player) {
+        return Integer.signum(Integer.compare(PackedHand.lookup(player), PackedHand.lookup(dealer)));
+    }
+
+    /**
+     * Checks if the dealer qualifies with a packed hand code.
+     */
+    public static boolean dealerQualifies(int dealer) {
+        return HandTable.highRank(PackedHand.lookup(dealer)) >= 12;
+    }
+
+    /**
+     * Evaluates a batch of packed hand codes, storing the rank of packedHands[i] in outRanks[i].
+     * Uses SIMD evaluation when the jdk.incubator.vector module is available and
+     * falls back to table lookups otherwise.
+     */
+    public static void evalHands(int[] packedHands, int[] outRanks) {
+        if (outRanks.length < packedHands.length) {
+            throw new IllegalArgumentException("outRanks holds " + outRanks.length
+                    + " entries but " + packedHands.length + " hands were given");
+        }
+        if (VECTOR_AVAILABLE) {
+            VectorHandEvaluator.evalHands(packedHands, outRanks);
+        } else {
+            evalHandsScalar(packedHands, outRanks);
+        }
+    }
+
+    /**
+     * Returns true if evalHands runs on the Vector API.
+     */
+    public static boolean isVectorEvaluationAvailable() {
+        return VECTOR_AVAILABLE;
     }
 
     /**
-     * Sorts a hand of cards in ascending order of rank.
+     * Scalar batch evaluation used when the Vector API is unavailable.
      */
-    private static void sortHand(ArrayList<Card> hand) {
-        hand.sort(Comparator.comparingInt(Card::getRank));
+    static void evalHandsScalar(int[] packedHands, int[] outRanks) {
+        for (int i = 0; i < packedHands.length; i++) {
+            outRanks[i] = evalHand(packedHands[i]);
+        }
+    }
+
+    /**
+     * Returns the rank of an immutable Hand.
+     */
+    public static int evalHand(Hand hand) {
+        return hand.getCategory();
+    }
+
+    /**
+     * Calculates Pair Plus winnings for an immutable Hand and bet amount.
+     */
+    public static int evalPPWinnings(Hand hand, int bet) {
+        return pairPlusPayout(hand.getCategory(), bet);
+    }
+
+    /**
+     * Compares two immutable Hands (dealer vs player) in constant time.
+     * Returns 1 if player wins, 0 if tie, -1 if dealer wins.
+     */
+    public static int compareHands(Hand dealer, Hand player) {
+        return Integer.signum(player.compareTo(dealer));
+    }
+
+    /**
+     * Checks if the dealer qualifies with an immutable Hand.
+     */
+    public static boolean dealerQualifies(Hand dealer) {
+        return dealer.getHighRank() >= 12;
+    }
+
+    /**
+     * Settles a complete round in a single pass, evaluating each hand exactly once.
+     * Combines dealerQualifies, compareHands and evalPPWinnings.
+     */
+    public static RoundResult settleRound(ArrayList<Card> dealer, ArrayList<Card> player,
+                                          int anteBet, int playBet, int pairPlusBet) {
+        return settle(HandTable.lookup(dealer), HandTable.lookup(player), anteBet, playBet, pairPlusBet,
+                Paytable.STANDARD_PAIR_PLUS, Paytable.NO_ANTE_BONUS);
+    }
+
+    /**
+     * Settles a complete round given packed hand codes (see PackedHand).
+     */
+    public static RoundResult settleRound(int dealer, int player, int anteBet, int playBet, int pairPlusBet) {
+        return settleRound(dealer, player, anteBet, playBet, pairPlusBet,
+                Paytable.STANDARD_PAIR_PLUS, Paytable.NO_ANTE_BONUS);
+    }
+
+    /**
+     * Settles a complete round given packed hand codes, paying Pair Plus and the
+     * Ante Bonus from the given paytables.
+     */
+    public static RoundResult settleRound(int dealer, int player, int anteBet, int playBet, int pairPlusBet,
+                                          Paytable pairPlus, Paytable anteBonus) {
+        return settle(PackedHand.lookup(dealer), PackedHand.lookup(player), anteBet, playBet, pairPlusBet,
+                pairPlus, anteBonus);
+    }
+
+    /**
+     * Settles several player hands (spots) against one dealer hand, looking the dealer
+     * hand up once. Result i settles players[i] with the bets at index i.
+     */
+    public static RoundResult[] settleSpots(int dealer, int[] players, int[] anteBets, int[] playBets,
+                                            int[] pairPlusBets, Paytable pairPlus, Paytable anteBonus) {
+        int dealerEntry = PackedHand.lookup(dealer);
+        RoundResult[] results = new RoundResult[players.length];
+        for (int i = 0; i < players.length; i++) {
+            results[i] = settle(dealerEntry, PackedHand.lookup(players[i]), anteBets[i], playBets[i],
+                    pairPlusBets[i], pairPlus, anteBonus);
+        }
+        return results;
     }
 
     /**
-     * Checks if a hand is a flush (all cards have the same suit).
+     * Settles a complete round given immutable Hands, reusing their cached evaluations.
      */
-    private static boolean isFlush(ArrayList<Card> hand) {
-        int s = hand.get(0).getSuit();
-        return hand.get(1).getSuit() == s && hand.get(2).getSuit() == s;
+    public static RoundResult settleRound(Hand dealer, Hand player, int anteBet, int playBet, int pairPlusBet) {
+        return settle(dealer.getEntry(), player.getEntry(), anteBet, playBet, pairPlusBet,
+                Paytable.STANDARD_PAIR_PLUS, Paytable.NO_ANTE_BONUS);
     }
 
     /**
-     * Checks if a hand is a straight (consecutive ranks).
+     * Settles a round from the HandTable entries of both hands.
+     * The Ante Bonus is paid on the ante whether or not the dealer qualifies or wins.
      */
-    private static boolean isStraight(ArrayList<Card> hand) {
-        int r1 = hand.get(0).getRank();
-        int r2 = hand.get(1).getRank();
-        int r3 = hand.get(2).getRank();
-        return (r2 == r1 + 1 && r3 == r2 + 1);
+    private static RoundResult settle(int dealerEntry, int playerEntry, int anteBet, int playBet, int pairPlusBet,
+                                      Paytable pairPlus, Paytable anteBonus) {
+        boolean dq = HandTable.highRank(dealerEntry) >= 12;
+        // Dealer doesn't qualify: Tie result
+        int outcome = dq ? Integer.signum(Integer.compare(playerEntry, dealerEntry)) : 0;
+        int playerRank = HandTable.category(playerEntry);
+        return new RoundResult(dq, outcome, outcome * anteBet, outcome * playBet,
+                pairPlus.payout(playerRank, pairPlusBet), anteBonus.payout(playerRank, anteBet),
+                playerRank, HandTable.category(dealerEntry));
     }
 
     /**
-     * Checks if a hand is three of a kind (all cards have the same rank).
+     * Returns the optimal decision for a packed player hand: true to play, false to fold.
+     * Backed by the precomputed StrategyTable, so this is a single array read.
      */
-    private static boolean isThreeOfKind(ArrayList<Card> hand) {
-        int r1 = hand.get(0).getRank();
-        int r2 = hand.get(1).getRank();
-        int r3 = hand.get(2).getRank();
-        return (r1 == r2 && r2 == r3);
+    public static boolean shouldPlay(int playerHand) {
+        return StrategyTable.getDefault().shouldPlay(playerHand);
     }
 
     /**
-     * Checks if a hand is a pair (two cards have the same rank).
+     * Returns the Pair Plus winnings for a hand rank and bet amount.
      */
-    private static boolean isPair(ArrayList<Card> hand) {
-        int r1 = hand.get(0).getRank();
-        int r2 = hand.get(1).getRank();
-        int r3 = hand.get(2).getRank();
-        return (r1 == r2 || r2 == r3 || r1 == r3);
+    private static int pairPlusPayout(int rank, int bet) {
+        return Paytable.STANDARD_PAIR_PLUS.payout(rank, bet); // Single lookup in the flat paytable
     }
 }
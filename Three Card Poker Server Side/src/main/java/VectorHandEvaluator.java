@@ -0,0 +1,71 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD batch evaluator for packed hand codes using the jdk.incubator.vector API.
+ *
+ * Each lane holds one packed hand. The card ordinals are unpacked, split into rank and
+ * suit, sorted by rank with min/max, and flush, straight, trips and pair are detected
+ * with lane-wise comparisons. The resulting hand rank matches ThreeCardLogic.evalHand.
+ *
+ * This class is only loaded when the incubator module is present at runtime
+ * (see ThreeCardLogic.evalHands); it must not be referenced from anywhere else.
+ */
+final class VectorHandEvaluator {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorHandEvaluator() {}
+
+    /**
+     * Evaluates packedHands[i] into outRanks[i] for every i in the array.
+     */
+    static void evalHands(int[] packedHands, int[] outRanks) {
+        int n = packedHands.length;
+        int upper = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            IntVector hands = IntVector.fromArray(SPECIES, packedHands, i);
+            IntVector c0 = hands.and(0x3F);
+            IntVector c1 = hands.lanewise(VectorOperators.LSHR, 6).and(0x3F);
+            IntVector c2 = hands.lanewise(VectorOperators.LSHR, 12).and(0x3F);
+
+            // suit = ordinal / 13 computed as (ordinal * 5042) >> 16, exact for 0..51
+            IntVector s0 = c0.mul(5042).lanewise(VectorOperators.LSHR, 16);
+            IntVector s1 = c1.mul(5042).lanewise(VectorOperators.LSHR, 16);
+            IntVector s2 = c2.mul(5042).lanewise(VectorOperators.LSHR, 16);
+            IntVector r0 = c0.sub(s0.mul(13));
+            IntVector r1 = c1.sub(s1.mul(13));
+            IntVector r2 = c2.sub(s2.mul(13));
+
+            // Order ranks ascending
+            IntVector lo = r0.min(r1);
+            IntVector hi = r0.max(r1);
+            IntVector mid = hi.min(r2);
+            hi = hi.max(r2);
+            IntVector t = lo.min(mid);
+            mid = lo.max(mid);
+            lo = t;
+
+            VectorMask<Integer> flush = s0.eq(s1).and(s1.eq(s2));
+            VectorMask<Integer> straight = mid.eq(lo.add(1)).and(hi.eq(mid.add(1)));
+            VectorMask<Integer> threeKind = lo.eq(hi);
+            VectorMask<Integer> pair = lo.eq(mid).or(mid.eq(hi));
+
+            // Later blends take precedence, matching the order of checks in evalHand
+            IntVector rank = IntVector.broadcast(SPECIES, ThreeCardLogic.HIGH_CARD)
+                    .blend(ThreeCardLogic.PAIR, pair)
+                    .blend(ThreeCardLogic.FLUSH, flush)
+                    .blend(ThreeCardLogic.STRAIGHT, straight)
+                    .blend(ThreeCardLogic.THREE_OF_KIND, threeKind)
+                    .blend(ThreeCardLogic.STRAIGHT_FLUSH, straight.and(flush));
+            rank.intoArray(outRanks, i);
+        }
+        // Scalar tail for the lanes that do not fill a whole vector
+        for (; i < n; i++) {
+            outRanks[i] = ThreeCardLogic.evalHand(packedHands[i]);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.Random;
+
+/**
+ * Throughput benchmark for ThreeCardLogic.evalHands against a loop calling evalHand.
+ * Run with: java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes BatchEvalBenchmark
+ * Without --add-modules, evalHands uses its scalar fallback.
+ */
+public class BatchEvalBenchmark {
+
+    private static final int HANDS = 1 << 22; // Hands per batch
+    private static final int PASSES = 8;      // Measurements per variant
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        int[] packed = new int[HANDS];
+        for (int i = 0; i < HANDS; i++) {
+            int a = random.nextInt(52), b, c;
+            do { b = random.nextInt(52); } while (b == a);
+            do { c = random.nextInt(52); } while (c == a || c == b);
+            packed[i] = PackedHand.pack(a, b, c);
+        }
+        int[] out = new int[HANDS];
+        System.out.println("Vector API available: " + ThreeCardLogic.isVectorEvaluationAvailable());
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < HANDS; i++) {
+                out[i] = ThreeCardLogic.evalHand(packed[i]);
+            }
+            long loop = System.nanoTime() - start;
+            long sink = out[pass];
+
+            start = System.nanoTime();
+            ThreeCardLogic.evalHands(packed, out);
+            long batch = System.nanoTime() - start;
+            sink += out[pass];
+
+            System.out.printf("pass %d: evalHand loop %.1f M hands/s, evalHands %.1f M hands/s (sink %d)%n",
+                    pass, HANDS * 1e3 / loop, HANDS * 1e3 / batch, sink);
+        }
+    }
+}
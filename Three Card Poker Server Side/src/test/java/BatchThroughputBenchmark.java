@@ -0,0 +1,127 @@
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+
+/**
+ * Rounds per second for one automated player, playing single rounds against sending batches.
+ *
+ * A single round is two request/response round trips (BETS then DEAL, PLAY or FOLD then
+ * RESULT); a batch of N rounds is one BATCH frame each way. The player speaks the binary
+ * format, plays or folds with the optimal strategy in single play and lets the server apply the
+ * same strategy in batches, so both settle the same kind of rounds.
+ *
+ * Run with: java -cp target/classes:target/test-classes BatchThroughputBenchmark
+ *           [thread|nio] [batch sizes...]
+ * Defaults: thread, batches of 1 10 100 500. Rounds per measurement are set with
+ * -Drounds=N (default 20000), after the same number of warmup rounds.
+ */
+public class BatchThroughputBenchmark {
+
+    // Ignores the log, which would otherwise dominate the time per round
+    private static final class QuietGameManager extends GameManager {
+        QuietGameManager() {
+            super(null);
+        }
+
+        @Override
+        public void logConnection(String clientInfo) {
+        }
+
+        @Override
+        public void logDisconnection(String clientInfo) {
+        }
+
+        @Override
+        public void logResult(String resultInfo) {
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String engine = args.length > 0 ? args[0] : "thread";
+        int[] sizes = {1, 10, 100, 500};
+        if (args.length > 1) {
+            sizes = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                sizes[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        int rounds = Integer.getInteger("rounds", 20_000);
+
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        PokerServer server = engine.equals("nio")
+                ? new NioServer(port, new QuietGameManager(), Paytables.DEFAULT, ShuffleSource.threadLocal())
+                : new ServerThread(port, new QuietGameManager(), Paytables.DEFAULT, ShuffleSource.threadLocal(), false, 0);
+        server.start();
+        Thread.sleep(200); // Let the server bind
+
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setTcpNoDelay(true);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            out.write(PokerCodec.hello(PokerCodec.VERSION));
+            out.flush();
+            in.readNBytes(PokerCodec.HELLO_BYTES);
+
+            System.out.printf("engine %s, binary format, %,d rounds per measurement%n", engine, rounds);
+            double single = 0;
+            for (int size : sizes) {
+                play(out, in, size, rounds); // Warmup
+                long start = System.nanoTime();
+                play(out, in, size, rounds);
+                double perSecond = rounds / ((System.nanoTime() - start) / 1e9);
+                if (size == 1) {
+                    single = perSecond;
+                }
+                System.out.printf("%s: %,.0f rounds/s%s%n", size == 1 ? "single rounds" : "batches of " + size,
+                        perSecond, single > 0 && size > 1 ? String.format(" (%.1fx single)", perSecond / single) : "");
+            }
+            PokerCodec.write(out, bets(PokerInfo.MessageType.DISCONNECT));
+        } finally {
+            server.stopServer();
+            ((Thread) server).join(10_000);
+        }
+    }
+
+    // Plays the rounds one at a time when size is 1, otherwise in batches of size
+    private static void play(OutputStream out, DataInputStream in, int size, int rounds) throws IOException {
+        if (size == 1) {
+            for (int r = 0; r < rounds; r++) {
+                PokerCodec.write(out, bets(PokerInfo.MessageType.BETS));
+                PokerInfo deal = PokerCodec.read(in);
+                boolean play = StrategyTable.getDefault().shouldPlay(PackedHand.pack(deal.getPlayerHand()));
+                deal.setMessageType(play ? PokerInfo.MessageType.PLAY : PokerInfo.MessageType.FOLD);
+                deal.setAnteBet(10);
+                deal.setPairPlusBet(5);
+                deal.setPlayBet(play ? 10 : 0);
+                PokerCodec.write(out, deal);
+                PokerCodec.read(in);
+            }
+            return;
+        }
+        for (int r = 0; r < rounds; r += size) {
+            PokerInfo batch = new PokerInfo();
+            batch.setMessageType(PokerInfo.MessageType.BATCH);
+            batch.setRounds(new ArrayList<>(size));
+            for (int i = 0; i < Math.min(size, rounds - r); i++) {
+                batch.getRounds().add(bets(PokerInfo.MessageType.BETS)); // Server decides
+            }
+            PokerCodec.write(out, batch);
+            PokerCodec.read(in);
+        }
+    }
+
+    private static PokerInfo bets(PokerInfo.MessageType type) {
+        PokerInfo info = new PokerInfo();
+        info.setMessageType(type);
+        info.setAnteBet(10);
+        info.setPairPlusBet(5);
+        return info;
+    }
+}
@@ -0,0 +1,55 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+
+public class CardTest {
+
+    @Test
+    void testOfReturnsSharedInstances() {
+        for (int ordinal = 0; ordinal < 52; ordinal++) {
+            Card card = Card.ofOrdinal(ordinal);
+            assertSame(card, Card.of(card.getRank(), card.getSuit()));
+            assertEquals(ordinal, HandTable.ordinal(card));
+        }
+        assertSame(Card.of(14, 4), PackedHand.toCard(51));
+    }
+
+    @Test
+    void testToStringIsCached() {
+        Card aceOfSpades = Card.of(14, 4);
+        assertEquals("A of Spades", aceOfSpades.toString());
+        assertSame(aceOfSpades.toString(), aceOfSpades.toString());
+        assertEquals("10 of Clubs", Card.of(10, 1).toString());
+    }
+
+    @Test
+    void testInvalidCardsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Card.of(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> Card.of(15, 1));
+        assertThrows(IllegalArgumentException.class, () -> Card.of(2, 0));
+        assertThrows(IllegalArgumentException.class, () -> Card.of(2, 5));
+    }
+
+    @Test
+    void testDeserializationResolvesToSharedInstances() throws Exception {
+        PokerInfo info = new PokerInfo();
+        info.setPlayerHand(PackedHand.toList(PackedHand.pack(51, 0, 25)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(info);
+        }
+        PokerInfo read;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            read = (PokerInfo) ois.readObject();
+        }
+        ArrayList<Card> hand = read.getPlayerHand();
+        assertSame(Card.ofOrdinal(51), hand.get(0));
+        assertSame(Card.ofOrdinal(0), hand.get(1));
+        assertSame(Card.ofOrdinal(25), hand.get(2));
+        assertEquals("A of Spades", hand.get(0).toString());
+    }
+}
@@ -0,0 +1,281 @@
+import com.sun.management.UnixOperatingSystemMXBean;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Memory per connection and round latency of a server engine with many connected players.
+ *
+ * For each player count the benchmark starts a fresh server, connects that many idle
+ * players, and measures heap and resident memory per connection once all sessions are
+ * up. It then has a number of active players each play rounds (BETS, DEAL, PLAY,
+ * RESULT) while the idle players stay connected, and reports round latency percentiles.
+ *
+ * Run with: java -Xss256k -cp target/classes:target/test-classes ConnectionScaleBenchmark
+ *           [platform|virtual|nio] [players...]
+ * Defaults: platform, 10000 50000 100000 players. Active players and rounds per active
+ * player are set with -Dactive=N (default 100) and -Drounds=N (default 200).
+ *
+ * The players connect over loopback from the same JVM, so every connection needs two file
+ * descriptors: counts the descriptor limit (ulimit -n) cannot hold are skipped. Each
+ * player's client socket is part of the measured memory, equally for every engine.
+ * Resident memory is cleanest with one count per JVM.
+ */
+public class ConnectionScaleBenchmark {
+
+    private static final byte[] STREAM_HEADER = {(byte) 0xAC, (byte) 0xED, 0x00, 0x05}; // ObjectOutputStream header
+
+    // Counts sessions instead of logging them
+    private static final class CountingGameManager extends GameManager {
+        final AtomicInteger connected = new AtomicInteger();    // Sessions started
+        final AtomicInteger disconnected = new AtomicInteger(); // Sessions ended
+
+        CountingGameManager() {
+            super(null);
+        }
+
+        @Override
+        public void logConnection(String clientInfo) {
+            connected.incrementAndGet();
+        }
+
+        @Override
+        public void logDisconnection(String clientInfo) {
+            disconnected.incrementAndGet();
+        }
+
+        @Override
+        public void logResult(String resultInfo) {
+            // Not logged
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String engine = args.length > 0 ? args[0] : "platform";
+        int[] counts = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[] {10_000, 50_000, 100_000};
+        int active = Integer.getInteger("active", 100);
+        int rounds = Integer.getInteger("rounds", 200);
+        long fdLimit = fileDescriptorLimit();
+        System.out.printf("engine %s, Java %d, fd limit %d, %d active players x %d rounds%n",
+                engine, Runtime.version().feature(), fdLimit, active, rounds);
+
+        for (int players : counts) {
+            long fdsNeeded = 2L * (players + active) + 256;
+            if (fdsNeeded > fdLimit) {
+                System.out.printf("%,d players: skipped, needs about %,d file descriptors (limit %,d)%n",
+                        players, fdsNeeded, fdLimit);
+                continue;
+            }
+            run(engine, players, active, rounds);
+        }
+    }
+
+    private static void run(String engine, int players, int active, int rounds) throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        boolean nio = engine.equals("nio");
+        CountingGameManager gm = new CountingGameManager();
+        PokerServer server = nio
+                ? new NioServer(port, gm, Paytables.DEFAULT, ShuffleSource.threadLocal())
+                : new ServerThread(port, gm, Paytables.DEFAULT, ShuffleSource.threadLocal(), engine.equals("virtual"), 0);
+        server.start();
+        Thread.sleep(200); // Let the server bind
+
+        long heapBefore = usedHeap();
+        long rssBefore = residentBytes();
+        int threadsBefore = Thread.activeCount();
+
+        List<Socket> idle = new ArrayList<>(players);
+        long connectStart = System.nanoTime();
+        for (int i = 0; i < players; i++) {
+            Socket socket = connect(port, i);
+            if (!nio) {
+                socket.getOutputStream().write(STREAM_HEADER); // The handler then waits in readObject
+            }
+            idle.add(socket);
+        }
+        boolean allUp = await(gm.connected, players, 60_000 + players);
+        double connectSeconds = (System.nanoTime() - connectStart) / 1e9;
+
+        long heap = usedHeap() - heapBefore;
+        long rss = residentBytes() - rssBefore;
+        int threads = Thread.activeCount() - threadsBefore;
+        System.out.printf("%,d idle players: %s in %.1f s, heap %,d B/conn, RSS %,d B/conn, +%,d threads%n",
+                players, allUp ? "connected" : "only " + gm.connected.get() + " connected", connectSeconds,
+                heap / players, rss / players, threads);
+
+        long[] latencies = playActive(port, players, active, rounds, nio);
+        Arrays.sort(latencies);
+        System.out.printf("%,d idle + %d active players: round p50 %.0f us, p99 %.0f us, p99.9 %.0f us, max %.0f us%n",
+                players, active, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), latencies[latencies.length - 1] / 1e3);
+
+        for (Socket socket : idle) {
+            socket.close();
+        }
+        await(gm.disconnected, players + active, 60_000 + players);
+        server.stopServer();
+        ((Thread) server).join(10_000);
+    }
+
+    // Plays rounds on the active players' connections, returning every round's latency in ns
+    private static long[] playActive(int port, int offset, int active, int rounds, boolean nio) throws Exception {
+        long[][] perPlayer = new long[active][];
+        Thread[] drivers = new Thread[active];
+        for (int p = 0; p < active; p++) {
+            int player = p;
+            drivers[p] = new Thread(() -> {
+                try (Socket socket = connect(port, offset + player)) {
+                    socket.setTcpNoDelay(true);
+                    perPlayer[player] = nio ? playFramed(socket, rounds) : playStream(socket, rounds);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            drivers[p].start();
+        }
+        List<long[]> all = new ArrayList<>();
+        int total = 0;
+        for (int p = 0; p < active; p++) {
+            drivers[p].join();
+            if (perPlayer[p] != null) {
+                all.add(perPlayer[p]);
+                total += perPlayer[p].length;
+            }
+        }
+        long[] latencies = new long[total];
+        int at = 0;
+        for (long[] l : all) {
+            System.arraycopy(l, 0, latencies, at, l.length);
+            at += l.length;
+        }
+        return latencies;
+    }
+
+    private static long[] playStream(Socket socket, int rounds) throws Exception {
+        ObjectOutputStream oos = new ObjectOutputStream(socket.getOutputStream());
+        oos.flush();
+        ObjectInputStream ois = new ObjectInputStream(socket.getInputStream());
+        long[] latencies = new long[rounds];
+        for (int r = 0; r < rounds; r++) {
+            long start = System.nanoTime();
+            oos.writeObject(bets());
+            oos.flush();
+            PokerInfo deal = (PokerInfo) ois.readObject();
+            oos.writeObject(play(deal));
+            oos.flush();
+            ois.readObject();
+            latencies[r] = System.nanoTime() - start;
+            oos.reset(); // Send each message in full, as a fresh client would
+        }
+        return latencies;
+    }
+
+    private static long[] playFramed(Socket socket, int rounds) throws Exception {
+        OutputStream out = socket.getOutputStream();
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        long[] latencies = new long[rounds];
+        for (int r = 0; r < rounds; r++) {
+            long start = System.nanoTime();
+            write(out, bets());
+            PokerInfo deal = read(in);
+            write(out, play(deal));
+            read(in);
+            latencies[r] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    private static void write(OutputStream out, PokerInfo info) throws IOException {
+        ByteBuffer frame = PokerFrames.encode(info);
+        out.write(frame.array(), 0, frame.remaining());
+        out.flush();
+    }
+
+    private static PokerInfo read(DataInputStream in) throws IOException {
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return PokerFrames.decode(ByteBuffer.wrap(body), body.length);
+    }
+
+    private static PokerInfo bets() {
+        PokerInfo info = new PokerInfo();
+        info.setMessageType(PokerInfo.MessageType.BETS);
+        info.setAnteBet(10);
+        info.setPairPlusBet(5);
+        return info;
+    }
+
+    private static PokerInfo play(PokerInfo deal) {
+        PokerInfo info = bets();
+        info.setMessageType(PokerInfo.MessageType.PLAY);
+        info.setPlayBet(10);
+        info.setPackedPlayerHand(deal.getPackedPlayerHand());
+        return info;
+    }
+
+    // Connects from one of many loopback addresses, so 100k connections do not run out of ephemeral ports
+    private static Socket connect(int port, int player) throws IOException {
+        InetAddress local = InetAddress.getByAddress(new byte[] {127, 0, (byte) (player / 250 % 250), (byte) (1 + player % 250)});
+        return new Socket(InetAddress.getLoopbackAddress(), port, local, 0);
+    }
+
+    private static boolean await(AtomicInteger counter, int target, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (counter.get() < target && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return counter.get() >= target;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1e3;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    // Resident set size from /proc (Linux), or 0 elsewhere
+    private static long residentBytes() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException e) {
+            // Not on Linux
+        }
+        return 0;
+    }
+
+    private static long fileDescriptorLimit() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        return os instanceof UnixOperatingSystemMXBean
+                ? ((UnixOperatingSystemMXBean) os).getMaxFileDescriptorCount() : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,65 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+public class GameManagerTest {
+
+    @Test
+    void testWritesEveryLineOfEveryThreadInOrder() throws Exception {
+        StringWriter out = new StringWriter();
+        GameManager gm = new GameManager(null, out);
+        int threads = 8;
+        int lines = 2_000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < lines; i++) {
+                    gm.logResult("thread " + thread + " line " + i);
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        gm.flush();
+
+        String[] written = out.toString().split(System.lineSeparator());
+        assertEquals(threads * lines, written.length);
+        assertEquals(threads * lines, gm.getLinesWritten());
+        assertTrue(gm.getWrites() <= gm.getLinesWritten());
+        int[] next = new int[threads];
+        for (String line : written) {
+            assertTrue(line.matches("\\[\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}] thread \\d+ line \\d+"), line);
+            String[] words = line.substring(line.indexOf(']') + 2).split(" ");
+            int thread = Integer.parseInt(words[1]);
+            assertEquals(next[thread]++, Integer.parseInt(words[3])); // Each thread's lines keep their order
+        }
+        assertEquals(0, gm.getUiUpdates()); // No game log, so no UI
+    }
+
+    @Test
+    void testCountsClientsAndPrefixesConnectionLines() throws Exception {
+        StringWriter out = new StringWriter();
+        GameManager gm = new GameManager(null, out);
+        gm.logConnection("/127.0.0.1:5000");
+        gm.logConnection("/127.0.0.1:5001");
+        gm.logDisconnection("/127.0.0.1:5000");
+        assertEquals(1, gm.getClientCount());
+        gm.logDisconnection("/127.0.0.1:5001");
+        gm.logDisconnection("/127.0.0.1:5001"); // Never below zero
+        assertEquals(0, gm.getClientCount());
+        gm.flush();
+
+        String log = out.toString();
+        assertTrue(log.contains("] New client connected: /127.0.0.1:5001" + System.lineSeparator()));
+        assertTrue(log.contains("] Client disconnected: /127.0.0.1:5000" + System.lineSeparator()));
+        assertEquals(5, gm.getLinesWritten());
+
+        gm.flush(); // Nothing logged since: returns at once
+        assertEquals(5, gm.getLinesWritten());
+    }
+}
@@ -0,0 +1,70 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+public class GameSessionTest {
+
+    @TempDir
+    Path dir;
+
+    private final RecordingGameManager gm = new RecordingGameManager();
+
+    private GameSession session() {
+        return new GameSession(gm, "client", Paytables.DEFAULT, ShuffleSource.seeded(13L));
+    }
+
+    @Test
+    void testRejectsBetsWhileARoundIsDealt() {
+        GameSession session = session();
+        PokerInfo deal = session.handle(Messages.bets(10, 5));
+        assertEquals(1, deal.getRoundId());
+
+        assertNull(session.handle(Messages.bets(10, 5))); // No second deal to pick the better hand from
+        PokerInfo spots = Messages.bets(0, 0);
+        spots.setSpots(new ArrayList<>());
+        spots.getSpots().add(Messages.bets(10, 0));
+        assertNull(session.handle(spots));
+        assertEquals(2, gm.count("Unexpected BETS during round 1 from client"));
+        assertEquals(GameSession.State.AWAITING_DECISION, session.getState());
+
+        PokerInfo result = session.handle(Messages.message(PokerInfo.MessageType.FOLD));
+        assertEquals(1, result.getRoundId()); // The round first dealt is the one settled
+        assertEquals(deal.getPackedPlayerHand(), result.getPackedPlayerHand());
+        assertEquals(2, session.handle(Messages.bets(10, 5)).getRoundId());
+    }
+
+    @Test
+    void testRejectsBetsOutsideTheTableLimits() throws Exception {
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            GameSession session = new GameSession(gm, "client", Paytables.DEFAULT, ShuffleSource.seeded(13L), ledger);
+            assertNull(session.handle(Messages.bets(-100, 0))); // A FOLD would have posted +100
+            assertNull(session.handle(Messages.bets(4, 0)));
+            assertNull(session.handle(Messages.bets(26, 0)));
+            assertNull(session.handle(Messages.bets(10, 3)));
+            assertNull(session.handle(Messages.bets(10, -5)));
+            assertEquals(5, gm.count("BETS with Ante=$"));
+            assertEquals(GameSession.State.AWAITING_BETS, session.getState());
+
+            PokerInfo spots = Messages.bets(0, 0);
+            spots.setSpots(new ArrayList<>());
+            spots.getSpots().add(Messages.bets(10, 5));
+            spots.getSpots().add(Messages.bets(10, 30));
+            assertNull(session.handle(spots));
+            assertEquals(1, gm.count("BETS spot with Ante=$10, PP=$30"));
+
+            PokerInfo batch = Messages.message(PokerInfo.MessageType.BATCH);
+            batch.setRounds(new ArrayList<>());
+            batch.getRounds().add(Messages.bets(10, 0));
+            batch.getRounds().add(Messages.bets(-1000, 0));
+            assertNull(session.handle(batch));
+            assertEquals(1, gm.count("BATCH round with Ante=$-1000"));
+            assertEquals(0, ledger.getLastCommitted()); // Nothing was dealt or posted
+
+            assertNotNull(session.handle(Messages.bets(GameSession.MIN_BET, 0)));
+            session.handle(Messages.message(PokerInfo.MessageType.FOLD));
+            assertEquals(-GameSession.MIN_BET, session.getBalance());
+        }
+    }
+}
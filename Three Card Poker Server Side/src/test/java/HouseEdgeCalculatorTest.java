@@ -0,0 +1,44 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class HouseEdgeCalculatorTest {
+
+    private static HouseEdgeReport report;
+
+    @BeforeAll
+    static void enumerate() {
+        report = HouseEdgeCalculator.calculate(); // Full 407M matchup enumeration, shared by all tests
+    }
+
+    @Test
+    void testEveryMatchupIsCounted() {
+        assertEquals((long) HandTable.HAND_COUNT * HouseEdgeCalculator.DEALER_HANDS, report.getMatchups());
+        assertEquals(407_170_400L, report.getMatchups());
+    }
+
+    @Test
+    void testDealerQualificationRateIsExact() {
+        // Dealer fails to qualify exactly when all three cards are Jack or lower: C(40,3) of C(52,3) hands
+        assertEquals(report.getMatchups() * 9880, report.getNotQualified() * HandTable.HAND_COUNT);
+    }
+
+    @Test
+    void testPairPlusEvIsExact() {
+        // 44*40 + 52*30 + 660*6 + 1100*3 + 3744*1 - 16500 = -2176 units over 22,100 hands
+        assertEquals(-2176.0 / 22100, report.getPairPlusEv(), 1e-12);
+    }
+
+    @Test
+    void testOptimalDecisionNeverWorseThanAlwaysPlaying() {
+        assertTrue(report.getOptimalEv() >= report.getAlwaysPlayEv());
+        assertTrue(report.getOptimalEv() > -1.0); // Better than folding every hand
+    }
+
+    @Test
+    void testTallyMatchupsCoversAllDealerHands() {
+        int[] counts = new int[4];
+        HouseEdgeCalculator.tallyMatchups(0, counts);
+        assertEquals(HouseEdgeCalculator.DEALER_HANDS, counts[0] + counts[1] + counts[2] + counts[3]);
+    }
+}
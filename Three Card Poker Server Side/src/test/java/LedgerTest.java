@@ -0,0 +1,228 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class LedgerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testGroupCommitsConcurrentSettlementsAndRecoversThem() throws Exception {
+        int threads = 16;
+        int posts = 500;
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            List<Thread> tables = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long account = t;
+                tables.add(new Thread(() -> {
+                    for (int i = 0; i < posts; i++) {
+                        ledger.awaitCommitted(ledger.post(account, i % 2 == 0 ? 10 : -3));
+                    }
+                }));
+            }
+            tables.forEach(Thread::start);
+            for (Thread table : tables) {
+                table.join();
+            }
+            assertEquals((long) threads * posts, ledger.getLastCommitted());
+            assertTrue(ledger.getCommits() < (long) threads * posts); // Several settlements per fsync
+            assertEquals(posts / 2 * 7, ledger.balance(3));
+        }
+        assertEquals((long) threads * posts * Ledger.RECORD_BYTES, Files.size(dir.resolve("ledger.log")));
+
+        try (Ledger reopened = new Ledger(dir, 1L << 30)) {
+            assertEquals(threads, reopened.accounts());
+            for (int t = 0; t < threads; t++) {
+                assertEquals(posts / 2 * 7, reopened.balance(t));
+            }
+            reopened.awaitCommitted(reopened.post(3, 1)); // Sequence numbers carry on
+            assertEquals((long) threads * posts + 1, reopened.getLastCommitted());
+        }
+    }
+
+    @Test
+    void testCompletesFuturesOnceTheirChangesCommit() throws Exception {
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            List<Long> seqs = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                long seq = ledger.post(i % 5, 10);
+                seqs.add(seq);
+                futures.add(ledger.committed(seq).thenRun(() -> assertTrue(ledger.getLastCommitted() >= seq)));
+            }
+            for (int i = futures.size() - 1; i >= 0; i--) {
+                futures.get(i).get(10, TimeUnit.SECONDS); // Fails if the action's assert did
+                assertTrue(ledger.getLastCommitted() >= seqs.get(i));
+            }
+            assertTrue(ledger.committed(1).isDone()); // Already on disk
+        }
+    }
+
+    @Test
+    void testRecoveryCutsTheLogAtATornRecord() throws Exception {
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            for (int i = 0; i < 5; i++) {
+                ledger.post(7, 100);
+            }
+            ledger.awaitCommitted(5);
+        }
+        Path log = dir.resolve("ledger.log");
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[4 * Ledger.RECORD_BYTES + 20] ^= 1; // Corrupt the change of the last record
+        Files.write(log, bytes);
+        Files.write(log, new byte[] {1, 2, 3}, StandardOpenOption.APPEND); // And a half-written one after it
+
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            assertEquals(400, ledger.balance(7));
+            assertEquals(4 * Ledger.RECORD_BYTES, Files.size(log));
+            ledger.awaitCommitted(ledger.post(7, 1));
+        }
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            assertEquals(401, ledger.balance(7)); // Records after the cut are intact
+        }
+    }
+
+    @Test
+    void testCompactsTheLogIntoASnapshot() throws Exception {
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            for (int i = 1; i <= 3; i++) {
+                ledger.awaitCommitted(ledger.post(i, 50));
+            }
+        }
+        byte[] beforeCompaction = Files.readAllBytes(dir.resolve("ledger.log"));
+
+        try (Ledger ledger = new Ledger(dir, 4 * Ledger.RECORD_BYTES)) {
+            ledger.awaitCommitted(ledger.post(1, -20)); // Fourth record reaches the threshold
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (ledger.getCompactions() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(1, ledger.getCompactions());
+        }
+        assertTrue(Files.exists(dir.resolve("ledger.snapshot")));
+        assertEquals(0, Files.size(dir.resolve("ledger.log")));
+
+        // A crash between writing the snapshot and emptying the log leaves records it already holds
+        Files.write(dir.resolve("ledger.log"), beforeCompaction);
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            assertEquals(30, ledger.balance(1));
+            assertEquals(50, ledger.balance(3));
+            assertEquals(3, ledger.accounts());
+            assertEquals(4, ledger.lastSeq(1)); // Kept in the snapshot
+            assertEquals(3, ledger.lastSeq(3));
+            assertEquals(0, ledger.lastSeq(99));
+        }
+
+        Files.write(dir.resolve("ledger.snapshot"), new byte[] {0, 1, 2, 3}); // Not a snapshot
+        assertThrows(java.io.IOException.class, () -> new Ledger(dir, 1L << 30));
+    }
+
+    @Test
+    void testRecoversFromACrashBetweenReplacingTheSnapshotAndEmptyingTheLog() throws Exception {
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            ledger.awaitCommitted(ledger.post(1, 40));
+            ledger.awaitCommitted(ledger.post(2, -15));
+        }
+        Ledger crashing = new Ledger(dir, 1L << 30);
+        crashing.post(1, 5);
+        crashing.afterSnapshot = () -> {
+            throw new java.io.IOException("crash");
+        };
+        assertThrows(java.io.IOException.class, () -> crashing.close(true));
+        assertTrue(Files.exists(dir.resolve("ledger.snapshot")));
+        assertEquals(3L * Ledger.RECORD_BYTES, Files.size(dir.resolve("ledger.log"))); // Not emptied
+
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            assertEquals(45, ledger.balance(1)); // Each change counted once
+            assertEquals(-15, ledger.balance(2));
+            assertEquals(3, ledger.lastSeq(1));
+            assertEquals(3, ledger.getLastCommitted());
+            assertTrue(ledger.toString().contains("and 0 log records")); // All skipped as held by the snapshot
+        }
+    }
+
+    @Test
+    void testRetiredAccountsLeaveTheBalancesAndSnapshot() throws Exception {
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            ledger.post(1, 30);
+            ledger.post(2, -10);
+            ledger.post(1, 5);
+            assertEquals(35, ledger.retire(1));
+            assertEquals(0, ledger.retire(7)); // Never opened
+            assertEquals(1, ledger.accounts());
+            assertEquals(0, ledger.lastSeq(1));
+        }
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            assertEquals(1, ledger.accounts()); // Closed again by replay
+            assertEquals(0, ledger.balance(1));
+            ledger.awaitCommitted(ledger.post(1, 20)); // Opened anew
+            ledger.retire(2);
+            ledger.close(true);
+        }
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            assertEquals(1, ledger.accounts()); // Only the open account in the snapshot
+            assertEquals(20, ledger.balance(1));
+            assertEquals(6, ledger.lastSeq(1));
+            assertEquals(0, ledger.lastSeq(2));
+        }
+    }
+
+    @Test
+    void testCompactsOnCloseForAQuickRestart() throws Exception {
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            ledger.post(1, 25);
+            ledger.post(2, -5);
+            ledger.post(1, 10);
+            ledger.close(true);
+        }
+        assertEquals(0, Files.size(dir.resolve("ledger.log")));
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            assertEquals(35, ledger.balance(1));
+            assertEquals(-5, ledger.balance(2));
+            assertEquals(3, ledger.getLastCommitted());
+            assertTrue(ledger.toString().contains("and 0 log records"));
+        }
+    }
+
+    @Test
+    void testSessionPostsEverySettlement() throws Exception {
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            GameSession session = new GameSession(new RecordingGameManager(), "client", Paytables.DEFAULT,
+                    ShuffleSource.seeded(11L), ledger);
+            long expected = 0;
+            int pairPlusWins = 0;
+            for (int i = 0; i < 20; i++) {
+                PokerInfo bets = new PokerInfo();
+                bets.setMessageType(PokerInfo.MessageType.BETS);
+                bets.setAnteBet(10);
+                bets.setPairPlusBet(5);
+                PokerInfo deal = session.handle(bets);
+                boolean play = i % 3 != 0;
+                PokerInfo decision = new PokerInfo();
+                decision.setMessageType(play ? PokerInfo.MessageType.PLAY : PokerInfo.MessageType.FOLD);
+                PokerInfo result = session.handle(decision);
+                session.durable().get(10, TimeUnit.SECONDS); // What the transport waits for before the RESULT
+                assertEquals(deal.getPackedPlayerHand(), result.getPackedPlayerHand());
+                // The winnings the client shows for the RESULT: a Pair Plus win keeps the bet
+                int ppWin = result.getPairPlusWinnings();
+                expected += result.getGameResult() * (result.getAnteBet() + result.getPlayBet())
+                        + (ppWin > 0 ? ppWin : -result.getPairPlusBet()) + result.getAnteBonusWinnings();
+                if (ppWin > 0) {
+                    pairPlusWins++;
+                }
+                assertEquals(expected, session.getBalance());
+                assertEquals(i + 1, ledger.getLastCommitted()); // Durable before the RESULT
+            }
+            assertEquals(expected, ledger.balance(session.getSessionToken()));
+            assertTrue(pairPlusWins > 0); // The seed deals Pair Plus wins, so their accounting is covered
+        }
+    }
+}
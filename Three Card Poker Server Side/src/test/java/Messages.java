@@ -0,0 +1,31 @@
+/**
+ * PokerInfo messages as a client sends them, shared by the tests.
+ */
+final class Messages {
+
+    private Messages() {
+    }
+
+    // A message with only its type set
+    static PokerInfo message(PokerInfo.MessageType type) {
+        PokerInfo info = new PokerInfo();
+        info.setMessageType(type);
+        return info;
+    }
+
+    // A single-spot BETS
+    static PokerInfo bets(int ante, int pairPlus) {
+        PokerInfo info = message(PokerInfo.MessageType.BETS);
+        info.setAnteBet(ante);
+        info.setPairPlusBet(pairPlus);
+        return info;
+    }
+
+    // A CONNECT resuming the session with the token, 0 for a new one, last dealt the round
+    static PokerInfo connect(long token, int roundId) {
+        PokerInfo info = message(PokerInfo.MessageType.CONNECT);
+        info.setSessionToken(token);
+        info.setRoundId(roundId);
+        return info;
+    }
+}
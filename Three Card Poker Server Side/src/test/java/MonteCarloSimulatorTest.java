@@ -0,0 +1,68 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.ForkJoinPool;
+
+public class MonteCarloSimulatorTest {
+
+    @Test
+    void testSameSeedGivesSameReportOnAnyPool() {
+        MonteCarloSimulator sim = new MonteCarloSimulator(7L, 200, 500, 200, 5, 5, PlayStrategy.ALWAYS_PLAY);
+        SimulationReport single = sim.run(new ForkJoinPool(1));
+        SimulationReport many = sim.run(new ForkJoinPool(4));
+        assertEquals(single.getRounds(), many.getRounds());
+        assertEquals(single.getRuinedSessions(), many.getRuinedSessions());
+        assertEquals(single.getMeanSessionNet(), many.getMeanSessionNet());
+        assertEquals(single.getSessionNetMargin(), many.getSessionNetMargin());
+    }
+
+    @Test
+    void testDifferentSeedsDiffer() {
+        SimulationReport a = new MonteCarloSimulator(1L, 50, 200, 1000, 5, 0, PlayStrategy.ALWAYS_PLAY).run();
+        SimulationReport b = new MonteCarloSimulator(2L, 50, 200, 1000, 5, 0, PlayStrategy.ALWAYS_PLAY).run();
+        assertNotEquals(a.getMeanSessionNet(), b.getMeanSessionNet());
+    }
+
+    @Test
+    void testRoundEvAgreesWithExactEnumeration() {
+        // Exact always-play EV is -0.237023 per unit ante (see HouseEdgeCalculator)
+        SimulationReport report = new MonteCarloSimulator(342L, 100, 2_000, Long.MAX_VALUE / 4, 1, 0,
+                PlayStrategy.ALWAYS_PLAY).run();
+        assertEquals(200_000, report.getRounds());
+        assertEquals(-0.237023, report.getMeanRoundNet(), 3 * report.getRoundNetMargin());
+    }
+
+    @Test
+    void testShoeRoundEvMovesTowardInfiniteDeck() {
+        // Duplicate cards make dealer and player hands more alike: the always-play EV rises
+        // from -0.237023 for one deck toward -0.193146 for an infinite deck (exact, by
+        // enumerating every ordered triple of the 52 cards)
+        MonteCarloSimulator simulator = new MonteCarloSimulator(342L, 100, 2_000, Long.MAX_VALUE / 4, 1, 0,
+                PlayStrategy.ALWAYS_PLAY);
+        simulator.setShoe(6, 0.75, false);
+        SimulationReport shoe = simulator.run();
+        assertTrue(shoe.getMeanRoundNet() - 3 * shoe.getRoundNetMargin() > -0.237023);
+        assertEquals(-0.193146, shoe.getMeanRoundNet(), 3 * shoe.getRoundNetMargin() + 0.01);
+        simulator.setShoe(6, 1.0, true);
+        SimulationReport csm = simulator.run();
+        assertNotEquals(shoe.getMeanRoundNet(), csm.getMeanRoundNet());
+        assertEquals(-0.193146, csm.getMeanRoundNet(), 3 * csm.getRoundNetMargin() + 0.01);
+    }
+
+    @Test
+    void testSmallBankrollIsRuined() {
+        // A bankroll of exactly one round of stakes is ruined after the first loss
+        SimulationReport report = new MonteCarloSimulator(3L, 500, 1_000, 10, 5, 0, PlayStrategy.ALWAYS_PLAY).run();
+        assertTrue(report.getRiskOfRuin() > 0.9);
+        assertEquals(500, report.getSessions());
+    }
+
+    @Test
+    void testQueenSixFourStrategy() {
+        int flush = PackedHand.pack(10, 1, 0);                   // Q, 3, 2 of Clubs
+        int queenSixFour = PackedHand.pack(10, 13 + 4, 26 + 2);  // Q Clubs, 6 Diamonds, 4 Hearts
+        int queenSixThree = PackedHand.pack(10, 13 + 4, 26 + 1); // Q Clubs, 6 Diamonds, 3 Hearts
+        assertTrue(PlayStrategy.QUEEN_SIX_FOUR.play(flush));
+        assertTrue(PlayStrategy.QUEEN_SIX_FOUR.play(queenSixFour));
+        assertFalse(PlayStrategy.QUEEN_SIX_FOUR.play(queenSixThree));
+    }
+}
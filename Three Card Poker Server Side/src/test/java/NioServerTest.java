@@ -0,0 +1,334 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NioServerTest {
+
+    private RecordingGameManager gm;
+    private NioServer server;
+    private int port;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort(); // A free port
+        }
+        gm = new RecordingGameManager();
+        server = new NioServer(port, gm, Paytables.DEFAULT, ShuffleSource.seeded(342L), 2);
+        server.start();
+        gm.await("Server started on port: " + port);
+    }
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        server.stopServer();
+        server.join(5_000);
+        assertFalse(server.isAlive());
+    }
+
+    private void awaitConnections(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (server.getConnectionCount() != count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, server.getConnectionCount());
+    }
+
+    private static void send(Socket socket, PokerInfo info) throws IOException {
+        ByteBuffer frame = PokerFrames.encode(info);
+        OutputStream out = socket.getOutputStream();
+        out.write(frame.array(), 0, frame.remaining());
+        out.flush();
+    }
+
+    private static PokerInfo receive(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return PokerFrames.decode(ByteBuffer.wrap(body), body.length);
+    }
+
+    @Test
+    void testPlaysRoundOverFrames() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            send(socket, Messages.bets(10, 5));
+            PokerInfo deal = receive(socket);
+            assertEquals(PokerInfo.MessageType.DEAL, deal.getMessageType());
+            assertEquals(3, deal.getPlayerHand().size());
+            assertNull(deal.getDealerHand()); // Revealed with the RESULT
+
+            PokerInfo play = Messages.bets(10, 5);
+            play.setMessageType(PokerInfo.MessageType.PLAY);
+            play.setPlayBet(10);
+            play.setPackedPlayerHand(deal.getPackedPlayerHand());
+            send(socket, play);
+            PokerInfo result = receive(socket);
+            assertEquals(PokerInfo.MessageType.RESULT, result.getMessageType());
+            assertEquals(3, result.getDealerHand().size());
+            RoundResult expected = ThreeCardLogic.settleRound(result.getPackedDealerHand(),
+                    deal.getPackedPlayerHand(), 10, 10, 5);
+            assertEquals(expected.getOutcome(), result.getGameResult());
+            assertEquals(expected.getPairPlusPayout(), result.getPairPlusWinnings());
+
+            send(socket, Messages.message(PokerInfo.MessageType.DISCONNECT));
+            awaitConnections(0);
+        }
+        assertEquals(1, gm.count("connected "));
+        assertEquals(1, gm.count("disconnected "));
+        assertTrue(gm.log.stream().anyMatch(line -> line.startsWith("Client /") && line.contains("[seed 0x")));
+    }
+
+    @Test
+    void testSettlesTheDealtRoundWhateverTheDecisionCarries() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            send(socket, Messages.bets(10, 5));
+            PokerInfo deal = receive(socket);
+            assertTrue(deal.getRoundId() > 0);
+
+            PokerInfo stale = Messages.message(PokerInfo.MessageType.PLAY);
+            stale.setRoundId(deal.getRoundId() + 1);
+            send(socket, stale); // Logged, no reply
+
+            PokerInfo forged = Messages.message(PokerInfo.MessageType.PLAY); // Swapped hands and a larger ante
+            forged.setRoundId(deal.getRoundId());
+            forged.setAnteBet(1000);
+            forged.setPlayBet(1000);
+            forged.setPackedPlayerHand(PackedHand.pack(12, 25, 38));
+            forged.setPackedDealerHand(PackedHand.pack(0, 14, 28));
+            send(socket, forged);
+            PokerInfo result = receive(socket);
+            assertEquals(deal.getRoundId(), result.getRoundId());
+            assertEquals(deal.getPlayerHand(), result.getPlayerHand());
+            assertEquals(10, result.getAnteBet());
+            assertEquals(10, result.getPlayBet());
+            RoundResult expected = ThreeCardLogic.settleRound(result.getPackedDealerHand(),
+                    deal.getPackedPlayerHand(), 10, 10, 5);
+            assertEquals(expected.getOutcome(), result.getGameResult());
+            assertEquals(expected.getPairPlusPayout(), result.getPairPlusWinnings());
+
+            send(socket, Messages.bets(10, 5));
+            assertEquals(deal.getRoundId() + 1, receive(socket).getRoundId());
+        }
+        assertEquals(1, gm.count("PLAY for round "));
+    }
+
+    @Test
+    void testResumesRoundAfterReconnect() throws Exception {
+        PokerInfo deal;
+        long token;
+        try (Socket socket = new Socket("localhost", port)) {
+            send(socket, Messages.message(PokerInfo.MessageType.CONNECT));
+            token = receive(socket).getSessionToken();
+            assertNotEquals(0, token);
+            send(socket, Messages.bets(10, 5));
+            deal = receive(socket);
+        } // Dropped without DISCONNECT
+        awaitConnections(0);
+        assertEquals(1, server.getSessionStore().size());
+
+        try (Socket socket = new Socket("localhost", port)) {
+            PokerInfo resume = Messages.message(PokerInfo.MessageType.CONNECT);
+            resume.setSessionToken(token);
+            send(socket, resume);
+            PokerInfo dealt = receive(socket); // The round as dealt, no new deal
+            assertEquals(PokerInfo.MessageType.DEAL, dealt.getMessageType());
+            assertEquals(deal.getRoundId(), dealt.getRoundId());
+            assertEquals(deal.getPlayerHand(), dealt.getPlayerHand());
+            assertEquals(token, dealt.getSessionToken());
+
+            PokerInfo fold = Messages.message(PokerInfo.MessageType.FOLD);
+            fold.setRoundId(dealt.getRoundId());
+            send(socket, fold);
+            assertEquals(-1, receive(socket).getGameResult());
+            send(socket, Messages.message(PokerInfo.MessageType.DISCONNECT));
+            awaitConnections(0);
+        }
+        assertEquals(0, server.getSessionStore().size()); // Left on purpose
+        assertEquals(2, gm.count("Client /")); // The fold and the resume
+        assertEquals(1, gm.log.stream().filter(line -> line.contains(" resumed the session of /")
+                && line.endsWith(" with round " + deal.getRoundId() + " in flight")).count());
+    }
+
+    @Test
+    void testDecisionBeforeBetsGetsNoReply() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            send(socket, Messages.message(PokerInfo.MessageType.FOLD));
+            send(socket, Messages.bets(10, 5));
+            assertEquals(PokerInfo.MessageType.DEAL, receive(socket).getMessageType());
+            send(socket, Messages.message(PokerInfo.MessageType.FOLD));
+            PokerInfo result = receive(socket);
+            assertEquals(PokerInfo.MessageType.RESULT, result.getMessageType());
+            assertEquals(-1, result.getGameResult());
+        }
+        assertEquals(1, gm.count("Unexpected FOLD before BETS"));
+    }
+
+    @Test
+    void testFramesSplitAcrossWrites() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setTcpNoDelay(true);
+            ByteBuffer frame = PokerFrames.encode(Messages.bets(10, 5));
+            OutputStream out = socket.getOutputStream();
+            for (int i = 0; i < frame.remaining(); i++) {
+                out.write(frame.get(i)); // One byte at a time
+                out.flush();
+            }
+            assertEquals(PokerInfo.MessageType.DEAL, receive(socket).getMessageType());
+        }
+    }
+
+    private static PokerInfo batch(int rounds) {
+        PokerInfo batch = Messages.message(PokerInfo.MessageType.BATCH);
+        batch.setRounds(new ArrayList<>());
+        PokerInfo.MessageType[] decisions = {PokerInfo.MessageType.PLAY, PokerInfo.MessageType.FOLD, PokerInfo.MessageType.BETS};
+        for (int i = 0; i < rounds; i++) {
+            PokerInfo round = Messages.bets(10, 5);
+            round.setMessageType(decisions[i % decisions.length]);
+            batch.getRounds().add(round);
+        }
+        return batch;
+    }
+
+    @Test
+    void testPlaysBatchInOneFrame() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            send(socket, batch(GameSession.MAX_BATCH_ROUNDS + 1)); // Too many: logged, no reply
+            send(socket, batch(GameSession.MAX_BATCH_ROUNDS));
+            PokerInfo reply = receive(socket);
+            assertEquals(PokerInfo.MessageType.BATCH, reply.getMessageType());
+            assertEquals(GameSession.MAX_BATCH_ROUNDS, reply.getRounds().size());
+            for (int i = 0; i < reply.getRounds().size(); i++) {
+                PokerInfo result = reply.getRounds().get(i);
+                assertEquals(PokerInfo.MessageType.RESULT, result.getMessageType());
+                int player = result.getPackedPlayerHand();
+                int dealer = result.getPackedDealerHand();
+                boolean play = i % 3 == 0 || i % 3 == 2 && StrategyTable.getDefault().shouldPlay(player);
+                if (play) {
+                    assertEquals(10, result.getPlayBet());
+                    RoundResult expected = ThreeCardLogic.settleRound(dealer, player, 10, 10, 5);
+                    assertEquals(expected.getOutcome(), result.getGameResult());
+                    assertEquals(expected.getPairPlusPayout(), result.getPairPlusWinnings());
+                } else {
+                    assertEquals(0, result.getPlayBet());
+                    assertEquals(-1, result.getGameResult());
+                }
+            }
+
+            send(socket, Messages.bets(10, 5)); // Single rounds carry on after a batch
+            assertEquals(PokerInfo.MessageType.DEAL, receive(socket).getMessageType());
+            send(socket, batch(1)); // Not while a round waits for its decision
+            send(socket, Messages.message(PokerInfo.MessageType.FOLD));
+            assertEquals(PokerInfo.MessageType.RESULT, receive(socket).getMessageType());
+        }
+        assertEquals(1, gm.count("Batch of " + (GameSession.MAX_BATCH_ROUNDS + 1) + " rounds"));
+        assertEquals(1, gm.count("Unexpected BATCH during a round"));
+        assertEquals(GameSession.MAX_BATCH_ROUNDS + 1, gm.count("Client /")); // Every round logged
+    }
+
+    @Test
+    void testHoldsEachResultUntilTheLedgerCommitsIt(@TempDir Path dir) throws Exception {
+        int ledgerPort;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            ledgerPort = probe.getLocalPort();
+        }
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            NioServer durable = new NioServer(ledgerPort, gm, Paytables.DEFAULT, ShuffleSource.seeded(5L), 1,
+                    new SessionStore(), ledger);
+            durable.start();
+            gm.await("Server started on port: " + ledgerPort);
+            try (Socket socket = new Socket("localhost", ledgerPort)) {
+                ByteBuffer frames = ByteBuffer.allocate(4096);
+                for (int i = 0; i < 3; i++) { // Sent at once: the next rounds wait in the buffer while a RESULT is held
+                    frames.put(PokerFrames.encode(Messages.bets(10, 5)));
+                    frames.put(PokerFrames.encode(Messages.message(PokerInfo.MessageType.FOLD)));
+                }
+                socket.getOutputStream().write(frames.array(), 0, frames.position());
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(PokerInfo.MessageType.DEAL, receive(socket).getMessageType());
+                    PokerInfo result = receive(socket);
+                    assertEquals(PokerInfo.MessageType.RESULT, result.getMessageType());
+                    assertEquals(i + 1, result.getRoundId());
+                    assertTrue(ledger.getLastCommitted() >= i + 1); // Durable before the RESULT
+                }
+            } finally {
+                durable.stopServer();
+                durable.join(5_000);
+            }
+            assertTrue(ledger.getLastCommitted() >= 3);
+            // Never stored for resume, so its account closed with the connection
+            assertEquals(1, gm.count("Closed the account of /"));
+            assertEquals(0, ledger.accounts());
+        }
+    }
+
+    @Test
+    void testServesManyConnectionsOnFewThreads() throws Exception {
+        List<Socket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i++) {
+                Socket socket = new Socket("localhost", port);
+                sockets.add(socket);
+                send(socket, Messages.bets(10, 5));
+            }
+            for (Socket socket : sockets) {
+                assertEquals(PokerInfo.MessageType.DEAL, receive(socket).getMessageType());
+            }
+            awaitConnections(200);
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+        awaitConnections(0); // Closing without DISCONNECT still ends the session
+        assertEquals(200, gm.count("disconnected "));
+    }
+
+    @Test
+    void testInvalidFrameClosesConnection() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.getOutputStream().write(new byte[] {(byte) 0xFF, 0, 0, 0});
+            socket.getOutputStream().flush();
+            assertEquals(-1, socket.getInputStream().read());
+        }
+        assertTrue(gm.log.stream().anyMatch(line -> line.contains("Invalid frame length")));
+    }
+
+    @Test
+    void testNegotiatesBinaryFormat() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            socket.getOutputStream().write(PokerCodec.hello(PokerCodec.VERSION));
+            assertEquals(PokerCodec.VERSION, PokerCodec.helloVersion(in.readNBytes(PokerCodec.HELLO_BYTES)));
+            PokerCodec.write(socket.getOutputStream(), Messages.bets(10, 5));
+            PokerInfo deal = PokerCodec.read(in);
+            assertEquals(PokerInfo.MessageType.DEAL, deal.getMessageType());
+            deal.setMessageType(PokerInfo.MessageType.FOLD);
+            PokerCodec.write(socket.getOutputStream(), deal);
+            assertEquals(PokerInfo.MessageType.RESULT, PokerCodec.read(in).getMessageType());
+            PokerCodec.write(socket.getOutputStream(), Messages.message(PokerInfo.MessageType.DISCONNECT));
+            awaitConnections(0);
+        }
+        assertEquals(1, gm.count("disconnected "));
+    }
+
+    @Test
+    void testRefusesLegacyObjectStream() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            new ObjectOutputStream(socket.getOutputStream()).flush(); // Stream header only
+            assertEquals(-1, socket.getInputStream().read());
+        }
+        assertTrue(gm.log.stream().anyMatch(line -> line.contains("needs the thread engine")));
+    }
+}
@@ -0,0 +1,94 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class PackedDeckTest {
+
+    @Test
+    void testDealsEveryCardOnce() {
+        PackedDeck deck = new PackedDeck(new SplittableRandom(1));
+        boolean[] seen = new boolean[PackedDeck.SIZE];
+        for (int i = 0; i < PackedDeck.SIZE; i++) {
+            int card = deck.dealOrdinal();
+            assertFalse(seen[card], "Card dealt twice: " + card);
+            seen[card] = true;
+        }
+        assertEquals(0, deck.remaining());
+        assertEquals(-1, deck.dealOrdinal());
+        assertNull(deck.dealCard());
+    }
+
+    @Test
+    void testResetReturnsAllCards() {
+        PackedDeck deck = new PackedDeck(new SplittableRandom(2));
+        for (int round = 0; round < 100; round++) {
+            deck.reset();
+            assertEquals(PackedDeck.SIZE, deck.remaining());
+            int player = deck.dealPackedHand();
+            int dealer = deck.dealPackedHand();
+            assertEquals(46, deck.remaining());
+            long mask = 0;
+            for (int pos = 0; pos < 3; pos++) {
+                mask |= 1L << PackedHand.card(player, pos);
+                mask |= 1L << PackedHand.card(dealer, pos);
+            }
+            assertEquals(6, Long.bitCount(mask)); // Six distinct cards
+        }
+    }
+
+    @Test
+    void testSameSeedSameDeal() {
+        PackedDeck a = new PackedDeck(new SplittableRandom(342));
+        PackedDeck b = new PackedDeck(new SplittableRandom(342));
+        for (int round = 0; round < 50; round++) {
+            a.reset();
+            b.reset();
+            assertEquals(a.dealPackedHand(), b.dealPackedHand());
+            assertEquals(a.dealPackedHand(), b.dealPackedHand());
+        }
+    }
+
+    @Test
+    void testFirstCardIsUniform() {
+        // Each card should open a round about 1/52 of the time, even after many resets
+        PackedDeck deck = new PackedDeck(new SplittableRandom(7));
+        int rounds = 520_000;
+        int[] counts = new int[PackedDeck.SIZE];
+        for (int i = 0; i < rounds; i++) {
+            deck.reset();
+            counts[deck.dealOrdinal()]++;
+        }
+        double expected = (double) rounds / PackedDeck.SIZE;
+        double chiSquare = 0;
+        for (int c : counts) {
+            chiSquare += (c - expected) * (c - expected) / expected;
+        }
+        assertTrue(chiSquare < 90, "chi-square " + chiSquare); // 51 degrees of freedom, p < 0.001
+    }
+
+    @Test
+    void testNewDeckDealsInOrderUntilShuffled() {
+        Deck deck = new Deck();
+        List<Card> first = deck.dealHand();
+        assertEquals(2, first.get(0).getRank());
+        assertEquals(1, first.get(0).getSuit());
+        assertEquals(4, first.get(2).getRank());
+        deck.shuffle(new SplittableRandom(3));
+        int dealt = 3;
+        while (deck.dealCard() != null) {
+            dealt++;
+        }
+        assertEquals(52, dealt);
+    }
+
+    @Test
+    void testShuffleKeepsTheDecksOwnGenerator() {
+        Deck deck = new Deck(new SplittableRandom(5));
+        deck.shuffle();
+        List<Card> hand = deck.dealHand();
+        Deck same = new Deck(new SplittableRandom(5));
+        same.shuffle(); // Deals from its seeded generator, not a per-thread one
+        assertEquals(hand.toString(), same.dealHand().toString());
+    }
+}
@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Properties;
+
+public class PaytableTest {
+
+    @Test
+    void testStandardPairPlusMatchesOriginalMultipliers() {
+        int[] original = {0, 0, 1, 3, 6, 30, 40};
+        for (int rank = ThreeCardLogic.HIGH_CARD; rank <= ThreeCardLogic.STRAIGHT_FLUSH; rank++) {
+            assertEquals(original[rank] * 10, Paytable.STANDARD_PAIR_PLUS.payout(rank, 10));
+        }
+    }
+
+    @Test
+    void testPairPlusRtpIsExact() {
+        // 44*41 + 52*31 + 660*7 + 1100*4 + 3744*2 = 19,924 returned over 22,100 hands
+        assertEquals(19924.0 / 22100, Paytable.STANDARD_PAIR_PLUS.getRtp(), 1e-12);
+    }
+
+    @Test
+    void testParseDefinition() {
+        Paytable table = Paytable.parse("t", Paytable.Type.ANTE_BONUS, "straight_flush:5, THREE_OF_KIND:4,STRAIGHT:1");
+        assertEquals(5, table.getMultiplier(ThreeCardLogic.STRAIGHT_FLUSH));
+        assertEquals(4, table.getMultiplier(ThreeCardLogic.THREE_OF_KIND));
+        assertEquals(0, table.getMultiplier(ThreeCardLogic.FLUSH));
+        assertThrows(IllegalArgumentException.class, () -> Paytable.parse("t", Paytable.Type.PAIR_PLUS, "QUADS:9"));
+        assertThrows(IllegalArgumentException.class, () -> Paytable.parse("t", Paytable.Type.PAIR_PLUS, "PAIR"));
+    }
+
+    @Test
+    void testAnteBonusRaisesRtp() {
+        Paytable none = Paytable.NO_ANTE_BONUS;
+        Paytable bonus = Paytable.parse("standard", Paytable.Type.ANTE_BONUS, "STRAIGHT_FLUSH:5, THREE_OF_KIND:4, STRAIGHT:1");
+        assertTrue(bonus.getRtp() > none.getRtp());
+        assertTrue(none.getRtp() < 1.0);
+    }
+
+    @Test
+    void testBundledConfiguration() throws Exception {
+        Paytables paytables = Paytables.loadConfigured();
+        assertEquals(Paytable.STANDARD_PAIR_PLUS, paytables.getPairPlus());
+        assertEquals(Paytable.NO_ANTE_BONUS, paytables.getAnteBonus());
+        assertTrue(paytables.getAll().containsKey("antebonus.standard"));
+    }
+
+    @Test
+    void testActiveTableMustExist() {
+        Properties props = new Properties();
+        props.setProperty("pairplus.a", "PAIR:1");
+        props.setProperty("active.pairplus", "b");
+        assertThrows(IllegalArgumentException.class, () -> Paytables.load(props));
+    }
+
+    @Test
+    void testSettleRoundPaysAnteBonusWhenDealerDoesNotQualify() {
+        ArrayList<Card> dealer = new ArrayList<>();
+        dealer.add(Card.of(11,4)); // J high, doesn't qualify
+        dealer.add(Card.of(5,1));
+        dealer.add(Card.of(3,2));
+
+        ArrayList<Card> player = new ArrayList<>();
+        player.add(Card.of(4,1)); // Straight
+        player.add(Card.of(5,2));
+        player.add(Card.of(6,4));
+
+        Paytable bonus = Paytable.parse("standard", Paytable.Type.ANTE_BONUS, "STRAIGHT_FLUSH:5, THREE_OF_KIND:4, STRAIGHT:1");
+        RoundResult result = ThreeCardLogic.settleRound(PackedHand.pack(dealer), PackedHand.pack(player),
+                10, 10, 5, Paytable.STANDARD_PAIR_PLUS, bonus);
+        assertEquals(0, result.getOutcome());
+        assertEquals(10, result.getAnteBonusPayout());
+        assertEquals(30, result.getPairPlusPayout());
+    }
+}
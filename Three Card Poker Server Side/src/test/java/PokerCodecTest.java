@@ -0,0 +1,172 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+public class PokerCodecTest {
+
+    // RESULT message after a played round: A-K-Q offsuit against a pair of nines
+    private static PokerInfo result() {
+        PokerInfo info = new PokerInfo();
+        info.setMessageType(PokerInfo.MessageType.RESULT);
+        info.setAnteBet(5);
+        info.setPairPlusBet(5);
+        info.setPlayBet(5);
+        info.setPackedPlayerHand(PackedHand.pack(12, 24, 36));
+        info.setPackedDealerHand(PackedHand.pack(7, 20, 2));
+        info.setGameResult(-1);
+        info.setDealerQualifies(true);
+        return info;
+    }
+
+    private static PokerInfo roundTrip(PokerInfo info) throws StreamCorruptedException {
+        ByteBuffer frame = PokerCodec.encode(info);
+        int length = PokerCodec.peekLength(frame);
+        assertEquals(frame.remaining() - PokerCodec.HEADER_BYTES, length);
+        frame.position(PokerCodec.HEADER_BYTES);
+        PokerInfo decoded = PokerCodec.decode(frame, length);
+        assertFalse(frame.hasRemaining());
+        return decoded;
+    }
+
+    private static void assertSameMessage(PokerInfo expected, PokerInfo actual) {
+        assertEquals(expected.getMessageType(), actual.getMessageType());
+        assertEquals(expected.getAnteBet(), actual.getAnteBet());
+        assertEquals(expected.getPairPlusBet(), actual.getPairPlusBet());
+        assertEquals(expected.getPlayBet(), actual.getPlayBet());
+        assertEquals(expected.getGameResult(), actual.getGameResult());
+        assertEquals(expected.getPairPlusWinnings(), actual.getPairPlusWinnings());
+        assertEquals(expected.getAnteBonusWinnings(), actual.getAnteBonusWinnings());
+        assertEquals(expected.isDealerQualifies(), actual.isDealerQualifies());
+        assertEquals(expected.getPlayerHand(), actual.getPlayerHand());
+        assertEquals(expected.getDealerHand(), actual.getDealerHand());
+        assertEquals(expected.getInfoMessage(), actual.getInfoMessage());
+        assertEquals(expected.getRoundId(), actual.getRoundId());
+        assertEquals(expected.getSessionToken(), actual.getSessionToken());
+    }
+
+    @Test
+    void testResultRoundTripsInEighteenBytes() throws Exception {
+        PokerInfo info = result();
+        assertEquals(18, PokerCodec.encode(info).remaining());
+        PokerInfo decoded = roundTrip(info);
+        assertSameMessage(info, decoded);
+        assertSame(info.getPlayerHand().get(0), decoded.getPlayerHand().get(0)); // Shared Card instances
+    }
+
+    @Test
+    void testDecisionIsElevenBytes() throws Exception {
+        PokerInfo play = new PokerInfo();
+        play.setMessageType(PokerInfo.MessageType.PLAY);
+        play.setRoundId(42);
+        assertEquals(11, PokerCodec.encode(play).remaining());
+        PokerInfo decoded = roundTrip(play);
+        assertEquals(PokerInfo.MessageType.PLAY, decoded.getMessageType());
+        assertEquals(42, decoded.getRoundId());
+    }
+
+    @Test
+    void testRoundTripsEveryField() throws Exception {
+        PokerInfo info = result();
+        info.setAnteBet(Integer.MAX_VALUE);
+        info.setPairPlusBet(Integer.MIN_VALUE);
+        info.setPlayBet(0);
+        info.setPairPlusWinnings(40 * 250);
+        info.setAnteBonusWinnings(-64);
+        info.setRoundId(Integer.MAX_VALUE);
+        info.setSessionToken(Long.MIN_VALUE); // Sets the flag byte's top bit
+        info.setInfoMessage("Dealer wins ♠");
+        assertSameMessage(info, roundTrip(info));
+
+        PokerInfo empty = new PokerInfo(); // No type, no hands
+        PokerInfo decoded = roundTrip(empty);
+        assertSameMessage(empty, decoded);
+        assertNull(decoded.getPlayerHand());
+    }
+
+    @Test
+    void testStreamsCarryConsecutiveFrames() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PokerCodec.write(bytes, result());
+        PokerInfo bets = new PokerInfo();
+        bets.setMessageType(PokerInfo.MessageType.BETS);
+        bets.setAnteBet(25);
+        PokerCodec.write(bytes, bets);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertSameMessage(result(), PokerCodec.read(in));
+        assertSameMessage(bets, PokerCodec.read(in));
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    void testRejectsMalformedFrames() {
+        byte[] body = PokerCodec.encode(result()).array();
+        int length = PokerCodec.encode(result()).remaining() - PokerCodec.HEADER_BYTES;
+
+        byte[] badCard = body.clone();
+        badCard[length + PokerCodec.HEADER_BYTES - 1] = 52;
+        assertThrows(StreamCorruptedException.class, () -> decode(badCard, length));
+
+        byte[] badType = body.clone();
+        badType[PokerCodec.HEADER_BYTES] = 42;
+        assertThrows(StreamCorruptedException.class, () -> decode(badType, length));
+
+        assertThrows(StreamCorruptedException.class, () -> decode(body, length - 1)); // Truncated
+        assertThrows(StreamCorruptedException.class, () -> decode(body, length + 1)); // Trailing byte
+    }
+
+    private static PokerInfo decode(byte[] frame, int length) throws StreamCorruptedException {
+        ByteBuffer buffer = ByteBuffer.allocate(PokerCodec.HEADER_BYTES + length);
+        buffer.put(frame, 0, Math.min(frame.length, buffer.capacity()));
+        buffer.position(PokerCodec.HEADER_BYTES);
+        return PokerCodec.decode(buffer, length);
+    }
+
+    @Test
+    void testBatchAndSpotsRoundTrip() throws Exception {
+        PokerInfo batch = new PokerInfo();
+        batch.setMessageType(PokerInfo.MessageType.BATCH);
+        batch.setRounds(new ArrayList<>());
+        for (int i = 0; i < GameSession.MAX_BATCH_ROUNDS; i++) {
+            batch.getRounds().add(result());
+        }
+        ByteBuffer frame = PokerCodec.encode(batch);
+        assertTrue(frame.remaining() < 17 * GameSession.MAX_BATCH_ROUNDS); // Fits a frame with room to spare
+        PokerInfo decoded = roundTrip(batch);
+        assertEquals(PokerInfo.MessageType.BATCH, decoded.getMessageType());
+        assertEquals(GameSession.MAX_BATCH_ROUNDS, decoded.getRounds().size());
+        for (PokerInfo round : decoded.getRounds()) {
+            assertSameMessage(result(), round);
+            assertNull(round.getRounds());
+        }
+
+        PokerInfo spots = new PokerInfo();
+        spots.setMessageType(PokerInfo.MessageType.RESULT);
+        spots.setPackedDealerHand(PackedHand.pack(7, 20, 2));
+        spots.setSpots(new ArrayList<>(batch.getRounds().subList(0, GameSession.MAX_SPOTS)));
+        PokerInfo decodedSpots = roundTrip(spots);
+        assertNull(decodedSpots.getRounds());
+        assertEquals(GameSession.MAX_SPOTS, decodedSpots.getSpots().size());
+        assertSameMessage(result(), decodedSpots.getSpots().get(GameSession.MAX_SPOTS - 1));
+
+        PokerInfo nested = result();
+        nested.setRounds(new ArrayList<>());
+        batch.getRounds().set(0, nested);
+        assertThrows(IllegalArgumentException.class, () -> PokerCodec.encode(batch));
+    }
+
+    @Test
+    void testHelloIdentifiesTheFormat() {
+        assertEquals(PokerCodec.VERSION, PokerCodec.helloVersion(PokerCodec.hello(PokerCodec.VERSION)));
+        assertEquals(7, PokerCodec.helloVersion(PokerCodec.hello(7)));
+        byte[] objectStream = {(byte) 0xAC, (byte) 0xED, 0, 5};
+        assertEquals(-1, PokerCodec.helloVersion(objectStream));
+        assertTrue(PokerCodec.isObjectStream(objectStream));
+        assertFalse(PokerCodec.isObjectStream(PokerCodec.hello(1)));
+        assertEquals(-1, PokerCodec.helloVersion(new byte[] {0, 0, 1, 12})); // A serialized frame length
+    }
+}
@@ -0,0 +1,47 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * GameManager for tests that records log lines instead of posting them to the JavaFX UI.
+ */
+public class RecordingGameManager extends GameManager {
+    final List<String> log = Collections.synchronizedList(new ArrayList<>()); // Every line logged
+
+    RecordingGameManager() {
+        super(null);
+    }
+
+    @Override
+    public void logConnection(String clientInfo) {
+        log.add("connected " + clientInfo);
+    }
+
+    @Override
+    public void logDisconnection(String clientInfo) {
+        log.add("disconnected " + clientInfo);
+    }
+
+    @Override
+    public void logResult(String resultInfo) {
+        log.add(resultInfo);
+    }
+
+    // Waits up to 5 seconds for a line to be logged
+    void await(String line) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!log.contains(line) && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        if (!log.contains(line)) {
+            throw new AssertionError("missing log line: " + line);
+        }
+    }
+
+    // Number of lines logged that start with the prefix
+    long count(String prefix) {
+        synchronized (log) {
+            return log.stream().filter(line -> line.startsWith(prefix)).count();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ServerThreadTest {
+
+    private RecordingGameManager gm = new RecordingGameManager();
+    private ServerThread server;
+    private int port;
+
+    // A client speaking the legacy object stream protocol
+    private static final class Client implements AutoCloseable {
+        final Socket socket;
+        final ObjectOutputStream oos;
+        final ObjectInputStream ois;
+
+        Client(int port) throws IOException {
+            socket = new Socket("localhost", port);
+            oos = new ObjectOutputStream(socket.getOutputStream());
+            oos.flush();
+            ois = new ObjectInputStream(socket.getInputStream());
+        }
+
+        PokerInfo send(PokerInfo.MessageType type) throws Exception {
+            PokerInfo info = new PokerInfo();
+            info.setMessageType(type);
+            info.setAnteBet(10);
+            oos.writeObject(info);
+            oos.flush();
+            return type == PokerInfo.MessageType.DISCONNECT ? null : (PokerInfo) ois.readObject();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private void start(boolean virtualThreads, int maxSessions) throws Exception {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort(); // A free port
+        }
+        server = new ServerThread(port, gm, Paytables.DEFAULT, ShuffleSource.threadLocal(), virtualThreads, maxSessions);
+        server.start();
+        gm.await("Server started on port: " + port);
+    }
+
+    private void awaitSessions(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (server.getActiveSessions() != count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, server.getActiveSessions());
+    }
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        server.stopServer();
+        server.join(5_000);
+        assertFalse(server.isAlive());
+    }
+
+    @Test
+    void testSessionLimitRefusesExtraConnections() throws Exception {
+        start(false, 2);
+        try (Client first = new Client(port); Client second = new Client(port)) {
+            assertEquals(PokerInfo.MessageType.DEAL, first.send(PokerInfo.MessageType.BETS).getMessageType());
+            assertEquals(PokerInfo.MessageType.DEAL, second.send(PokerInfo.MessageType.BETS).getMessageType());
+            assertEquals(2, server.getActiveSessions());
+
+            assertThrows(EOFException.class, () -> new Client(port).close()); // Closed before the stream header
+            assertEquals(1, gm.count("Session limit of 2 reached, refusing /"));
+
+            first.send(PokerInfo.MessageType.DISCONNECT);
+            awaitSessions(1);
+            try (Client third = new Client(port)) {
+                assertEquals(PokerInfo.MessageType.DEAL, third.send(PokerInfo.MessageType.BETS).getMessageType());
+            }
+        }
+        awaitSessions(0);
+    }
+
+    @Test
+    void testRunsHandlersOnVirtualThreads() throws Exception {
+        List<Boolean> virtual = Collections.synchronizedList(new ArrayList<>());
+        gm = new RecordingGameManager() {
+            @Override
+            public void logConnection(String clientInfo) {
+                virtual.add(Thread.currentThread().isVirtual()); // Called on the handler's thread
+                super.logConnection(clientInfo);
+            }
+        };
+        start(true, 0);
+        assertTrue(server.isVirtualThreads());
+        try (Client client = new Client(port)) {
+            assertEquals(PokerInfo.MessageType.DEAL, client.send(PokerInfo.MessageType.BETS).getMessageType());
+            PokerInfo result = client.send(PokerInfo.MessageType.FOLD);
+            assertEquals(PokerInfo.MessageType.RESULT, result.getMessageType());
+            assertEquals(-1, result.getGameResult());
+        }
+        awaitSessions(0);
+        assertEquals(1, gm.count("Client /"));
+        assertEquals(List.of(true), virtual);
+    }
+
+    @Test
+    void testNegotiatesBinaryFormat() throws Exception {
+        start(false, 0);
+        try (Socket socket = new Socket("localhost", port)) {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            socket.getOutputStream().write(PokerCodec.hello(PokerCodec.VERSION + 1)); // A newer client
+            assertEquals(PokerCodec.VERSION, PokerCodec.helloVersion(in.readNBytes(PokerCodec.HELLO_BYTES)));
+
+            PokerInfo bets = new PokerInfo();
+            bets.setMessageType(PokerInfo.MessageType.BETS);
+            bets.setAnteBet(10);
+            PokerCodec.write(socket.getOutputStream(), bets);
+            PokerInfo deal = PokerCodec.read(in);
+            assertEquals(PokerInfo.MessageType.DEAL, deal.getMessageType());
+            assertEquals(3, deal.getPlayerHand().size());
+
+            deal.setMessageType(PokerInfo.MessageType.FOLD);
+            PokerCodec.write(socket.getOutputStream(), deal);
+            assertEquals(-1, PokerCodec.read(in).getGameResult());
+        }
+        awaitSessions(0);
+        assertEquals(1, gm.count("Client /"));
+    }
+
+    @Test
+    void testPlaysMultiSpotRound() throws Exception {
+        start(false, 0);
+        try (Client client = new Client(port)) {
+            PokerInfo bets = new PokerInfo();
+            bets.setMessageType(PokerInfo.MessageType.BETS);
+            bets.setSpots(new ArrayList<>());
+            for (int i = 0; i < GameSession.MAX_SPOTS; i++) {
+                PokerInfo spot = new PokerInfo();
+                spot.setAnteBet(5 + i);
+                spot.setPairPlusBet(5);
+                bets.getSpots().add(spot);
+            }
+            client.oos.writeObject(bets);
+            client.oos.flush();
+            PokerInfo deal = (PokerInfo) client.ois.readObject();
+            assertEquals(PokerInfo.MessageType.DEAL, deal.getMessageType());
+            assertEquals(GameSession.MAX_SPOTS, deal.getSpots().size());
+            assertNull(deal.getDealerHand()); // Revealed with the RESULT
+
+            deal.setMessageType(PokerInfo.MessageType.PLAY);
+            for (int i = 0; i < deal.getSpots().size(); i++) {
+                PokerInfo spot = deal.getSpots().get(i);
+                spot.setMessageType(i % 2 == 0 ? PokerInfo.MessageType.PLAY : PokerInfo.MessageType.FOLD);
+                spot.setPlayBet(i % 2 == 0 ? spot.getAnteBet() : 0);
+            }
+            client.oos.writeObject(deal);
+            client.oos.flush();
+            PokerInfo result = (PokerInfo) client.ois.readObject();
+            assertEquals(PokerInfo.MessageType.RESULT, result.getMessageType());
+            ArrayList<Card> cards = new ArrayList<>(result.getDealerHand()); // Every hand comes from the same deck
+            for (PokerInfo spot : deal.getSpots()) {
+                cards.addAll(spot.getPlayerHand());
+            }
+            assertEquals(3 * (GameSession.MAX_SPOTS + 1), cards.stream().distinct().count());
+            for (int i = 0; i < result.getSpots().size(); i++) {
+                PokerInfo spot = result.getSpots().get(i);
+                assertEquals(PokerInfo.MessageType.RESULT, spot.getMessageType());
+                if (i % 2 == 0) {
+                    RoundResult expected = ThreeCardLogic.settleRound(result.getPackedDealerHand(),
+                            spot.getPackedPlayerHand(), 5 + i, 5 + i, 5);
+                    assertEquals(expected.getOutcome(), spot.getGameResult());
+                    assertEquals(expected.getPairPlusPayout(), spot.getPairPlusWinnings());
+                    assertEquals(expected.isDealerQualifies(), result.isDealerQualifies());
+                } else {
+                    assertEquals(-1, spot.getGameResult());
+                }
+            }
+
+            bets.getSpots().add(new PokerInfo()); // One spot too many: logged, no reply
+            client.oos.reset();
+            client.oos.writeObject(bets);
+            assertEquals(PokerInfo.MessageType.DEAL, client.send(PokerInfo.MessageType.BETS).getMessageType());
+        }
+        awaitSessions(0);
+        assertEquals(GameSession.MAX_SPOTS, gm.count("Client /")); // One line per spot
+        assertEquals(1, gm.log.stream().filter(line -> line.contains(" spot 1: ")).count());
+        assertEquals(1, gm.count("BETS with " + (GameSession.MAX_SPOTS + 1) + " spots"));
+    }
+
+    @Test
+    void testResumesSessionAfterDroppedConnection() throws Exception {
+        start(false, 0);
+        PokerInfo deal;
+        long token;
+        try (Socket socket = new Socket("localhost", port)) {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            socket.getOutputStream().write(PokerCodec.hello(PokerCodec.VERSION));
+            in.readNBytes(PokerCodec.HELLO_BYTES);
+            PokerInfo connect = new PokerInfo();
+            connect.setMessageType(PokerInfo.MessageType.CONNECT);
+            PokerCodec.write(socket.getOutputStream(), connect);
+            token = PokerCodec.read(in).getSessionToken();
+            PokerInfo bets = new PokerInfo();
+            bets.setMessageType(PokerInfo.MessageType.BETS);
+            bets.setAnteBet(10);
+            PokerCodec.write(socket.getOutputStream(), bets);
+            deal = PokerCodec.read(in);
+            PokerInfo play = new PokerInfo();
+            play.setMessageType(PokerInfo.MessageType.PLAY);
+            play.setRoundId(deal.getRoundId());
+            PokerCodec.write(socket.getOutputStream(), play);
+        } // Dropped before the RESULT was read
+        awaitSessions(0);
+
+        try (Client client = new Client(port)) { // Resumes over the other format
+            PokerInfo resume = new PokerInfo();
+            resume.setMessageType(PokerInfo.MessageType.CONNECT);
+            resume.setSessionToken(token);
+            resume.setRoundId(deal.getRoundId());
+            client.oos.writeObject(resume);
+            client.oos.flush();
+            PokerInfo result = (PokerInfo) client.ois.readObject(); // The RESULT that was lost
+            assertEquals(PokerInfo.MessageType.RESULT, result.getMessageType());
+            assertEquals(deal.getRoundId(), result.getRoundId());
+            assertEquals(deal.getPlayerHand(), result.getPlayerHand());
+            assertEquals(PokerInfo.MessageType.DEAL, client.send(PokerInfo.MessageType.BETS).getMessageType());
+        }
+        awaitSessions(0);
+        assertEquals(1, server.getSessionStore().size()); // Still resumable
+        assertEquals(2, gm.count("Client /")); // The play and the resume
+    }
+
+    @Test
+    void testStopClosesConnectionsAndKeepsTheirSessions() throws Exception {
+        start(true, 0);
+        try (Client client = new Client(port)) {
+            assertEquals(PokerInfo.MessageType.CONNECT, client.send(PokerInfo.MessageType.CONNECT).getMessageType());
+            assertEquals(PokerInfo.MessageType.DEAL, client.send(PokerInfo.MessageType.BETS).getMessageType());
+            server.stopServer();
+            server.join(5_000);
+            assertFalse(server.isAlive()); // Ends only once its handlers have
+            assertEquals(0, server.getActiveSessions());
+            assertThrows(IOException.class, client.ois::readObject); // Closed by the server
+        }
+        assertEquals(1, server.getSessionStore().size()); // Detached, for the snapshot and a resume
+        assertEquals(GameSession.State.AWAITING_DECISION, server.getSessionStore().sessions().get(0).getState());
+        assertEquals(0, gm.count("Exception in client handler"));
+    }
+}
@@ -0,0 +1,176 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+
+public class SessionStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private final RecordingGameManager gm = new RecordingGameManager();
+
+    private GameSession session(String clientName) {
+        return new GameSession(gm, clientName, Paytables.DEFAULT, ShuffleSource.seeded(7L));
+    }
+
+    @Test
+    void testResumesTheInFlightRound() {
+        SessionStore store = new SessionStore(10, 60_000);
+        Object first = new Object();
+        GameSession session = session("first");
+        assertSame(session, store.connect(Messages.connect(0, 0), session, first));
+        PokerInfo issued = session.connected(Messages.connect(0, 0));
+        assertEquals(PokerInfo.MessageType.CONNECT, issued.getMessageType());
+        assertNotEquals(0, issued.getSessionToken());
+        assertEquals(issued.getSessionToken(), session.getSessionToken());
+        PokerInfo deal = session.handle(Messages.bets(10, 0));
+        store.detach(session, first); // Socket dropped
+
+        Object second = new Object();
+        PokerInfo resume = Messages.connect(issued.getSessionToken(), 0);
+        GameSession resumed = store.connect(resume, session("second"), second);
+        assertSame(session, resumed);
+        assertEquals("second", resumed.getClientName());
+        assertEquals(1, gm.count("Client second resumed the session of first with round 1 in flight"));
+
+        PokerInfo reply = resumed.connected(resume); // One frame: the round as dealt
+        assertEquals(PokerInfo.MessageType.DEAL, reply.getMessageType());
+        assertEquals(deal.getRoundId(), reply.getRoundId());
+        assertEquals(deal.getPackedPlayerHand(), reply.getPackedPlayerHand());
+        assertNull(reply.getDealerHand()); // Still hidden
+        assertEquals(issued.getSessionToken(), reply.getSessionToken());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testResendsResultSettledAfterTheDrop() {
+        SessionStore store = new SessionStore(10, 60_000);
+        Object first = new Object();
+        GameSession session = session("first");
+        store.connect(Messages.connect(0, 0), session, first);
+        PokerInfo deal = session.handle(Messages.bets(10, 0));
+        PokerInfo fold = new PokerInfo();
+        fold.setMessageType(PokerInfo.MessageType.FOLD);
+        PokerInfo result = session.handle(fold); // Lost with the connection
+        store.detach(session, first);
+
+        PokerInfo resume = Messages.connect(session.getSessionToken(), 0);
+        resume.setRoundId(deal.getRoundId()); // The last round the client saw dealt
+        assertSame(result, store.connect(resume, session("second"), new Object()).connected(resume));
+
+        resume.setRoundId(0); // The client saw the RESULT
+        assertEquals(PokerInfo.MessageType.CONNECT, session.connected(resume).getMessageType());
+    }
+
+    @Test
+    void testTakeOverStopsTheOldConnection() {
+        SessionStore store = new SessionStore(10, 60_000);
+        Object first = new Object();
+        GameSession session = session("first");
+        store.connect(Messages.connect(0, 0), session, first);
+        assertTrue(store.touch(session, first));
+
+        Object second = new Object();
+        // First never noticed the drop
+        store.connect(Messages.connect(session.getSessionToken(), 0), session("second"), second);
+        assertFalse(store.touch(session, first));
+        assertTrue(store.touch(session, second));
+        store.detach(session, first); // Late detach of the old connection is ignored
+        store.remove(session, first);
+        assertEquals(1, store.size());
+
+        store.remove(session, second); // DISCONNECT
+        assertEquals(0, store.size());
+        GameSession fresh = session("third");
+        assertSame(fresh, store.connect(Messages.connect(session.getSessionToken(), 0), fresh, new Object()));
+        assertNotEquals(session.getSessionToken(), fresh.getSessionToken()); // Unknown token, new session
+    }
+
+    @Test
+    void testEvictsIdleAndLeastRecentlyUsedSessions() throws Exception {
+        SessionStore store = new SessionStore(3, 50);
+        Object[] owners = new Object[4];
+        GameSession[] sessions = new GameSession[4];
+        for (int i = 0; i < 3; i++) {
+            owners[i] = new Object();
+            sessions[i] = session("client" + i);
+            store.connect(Messages.connect(0, 0), sessions[i], owners[i]);
+        }
+        store.detach(sessions[1], owners[1]);
+        owners[3] = new Object();
+        sessions[3] = session("client3");
+        store.connect(Messages.connect(0, 0), sessions[3], owners[3]); // Full: the detached session goes first
+        assertEquals(3, store.size());
+        PokerInfo evicted = Messages.connect(sessions[1].getSessionToken(), 0);
+        assertSame(sessions[3], store.connect(evicted, sessions[3], owners[3]));
+
+        store.detach(sessions[0], owners[0]);
+        store.sweep();
+        assertEquals(3, store.size()); // Not idle long enough
+        Thread.sleep(100);
+        store.sweep();
+        assertEquals(2, store.size()); // Attached sessions never idle out
+        assertTrue(store.touch(sessions[2], owners[2]));
+
+        assertThrows(IllegalArgumentException.class, () -> new SessionStore(0, 50));
+        assertThrows(IllegalArgumentException.class, () -> new SessionStore(3, 0));
+    }
+
+    @Test
+    void testEvictsTheLeastRecentlyResumedAttachedSession() {
+        SessionStore store = new SessionStore(3, 60_000);
+        GameSession[] sessions = new GameSession[3];
+        for (int i = 0; i < 3; i++) {
+            sessions[i] = session("client" + i);
+            store.connect(Messages.connect(0, 0), sessions[i], new Object());
+        }
+        Object again = new Object();
+        store.connect(Messages.connect(sessions[0].getSessionToken(), 0), session("again"), again); // Moves to the back
+
+        store.connect(Messages.connect(0, 0), session("client3"), new Object());
+        assertEquals(3, store.size());
+        GameSession fresh = session("fresh");
+        PokerInfo evicted = Messages.connect(sessions[1].getSessionToken(), 0);
+        assertSame(fresh, store.connect(evicted, fresh, new Object()));
+        assertTrue(store.touch(sessions[0], again)); // Still held
+    }
+
+    @Test
+    void testRetiresTheAccountsOfSessionsItDrops() throws Exception {
+        try (Ledger ledger = new Ledger(dir, 1L << 30)) {
+            SessionStore store = new SessionStore(2, 50);
+            Object[] owners = new Object[4];
+            GameSession[] sessions = new GameSession[4];
+            for (int i = 0; i < 4; i++) {
+                owners[i] = new Object();
+                sessions[i] = new GameSession(gm, "client" + i, Paytables.DEFAULT, ShuffleSource.seeded(i), ledger);
+                sessions[i].handle(Messages.bets(10, 0));
+                sessions[i].handle(Messages.message(PokerInfo.MessageType.FOLD)); // Opens the account at -$10
+            }
+            store.connect(Messages.connect(0, 0), sessions[0], owners[0]);
+            store.connect(Messages.connect(0, 0), sessions[1], owners[1]);
+            store.remove(sessions[0], owners[0]); // DISCONNECT
+            assertEquals(1, gm.count("Closed the account of client0 at $-10"));
+            assertEquals(0, ledger.lastSeq(sessions[0].getSessionToken()));
+
+            store.connect(Messages.connect(0, 0), sessions[2], owners[2]);
+            store.connect(Messages.connect(0, 0), sessions[3], owners[3]); // Evicts client1, still attached
+            assertEquals(3, ledger.accounts()); // Its connection keeps playing
+            store.detach(sessions[1], owners[1]);
+            assertEquals(1, gm.count("Closed the account of client1 at $-10"));
+
+            Object taker = new Object();
+            store.connect(Messages.connect(sessions[2].getSessionToken(), 0), session("client2"), taker);
+            store.detach(sessions[2], owners[2]); // Taken over, not dropped
+            store.remove(sessions[2], owners[2]);
+            store.detach(sessions[2], taker);
+            assertEquals(0, gm.count("Closed the account of client2"));
+            Thread.sleep(100);
+            store.sweep(); // Idled out
+            assertEquals(1, gm.count("Closed the account of client2 at $-10"));
+            assertEquals(1, ledger.accounts());
+            assertEquals(-10, ledger.balance(sessions[3].getSessionToken()));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Micro benchmark comparing the per-round cost of settling a round with
+ * three separate ThreeCardLogic calls against the single-pass settleRound.
+ * Run with: java -cp target/classes:target/test-classes SettleRoundBenchmark
+ */
+public class SettleRoundBenchmark {
+
+    private static final int HANDS = 4096;       // Distinct rounds cycled through
+    private static final int ROUNDS = 20_000_000; // Rounds timed per measurement
+    private static final int PASSES = 5;          // Measurements per variant
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        ArrayList<ArrayList<Card>> dealers = new ArrayList<>();
+        ArrayList<ArrayList<Card>> players = new ArrayList<>();
+        int[] packedDealers = new int[HANDS];
+        int[] packedPlayers = new int[HANDS];
+        for (int i = 0; i < HANDS; i++) {
+            Deck deck = new Deck();
+            deck.shuffle();
+            players.add(new ArrayList<>(deck.dealHand()));
+            dealers.add(new ArrayList<>(deck.dealHand()));
+            packedPlayers[i] = PackedHand.pack(players.get(i));
+            packedDealers[i] = PackedHand.pack(dealers.get(i));
+        }
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            long sink = 0;
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                ArrayList<Card> dealer = dealers.get(i & (HANDS - 1));
+                ArrayList<Card> player = players.get(i & (HANDS - 1));
+                boolean dq = ThreeCardLogic.dealerQualifies(dealer);
+                int res = dq ? ThreeCardLogic.compareHands(dealer, player) : 0;
+                sink += res + ThreeCardLogic.evalPPWinnings(player, 5);
+            }
+            long separate = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                RoundResult r = ThreeCardLogic.settleRound(dealers.get(i & (HANDS - 1)),
+                        players.get(i & (HANDS - 1)), 5, 5, 5);
+                sink += r.getOutcome() + r.getPairPlusPayout();
+            }
+            long fusedList = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                RoundResult r = ThreeCardLogic.settleRound(packedDealers[i & (HANDS - 1)],
+                        packedPlayers[i & (HANDS - 1)], 5, 5, 5);
+                sink += r.getOutcome() + r.getPairPlusPayout();
+            }
+            long fusedPacked = System.nanoTime() - start;
+
+            System.out.printf("pass %d: separate calls %.1f ns/round, settleRound(lists) %.1f ns/round,"
+                            + " settleRound(packed) %.1f ns/round (sink %d)%n", pass,
+                    (double) separate / ROUNDS, (double) fusedList / ROUNDS, (double) fusedPacked / ROUNDS, sink);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.SplittableRandom;
+
+public class ShoeTest {
+
+    @Test
+    void testShoeHoldsEveryCardOncePerDeck() {
+        Shoe shoe = new Shoe(6, 1.0, new SplittableRandom(1));
+        assertEquals(312, shoe.getSize());
+        int[] counts = new int[PackedDeck.SIZE];
+        shoe.newRound();
+        for (int i = 0; i < shoe.getSize(); i++) {
+            counts[shoe.dealOrdinal()]++;
+        }
+        for (int c : counts) {
+            assertEquals(6, c);
+        }
+        assertEquals(0, shoe.remaining());
+    }
+
+    @Test
+    void testReshufflesAfterCutCard() {
+        Shoe shoe = new Shoe(2, 0.5, new SplittableRandom(2));
+        assertEquals(52, shoe.getCutCard());
+        int rounds = 0;
+        do {
+            shoe.newRound();
+            shoe.dealPackedHand();
+            shoe.dealPackedHand();
+            rounds++;
+        } while (shoe.getShuffles() == 0);
+        assertEquals(10, rounds); // 9 rounds reach 54 cards; the 10th starts from a fresh shoe
+        assertEquals(104 - 6, shoe.remaining());
+    }
+
+    @Test
+    void testContinuousShufflerReturnsCardsEveryRound() {
+        Shoe shoe = Shoe.continuous(4, new SplittableRandom(3));
+        for (int round = 0; round < 100; round++) {
+            shoe.newRound();
+            assertEquals(shoe.getSize(), shoe.remaining());
+            shoe.dealPackedHand();
+            shoe.dealPackedHand();
+        }
+        assertEquals(100, shoe.getShuffles());
+    }
+
+    @Test
+    void testRunningOutMidRoundReshufflesDiscards() {
+        // A single deck dealt to the end runs out in the middle of the ninth round
+        Shoe shoe = new Shoe(1, 1.0, new SplittableRandom(4));
+        for (int round = 0; round < 100; round++) {
+            shoe.newRound();
+            long mask = 0;
+            for (int i = 0; i < 6; i++) {
+                mask |= 1L << shoe.dealOrdinal();
+            }
+            assertEquals(6, Long.bitCount(mask), "Card dealt twice in round " + round);
+        }
+        assertTrue(shoe.getShuffles() > 0);
+    }
+
+    @Test
+    void testSeededShoesReplay() {
+        ShuffleSource source = ShuffleSource.seeded(342);
+        source.setShoe(6, 0.75, false);
+        Shoe shoe = source.newShoe();
+        Shoe replay = source.replayShoe(shoe.getSeed());
+        for (int round = 0; round < 200; round++) {
+            shoe.newRound();
+            replay.newRound();
+            assertEquals(shoe.dealPackedHand(), replay.dealPackedHand());
+            assertEquals(shoe.dealPackedHand(), replay.dealPackedHand());
+        }
+        assertNotEquals(shoe.getSeed(), source.newShoe().getSeed()); // Each table gets its own shoe
+        ShuffleSource fresh = ShuffleSource.threadLocal();
+        assertNull(fresh.newShoe());
+    }
+
+    @Test
+    void testInvalidShoes() {
+        assertThrows(IllegalArgumentException.class, () -> new Shoe(0, 0.75, null));
+        assertThrows(IllegalArgumentException.class, () -> new Shoe(6, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> new Shoe(6, 1.5, null));
+    }
+}
@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ShuffleServiceTest {
+
+    // Deals the whole deck and checks it is a permutation of all 52 cards
+    private static void assertFullDeck(PackedDeck deck) {
+        long mask = 0;
+        for (int i = 0; i < PackedDeck.SIZE; i++) {
+            mask |= 1L << deck.dealOrdinal();
+        }
+        assertEquals(PackedDeck.SIZE, Long.bitCount(mask));
+    }
+
+    // Waits until the producers have filled the ring
+    private static void awaitFull(ShuffleService service) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (service.getDepth() < service.getCapacity() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(service.getCapacity(), service.getDepth());
+    }
+
+    @Test
+    void testClaimsPreshuffledDecks() throws InterruptedException {
+        AtomicLong seeds = new AtomicLong();
+        try (ShuffleService service = new ShuffleService(16, 1, () -> new SplittableRandom(seeds.incrementAndGet()))) {
+            service.start();
+            awaitFull(service);
+            PackedDeck deck = new PackedDeck();
+            for (int i = 0; i < 16; i++) {
+                assertTrue(service.tryClaim(deck));
+                assertFullDeck(deck);
+            }
+            assertEquals(16, service.getClaimed());
+            assertEquals(0, service.getStarvations());
+        }
+    }
+
+    @Test
+    void testStarvedClaimShufflesInline() {
+        // Never started, so the ring stays empty
+        ShuffleService service = new ShuffleService(4, 1, () -> new SplittableRandom(1));
+        PackedDeck deck = new PackedDeck();
+        assertFalse(service.tryClaim(deck));
+        service.claim(deck);
+        assertFullDeck(deck);
+        assertEquals(1, service.getStarvations());
+        assertEquals(0, service.getDepth());
+    }
+
+    @Test
+    void testProducersBackOffWhenFull() throws InterruptedException {
+        try (ShuffleService service = new ShuffleService(5, 2, () -> new SplittableRandom())) {
+            assertEquals(8, service.getCapacity()); // Rounded up to a power of two
+            service.start();
+            awaitFull(service);
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (service.getBackoffs() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue(service.getBackoffs() > 0);
+            assertEquals(8, service.getProduced()); // Nothing made beyond capacity
+        }
+    }
+
+    @Test
+    void testConcurrentClaimersGetWholePermutations() throws InterruptedException {
+        try (ShuffleService service = new ShuffleService(64, 2, () -> new SplittableRandom())) {
+            service.start();
+            Thread[] claimers = new Thread[4];
+            AtomicLong failures = new AtomicLong();
+            for (int t = 0; t < claimers.length; t++) {
+                claimers[t] = new Thread(() -> {
+                    PackedDeck deck = new PackedDeck();
+                    for (int i = 0; i < 5_000; i++) {
+                        service.claim(deck);
+                        long mask = 0;
+                        for (int c = 0; c < PackedDeck.SIZE; c++) {
+                            mask |= 1L << deck.dealOrdinal();
+                        }
+                        if (Long.bitCount(mask) != PackedDeck.SIZE) {
+                            failures.incrementAndGet(); // Torn or duplicated permutation
+                        }
+                    }
+                });
+                claimers[t].start();
+            }
+            for (Thread t : claimers) {
+                t.join();
+            }
+            assertEquals(0, failures.get());
+            assertEquals(20_000, service.getClaimed() + service.getStarvations());
+        }
+    }
+
+    @Test
+    void testSecureSourceUsesService() {
+        try (ShuffleSource source = ShuffleSource.secure(8, 1)) {
+            assertNotNull(source.getService());
+            PackedDeck deck = new PackedDeck();
+            for (int i = 0; i < 20; i++) {
+                assertEquals(0, source.newRound(deck));
+                assertFullDeck(deck);
+            }
+            ShuffleService service = source.getService();
+            assertEquals(20, service.getClaimed() + service.getStarvations());
+        }
+        assertNull(ShuffleSource.secure(0, 1).getService());
+    }
+}
@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class ShuffleSourceTest {
+
+    @Test
+    void testRecordedSeedReplaysRound() {
+        ShuffleSource source = ShuffleSource.threadLocal();
+        PackedDeck deck = new PackedDeck();
+        for (int round = 0; round < 20; round++) {
+            long seed = source.newRound(deck);
+            int player = deck.dealPackedHand();
+            int dealer = deck.dealPackedHand();
+            PackedDeck replay = ShuffleSource.replay(seed);
+            assertEquals(player, replay.dealPackedHand());
+            assertEquals(dealer, replay.dealPackedHand());
+        }
+        assertEquals(20, source.getRoundsStarted());
+    }
+
+    @Test
+    void testSeededSourcesDealSameSession() {
+        ShuffleSource a = ShuffleSource.seeded(342);
+        ShuffleSource b = ShuffleSource.seeded(342);
+        PackedDeck deckA = new PackedDeck();
+        PackedDeck deckB = new PackedDeck();
+        for (int round = 0; round < 20; round++) {
+            assertEquals(a.newRound(deckA), b.newRound(deckB));
+            assertEquals(deckA.dealPackedHand(), deckB.dealPackedHand());
+            assertEquals(deckA.dealPackedHand(), deckB.dealPackedHand());
+        }
+        assertNotEquals(a.newRound(deckA), ShuffleSource.seeded(343).newRound(deckB));
+    }
+
+    @Test
+    void testSecureSourceIsNotReplayable() {
+        ShuffleSource source = ShuffleSource.secure();
+        assertFalse(source.isReplayable());
+        PackedDeck deck = new PackedDeck();
+        assertEquals(0, source.newRound(deck));
+        long mask = 0;
+        for (int i = 0; i < PackedDeck.SIZE; i++) {
+            mask |= 1L << deck.dealOrdinal();
+        }
+        assertEquals(PackedDeck.SIZE, Long.bitCount(mask));
+    }
+
+    @Test
+    void testSeedFormatRoundTrip() {
+        for (long seed : new long[] {0, 1, -1, Long.MIN_VALUE, 0x9E3779B97F4A7C15L}) {
+            assertEquals(seed, ShuffleSource.parseSeed(ShuffleSource.formatSeed(seed)));
+        }
+        assertEquals(342, ShuffleSource.parseSeed(" 342 "));
+    }
+
+    @Test
+    void testConfiguredFromSystemProperties() {
+        try {
+            System.setProperty(ShuffleSource.MODE_PROPERTY, "seeded");
+            System.setProperty(ShuffleSource.SEED_PROPERTY, "0x2a");
+            ShuffleSource source = ShuffleSource.configured();
+            assertEquals(ShuffleSource.Mode.SEEDED, source.getMode());
+            assertEquals(42, source.getRootSeed());
+
+            System.setProperty(ShuffleSource.MODE_PROPERTY, "shuffled");
+            assertThrows(IllegalArgumentException.class, ShuffleSource::configured);
+
+            System.clearProperty(ShuffleSource.MODE_PROPERTY);
+            assertEquals(ShuffleSource.Mode.THREAD_LOCAL, ShuffleSource.configured().getMode());
+        } finally {
+            System.clearProperty(ShuffleSource.MODE_PROPERTY);
+            System.clearProperty(ShuffleSource.SEED_PROPERTY);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+public class StateSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private final RecordingGameManager gm = new RecordingGameManager();
+
+    private static PokerInfo spots() {
+        PokerInfo info = Messages.message(PokerInfo.MessageType.BETS);
+        info.setSpots(new ArrayList<>());
+        for (int i = 0; i < GameSession.MAX_SPOTS; i++) {
+            info.getSpots().add(Messages.bets(5 + i, 5));
+        }
+        return info;
+    }
+
+    private static byte[] bytes(PokerInfo info) {
+        return PokerCodec.encode(info).array();
+    }
+
+    @Test
+    void testRestoresRoundsInFlightAndLastResults() throws Exception {
+        ShuffleSource source = ShuffleSource.seeded(3L);
+        SessionStore store = new SessionStore(10, 60_000);
+        GameSession single = new GameSession(gm, "single", Paytables.DEFAULT, source);
+        GameSession multi = new GameSession(gm, "multi", Paytables.DEFAULT, source);
+        GameSession settled = new GameSession(gm, "settled", Paytables.DEFAULT, source);
+        for (GameSession session : new GameSession[] {single, multi, settled}) {
+            store.connect(Messages.connect(0, 0), session, new Object());
+        }
+        single.handle(Messages.bets(10, 5));
+        multi.handle(spots());
+        PokerInfo dealt = settled.handle(Messages.bets(20, 5));
+        settled.handle(Messages.message(PokerInfo.MessageType.FOLD));
+        Path file = dir.resolve("state.snapshot");
+        long size = StateSnapshot.write(file, store, source);
+        assertEquals(size, Files.size(file));
+
+        ShuffleSource restartedSource = ShuffleSource.seeded(3L);
+        SessionStore restarted = new SessionStore(10, 60_000);
+        assertEquals(3, StateSnapshot.restore(file, restarted, gm, Paytables.DEFAULT, restartedSource, null));
+        assertEquals(3, restarted.size());
+        assertEquals(source.getRoundsStarted(), restartedSource.getRoundsStarted());
+
+        for (GameSession session : new GameSession[] {single, multi, settled}) {
+            PokerInfo resume = Messages.connect(session.getSessionToken(), dealt.getRoundId());
+            GameSession resumed = restarted.connect(resume, new GameSession(gm, "again", Paytables.DEFAULT,
+                    restartedSource), new Object());
+            assertNotSame(session, resumed);
+            assertEquals(session.getSessionToken(), resumed.getSessionToken());
+            assertEquals(session.getState(), resumed.getState());
+            assertArrayEquals(bytes(session.connected(resume)), bytes(resumed.connected(resume))); // Same DEAL or RESULT
+        }
+
+        // The restored round settles as the original would have
+        GameSession resumed = restarted.connect(Messages.connect(single.getSessionToken(), 0), single, new Object());
+        PokerInfo play = Messages.message(PokerInfo.MessageType.PLAY);
+        play.setRoundId(1);
+        play.setPlayBet(10);
+        assertArrayEquals(bytes(single.handle(play)), bytes(resumed.handle(play)));
+        assertEquals(GameSession.State.AWAITING_BETS, resumed.getState());
+    }
+
+    @Test
+    void testDropsRoundsTheLedgerSettledAfterTheSnapshot() throws Exception {
+        ShuffleSource source = ShuffleSource.seeded(4L);
+        SessionStore store = new SessionStore(10, 60_000);
+        Path file = dir.resolve("state.snapshot");
+        long settledToken;
+        long pendingToken;
+        try (Ledger ledger = new Ledger(dir.resolve("ledger"), 1L << 30)) {
+            GameSession settled = new GameSession(gm, "settled", Paytables.DEFAULT, source, ledger);
+            GameSession pending = new GameSession(gm, "pending", Paytables.DEFAULT, source, ledger);
+            store.connect(Messages.connect(0, 0), settled, new Object());
+            store.connect(Messages.connect(0, 0), pending, new Object());
+            settled.handle(Messages.bets(10, 5));
+            settled.handle(Messages.message(PokerInfo.MessageType.FOLD));
+            settled.handle(Messages.bets(10, 5));
+            pending.handle(Messages.bets(10, 5));
+            StateSnapshot.write(file, store, source); // Taken while both rounds wait for a decision
+
+            settled.handle(Messages.message(PokerInfo.MessageType.FOLD)); // Then the server goes down
+            settled.awaitDurable();
+            settledToken = settled.getSessionToken();
+            pendingToken = pending.getSessionToken();
+        }
+
+        try (Ledger ledger = new Ledger(dir.resolve("ledger"), 1L << 30)) {
+            SessionStore restarted = new SessionStore(10, 60_000);
+            assertEquals(2, StateSnapshot.restore(file, restarted, gm, Paytables.DEFAULT, ShuffleSource.seeded(4L),
+                    ledger));
+            GameSession settled = restarted.connect(Messages.connect(settledToken, 2), new GameSession(gm, "again",
+                    Paytables.DEFAULT, source, ledger), new Object());
+            assertEquals(GameSession.State.AWAITING_BETS, settled.getState()); // Not settled a second time
+            assertEquals(1, gm.count("Dropped round 2 of settled, settled after the state snapshot"));
+            assertEquals(-30, ledger.balance(settledToken)); // Two folds of $10 ante and $5 Pair Plus
+            GameSession pending = restarted.connect(Messages.connect(pendingToken, 1), new GameSession(gm, "again",
+                    Paytables.DEFAULT, source, ledger), new Object());
+            assertEquals(GameSession.State.AWAITING_DECISION, pending.getState()); // Still the player's to decide
+        }
+    }
+
+    @Test
+    void testSkipsSessionsRetiredAfterTheSnapshot() throws Exception {
+        ShuffleSource source = ShuffleSource.seeded(6L);
+        SessionStore store = new SessionStore(10, 60_000);
+        Path file = dir.resolve("state.snapshot");
+        try (Ledger ledger = new Ledger(dir.resolve("ledger"), 1L << 30)) {
+            GameSession left = new GameSession(gm, "left", Paytables.DEFAULT, source, ledger);
+            GameSession idle = new GameSession(gm, "idle", Paytables.DEFAULT, source, ledger);
+            Object owner = new Object();
+            store.connect(Messages.connect(0, 0), left, owner);
+            store.connect(Messages.connect(0, 0), idle, new Object());
+            left.handle(Messages.bets(10, 0));
+            left.handle(Messages.message(PokerInfo.MessageType.FOLD));
+            StateSnapshot.write(file, store, source);
+            store.remove(left, owner); // DISCONNECT before the server goes down
+        }
+
+        try (Ledger ledger = new Ledger(dir.resolve("ledger"), 1L << 30)) {
+            SessionStore restarted = new SessionStore(10, 60_000);
+            // Only the session that never settled, which has no account to close
+            assertEquals(1, StateSnapshot.restore(file, restarted, gm, Paytables.DEFAULT, ShuffleSource.seeded(6L),
+                    ledger));
+            assertEquals(0, ledger.accounts());
+        }
+    }
+
+    @Test
+    void testRejectsCorruptSnapshots() throws Exception {
+        ShuffleSource source = ShuffleSource.seeded(5L);
+        SessionStore store = new SessionStore(10, 60_000);
+        GameSession session = new GameSession(gm, "client", Paytables.DEFAULT, source);
+        store.connect(Messages.connect(0, 0), session, new Object());
+        session.handle(Messages.bets(10, 5));
+        Path file = dir.resolve("state.snapshot");
+        StateSnapshot.write(file, store, source);
+        byte[] written = Files.readAllBytes(file);
+
+        byte[] flipped = written.clone();
+        flipped[40] ^= 1;
+        Files.write(file, flipped);
+        SessionStore restored = new SessionStore(10, 60_000);
+        assertThrows(IOException.class,
+                () -> StateSnapshot.restore(file, restored, gm, Paytables.DEFAULT, ShuffleSource.seeded(5L), null));
+        assertEquals(0, restored.size());
+
+        Files.write(file, java.util.Arrays.copyOf(written, written.length - 10));
+        assertThrows(IOException.class,
+                () -> StateSnapshot.restore(file, restored, gm, Paytables.DEFAULT, ShuffleSource.seeded(5L), null));
+
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class,
+                () -> StateSnapshot.restore(file, restored, gm, Paytables.DEFAULT, ShuffleSource.seeded(5L), null));
+    }
+
+    @Test
+    void testRestoresNoMoreSessionsThanTheStoreHolds() throws Exception {
+        ShuffleSource source = ShuffleSource.seeded(9L);
+        SessionStore store = new SessionStore(10, 60_000);
+        for (int i = 0; i < 10; i++) {
+            GameSession session = new GameSession(gm, "client" + i, Paytables.DEFAULT, source);
+            store.connect(Messages.connect(0, 0), session, new Object());
+        }
+        Path file = dir.resolve("state.snapshot");
+        StateSnapshot.write(file, store, source);
+
+        SessionStore smaller = new SessionStore(4, 60_000);
+        assertEquals(4, StateSnapshot.restore(file, smaller, gm, Paytables.DEFAULT, ShuffleSource.seeded(9L), null));
+        assertEquals(4, smaller.size());
+    }
+}
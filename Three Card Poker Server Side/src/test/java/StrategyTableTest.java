@@ -0,0 +1,55 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class StrategyTableTest {
+
+    @Test
+    void testBundledTableMatchesGeneratedTable() {
+        StrategyTable bundled = StrategyTable.getDefault();
+        StrategyTable generated = StrategyTable.generate();
+        for (int i = 0; i < HandTable.HAND_COUNT; i++) {
+            int hand = HandTable.handAt(i);
+            assertEquals(generated.playEv(hand), bundled.playEv(hand));
+        }
+    }
+
+    @Test
+    void testBinaryRoundTrip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StrategyTable.getDefault().write(out);
+        assertTrue(out.size() < 45_000); // Two bytes per hand plus a small header
+        StrategyTable read = StrategyTable.read(new ByteArrayInputStream(out.toByteArray()));
+        for (int i = 0; i < HandTable.HAND_COUNT; i += 97) {
+            int hand = HandTable.handAt(i);
+            assertEquals(StrategyTable.getDefault().playEv(hand), read.playEv(hand));
+        }
+    }
+
+    @Test
+    void testRejectsForeignFile() {
+        assertThrows(IOException.class, () -> StrategyTable.read(new ByteArrayInputStream(new byte[16])));
+    }
+
+    @Test
+    void testDecisionsAreSensible() {
+        int aceKingQueen = PackedHand.pack(12, 13 + 11, 26 + 10); // A Clubs, K Diamonds, Q Hearts
+        int sevenFiveTwo = PackedHand.pack(5, 13 + 3, 26 + 0);    // 7 Clubs, 5 Diamonds, 2 Hearts
+        assertTrue(ThreeCardLogic.shouldPlay(aceKingQueen));
+        assertFalse(ThreeCardLogic.shouldPlay(sevenFiveTwo));
+        assertEquals(-1.0, StrategyTable.getDefault().foldEv());
+    }
+
+    @Test
+    void testOptimalEvMatchesEnumeration() {
+        // Averaging max(EV(play), EV(fold)) over all hands reproduces the enumerated optimal EV
+        StrategyTable table = StrategyTable.getDefault();
+        double total = 0;
+        for (int i = 0; i < HandTable.HAND_COUNT; i++) {
+            total += Math.max(table.playEv(HandTable.handAt(i)), table.foldEv());
+        }
+        assertEquals(-0.188209, total / HandTable.HAND_COUNT, 1e-6);
+    }
+}
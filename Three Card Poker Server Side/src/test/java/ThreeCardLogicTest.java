@@ -1,15 +1,17 @@
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
 
 public class ThreeCardLogicTest {
 
     @Test
     void testEvalHandHighCard() {
         ArrayList<Card> hand = new ArrayList<>();
-        hand.add(new Card(2,1));
-        hand.add(new Card(5,2));
-        hand.add(new Card(9,3));
+        hand.add(Card.of(2,1));
+        hand.add(Card.of(5,2));
+        hand.add(Card.of(9,3));
         int rank = ThreeCardLogic.evalHand(hand);
         assertEquals(1, rank); // High card
     }
@@ -17,9 +19,9 @@ public class ThreeCardLogicTest {
     @Test
     void testEvalHandPair() {
         ArrayList<Card> hand = new ArrayList<>();
-        hand.add(new Card(10,1));
-        hand.add(new Card(10,2));
-        hand.add(new Card(5,3));
+        hand.add(Card.of(10,1));
+        hand.add(Card.of(10,2));
+        hand.add(Card.of(5,3));
         int rank = ThreeCardLogic.evalHand(hand);
         assertEquals(2, rank); // Pair
     }
@@ -27,9 +29,9 @@ public class ThreeCardLogicTest {
     @Test
     void testEvalHandFlush() {
         ArrayList<Card> hand = new ArrayList<>();
-        hand.add(new Card(2,3));
-        hand.add(new Card(6,3));
-        hand.add(new Card(9,3));
+        hand.add(Card.of(2,3));
+        hand.add(Card.of(6,3));
+        hand.add(Card.of(9,3));
         int rank = ThreeCardLogic.evalHand(hand);
         assertEquals(3, rank); // Flush
     }
@@ -37,9 +39,9 @@ public class ThreeCardLogicTest {
     @Test
     void testEvalHandStraight() {
         ArrayList<Card> hand = new ArrayList<>();
-        hand.add(new Card(4,1));
-        hand.add(new Card(5,2));
-        hand.add(new Card(6,4));
+        hand.add(Card.of(4,1));
+        hand.add(Card.of(5,2));
+        hand.add(Card.of(6,4));
         int rank = ThreeCardLogic.evalHand(hand);
         assertEquals(4, rank); // Straight
     }
@@ -47,9 +49,9 @@ public class ThreeCardLogicTest {
     @Test
     void testEvalHandThreeOfKind() {
         ArrayList<Card> hand = new ArrayList<>();
-        hand.add(new Card(7,1));
-        hand.add(new Card(7,2));
-        hand.add(new Card(7,3));
+        hand.add(Card.of(7,1));
+        hand.add(Card.of(7,2));
+        hand.add(Card.of(7,3));
         int rank = ThreeCardLogic.evalHand(hand);
         assertEquals(5, rank); // Three of a Kind
     }
@@ -57,9 +59,9 @@ public class ThreeCardLogicTest {
     @Test
     void testEvalHandStraightFlush() {
         ArrayList<Card> hand = new ArrayList<>();
-        hand.add(new Card(5,4));
-        hand.add(new Card(6,4));
-        hand.add(new Card(7,4));
+        hand.add(Card.of(5,4));
+        hand.add(Card.of(6,4));
+        hand.add(Card.of(7,4));
         int rank = ThreeCardLogic.evalHand(hand);
         assertEquals(6, rank); // Straight Flush
     }
@@ -67,16 +69,16 @@ public class ThreeCardLogicTest {
     @Test
     void testEvalPPWinnings() {
         ArrayList<Card> pairHand = new ArrayList<>();
-        pairHand.add(new Card(10,1));
-        pairHand.add(new Card(10,2));
-        pairHand.add(new Card(5,3));
+        pairHand.add(Card.of(10,1));
+        pairHand.add(Card.of(10,2));
+        pairHand.add(Card.of(5,3));
         // Pair = 2 rank
         assertEquals(10, ThreeCardLogic.evalPPWinnings(pairHand, 10));
 
         ArrayList<Card> flushHand = new ArrayList<>();
-        flushHand.add(new Card(2,3));
-        flushHand.add(new Card(6,3));
-        flushHand.add(new Card(9,3));
+        flushHand.add(Card.of(2,3));
+        flushHand.add(Card.of(6,3));
+        flushHand.add(Card.of(9,3));
         // Flush = rank 3 = 3 to 1 payout
         assertEquals(30, ThreeCardLogic.evalPPWinnings(flushHand, 10));
     }
@@ -84,14 +86,14 @@ public class ThreeCardLogicTest {
     @Test
     void testCompareHands() {
         ArrayList<Card> dealer = new ArrayList<>();
-        dealer.add(new Card(10,1));
-        dealer.add(new Card(10,2));
-        dealer.add(new Card(4,3));
+        dealer.add(Card.of(10,1));
+        dealer.add(Card.of(10,2));
+        dealer.add(Card.of(4,3));
 
         ArrayList<Card> player = new ArrayList<>();
-        player.add(new Card(11,1)); // J
-        player.add(new Card(11,2)); // J
-        player.add(new Card(5,4));
+        player.add(Card.of(11,1)); // J
+        player.add(Card.of(11,2)); // J
+        player.add(Card.of(5,4));
 
         int res = ThreeCardLogic.compareHands(dealer, player);
         assertEquals(1, res); // Player should win since Jacks outrank Tens
@@ -100,9 +102,9 @@ public class ThreeCardLogicTest {
     @Test
     void testDealerQualifies() {
         ArrayList<Card> dealer = new ArrayList<>();
-        dealer.add(new Card(12,2)); // Q
-        dealer.add(new Card(9,4));
-        dealer.add(new Card(5,1));
+        dealer.add(Card.of(12,2)); // Q
+        dealer.add(Card.of(9,4));
+        dealer.add(Card.of(5,1));
         assertTrue(ThreeCardLogic.dealerQualifies(dealer));
     }
 
@@ -112,9 +114,9 @@ public class ThreeCardLogicTest {
     void testEvalPPWinningsNoWinnings() {
         // High card only, no pair plus winnings
         ArrayList<Card> hand = new ArrayList<>();
-        hand.add(new Card(2,1));
-        hand.add(new Card(3,2));
-        hand.add(new Card(8,3));
+        hand.add(Card.of(2,1));
+        hand.add(Card.of(3,2));
+        hand.add(Card.of(8,3));
         assertEquals(0, ThreeCardLogic.evalPPWinnings(hand, 10));
     }
 
@@ -122,9 +124,9 @@ public class ThreeCardLogicTest {
     void testEvalPPWinningsStraightFlush() {
         // Straight flush = 40 to 1
         ArrayList<Card> hand = new ArrayList<>();
-        hand.add(new Card(5,4));
-        hand.add(new Card(6,4));
-        hand.add(new Card(7,4));
+        hand.add(Card.of(5,4));
+        hand.add(Card.of(6,4));
+        hand.add(Card.of(7,4));
         assertEquals(400, ThreeCardLogic.evalPPWinnings(hand, 10));
     }
 
@@ -132,14 +134,14 @@ public class ThreeCardLogicTest {
     void testCompareHandsTieSameHighCard() {
         // Both high card hands with same exact cards
         ArrayList<Card> dealer = new ArrayList<>();
-        dealer.add(new Card(2,1));
-        dealer.add(new Card(5,2));
-        dealer.add(new Card(9,3));
+        dealer.add(Card.of(2,1));
+        dealer.add(Card.of(5,2));
+        dealer.add(Card.of(9,3));
 
         ArrayList<Card> player = new ArrayList<>();
-        player.add(new Card(2,4));
-        player.add(new Card(5,1));
-        player.add(new Card(9,2));
+        player.add(Card.of(2,4));
+        player.add(Card.of(5,1));
+        player.add(Card.of(9,2));
 
         // Sort doesn't care about suits, only ranks when tied
         int res = ThreeCardLogic.compareHands(dealer, player);
@@ -150,14 +152,14 @@ public class ThreeCardLogicTest {
     void testCompareHandsDealerWins() {
         // Dealer has a pair, player has high card
         ArrayList<Card> dealer = new ArrayList<>();
-        dealer.add(new Card(10,1));
-        dealer.add(new Card(10,3));
-        dealer.add(new Card(4,2));
+        dealer.add(Card.of(10,1));
+        dealer.add(Card.of(10,3));
+        dealer.add(Card.of(4,2));
 
         ArrayList<Card> player = new ArrayList<>();
-        player.add(new Card(2,1));
-        player.add(new Card(7,2));
-        player.add(new Card(8,3));
+        player.add(Card.of(2,1));
+        player.add(Card.of(7,2));
+        player.add(Card.of(8,3));
 
         int res = ThreeCardLogic.compareHands(dealer, player);
         assertEquals(-1, res); // Dealer wins
@@ -167,9 +169,9 @@ public class ThreeCardLogicTest {
     void testDealerQualifiesLow() {
         // Dealer highest card less than Q should not qualify
         ArrayList<Card> dealer = new ArrayList<>();
-        dealer.add(new Card(11,4)); // J high only
-        dealer.add(new Card(5,1));
-        dealer.add(new Card(3,2));
+        dealer.add(Card.of(11,4)); // J high only
+        dealer.add(Card.of(5,1));
+        dealer.add(Card.of(3,2));
         assertFalse(ThreeCardLogic.dealerQualifies(dealer));
     }
 
@@ -177,9 +179,9 @@ public class ThreeCardLogicTest {
     void testDealerQualifiesHighAce() {
         // Dealer has Ace high
         ArrayList<Card> dealer = new ArrayList<>();
-        dealer.add(new Card(14,4)); // A
-        dealer.add(new Card(2,1));
-        dealer.add(new Card(3,2));
+        dealer.add(Card.of(14,4)); // A
+        dealer.add(Card.of(2,1));
+        dealer.add(Card.of(3,2));
         assertTrue(ThreeCardLogic.dealerQualifies(dealer));
     }
 
@@ -187,14 +189,14 @@ public class ThreeCardLogicTest {
     void testCompareHandsFlushTie() {
         // Both flush, check highest card
         ArrayList<Card> dealer = new ArrayList<>();
-        dealer.add(new Card(2,3));
-        dealer.add(new Card(6,3));
-        dealer.add(new Card(9,3));
+        dealer.add(Card.of(2,3));
+        dealer.add(Card.of(6,3));
+        dealer.add(Card.of(9,3));
 
         ArrayList<Card> player = new ArrayList<>();
-        player.add(new Card(2,4));
-        player.add(new Card(7,4));
-        player.add(new Card(9,4));
+        player.add(Card.of(2,4));
+        player.add(Card.of(7,4));
+        player.add(Card.of(9,4));
 
         // Compare flushes: dealer highest 9, player highest 9, next highest dealer 6 vs player 7, player should win
         int res = ThreeCardLogic.compareHands(dealer, player);
@@ -205,14 +207,14 @@ public class ThreeCardLogicTest {
     void testCompareHandsSameStraight() {
         // Same straight, exact ranks -> tie
         ArrayList<Card> dealer = new ArrayList<>();
-        dealer.add(new Card(4,1));
-        dealer.add(new Card(5,2));
-        dealer.add(new Card(6,3));
+        dealer.add(Card.of(4,1));
+        dealer.add(Card.of(5,2));
+        dealer.add(Card.of(6,3));
 
         ArrayList<Card> player = new ArrayList<>();
-        player.add(new Card(6,4));
-        player.add(new Card(5,1));
-        player.add(new Card(4,4));
+        player.add(Card.of(6,4));
+        player.add(Card.of(5,1));
+        player.add(Card.of(4,4));
 
         int res = ThreeCardLogic.compareHands(dealer, player);
         assertEquals(0, res); // Tie on identical straights
@@ -222,14 +224,14 @@ public class ThreeCardLogicTest {
     void testCompareHandsSameThreeOfKind() {
         // Both have three of a kind of the same rank
         ArrayList<Card> dealer = new ArrayList<>();
-        dealer.add(new Card(7,1));
-        dealer.add(new Card(7,2));
-        dealer.add(new Card(7,3));
+        dealer.add(Card.of(7,1));
+        dealer.add(Card.of(7,2));
+        dealer.add(Card.of(7,3));
 
         ArrayList<Card> player = new ArrayList<>();
-        player.add(new Card(7,4));
-        player.add(new Card(7,1));
-        player.add(new Card(7,2));
+        player.add(Card.of(7,4));
+        player.add(Card.of(7,1));
+        player.add(Card.of(7,2));
 
         int res = ThreeCardLogic.compareHands(dealer, player);
         assertEquals(0, res); // Exactly the same three of a kind
@@ -239,14 +241,14 @@ public class ThreeCardLogicTest {
     void testCompareHandsSamePairDifferentKicker() {
         // Both have a pair of 10s, compare kickers
         ArrayList<Card> dealer = new ArrayList<>();
-        dealer.add(new Card(10,1));
-        dealer.add(new Card(10,2));
-        dealer.add(new Card(4,3));
+        dealer.add(Card.of(10,1));
+        dealer.add(Card.of(10,2));
+        dealer.add(Card.of(4,3));
 
         ArrayList<Card> player = new ArrayList<>();
-        player.add(new Card(10,1));
-        player.add(new Card(10,3));
-        player.add(new Card(5,4));
+        player.add(Card.of(10,1));
+        player.add(Card.of(10,3));
+        player.add(Card.of(5,4));
 
         // Player kicker is 5 vs Dealer kicker 4
         int res = ThreeCardLogic.compareHands(dealer, player);
@@ -257,10 +259,372 @@ public class ThreeCardLogicTest {
     void testDealerQualifiesBoundary() {
         // Dealer highest card is exactly Q (12)
         ArrayList<Card> dealer = new ArrayList<>();
-        dealer.add(new Card(12,4)); // Q
-        dealer.add(new Card(3,1));
-        dealer.add(new Card(2,2));
+        dealer.add(Card.of(12,4)); // Q
+        dealer.add(Card.of(3,1));
+        dealer.add(Card.of(2,2));
         assertTrue(ThreeCardLogic.dealerQualifies(dealer));
     }
 
+
+    // Lookup table tests
+
+    @Test
+    void testHandTableMatchesLegacyForEveryHand() {
+        // Every one of the 22,100 hands evaluates exactly as the original sort-and-scan code
+        int count = 0;
+        for (int c2 = 2; c2 < 52; c2++) {
+            for (int c1 = 1; c1 < c2; c1++) {
+                for (int c0 = 0; c0 < c1; c0++) {
+                    ArrayList<Card> hand = hand(c0, c1, c2);
+                    assertEquals(legacyEvalHand(hand), ThreeCardLogic.evalHand(hand));
+                    assertEquals(legacyEvalPPWinnings(hand, 10), ThreeCardLogic.evalPPWinnings(hand, 10));
+                    assertEquals(legacyDealerQualifies(hand), ThreeCardLogic.dealerQualifies(hand));
+                    count++;
+                }
+            }
+        }
+        assertEquals(HandTable.HAND_COUNT, count);
+    }
+
+    @Test
+    void testHandTableIndexIsPerfectHash() {
+        boolean[] seen = new boolean[HandTable.HAND_COUNT];
+        for (int c2 = 2; c2 < 52; c2++) {
+            for (int c1 = 1; c1 < c2; c1++) {
+                for (int c0 = 0; c0 < c1; c0++) {
+                    int index = HandTable.index(c2, c0, c1); // Order must not matter
+                    assertEquals(index, HandTable.index(c0, c1, c2));
+                    assertFalse(seen[index]);
+                    seen[index] = true;
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCompareHandsMatchesLegacyOnRandomPairs() {
+        Random random = new Random(342);
+        for (int i = 0; i < 200_000; i++) {
+            ArrayList<Card> dealer = randomHand(random);
+            ArrayList<Card> player = randomHand(random);
+            int expected = legacyCompareHands(new ArrayList<>(dealer), new ArrayList<>(player));
+            assertEquals(expected, ThreeCardLogic.compareHands(dealer, player));
+        }
+    }
+
+    @Test
+    void testHandCategoryFrequencies() {
+        int[] counts = new int[7];
+        for (int i = 0; i < HandTable.HAND_COUNT; i++) {
+            counts[HandTable.category(HandTable.entryAt(i))]++;
+        }
+        assertEquals(16500, counts[ThreeCardLogic.HIGH_CARD]);
+        assertEquals(3744, counts[ThreeCardLogic.PAIR]);
+        assertEquals(1100, counts[ThreeCardLogic.FLUSH]);
+        assertEquals(660, counts[ThreeCardLogic.STRAIGHT]);
+        assertEquals(52, counts[ThreeCardLogic.THREE_OF_KIND]);
+        assertEquals(44, counts[ThreeCardLogic.STRAIGHT_FLUSH]);
+    }
+
+    @Test
+    void testEvalHandDoesNotReorderHand() {
+        ArrayList<Card> hand = new ArrayList<>();
+        hand.add(Card.of(9,1));
+        hand.add(Card.of(2,2));
+        hand.add(Card.of(5,3));
+        ThreeCardLogic.evalHand(hand);
+        assertEquals(9, hand.get(0).getRank());
+        assertEquals(2, hand.get(1).getRank());
+    }
+
+    // Packed hand tests
+
+    @Test
+    void testPackedHandRoundTrip() {
+        ArrayList<Card> hand = new ArrayList<>();
+        hand.add(Card.of(14,4)); // A of Spades
+        hand.add(Card.of(2,1));  // 2 of Clubs
+        hand.add(Card.of(10,3)); // 10 of Hearts
+        int packed = PackedHand.pack(hand);
+        ArrayList<Card> unpacked = PackedHand.toList(packed);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(hand.get(i).getRank(), unpacked.get(i).getRank());
+            assertEquals(hand.get(i).getSuit(), unpacked.get(i).getSuit());
+        }
+        assertEquals(51, PackedHand.card(packed, 0));
+        assertEquals(0, PackedHand.card(packed, 1));
+    }
+
+    @Test
+    void testPackedOverloadsMatchListApi() {
+        Random random = new Random(11);
+        for (int i = 0; i < 50_000; i++) {
+            ArrayList<Card> dealer = randomHand(random);
+            ArrayList<Card> player = randomHand(random);
+            int d = PackedHand.pack(dealer);
+            int p = PackedHand.pack(player);
+            assertEquals(ThreeCardLogic.evalHand(player), ThreeCardLogic.evalHand(p));
+            assertEquals(ThreeCardLogic.evalPPWinnings(player, 5), ThreeCardLogic.evalPPWinnings(p, 5));
+            assertEquals(ThreeCardLogic.dealerQualifies(dealer), ThreeCardLogic.dealerQualifies(d));
+            assertEquals(ThreeCardLogic.compareHands(dealer, player), ThreeCardLogic.compareHands(d, p));
+        }
+    }
+
+    @Test
+    void testPokerInfoPackedHands() {
+        PokerInfo info = new PokerInfo();
+        int hand = PackedHand.pack(12, 25, 38); // Ace of Clubs, Diamonds and Hearts
+        info.setPackedPlayerHand(hand);
+        assertEquals(hand, info.getPackedPlayerHand());
+        assertEquals(ThreeCardLogic.THREE_OF_KIND, ThreeCardLogic.evalHand(info.getPlayerHand()));
+    }
+
+    // Round settlement tests
+
+    @Test
+    void testSettleRoundMatchesSeparateCalls() {
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            ArrayList<Card> dealer = randomHand(random);
+            ArrayList<Card> player = randomHand(random);
+            boolean dq = ThreeCardLogic.dealerQualifies(dealer);
+            int expected = dq ? ThreeCardLogic.compareHands(dealer, player) : 0;
+
+            RoundResult result = ThreeCardLogic.settleRound(dealer, player, 10, 10, 5);
+            assertEquals(dq, result.isDealerQualifies());
+            assertEquals(expected, result.getOutcome());
+            assertEquals(expected * 10, result.getAntePayout());
+            assertEquals(expected * 10, result.getPlayPayout());
+            assertEquals(ThreeCardLogic.evalPPWinnings(player, 5), result.getPairPlusPayout());
+            assertEquals(ThreeCardLogic.evalHand(player), result.getPlayerCategory());
+            assertEquals(ThreeCardLogic.evalHand(dealer), result.getDealerCategory());
+
+            RoundResult packed = ThreeCardLogic.settleRound(PackedHand.pack(dealer), PackedHand.pack(player), 10, 10, 5);
+            assertEquals(result.toString(), packed.toString());
+        }
+    }
+
+    @Test
+    void testSettleSpotsMatchesSettleRound() {
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            int dealer = PackedHand.pack(randomHand(random));
+            int spots = 1 + random.nextInt(5);
+            int[] players = new int[spots];
+            int[] antes = new int[spots];
+            int[] plays = new int[spots];
+            int[] pairPlus = new int[spots];
+            for (int s = 0; s < spots; s++) {
+                players[s] = PackedHand.pack(randomHand(random));
+                antes[s] = 5 + random.nextInt(21);
+                plays[s] = random.nextBoolean() ? antes[s] : 0;
+                pairPlus[s] = random.nextInt(26);
+            }
+            RoundResult[] results = ThreeCardLogic.settleSpots(dealer, players, antes, plays, pairPlus,
+                    Paytable.STANDARD_PAIR_PLUS, Paytable.NO_ANTE_BONUS);
+            assertEquals(spots, results.length);
+            for (int s = 0; s < spots; s++) {
+                assertEquals(ThreeCardLogic.settleRound(dealer, players[s], antes[s], plays[s], pairPlus[s]).toString(),
+                        results[s].toString());
+            }
+        }
+    }
+
+    @Test
+    void testSettleRoundDealerNotQualified() {
+        ArrayList<Card> dealer = new ArrayList<>();
+        dealer.add(Card.of(11,4)); // J high only
+        dealer.add(Card.of(5,1));
+        dealer.add(Card.of(3,2));
+
+        ArrayList<Card> player = new ArrayList<>();
+        player.add(Card.of(2,1));
+        player.add(Card.of(7,2));
+        player.add(Card.of(8,3));
+
+        RoundResult result = ThreeCardLogic.settleRound(dealer, player, 10, 10, 0);
+        assertFalse(result.isDealerQualifies());
+        assertEquals(0, result.getOutcome()); // Push even though the dealer holds the better hand
+        assertEquals(0, result.getAntePayout());
+    }
+
+    // Immutable Hand tests
+
+    @Test
+    void testHandCanonicalOrderAndEquality() {
+        Hand a = Hand.of(Card.of(9,1), Card.of(2,3), Card.of(9,2));
+        Hand b = Hand.of(Card.of(2,3), Card.of(9,2), Card.of(9,1));
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(2, a.getCard(0).getRank());
+        assertEquals(1, a.getCard(1).getSuit()); // 9 of Clubs before 9 of Diamonds
+        assertEquals(2, a.getCard(2).getSuit());
+        assertEquals(ThreeCardLogic.PAIR, ThreeCardLogic.evalHand(a));
+    }
+
+    @Test
+    void testHandDoesNotModifySourceList() {
+        ArrayList<Card> cards = new ArrayList<>();
+        cards.add(Card.of(13,1));
+        cards.add(Card.of(4,2));
+        cards.add(Card.of(7,3));
+        Hand hand = Hand.of(cards);
+        assertEquals(13, cards.get(0).getRank());
+        assertThrows(UnsupportedOperationException.class, () -> hand.getCards().clear());
+        assertThrows(IllegalArgumentException.class, () -> Hand.of(new ArrayList<>(cards.subList(0, 2))));
+    }
+
+    @Test
+    void testHandApiMatchesListApi() {
+        Random random = new Random(99);
+        for (int i = 0; i < 50_000; i++) {
+            ArrayList<Card> dealer = randomHand(random);
+            ArrayList<Card> player = randomHand(random);
+            Hand d = Hand.of(dealer);
+            Hand p = Hand.ofPacked(PackedHand.pack(player));
+            assertEquals(ThreeCardLogic.evalHand(player), ThreeCardLogic.evalHand(p));
+            assertEquals(ThreeCardLogic.evalPPWinnings(player, 5), ThreeCardLogic.evalPPWinnings(p, 5));
+            assertEquals(ThreeCardLogic.dealerQualifies(dealer), ThreeCardLogic.dealerQualifies(d));
+            assertEquals(ThreeCardLogic.compareHands(dealer, player), ThreeCardLogic.compareHands(d, p));
+            assertEquals(ThreeCardLogic.settleRound(dealer, player, 5, 5, 5).toString(),
+                    ThreeCardLogic.settleRound(d, p, 5, 5, 5).toString());
+        }
+    }
+
+    // Batch evaluation tests
+
+    @Test
+    void testEvalHandsMatchesEvalHandForEveryHand() {
+        int[] packed = new int[HandTable.HAND_COUNT + 5]; // Odd length exercises the scalar tail
+        int n = 0;
+        for (int c2 = 2; c2 < 52; c2++) {
+            for (int c1 = 1; c1 < c2; c1++) {
+                for (int c0 = 0; c0 < c1; c0++) {
+                    packed[n++] = PackedHand.pack(c2, c0, c1);
+                }
+            }
+        }
+        for (; n < packed.length; n++) {
+            packed[n] = PackedHand.pack(n % 52, (n + 13) % 52, (n + 26) % 52); // Same rank, three suits
+        }
+        int[] vector = new int[packed.length];
+        int[] scalar = new int[packed.length];
+        ThreeCardLogic.evalHands(packed, vector);
+        ThreeCardLogic.evalHandsScalar(packed, scalar);
+        for (int i = 0; i < packed.length; i++) {
+            assertEquals(ThreeCardLogic.evalHand(packed[i]), vector[i]);
+            assertEquals(ThreeCardLogic.evalHand(packed[i]), scalar[i]);
+        }
+    }
+
+    @Test
+    void testVectorEvaluationEnabledInTests() {
+        // Surefire runs with --add-modules jdk.incubator.vector
+        assertTrue(ThreeCardLogic.isVectorEvaluationAvailable());
+    }
+
+    // Multi-deck hands holding the same card more than once
+
+    @Test
+    void testDuplicateCardHands() {
+        // Ordinals: K spades = 50, 5 spades = 42, K hearts = 37
+        assertEquals(ThreeCardLogic.THREE_OF_KIND, ThreeCardLogic.evalHand(hand(50, 50, 50))); // Suited trips
+        assertEquals(ThreeCardLogic.THREE_OF_KIND, ThreeCardLogic.evalHand(hand(50, 50, 37)));
+        assertEquals(ThreeCardLogic.FLUSH, ThreeCardLogic.evalHand(hand(50, 42, 50)));  // Suited pair: flush beats pair
+        assertEquals(ThreeCardLogic.PAIR, ThreeCardLogic.evalHand(hand(50, 42, 37)));
+        assertEquals(30 * 5, ThreeCardLogic.evalPPWinnings(hand(50, 50, 50), 5)); // Pays as three of a kind
+        // Suited trips beat ordinary trips of a lower rank and tie the same rank
+        assertEquals(1, ThreeCardLogic.compareHands(hand(49, 36, 23), hand(50, 50, 50)));
+        assertEquals(0, ThreeCardLogic.compareHands(hand(50, 37, 24), hand(50, 50, 50)));
+    }
+
+    @Test
+    void testDuplicateHandsMatchLegacyAndAllPaths() {
+        Random random = new Random(14);
+        int[] packed = new int[1001];
+        for (int i = 0; i < packed.length; i++) {
+            int a = random.nextInt(52);
+            int b = random.nextBoolean() ? a : random.nextInt(52);
+            int c = random.nextInt(4) == 0 ? a : random.nextInt(52);
+            ArrayList<Card> cards = hand(a, b, c);
+            packed[i] = PackedHand.pack(a, b, c);
+            int expected = legacyEvalHand(new ArrayList<>(cards));
+            assertEquals(expected, ThreeCardLogic.evalHand(cards));
+            assertEquals(expected, ThreeCardLogic.evalHand(packed[i]));
+            assertEquals(expected, ThreeCardLogic.evalHand(Hand.of(cards)));
+        }
+        int[] ranks = new int[packed.length];
+        ThreeCardLogic.evalHands(packed, ranks);
+        for (int i = 0; i < packed.length; i++) {
+            assertEquals(ThreeCardLogic.evalHand(packed[i]), ranks[i]);
+        }
+    }
+
+    @Test
+    void testStrategyPlaysDuplicateHands() {
+        int suitedPair = PackedHand.pack(50, 42, 50);
+        assertTrue(PackedHand.hasDuplicates(suitedPair));
+        assertFalse(PackedHand.hasDuplicates(PackedHand.pack(50, 42, 37)));
+        assertTrue(StrategyTable.getDefault().shouldPlay(suitedPair));
+        assertThrows(IllegalArgumentException.class, () -> StrategyTable.getDefault().playEv(suitedPair));
+    }
+
+    private static ArrayList<Card> hand(int... ordinals) {
+        ArrayList<Card> hand = new ArrayList<>();
+        for (int o : ordinals) {
+            hand.add(Card.of(HandTable.rankOf(o), HandTable.suitOf(o)));
+        }
+        return hand;
+    }
+
+    private static ArrayList<Card> randomHand(Random random) {
+        int a = random.nextInt(52);
+        int b, c;
+        do { b = random.nextInt(52); } while (b == a);
+        do { c = random.nextInt(52); } while (c == a || c == b);
+        return hand(a, b, c);
+    }
+
+    // Reference implementation: the original sort-and-scan evaluator
+
+    private static int legacyEvalHand(ArrayList<Card> hand) {
+        hand.sort(Comparator.comparingInt(Card::getRank));
+        int r1 = hand.get(0).getRank(), r2 = hand.get(1).getRank(), r3 = hand.get(2).getRank();
+        int s = hand.get(0).getSuit();
+        boolean flush = hand.get(1).getSuit() == s && hand.get(2).getSuit() == s;
+        boolean straight = r2 == r1 + 1 && r3 == r2 + 1;
+        boolean threeKind = r1 == r2 && r2 == r3;
+        boolean pair = r1 == r2 || r2 == r3 || r1 == r3;
+        if (straight && flush) return 6;
+        if (threeKind) return 5;
+        if (straight) return 4;
+        if (flush) return 3;
+        if (pair) return 2;
+        return 1;
+    }
+
+    private static int legacyEvalPPWinnings(ArrayList<Card> hand, int bet) {
+        int[] multipliers = {0, 0, 1, 3, 6, 30, 40};
+        return bet * multipliers[legacyEvalHand(hand)];
+    }
+
+    private static boolean legacyDealerQualifies(ArrayList<Card> dealer) {
+        dealer.sort(Comparator.comparingInt(Card::getRank));
+        return dealer.get(2).getRank() >= 12;
+    }
+
+    private static int legacyCompareHands(ArrayList<Card> dealer, ArrayList<Card> player) {
+        int dealerRank = legacyEvalHand(dealer);
+        int playerRank = legacyEvalHand(player);
+        if (playerRank != dealerRank) {
+            return playerRank > dealerRank ? 1 : -1;
+        }
+        for (int i = 2; i >= 0; i--) {
+            int pRank = player.get(i).getRank();
+            int dRank = dealer.get(i).getRank();
+            if (pRank != dRank) return pRank > dRank ? 1 : -1;
+        }
+        return 0;
+    }
+
 }